@@ -0,0 +1,328 @@
+package todolist;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Counters, latency histograms and gauges for the running application.
+ * <p>
+ * Recording is lock-free: counters are {@link LongAdder}s and histograms
+ * are arrays of atomic buckets (log-linear, about 12% wide), so
+ * instrumented code pays an atomic add or two and never blocks. Metrics
+ * are created by name once, typically into a static field, and read
+ * through JMX ({@link #registerMBean()}, as {@code todolist:type=Metrics})
+ * or with JFR: every {@link Span} is also a {@code todolist.Operation}
+ * event, and gauges are sampled as {@code todolist.Gauge} events once per
+ * second while a recording is running.
+ */
+public final class AppMetrics {
+    private static final Logger LOG = Logger.getLogger(AppMetrics.class.getName());
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    static {
+        FlightRecorder.addPeriodicEvent(GaugeEvent.class, AppMetrics::emitGauges);
+    }
+
+    private AppMetrics() {
+    }
+
+    /** The counter called {@code name}, created on first use. */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /** The latency histogram called {@code name}, created on first use. */
+    public static Histogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, Histogram::new);
+    }
+
+    /** Publishes a value that is read whenever it is asked for; replaces a gauge with the same name. */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    public static void removeGauge(String name) {
+        GAUGES.remove(name);
+    }
+
+    /** Every metric's current value: counters, gauges and histogram summaries (in ns). */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.get()));
+        GAUGES.forEach((name, gauge) -> values.put(name, readGauge(name, gauge)));
+        HISTOGRAMS.forEach((name, histogram) -> {
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".p50", histogram.getPercentile(0.50));
+            values.put(name + ".p99", histogram.getPercentile(0.99));
+            values.put(name + ".max", histogram.getMax());
+        });
+        return values;
+    }
+
+    private static long readGauge(String name, LongSupplier gauge) {
+        try {
+            return gauge.getAsLong();
+        } catch (RuntimeException e) {
+            LOG.log(Level.FINE, "Gauge " + name + " failed", e);
+            return -1;
+        }
+    }
+
+    // --- Metric types ---
+
+    public static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        private Counter() {
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long n) {
+            count.add(n);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /** Distribution of durations in nanoseconds. */
+    public static final class Histogram {
+        // Values below 16 have a bucket each; above, every power of two is split in 8
+        private static final int SUB_BUCKETS = 8;
+        private static final int BUCKETS = 16 + (63 - 4) * SUB_BUCKETS;
+
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram(String name) {
+            this.name = name;
+        }
+
+        public void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(bucket(value));
+            count.increment();
+            sum.add(value);
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+
+        /** Starts timing one operation; closing the span records it. */
+        public Span time() {
+            return new Span(this);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public long getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : sum.sum() / n;
+        }
+
+        /** Upper bound of the bucket holding the given quantile, e.g. 0.99. */
+        public long getPercentile(double quantile) {
+            long total = 0;
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        private static int bucket(long value) {
+            if (value < 16) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value); // >= 4
+            int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+            return 16 + (exponent - 4) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < 16) {
+                return bucket;
+            }
+            int exponent = (bucket - 16) / SUB_BUCKETS + 4;
+            int sub = (bucket - 16) % SUB_BUCKETS;
+            long width = 1L << (exponent - 3);
+            return (1L << exponent) + (sub + 1) * width - 1;
+        }
+    }
+
+    /** One timed operation, recorded into its histogram and JFR when closed. */
+    public static final class Span implements AutoCloseable {
+        private final Histogram histogram;
+        private final long start = System.nanoTime();
+        private final OperationEvent event = new OperationEvent();
+
+        private Span(Histogram histogram) {
+            this.histogram = histogram;
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            histogram.record(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.operation = histogram.name;
+                event.commit();
+            }
+        }
+    }
+
+    // --- JFR ---
+
+    @Name("todolist.Operation")
+    @Label("To-Do Operation")
+    @jdk.jfr.Category("To-Do List")
+    @StackTrace(false)
+    static final class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+    }
+
+    @Name("todolist.Gauge")
+    @Label("To-Do Gauge")
+    @jdk.jfr.Category("To-Do List")
+    @Period("1 s")
+    @StackTrace(false)
+    static final class GaugeEvent extends Event {
+        @Label("Name")
+        String name;
+
+        @Label("Value")
+        long value;
+    }
+
+    private static void emitGauges() {
+        GAUGES.forEach((name, gauge) -> {
+            GaugeEvent event = new GaugeEvent();
+            event.name = name;
+            event.value = readGauge(name, gauge);
+            event.commit();
+        });
+    }
+
+    // --- JMX ---
+
+    /** Registers every metric as an attribute of the {@code todolist:type=Metrics} MBean. */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("todolist:type=Metrics");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(), name);
+            }
+        } catch (JMException e) {
+            LOG.log(Level.WARNING, "Could not register the metrics MBean", e);
+        }
+    }
+
+    // Attributes follow the metrics that exist when the MBean info is asked for
+    private static final class MetricsMBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Long value = snapshot().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Long> values = snapshot();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                Long value = values.get(attribute);
+                if (value != null) {
+                    list.add(new Attribute(attribute, value));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (String name : snapshot().keySet()) {
+                String description = HISTOGRAMS.containsKey(name.substring(0, Math.max(0, name.lastIndexOf('.'))))
+                        ? "Latency in ns" : "Current value";
+                attributes.add(new MBeanAttributeInfo(name, "long", description, true, false, false));
+            }
+            return new MBeanInfo(AppMetrics.class.getName(), "To-Do List runtime metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}
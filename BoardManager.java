@@ -0,0 +1,296 @@
+package todolist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The boards kept in one data directory, of which one is current.
+ * <p>
+ * The default board lives in the data directory itself, where a single
+ * board always was, and every other board in {@code boards/<name>}; each
+ * has its own {@link TaskJournal}. A board is loaded when it is first
+ * opened and stays resident, so switching back to it costs nothing, until
+ * the estimated heap of the resident boards exceeds the budget. Then idle
+ * boards are evicted by the {@link EvictionPolicy}: their journals are
+ * closed, which writes out everything pending, and their repositories are
+ * dropped to be reloaded from disk when they are opened again. The current
+ * board is never evicted.
+ * <p>
+ * Members and categories are interned ({@link GroupMember#of},
+ * {@link Category#of}), so a person on several boards is one object no
+ * matter how many boards are resident.
+ * <p>
+ * Runs on the EDT, like the repositories it loads.
+ */
+public class BoardManager {
+
+    public static final String DEFAULT_BOARD = "Default";
+
+    // Heap of a resident board, measured with the indexes the window attaches to it
+    static final long ESTIMATED_TASK_BYTES = 1280;
+    static final long ESTIMATED_BOARD_BYTES = 64 * 1024;
+
+    private static final Pattern BOARD_NAME = Pattern.compile("[\\p{L}\\p{N}_\\- ]{1,64}");
+    private static final AppMetrics.Histogram LOAD_TIME = AppMetrics.histogram("boards.load");
+
+    /** Which idle board goes first when the resident boards are over budget. */
+    public enum EvictionPolicy {
+        /** The board that was current longest ago. */
+        LEAST_RECENTLY_USED,
+        /** The board with the most tasks, so that as few boards as possible are reloaded. */
+        LARGEST
+    }
+
+    public interface BoardListener {
+        default void boardLoaded(Board board) {}
+
+        /** Called before the board's repository is dropped; listeners let go of it here. */
+        default void boardEvicted(Board board) {}
+    }
+
+    /** One board; its repository is only there while it is resident. */
+    public static final class Board {
+        private final String name;
+        private final Path directory;
+        private volatile TaskRepository repository;
+        private TaskJournal journal;
+        private long lastUsed;
+
+        private Board(String name, Path directory) {
+            this.name = name;
+            this.directory = directory;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public boolean isResident() {
+            return repository != null;
+        }
+
+        /** The board's tasks; only valid while it is resident. */
+        public TaskRepository getRepository() {
+            if (repository == null) {
+                throw new IllegalStateException("Board " + name + " is not loaded");
+            }
+            return repository;
+        }
+
+        /** Saves the board's changes; only valid while it is resident. */
+        public TaskJournal getJournal() {
+            if (journal == null) {
+                throw new IllegalStateException("Board " + name + " is not loaded");
+            }
+            return journal;
+        }
+
+        /** True if the board had nothing saved when it was loaded, e.g. because it is new. */
+        public boolean wasEmpty() {
+            return journal.wasEmpty();
+        }
+
+        /** Estimated heap of the board while it is resident. */
+        public long getEstimatedBytes() {
+            return repository == null ? 0 : ESTIMATED_BOARD_BYTES + repository.size() * ESTIMATED_TASK_BYTES;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final Path directory;
+    private final long budgetBytes;
+    private final EvictionPolicy policy;
+    private final Map<String, Board> boards = new LinkedHashMap<>();
+    private final List<Board> resident = new CopyOnWriteArrayList<>(); // also read by the gauges
+    private final List<BoardListener> listeners = new CopyOnWriteArrayList<>();
+    private final AppMetrics.Counter evictions;
+    private Board current;
+    private long clock;
+
+    public BoardManager(Path directory, long budgetBytes, EvictionPolicy policy) {
+        this.directory = directory;
+        this.budgetBytes = budgetBytes;
+        this.policy = policy;
+        // The counter's name tells which policy is in effect
+        evictions = AppMetrics.counter("boards.evictions." + policy.name().toLowerCase(Locale.ROOT));
+        AppMetrics.gauge("boards.resident", resident::size);
+        AppMetrics.gauge("boards.residentBytes", this::getResidentBytes);
+        AppMetrics.gauge("boards.budgetBytes", () -> budgetBytes);
+    }
+
+    /** A manager for the window's data directory, configured by -Dtodolist.boardBudget and -Dtodolist.boardEviction. */
+    public static BoardManager fromSystemProperties(Path directory) {
+        String budget = System.getProperty("todolist.boardBudget");
+        String policy = System.getProperty("todolist.boardEviction");
+        return new BoardManager(directory,
+                budget != null ? parseBytes(budget) : Runtime.getRuntime().maxMemory() / 2,
+                policy != null ? EvictionPolicy.valueOf(policy.trim().toUpperCase(Locale.ROOT)) : EvictionPolicy.LEAST_RECENTLY_USED);
+    }
+
+    /** Parses sizes such as 512m or 2g. */
+    static long parseBytes(String text) {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        int shift = switch (value.isEmpty() ? ' ' : value.charAt(value.length() - 1)) {
+            case 'k' -> 10;
+            case 'm' -> 20;
+            case 'g' -> 30;
+            default -> 0;
+        };
+        if (shift > 0) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return Long.parseLong(value) << shift;
+    }
+
+    public void addListener(BoardListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BoardListener listener) {
+        listeners.remove(listener);
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public Board getCurrent() {
+        return current;
+    }
+
+    /** The default board, then every other board saved in the data directory or opened this session. */
+    public List<String> getBoardNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_BOARD);
+        Path boardsDirectory = directory.resolve("boards");
+        if (Files.isDirectory(boardsDirectory)) {
+            try (Stream<Path> entries = Files.list(boardsDirectory)) {
+                entries.filter(Files::isDirectory)
+                        .map(entry -> entry.getFileName().toString())
+                        .filter(name -> BOARD_NAME.matcher(name).matches() && !name.equals(DEFAULT_BOARD))
+                        .sorted()
+                        .forEach(names::add);
+            }
+        }
+        for (String name : boards.keySet()) {
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    public boolean isValidName(String name) {
+        return name != null && BOARD_NAME.matcher(name).matches() && !name.isBlank();
+    }
+
+    /**
+     * Makes the board called {@code name} current, loading or creating it if
+     * it is not resident, then evicts idle boards while over budget.
+     *
+     * @throws IllegalArgumentException if the name cannot be a directory name
+     * @throws IOException if the board cannot be loaded; the current board stays current
+     */
+    public Board open(String name) throws IOException {
+        if (!isValidName(name)) {
+            throw new IllegalArgumentException("Board names are letters, digits, spaces, '-' and '_': " + name);
+        }
+        Board board = boards.computeIfAbsent(name, n -> new Board(n,
+                n.equals(DEFAULT_BOARD) ? directory : directory.resolve("boards").resolve(n)));
+        if (!board.isResident()) {
+            load(board);
+        }
+        board.lastUsed = ++clock;
+        current = board;
+        evictOverBudget();
+        return board;
+    }
+
+    private void load(Board board) throws IOException {
+        AppMetrics.Span span = LOAD_TIME.time();
+        try {
+            TaskRepository repository = new TaskRepository();
+            board.journal = TaskJournal.open(board.directory, repository);
+            board.repository = repository;
+            resident.add(board);
+        } finally {
+            span.close();
+        }
+        for (BoardListener listener : listeners) {
+            listener.boardLoaded(board);
+        }
+    }
+
+    /** Sum of the estimates of every resident board. */
+    public long getResidentBytes() {
+        long bytes = 0;
+        for (Board board : resident) {
+            bytes += board.getEstimatedBytes();
+        }
+        return bytes;
+    }
+
+    /** Evicts idle boards, in policy order, until the resident boards fit the budget. */
+    public void evictOverBudget() {
+        long bytes = getResidentBytes();
+        while (bytes > budgetBytes) {
+            Board victim = null;
+            for (Board board : resident) {
+                if (board != current && (victim == null || comesFirst(board, victim))) {
+                    victim = board;
+                }
+            }
+            if (victim == null) {
+                return; // only the current board is left
+            }
+            bytes -= victim.getEstimatedBytes();
+            evict(victim);
+        }
+    }
+
+    private boolean comesFirst(Board board, Board other) {
+        return switch (policy) {
+            case LEAST_RECENTLY_USED -> board.lastUsed < other.lastUsed;
+            case LARGEST -> board.repository.size() > other.repository.size();
+        };
+    }
+
+    private void evict(Board board) {
+        for (BoardListener listener : listeners) {
+            listener.boardEvicted(board);
+        }
+        resident.remove(board);
+        board.journal.close();
+        board.journal = null;
+        board.repository = null;
+        evictions.increment();
+    }
+
+    /** Closes every resident board's journal, e.g. on exit. */
+    public void close() {
+        for (Board board : resident) {
+            board.journal.close();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package todolist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Plain-data view of a whole board: what the journal writer keeps in memory
+ * to produce snapshots, and what startup rebuilds from disk before
+ * populating a {@link TaskRepository}.
+ * <p>
+ * Tasks are a memory-mapped {@link SnapshotFile.Reader} base plus an overlay
+ * of the records changed or removed since that snapshot, so the mirror costs
+ * little heap no matter how large the board is. Dependencies between tasks
+ * are kept the same way, by task id; those of removed tasks stay until
+ * {@link SnapshotFile#write} leaves them out, so undoing a removal finds
+ * them in place.
+ * <p>
+ * Not thread-safe; it is owned by one thread at a time.
+ */
+public class BoardState {
+
+    /** A dependency: the task {@code dependent} waits for {@code prerequisite}. */
+    public record Link(long prerequisite, long dependent) {
+    }
+
+    private final Set<String> categories = new LinkedHashSet<>();
+    private final Map<String, Boolean> members = new LinkedHashMap<>(); // name -> is leader
+    private SnapshotFile.Reader base;
+    private final Map<Long, TaskRecord> changed = new LinkedHashMap<>();
+    private final Set<Long> removed = new HashSet<>();
+    private final Set<Link> addedLinks = new LinkedHashSet<>();
+    private final Set<Link> removedLinks = new HashSet<>();
+
+    public BoardState() {
+    }
+
+    public BoardState(SnapshotFile.Reader base) {
+        rebase(base);
+    }
+
+    /**
+     * Makes {@code snapshot} the new base. It must contain everything this
+     * state holds, e.g. because it was just written from it.
+     */
+    public void rebase(SnapshotFile.Reader snapshot) {
+        base = snapshot;
+        changed.clear();
+        removed.clear();
+        addedLinks.clear();
+        removedLinks.clear();
+        categories.clear();
+        members.clear();
+        categories.addAll(snapshot.getCategories());
+        List<String> names = snapshot.getMembers();
+        for (int i = 0; i < names.size(); i++) {
+            members.put(names.get(i), snapshot.isLeader(i));
+        }
+    }
+
+    public SnapshotFile.Reader getBase() {
+        return base;
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty() && members.isEmpty() && changed.isEmpty() && (base == null || base.size() == 0);
+    }
+
+    /** Visits the current version of every task, snapshot order first. */
+    public void forEachTask(Consumer<TaskRecord> action) {
+        Set<Long> emitted = new HashSet<>();
+        if (base != null) {
+            for (int row = 0; row < base.size(); row++) {
+                long id = base.id(row);
+                if (removed.contains(id)) {
+                    continue;
+                }
+                TaskRecord newer = changed.get(id);
+                if (newer != null) {
+                    emitted.add(id);
+                    action.accept(newer);
+                } else {
+                    action.accept(base.record(row));
+                }
+            }
+        }
+        for (TaskRecord task : changed.values()) {
+            if (!emitted.contains(task.id())) {
+                action.accept(task);
+            }
+        }
+    }
+
+    /** The tasks changed or added since the base snapshot, in the order they first changed. */
+    public Collection<TaskRecord> changedTasks() {
+        return Collections.unmodifiableCollection(changed.values());
+    }
+
+    /** Whether any task was changed, added or removed since the base snapshot. */
+    public boolean hasChangedTasks() {
+        return !changed.isEmpty() || !removed.isEmpty();
+    }
+
+    /** Whether the base snapshot's row for task {@code id} is out of date: the task was changed or removed since. */
+    public boolean isStale(long id) {
+        return changed.containsKey(id) || removed.contains(id);
+    }
+
+    /** The current dependencies, snapshot order first. */
+    public List<Link> links() {
+        List<Link> links = new ArrayList<>();
+        if (base != null) {
+            for (int i = 0; i < base.linkCount(); i++) {
+                Link link = new Link(base.linkPrerequisite(i), base.linkDependent(i));
+                if (!removedLinks.contains(link) && !addedLinks.contains(link)) {
+                    links.add(link);
+                }
+            }
+        }
+        links.addAll(addedLinks);
+        return links;
+    }
+
+    public Set<String> categories() {
+        return categories;
+    }
+
+    public Map<String, Boolean> members() {
+        return members;
+    }
+
+    // --- Mutations, mirroring the journal operations ---
+
+    public void putTask(TaskRecord task) {
+        removed.remove(task.id());
+        changed.put(task.id(), task);
+    }
+
+    public void removeTask(long id) {
+        changed.remove(id);
+        if (base != null) {
+            removed.add(id);
+        }
+    }
+
+    public void addLink(long prerequisite, long dependent) {
+        Link link = new Link(prerequisite, dependent);
+        removedLinks.remove(link);
+        addedLinks.add(link);
+    }
+
+    public void removeLink(long prerequisite, long dependent) {
+        Link link = new Link(prerequisite, dependent);
+        addedLinks.remove(link);
+        if (base != null) {
+            removedLinks.add(link);
+        }
+    }
+
+    public void addCategory(String name) {
+        categories.add(name);
+    }
+
+    public void removeCategory(String name) {
+        categories.remove(name);
+    }
+
+    public void addMember(String name, boolean leader) {
+        members.put(name, leader);
+    }
+
+    public void removeMember(String name) {
+        members.remove(name);
+    }
+
+    /**
+     * Adds everything in this state to an (empty) repository. The snapshot
+     * rows are decoded into tasks in parallel, straight from the mapping.
+     */
+    public void populate(TaskRepository repository) {
+        Map<String, Category> categoryByName = new HashMap<>();
+        for (String name : categories) {
+            Category category = Category.of(name);
+            categoryByName.put(name, category);
+            repository.addCategory(category);
+        }
+        Map<String, GroupMember> memberByName = new HashMap<>();
+        members.forEach((name, leader) -> {
+            GroupMember member = GroupMember.of(name, leader);
+            memberByName.put(name, member);
+            repository.addMember(member);
+        });
+        if (base == null) {
+            List<Task> loaded = new ArrayList<>(changed.size());
+            changed.values().forEach(record -> loaded.add(record.toTask(categoryByName, memberByName)));
+            repository.addAll(loaded);
+            return;
+        }
+        // Names by snapshot index, resolved once, so the rows can be decoded on any thread
+        Category[] baseCategories = base.getCategories().stream()
+                .map(name -> categoryByName.computeIfAbsent(name, Category::of)).toArray(Category[]::new);
+        GroupMember[] baseMembers = base.getMembers().stream().map(memberByName::get).toArray(GroupMember[]::new);
+        Task[] decoded = new Task[base.size()];
+        IntStream.range(0, decoded.length).parallel().forEach(row -> {
+            long id = base.id(row);
+            if (!removed.contains(id) && !changed.containsKey(id)) {
+                decoded[row] = decode(row, baseCategories, baseMembers);
+            }
+        });
+        // Then in forEachTask order: snapshot rows, a changed record in place of its row, new tasks last
+        List<Task> loaded = new ArrayList<>(decoded.length + changed.size());
+        Set<Long> emitted = new HashSet<>();
+        for (int row = 0; row < decoded.length; row++) {
+            if (decoded[row] != null) {
+                loaded.add(decoded[row]);
+            } else {
+                TaskRecord newer = changed.get(base.id(row));
+                if (newer != null) {
+                    emitted.add(newer.id());
+                    loaded.add(newer.toTask(categoryByName, memberByName));
+                }
+            }
+        }
+        for (TaskRecord task : changed.values()) {
+            if (!emitted.contains(task.id())) {
+                loaded.add(task.toTask(categoryByName, memberByName));
+            }
+        }
+        repository.addAll(loaded);
+    }
+
+    private Task decode(int row, Category[] baseCategories, GroupMember[] baseMembers) {
+        int category = base.categoryIndex(row);
+        int member = base.memberIndex(row);
+        Task task = new Task(base.title(row), base.description(row), base.dueDate(row), base.priority(row),
+                category < 0 ? null : baseCategories[category], member < 0 ? null : baseMembers[member]);
+        task.setStatus(base.status(row));
+        task.setProgressPercent(base.progressPercent(row));
+        task.assignId(base.id(row), base.version(row));
+        return task;
+    }
+}
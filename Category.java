@@ -1,33 +1,56 @@
-package todolist;
-
-import java.util.Objects;
-
-public class Category {
-    private final String name;
-
-    public Category(String name) {
-        this.name = name;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    @Override
-    public String toString() {
-        return name;
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Category category = (Category) o;
-        return Objects.equals(name, category.name);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(name);
-    }
+package todolist;
+
+/**
+ * A task category. There is one instance per name, obtained through
+ * {@link #of}, so categories compare by identity and hash by their dense
+ * {@link #getId() id}.
+ */
+public final class Category {
+    private static final NameRegistry<String, Category> REGISTRY = new NameRegistry<>();
+
+    private final String name;
+    private final int id;
+
+    private Category(String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    /** The category called {@code name}. */
+    public static Category of(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Category name must not be null");
+        }
+        return REGISTRY.intern(name, id -> new Category(name, id));
+    }
+
+    /** The category with {@code id}, or null if there is none. */
+    public static Category byId(int id) {
+        return REGISTRY.get(id);
+    }
+
+    /** Number of categories created so far; every id is below this. */
+    static int count() {
+        return REGISTRY.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Dense id, unique among categories in this process. */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    // Instances are canonical, so the inherited identity equals is exact
+    @Override
+    public int hashCode() {
+        return id;
+    }
 }
\ No newline at end of file
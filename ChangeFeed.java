@@ -0,0 +1,294 @@
+package todolist;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Ordered stream of the changes made to a board, for subscribers that keep
+ * their own copy of it (remote clients, above all).
+ * <p>
+ * Every change gets the next sequence number. Task updates are coalesced:
+ * all edits to a task within {@link #COALESCE_MILLIS} become one
+ * {@link Kind#TASK_UPDATED} change carrying the task's latest state, so a
+ * burst of edits costs subscribers one delta. Pending updates are always
+ * published before the next structural change (create, delete, category,
+ * member), which keeps the stream in causal order.
+ * <p>
+ * The most recent {@link #RETAINED_CHANGES} changes are kept, so a
+ * subscriber that reconnects can resume from the last sequence it applied;
+ * one that fell further behind is sent a full {@link Snapshot} instead.
+ * Applying the stream is idempotent, since a snapshot may already contain
+ * the effect of changes that are still pending.
+ * <p>
+ * Events arrive on the repository's writer thread, and the coalescing
+ * window closes there too; task states are taken from the repository's
+ * published records. Subscribers are called with the feed locked and must
+ * only hand the changes off.
+ */
+public class ChangeFeed implements TaskRepositoryListener {
+    static final int COALESCE_MILLIS = 50;
+    static final int RETAINED_CHANGES = 100_000;
+
+    public enum Kind {
+        TASK_CREATED, TASK_UPDATED, TASK_DELETED, CATEGORY_ADDED, CATEGORY_REMOVED, MEMBER_ADDED, MEMBER_REMOVED;
+
+        private static final Kind[] VALUES = values();
+    }
+
+    /**
+     * One delta. Task changes carry the task's state ({@code task}) except
+     * deletions, which only carry {@code taskId}; category and member changes
+     * carry the {@code name}.
+     */
+    public record Change(long sequence, Kind kind, TaskRecord task, long taskId, String name, boolean leader) {
+
+        void write(DataOutput out) throws IOException {
+            out.writeLong(sequence);
+            out.writeByte(kind.ordinal());
+            switch (kind) {
+                case TASK_CREATED, TASK_UPDATED -> task.write(out);
+                case TASK_DELETED -> out.writeLong(taskId);
+                case MEMBER_ADDED -> {
+                    TaskRecord.writeString(out, name);
+                    out.writeBoolean(leader);
+                }
+                default -> TaskRecord.writeString(out, name);
+            }
+        }
+
+        static Change read(DataInput in) throws IOException {
+            long sequence = in.readLong();
+            Kind kind = Kind.VALUES[in.readByte()];
+            switch (kind) {
+                case TASK_CREATED:
+                case TASK_UPDATED: {
+                    TaskRecord task = TaskRecord.read(in);
+                    return new Change(sequence, kind, task, task.id(), null, false);
+                }
+                case TASK_DELETED:
+                    return new Change(sequence, kind, null, in.readLong(), null, false);
+                case MEMBER_ADDED:
+                    return new Change(sequence, kind, null, 0, TaskRecord.readString(in), in.readBoolean());
+                default:
+                    return new Change(sequence, kind, null, 0, TaskRecord.readString(in), false);
+            }
+        }
+    }
+
+    /** The whole board as of {@code sequence}. */
+    public record Snapshot(long sequence, List<String> categories, Map<String, Boolean> members, List<TaskRecord> tasks) {
+
+        void write(DataOutput out) throws IOException {
+            out.writeLong(sequence);
+            out.writeInt(categories.size());
+            for (String category : categories) {
+                TaskRecord.writeString(out, category);
+            }
+            out.writeInt(members.size());
+            for (Map.Entry<String, Boolean> member : members.entrySet()) {
+                TaskRecord.writeString(out, member.getKey());
+                out.writeBoolean(member.getValue());
+            }
+            out.writeInt(tasks.size());
+            for (TaskRecord task : tasks) {
+                task.write(out);
+            }
+        }
+
+        static Snapshot read(DataInput in) throws IOException {
+            long sequence = in.readLong();
+            int count = in.readInt();
+            List<String> categories = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                categories.add(TaskRecord.readString(in));
+            }
+            count = in.readInt();
+            Map<String, Boolean> members = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                members.put(TaskRecord.readString(in), in.readBoolean());
+            }
+            count = in.readInt();
+            List<TaskRecord> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(TaskRecord.read(in));
+            }
+            return new Snapshot(sequence, categories, members, tasks);
+        }
+    }
+
+    /** Receives the stream of one subscription. */
+    public interface Subscriber {
+        /** Changes in sequence order, with no gaps since the last call. */
+        void onChanges(List<Change> changes);
+
+        /** Replaces everything the subscriber knew; changes continue after {@code snapshot.sequence()}. */
+        void onSnapshot(Snapshot snapshot);
+
+        /** The subscription was dropped (e.g. the subscriber fell behind); subscribe again to continue. */
+        default void onReset() {
+        }
+    }
+
+    private final TaskRepository repository;
+    private final ArrayDeque<Change> retained = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Set<Long> pendingUpdates = new LinkedHashSet<>();
+    private boolean flushScheduled;
+    private long sequence;
+
+    public ChangeFeed(TaskRepository repository) {
+        this.repository = repository;
+        repository.addListener(this);
+    }
+
+    /** Sequence number of the last published change. */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Subscribes to the changes after {@code afterSequence}. If they are
+     * still retained they are replayed first; otherwise the subscriber gets a
+     * snapshot. Pass 0 to always start from a snapshot.
+     *
+     * @return true if the subscription resumed without a snapshot
+     */
+    public synchronized boolean subscribe(long afterSequence, Subscriber subscriber) {
+        long oldest = retained.isEmpty() ? sequence + 1 : retained.peekFirst().sequence();
+        boolean resumable = afterSequence > 0 && afterSequence >= oldest - 1 && afterSequence <= sequence;
+        if (resumable) {
+            List<Change> missed = new ArrayList<>();
+            Iterator<Change> changes = retained.descendingIterator();
+            while (changes.hasNext()) {
+                Change change = changes.next();
+                if (change.sequence() <= afterSequence) {
+                    break;
+                }
+                missed.add(change);
+            }
+            Collections.reverse(missed);
+            if (!missed.isEmpty()) {
+                subscriber.onChanges(missed);
+            }
+        } else {
+            subscriber.onSnapshot(snapshot());
+        }
+        subscribers.add(subscriber);
+        return resumable;
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    // Published records may already include pending updates; applying those again is harmless
+    private Snapshot snapshot() {
+        List<String> categories = new ArrayList<>();
+        for (Category category : repository.getCategories()) {
+            categories.add(category.getName());
+        }
+        Map<String, Boolean> members = new LinkedHashMap<>();
+        for (GroupMember member : repository.getMembers()) {
+            members.put(member.getName(), member instanceof GroupLeader);
+        }
+        return new Snapshot(sequence, categories, members, new ArrayList<>(repository.getRecords()));
+    }
+
+    /** Publishes the coalesced task updates now instead of when the window closes. */
+    public synchronized void flush() {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+        List<Change> changes = new ArrayList<>(pendingUpdates.size());
+        for (long id : pendingUpdates) {
+            changes.add(change(Kind.TASK_UPDATED, repository.getRecord(id), id, null, false));
+        }
+        pendingUpdates.clear();
+        publish(changes);
+    }
+
+    // Pending updates go out first so a subscriber never sees them overtaken
+    private synchronized void publishStructural(Kind kind, TaskRecord task, long taskId, String name, boolean leader) {
+        flush();
+        publish(List.of(change(kind, task, taskId, name, leader)));
+    }
+
+    private Change change(Kind kind, TaskRecord task, long taskId, String name, boolean leader) {
+        Change change = new Change(++sequence, kind, task, taskId, name, leader);
+        retained.addLast(change);
+        if (retained.size() > RETAINED_CHANGES) {
+            retained.removeFirst();
+        }
+        return change;
+    }
+
+    private void publish(List<Change> changes) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.onChanges(changes);
+        }
+    }
+
+    private synchronized void windowClosed() {
+        flushScheduled = false;
+        flush();
+    }
+
+    // --- Repository events (writer thread) ---
+
+    @Override
+    public synchronized void tasksAdded(int firstRow, int lastRow) {
+        flush();
+        List<Change> changes = new ArrayList<>(lastRow - firstRow + 1);
+        for (int row = firstRow; row <= lastRow; row++) {
+            long id = repository.getTaskAt(row).getId();
+            changes.add(change(Kind.TASK_CREATED, repository.getRecord(id), id, null, false));
+        }
+        publish(changes);
+    }
+
+    @Override
+    public synchronized void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            repository.schedule(this::windowClosed, COALESCE_MILLIS);
+        }
+        pendingUpdates.add(task.getId());
+    }
+
+    @Override
+    public synchronized void taskRemoved(Task task, int row, int lastRow) {
+        pendingUpdates.remove(task.getId());
+        publishStructural(Kind.TASK_DELETED, null, task.getId(), null, false);
+    }
+
+    @Override
+    public void categoryAdded(Category category) {
+        publishStructural(Kind.CATEGORY_ADDED, null, 0, category.getName(), false);
+    }
+
+    @Override
+    public void categoryRemoved(Category category) {
+        publishStructural(Kind.CATEGORY_REMOVED, null, 0, category.getName(), false);
+    }
+
+    @Override
+    public void memberAdded(GroupMember member) {
+        publishStructural(Kind.MEMBER_ADDED, null, 0, member.getName(), member instanceof GroupLeader);
+    }
+
+    @Override
+    public void memberRemoved(GroupMember member) {
+        publishStructural(Kind.MEMBER_REMOVED, null, 0, member.getName(), false);
+    }
+}
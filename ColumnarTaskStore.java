@@ -0,0 +1,498 @@
+package todolist;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact task storage: one primitive array per field instead of one
+ * object graph per task. Due dates are epoch days, priority, status and
+ * progress are bytes, categories and members are their interned ids, and
+ * titles and descriptions are UTF-8 in one shared byte arena. A task costs
+ * about 48 bytes plus its text, with no per-task objects for the GC to
+ * trace.
+ * <p>
+ * Tasks are read and edited through views ({@link #view}, or a page from
+ * {@link #getTasks}): ordinary {@link Task}s whose getters and setters go
+ * straight to the columns, so code written against {@code Task} works
+ * unchanged. Views are cheap and meant to be short-lived; a view addresses
+ * a row, and {@link #remove} moves the last row into the freed one.
+ * Editing a view bumps the task's version but fires no repository events.
+ * <p>
+ * All methods are synchronized, so a store may be read and edited from
+ * several threads.
+ */
+public class ColumnarTaskStore implements TaskSource {
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_TEXT = -1;
+    private static final int NONE = -1;
+
+    private int size;
+    private long[] ids;
+    private long[] versions;
+    private int[] dueDays;
+    private byte[] priorities;
+    private byte[] statuses;
+    private byte[] progress;
+    private int[] categories;
+    private int[] members;
+    // Text: offset and byte length in the arena, length NO_TEXT for null
+    private int[] titleOffsets;
+    private int[] titleLengths;
+    private int[] descriptionOffsets;
+    private int[] descriptionLengths;
+
+    private byte[] arena;
+    private int arenaUsed;
+    private int arenaGarbage; // bytes of replaced text, reclaimed by compaction
+
+    public ColumnarTaskStore() {
+        this(1024);
+    }
+
+    public ColumnarTaskStore(int capacity) {
+        allocate(Math.max(16, capacity));
+        arena = new byte[Math.max(1024, capacity * 32)];
+    }
+
+    /** Copies every task of a snapshot into a new store. */
+    public static ColumnarTaskStore load(SnapshotFile.Reader reader) {
+        List<String> categoryNames = reader.getCategories();
+        int[] categoryIds = new int[categoryNames.size()];
+        for (int i = 0; i < categoryIds.length; i++) {
+            categoryIds[i] = Category.of(categoryNames.get(i)).getId();
+        }
+        List<String> memberNames = reader.getMembers();
+        int[] memberIds = new int[memberNames.size()];
+        for (int i = 0; i < memberIds.length; i++) {
+            memberIds[i] = GroupMember.of(memberNames.get(i), reader.isLeader(i)).getId();
+        }
+        ColumnarTaskStore store = new ColumnarTaskStore(reader.size());
+        for (int row = 0; row < reader.size(); row++) {
+            int category = reader.categoryIndex(row);
+            int member = reader.memberIndex(row);
+            store.append(reader.id(row), reader.version(row), reader.title(row), reader.description(row),
+                    reader.dueDate(row), reader.priority(row), reader.status(row), reader.progressPercent(row),
+                    category < 0 ? NONE : categoryIds[category], member < 0 ? NONE : memberIds[member]);
+        }
+        return store;
+    }
+
+    // --- Rows ---
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Copies {@code task} into a new row and returns the row. */
+    public synchronized int add(Task task) {
+        return append(task.getId(), task.getVersion(), task.getTitle(), task.getDescription(), task.getDueDate(),
+                task.getPriority(), task.getStatus(), task.getProgressPercent(),
+                task.getCategory() == null ? NONE : task.getCategory().getId(),
+                task.getAssignedTo() == null ? NONE : task.getAssignedTo().getId());
+    }
+
+    public synchronized void addAll(Collection<Task> tasks) {
+        ensureCapacity(size + tasks.size());
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /** Removes a row; the last row takes its place. */
+    public synchronized void remove(int row) {
+        checkRow(row);
+        arenaGarbage += textBytes(titleLengths[row]) + textBytes(descriptionLengths[row]);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            versions[row] = versions[last];
+            dueDays[row] = dueDays[last];
+            priorities[row] = priorities[last];
+            statuses[row] = statuses[last];
+            progress[row] = progress[last];
+            categories[row] = categories[last];
+            members[row] = members[last];
+            titleOffsets[row] = titleOffsets[last];
+            titleLengths[row] = titleLengths[last];
+            descriptionOffsets[row] = descriptionOffsets[last];
+            descriptionLengths[row] = descriptionLengths[last];
+        }
+    }
+
+    /** A view of the task in {@code row}. */
+    public synchronized Task view(int row) {
+        checkRow(row);
+        return new View(row);
+    }
+
+    @Override
+    public synchronized List<Task> getTasks(int fromRow, int toRow) {
+        List<Task> page = new ArrayList<>(toRow - fromRow);
+        for (int row = fromRow; row < toRow; row++) {
+            page.add(view(row));
+        }
+        return page;
+    }
+
+    // --- Columns, for code that works on primitives ---
+
+    public synchronized long id(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    public synchronized long version(int row) {
+        checkRow(row);
+        return versions[row];
+    }
+
+    /** Due date as an epoch day, or {@link Integer#MIN_VALUE} if there is none. */
+    public synchronized int dueDay(int row) {
+        checkRow(row);
+        return dueDays[row];
+    }
+
+    public synchronized int priorityOrdinal(int row) {
+        checkRow(row);
+        return priorities[row];
+    }
+
+    public synchronized int statusOrdinal(int row) {
+        checkRow(row);
+        return statuses[row];
+    }
+
+    public synchronized int progressPercent(int row) {
+        checkRow(row);
+        return progress[row];
+    }
+
+    /** {@link Category#getId()} of the task's category, or -1. */
+    public synchronized int categoryId(int row) {
+        checkRow(row);
+        return categories[row];
+    }
+
+    /** {@link GroupMember#getId()} of the assignee, or -1. */
+    public synchronized int memberId(int row) {
+        checkRow(row);
+        return members[row];
+    }
+
+    /** Approximate heap used by the columns and the text arena. */
+    public synchronized long heapBytes() {
+        return (long) ids.length * 47 + arena.length;
+    }
+
+    // --- Storage ---
+
+    private int append(long id, long version, String title, String description, LocalDate dueDate,
+                       Priority priority, Status status, int progressPercent, int category, int member) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        ids[row] = id;
+        versions[row] = version;
+        dueDays[row] = toDay(dueDate);
+        priorities[row] = (byte) priority.ordinal();
+        statuses[row] = (byte) status.ordinal();
+        progress[row] = (byte) progressPercent;
+        categories[row] = category;
+        members[row] = member;
+        titleLengths[row] = NO_TEXT;
+        descriptionLengths[row] = NO_TEXT;
+        setTitle(row, title);
+        setDescription(row, description);
+        return row;
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        versions = new long[capacity];
+        dueDays = new int[capacity];
+        priorities = new byte[capacity];
+        statuses = new byte[capacity];
+        progress = new byte[capacity];
+        categories = new int[capacity];
+        members = new int[capacity];
+        titleOffsets = new int[capacity];
+        titleLengths = new int[capacity];
+        descriptionOffsets = new int[capacity];
+        descriptionLengths = new int[capacity];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int length = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, length);
+        versions = Arrays.copyOf(versions, length);
+        dueDays = Arrays.copyOf(dueDays, length);
+        priorities = Arrays.copyOf(priorities, length);
+        statuses = Arrays.copyOf(statuses, length);
+        progress = Arrays.copyOf(progress, length);
+        categories = Arrays.copyOf(categories, length);
+        members = Arrays.copyOf(members, length);
+        titleOffsets = Arrays.copyOf(titleOffsets, length);
+        titleLengths = Arrays.copyOf(titleLengths, length);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, length);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, length);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+
+    private static int toDay(LocalDate date) {
+        return date == null ? NO_DATE : Math.toIntExact(date.toEpochDay());
+    }
+
+    private static LocalDate fromDay(int day) {
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    // --- Text arena ---
+
+    private static int textBytes(int length) {
+        return length == NO_TEXT ? 0 : length;
+    }
+
+    private String text(int offset, int length) {
+        return length == NO_TEXT ? null : new String(arena, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private void setTitle(int row, String title) {
+        arenaGarbage += textBytes(titleLengths[row]);
+        titleLengths[row] = NO_TEXT; // not live while the arena may compact
+        if (title != null) {
+            byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+            titleOffsets[row] = store(bytes);
+            titleLengths[row] = bytes.length;
+        }
+    }
+
+    private void setDescription(int row, String description) {
+        arenaGarbage += textBytes(descriptionLengths[row]);
+        descriptionLengths[row] = NO_TEXT;
+        if (description != null) {
+            byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+            descriptionOffsets[row] = store(bytes);
+            descriptionLengths[row] = bytes.length;
+        }
+    }
+
+    // Appends text to the arena, compacting or growing it when full
+    private int store(byte[] bytes) {
+        if (arenaUsed + bytes.length > arena.length) {
+            if (arenaGarbage > arenaUsed / 2) {
+                compact();
+            }
+            if (arenaUsed + bytes.length > arena.length) {
+                long length = Math.max((long) arenaUsed + bytes.length, (long) arena.length * 2);
+                arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8, length));
+            }
+        }
+        int offset = arenaUsed;
+        System.arraycopy(bytes, 0, arena, offset, bytes.length);
+        arenaUsed += bytes.length;
+        return offset;
+    }
+
+    // Copies the live text of every row into a fresh arena
+    private void compact() {
+        byte[] compacted = new byte[arena.length];
+        int used = 0;
+        for (int row = 0; row < size; row++) {
+            int length = titleLengths[row];
+            if (length > 0) {
+                System.arraycopy(arena, titleOffsets[row], compacted, used, length);
+                titleOffsets[row] = used;
+                used += length;
+            }
+            length = descriptionLengths[row];
+            if (length > 0) {
+                System.arraycopy(arena, descriptionOffsets[row], compacted, used, length);
+                descriptionOffsets[row] = used;
+                used += length;
+            }
+        }
+        arena = compacted;
+        arenaUsed = used;
+        arenaGarbage = 0;
+    }
+
+    // --- Views ---
+
+    private void edited(int row) {
+        versions[row]++;
+    }
+
+    /** A task whose state lives in the store's columns. */
+    private final class View extends Task {
+        private final int row;
+
+        View(int row) {
+            super(null, null, null, Priority.LOW, null, null);
+            this.row = row;
+        }
+
+        @Override
+        public long getId() {
+            return id(row);
+        }
+
+        @Override
+        public long getVersion() {
+            return version(row);
+        }
+
+        @Override
+        public String getTitle() {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                return text(titleOffsets[row], titleLengths[row]);
+            }
+        }
+
+        @Override
+        public void setTitle(String title) {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                if (!Objects.equals(title, text(titleOffsets[row], titleLengths[row]))) {
+                    ColumnarTaskStore.this.setTitle(row, title);
+                    edited(row);
+                }
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                return text(descriptionOffsets[row], descriptionLengths[row]);
+            }
+        }
+
+        @Override
+        public void setDescription(String description) {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                if (!Objects.equals(description, text(descriptionOffsets[row], descriptionLengths[row]))) {
+                    ColumnarTaskStore.this.setDescription(row, description);
+                    edited(row);
+                }
+            }
+        }
+
+        @Override
+        public LocalDate getDueDate() {
+            return fromDay(dueDay(row));
+        }
+
+        @Override
+        public void setDueDate(LocalDate dueDate) {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                int day = toDay(dueDate);
+                if (dueDays[row] != day) {
+                    dueDays[row] = day;
+                    edited(row);
+                }
+            }
+        }
+
+        @Override
+        public Priority getPriority() {
+            return PRIORITIES[priorityOrdinal(row)];
+        }
+
+        @Override
+        public void setPriority(Priority priority) {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                if (priorities[row] != priority.ordinal()) {
+                    priorities[row] = (byte) priority.ordinal();
+                    edited(row);
+                }
+            }
+        }
+
+        @Override
+        public Category getCategory() {
+            int id = categoryId(row);
+            return id == NONE ? null : Category.byId(id);
+        }
+
+        @Override
+        public void setCategory(Category category) {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                int id = category == null ? NONE : category.getId();
+                if (categories[row] != id) {
+                    categories[row] = id;
+                    edited(row);
+                }
+            }
+        }
+
+        @Override
+        public Status getStatus() {
+            return STATUSES[statusOrdinal(row)];
+        }
+
+        @Override
+        public void setStatus(Status status) {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                if (statuses[row] != status.ordinal()) {
+                    statuses[row] = (byte) status.ordinal();
+                    edited(row);
+                }
+            }
+        }
+
+        @Override
+        public int getProgressPercent() {
+            return progressPercent(row);
+        }
+
+        @Override
+        public void setProgressPercent(int progressPercent) {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                if (progress[row] != progressPercent) {
+                    progress[row] = (byte) progressPercent;
+                    edited(row);
+                }
+            }
+        }
+
+        @Override
+        public GroupMember getAssignedTo() {
+            int id = memberId(row);
+            return id == NONE ? null : GroupMember.byId(id);
+        }
+
+        @Override
+        public void setAssignedTo(GroupMember member) {
+            synchronized (ColumnarTaskStore.this) {
+                checkRow(row);
+                int id = member == null ? NONE : member.getId();
+                if (members[row] != id) {
+                    members[row] = id;
+                    edited(row);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package todolist;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams records from RFC 4180 style CSV: comma separated, fields optionally
+ * in double quotes, quotes inside quoted fields doubled, line breaks allowed
+ * inside quotes. The first record is the header; its column names decide
+ * where each {@link TaskTransfer#COLUMNS} value is read from, so columns may
+ * come in any order and unknown columns are ignored.
+ */
+public class CsvRecordReader implements TaskTransfer.RecordReader {
+    private final Reader in;
+    private final int[] sourceIndex; // canonical column -> CSV column, or -1
+    private final StringBuilder field = new StringBuilder();
+    private int recordNumber;
+
+    public CsvRecordReader(Reader in) throws IOException {
+        this.in = in;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("The CSV file is empty");
+        }
+        sourceIndex = new int[TaskTransfer.COLUMNS.size()];
+        for (int i = 0; i < sourceIndex.length; i++) {
+            sourceIndex[i] = indexOfIgnoreCase(header, TaskTransfer.COLUMNS.get(i));
+        }
+        if (sourceIndex[0] < 0) {
+            throw new IOException("The CSV header has no \"title\" column");
+        }
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isEmpty()); // blank line
+        String[] values = new String[sourceIndex.length];
+        for (int i = 0; i < values.length; i++) {
+            int source = sourceIndex[i];
+            values[i] = source >= 0 && source < record.size() ? record.get(source) : "";
+        }
+        return values;
+    }
+
+    @Override
+    public int getRecordNumber() {
+        return recordNumber;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        recordNumber++;
+        List<String> fields = new ArrayList<>(TaskTransfer.COLUMNS.size());
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in record " + recordNumber);
+                }
+                if (c == '"') {
+                    c = in.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue; // Re-examine the character after the closing quote
+                    }
+                }
+                field.append((char) c);
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    private static int indexOfIgnoreCase(List<String> names, String name) {
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).trim().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,349 @@
+package todolist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Board-wide figures for the dashboard: status distribution, completion
+ * rate per category, average progress per member, overdue tasks per
+ * priority and the burndown of open tasks over their due dates.
+ * <p>
+ * A full computation splits the published task records into chunks,
+ * aggregates each chunk on the fork/join pool and merges the partial
+ * totals, so it scales with the cores available. Between full
+ * computations the totals follow the repository events, each edit moving
+ * one task's contribution, and {@link #getDashboard()} only formats them.
+ * Totals are indexed by the interned category and member ids.
+ * <p>
+ * Events and {@link #getDashboard()} run on the EDT. {@link #recompute()}
+ * does the heavy part on the fork/join pool and swaps the result in on the
+ * EDT, replaying the edits made meanwhile. It runs when the analytics are
+ * created, so opening a board never waits for the aggregation, and again
+ * every {@link #RECOMPUTE_MILLIS} ms to rebuild the running totals from
+ * scratch.
+ */
+public class DashboardAnalytics implements TaskRepositoryListener {
+    static final int CHUNK_SIZE = 8192;
+    public static final int RECOMPUTE_MILLIS = 15 * 60 * 1000;
+
+    private static final Status[] STATUSES = Status.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    /** Immutable dashboard figures as of when it was taken. */
+    public static final class Dashboard {
+        private final int taskCount;
+        private final Map<Status, Integer> statuses = new EnumMap<>(Status.class);
+        private final Map<Category, Double> completionRates = new LinkedHashMap<>();
+        private final Map<GroupMember, Double> averageProgress = new LinkedHashMap<>();
+        private final Map<Priority, Integer> overdue = new EnumMap<>(Priority.class);
+        private final NavigableMap<LocalDate, Integer> burndown = new TreeMap<>();
+
+        private Dashboard(Totals totals, long today) {
+            taskCount = totals.tasks;
+            for (Status status : STATUSES) {
+                statuses.put(status, totals.statuses[status.ordinal()]);
+            }
+            for (int slot = 0; slot < totals.categoryTasks.length; slot++) {
+                if (totals.categoryTasks[slot] > 0) {
+                    completionRates.put(slot == 0 ? null : Category.byId(slot - 1),
+                            (double) totals.categoryCompleted[slot] / totals.categoryTasks[slot]);
+                }
+            }
+            for (int slot = 0; slot < totals.memberTasks.length; slot++) {
+                if (totals.memberTasks[slot] > 0) {
+                    averageProgress.put(slot == 0 ? null : GroupMember.byId(slot - 1),
+                            (double) totals.memberProgress[slot] / totals.memberTasks[slot]);
+                }
+            }
+            int[] overdueCounts = new int[PRIORITIES.length];
+            List<Integer> days = new ArrayList<>(totals.openByDay.keySet());
+            Collections.sort(days, Collections.reverseOrder());
+            int remaining = 0;
+            for (int day : days) {
+                int[] open = totals.openByDay.get(day);
+                for (int p = 0; p < open.length; p++) {
+                    remaining += open[p];
+                    if (day < today) {
+                        overdueCounts[p] += open[p];
+                    }
+                }
+                burndown.put(LocalDate.ofEpochDay(day), remaining);
+            }
+            for (Priority priority : PRIORITIES) {
+                overdue.put(priority, overdueCounts[priority.ordinal()]);
+            }
+        }
+
+        public int getTaskCount() { return taskCount; }
+
+        public Map<Status, Integer> getStatusDistribution() { return Collections.unmodifiableMap(statuses); }
+
+        /** Share of completed tasks per category (null for uncategorized), for categories with tasks. */
+        public Map<Category, Double> getCompletionRates() { return Collections.unmodifiableMap(completionRates); }
+
+        /** Average progress in percent per member (null for unassigned), for members with tasks. */
+        public Map<GroupMember, Double> getAverageProgress() { return Collections.unmodifiableMap(averageProgress); }
+
+        /** Open tasks whose due date has passed, per priority. */
+        public Map<Priority, Integer> getOverdueCounts() { return Collections.unmodifiableMap(overdue); }
+
+        /** For each due date with open tasks: the open tasks due on or after it. */
+        public NavigableMap<LocalDate, Integer> getBurndown() { return Collections.unmodifiableNavigableMap(burndown); }
+    }
+
+    // Running totals; category and member slots are id + 1, slot 0 is "none"
+    static final class Totals {
+        int tasks;
+        final int[] statuses = new int[STATUSES.length];
+        int[] categoryTasks = new int[16];
+        int[] categoryCompleted = new int[16];
+        int[] memberTasks = new int[16];
+        long[] memberProgress = new long[16];
+        final Map<Integer, int[]> openByDay = new HashMap<>(); // epoch day -> open tasks per priority
+
+        // Adds (sign = 1) or removes (sign = -1) one task's contribution
+        void add(int dueDay, int priority, int status, int progress, int category, int member, int sign) {
+            tasks += sign;
+            statuses[status] += sign;
+            boolean completed = status == Status.COMPLETED.ordinal();
+            int categorySlot = category + 1;
+            if (categorySlot >= categoryTasks.length) {
+                categoryTasks = Arrays.copyOf(categoryTasks, categorySlot * 2);
+                categoryCompleted = Arrays.copyOf(categoryCompleted, categorySlot * 2);
+            }
+            categoryTasks[categorySlot] += sign;
+            if (completed) {
+                categoryCompleted[categorySlot] += sign;
+            }
+            int memberSlot = member + 1;
+            if (memberSlot >= memberTasks.length) {
+                memberTasks = Arrays.copyOf(memberTasks, memberSlot * 2);
+                memberProgress = Arrays.copyOf(memberProgress, memberSlot * 2);
+            }
+            memberTasks[memberSlot] += sign;
+            memberProgress[memberSlot] += sign * progress;
+            if (!completed && dueDay != NO_DAY) {
+                int[] open = openByDay.computeIfAbsent(dueDay, d -> new int[PRIORITIES.length]);
+                open[priority] += sign;
+                if (sign < 0 && isEmpty(open)) {
+                    openByDay.remove(dueDay);
+                }
+            }
+        }
+
+        private static boolean isEmpty(int[] counts) {
+            for (int count : counts) {
+                if (count != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Totals merge(Totals other) {
+            tasks += other.tasks;
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] += other.statuses[i];
+            }
+            if (other.categoryTasks.length > categoryTasks.length) {
+                categoryTasks = Arrays.copyOf(categoryTasks, other.categoryTasks.length);
+                categoryCompleted = Arrays.copyOf(categoryCompleted, other.categoryTasks.length);
+            }
+            for (int i = 0; i < other.categoryTasks.length; i++) {
+                categoryTasks[i] += other.categoryTasks[i];
+                categoryCompleted[i] += other.categoryCompleted[i];
+            }
+            if (other.memberTasks.length > memberTasks.length) {
+                memberTasks = Arrays.copyOf(memberTasks, other.memberTasks.length);
+                memberProgress = Arrays.copyOf(memberProgress, other.memberTasks.length);
+            }
+            for (int i = 0; i < other.memberTasks.length; i++) {
+                memberTasks[i] += other.memberTasks[i];
+                memberProgress[i] += other.memberProgress[i];
+            }
+            other.openByDay.forEach((day, counts) -> {
+                int[] open = openByDay.computeIfAbsent(day, d -> new int[PRIORITIES.length]);
+                for (int p = 0; p < open.length; p++) {
+                    open[p] += counts[p];
+                }
+                if (isEmpty(open)) {
+                    openByDay.remove(day);
+                }
+            });
+            return this;
+        }
+    }
+
+    // Aggregates a range of records, splitting it in halves down to CHUNK_SIZE
+    private static final class Aggregate extends RecursiveTask<Totals> {
+        private final TaskRecord[] records;
+        private final int from;
+        private final int to;
+        private final Map<String, GroupMember> members;
+
+        Aggregate(TaskRecord[] records, int from, int to, Map<String, GroupMember> members) {
+            this.records = records;
+            this.from = from;
+            this.to = to;
+            this.members = members;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= CHUNK_SIZE) {
+                Totals totals = new Totals();
+                for (int i = from; i < to; i++) {
+                    TaskRecord record = records[i];
+                    GroupMember member = record.assignedTo() == null ? null : members.get(record.assignedTo());
+                    totals.add(day(record.dueDate()), record.priority().ordinal(), record.status().ordinal(),
+                            record.progressPercent(), record.category() == null ? -1 : Category.of(record.category()).getId(),
+                            member == null ? -1 : member.getId(), 1);
+                }
+                return totals;
+            }
+            int middle = (from + to) >>> 1;
+            Aggregate right = new Aggregate(records, middle, to, members);
+            right.fork();
+            Totals left = new Aggregate(records, from, middle, members).compute();
+            return left.merge(right.join());
+        }
+    }
+
+    private final TaskRepository repository;
+    private final Timer timer;
+    private Totals live = new Totals();
+    private Totals sinceRecompute; // edits made while a recompute runs, replayed onto its result
+    private CompletableFuture<Dashboard> recomputing;
+    private boolean ready; // the first recompute is in
+
+    /** Follows the repository and starts computing the totals on the fork/join pool. */
+    public DashboardAnalytics(TaskRepository repository) {
+        this.repository = repository;
+        this.timer = new Timer(RECOMPUTE_MILLIS, e -> recompute());
+        repository.addListener(this);
+        recompute();
+        timer.start();
+    }
+
+    /** Whether the totals have been computed once; until then {@link #getDashboard()} only counts recent edits. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** The dashboard as of now. */
+    public Dashboard getDashboard() {
+        return new Dashboard(live, LocalDate.now().toEpochDay());
+    }
+
+    /** Stops the periodic recompute; the totals still follow the repository. */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Recomputes every total from the task records on the fork/join pool.
+     * The future completes on the EDT once the new totals are in use.
+     */
+    public CompletableFuture<Dashboard> recompute() {
+        if (recomputing != null) {
+            return recomputing;
+        }
+        Aggregate aggregate = aggregate(); // the records as of this EDT turn
+        sinceRecompute = new Totals();
+        CompletableFuture<Dashboard> done = new CompletableFuture<>();
+        recomputing = done;
+        CompletableFuture.supplyAsync(() -> ForkJoinPool.commonPool().invoke(aggregate))
+                .whenComplete((totals, error) -> SwingUtilities.invokeLater(() -> {
+                    recomputing = null;
+                    if (error != null) {
+                        sinceRecompute = null;
+                        done.completeExceptionally(error);
+                        return;
+                    }
+                    live = totals.merge(sinceRecompute);
+                    sinceRecompute = null;
+                    ready = true;
+                    done.complete(getDashboard());
+                }));
+        return done;
+    }
+
+    /** Computes a dashboard from records without keeping it up to date. */
+    public static Dashboard compute(Collection<TaskRecord> records, Collection<GroupMember> members) {
+        Map<String, GroupMember> byName = new HashMap<>();
+        for (GroupMember member : members) {
+            byName.put(member.getName(), member);
+        }
+        TaskRecord[] array = records.toArray(new TaskRecord[0]);
+        Totals totals = ForkJoinPool.commonPool().invoke(new Aggregate(array, 0, array.length, byName));
+        return new Dashboard(totals, LocalDate.now().toEpochDay());
+    }
+
+    private Aggregate aggregate() {
+        Map<String, GroupMember> members = new HashMap<>();
+        for (GroupMember member : repository.getMembers()) {
+            members.put(member.getName(), member);
+        }
+        TaskRecord[] records = repository.getRecords().toArray(new TaskRecord[0]);
+        return new Aggregate(records, 0, records.length, members);
+    }
+
+    private static int day(LocalDate date) {
+        return date == null ? NO_DAY : Math.toIntExact(date.toEpochDay());
+    }
+
+    // --- Repository events (EDT) ---
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            apply(repository.getTaskAt(row), null, null, 1);
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        apply(task, null, null, -1);
+    }
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        if (field != TaskField.TITLE && field != TaskField.DESCRIPTION) {
+            apply(task, field, oldValue, -1); // the task as it was
+            apply(task, null, null, 1);
+        }
+    }
+
+    // Adds or removes a task's contribution, taking field (if given) to have the value passed
+    private void apply(Task task, TaskField field, Object value, int sign) {
+        LocalDate dueDate = field == TaskField.DUE_DATE ? (LocalDate) value : task.getDueDate();
+        Priority priority = field == TaskField.PRIORITY ? (Priority) value : task.getPriority();
+        Status status = field == TaskField.STATUS ? (Status) value : task.getStatus();
+        int progress = field == TaskField.PROGRESS ? (Integer) value : task.getProgressPercent();
+        Category category = field == TaskField.CATEGORY ? (Category) value : task.getCategory();
+        GroupMember member = field == TaskField.ASSIGNED_TO ? (GroupMember) value : task.getAssignedTo();
+        int categoryId = category == null ? -1 : category.getId();
+        int memberId = member == null ? -1 : member.getId();
+        live.add(day(dueDate), priority.ordinal(), status.ordinal(), progress, categoryId, memberId, sign);
+        if (sinceRecompute != null) {
+            sinceRecompute.add(day(dueDate), priority.ordinal(), status.ordinal(), progress, categoryId, memberId, sign);
+        }
+    }
+
+}
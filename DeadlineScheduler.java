@@ -0,0 +1,333 @@
+package todolist;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.swing.Timer;
+
+/**
+ * Fires reminder and overdue events for task due dates.
+ * <p>
+ * Every open task with a due date has exactly one pending deadline: its
+ * reminder ({@link #getReminderDays()} days before the due date) until that
+ * has fired, then its overdue deadline (the day after the due date). The
+ * pending deadlines live in a binary min-heap of primitive keys; each task
+ * remembers its heap slot, so changing a due date or completing a task
+ * moves or removes its entry in O(log n) without searching. One Swing timer
+ * is armed for the earliest deadline, so nothing is polled or scanned.
+ * A reminder fires once: moving the due date after it fired only reminds
+ * again if the new date is outside the reminder window.
+ * <p>
+ * Deadlines are whole days in the system time zone and fire at the start
+ * of the day. Tasks that are already due soon or overdue when they are
+ * added fire on the next tick. Each tick reports everything that became
+ * due in one {@link DeadlineListener#deadlinesReached} call.
+ * <p>
+ * Runs on the EDT, like the repository events that drive it. A task can
+ * be tracked by one scheduler at a time.
+ */
+public class DeadlineScheduler implements TaskRepositoryListener {
+
+    public enum Kind { DUE_SOON, OVERDUE }
+
+    /** A deadline that was reached. */
+    public record Deadline(Task task, Kind kind, LocalDate dueDate) {
+    }
+
+    public interface DeadlineListener {
+        void deadlinesReached(List<Deadline> deadlines);
+    }
+
+    public static final int DEFAULT_REMINDER_DAYS = 1;
+
+    // Re-arm at least this often so clock changes and sleep are noticed
+    private static final long MAX_TIMER_DELAY_MILLIS = 60 * 60 * 1000;
+    private static final int OVERDUE_BIT = 1;
+    // Keys of days before 1970 are negative, so "no deadline" needs a value no day can have
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    private final TaskRepository repository;
+    private final int reminderDays;
+    private final Clock clock;
+    private final List<DeadlineListener> listeners = new CopyOnWriteArrayList<>();
+    private final Timer timer;
+
+    // Heap of (fireDay << 1 | overdue bit), with the task at the same index
+    private long[] keys = new long[1024];
+    private Task[] tasks = new Task[1024];
+    private int size;
+
+    public DeadlineScheduler(TaskRepository repository) {
+        this(repository, DEFAULT_REMINDER_DAYS, Clock.systemDefaultZone());
+    }
+
+    public DeadlineScheduler(TaskRepository repository, int reminderDays, Clock clock) {
+        this.repository = repository;
+        this.reminderDays = reminderDays;
+        this.clock = clock;
+        this.timer = new Timer(0, e -> fire());
+        timer.setRepeats(false);
+        addAll(repository.getTasks());
+        repository.addListener(this);
+        arm();
+    }
+
+    public void addListener(DeadlineListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(DeadlineListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getReminderDays() {
+        return reminderDays;
+    }
+
+    /** Number of pending deadlines. */
+    public int size() {
+        return size;
+    }
+
+    /** Day of the earliest pending deadline, or null if there is none. */
+    public LocalDate nextDeadline() {
+        return size == 0 ? null : LocalDate.ofEpochDay(keys[0] >> 1);
+    }
+
+    /** Stops firing and drops every pending deadline, so the tasks can be scheduled again. */
+    public void stop() {
+        timer.stop();
+        repository.removeListener(this);
+        for (int i = 0; i < size; i++) {
+            tasks[i].deadlineSlot = -1;
+            tasks[i] = null;
+        }
+        size = 0;
+    }
+
+    // --- Firing ---
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    /** Reports every deadline that has been reached and re-arms the timer. */
+    void fire() {
+        long today = today();
+        List<Deadline> reached = new ArrayList<>();
+        while (size > 0 && (keys[0] >> 1) <= today) {
+            Task task = tasks[0];
+            boolean overdue = (keys[0] & OVERDUE_BIT) != 0;
+            reached.add(new Deadline(task, overdue ? Kind.OVERDUE : Kind.DUE_SOON, task.getDueDate()));
+            if (overdue) {
+                removeAt(0);
+            } else {
+                // The reminder is done; the same entry now waits for the overdue day
+                keys[0] = overdueKey(task.getDueDate());
+                siftDown(0);
+            }
+        }
+        if (!reached.isEmpty()) {
+            for (DeadlineListener listener : listeners) {
+                listener.deadlinesReached(reached);
+            }
+        }
+        arm();
+    }
+
+    private void arm() {
+        if (size == 0) {
+            timer.stop();
+            return;
+        }
+        long day = keys[0] >> 1;
+        ZoneId zone = clock.getZone();
+        long fireAt = LocalDate.ofEpochDay(day).atStartOfDay(zone).toInstant().toEpochMilli();
+        long delay = Math.max(0, Math.min(MAX_TIMER_DELAY_MILLIS, fireAt - clock.millis()));
+        timer.setInitialDelay((int) delay);
+        timer.restart();
+    }
+
+    // --- Scheduling ---
+
+    private long reminderKey(LocalDate dueDate) {
+        return (dueDate.toEpochDay() - reminderDays) << 1;
+    }
+
+    private static long overdueKey(LocalDate dueDate) {
+        return ((dueDate.toEpochDay() + 1) << 1) | OVERDUE_BIT;
+    }
+
+    // The next deadline of a task, or NO_DEADLINE if it has none
+    private long keyOf(Task task) {
+        if (task.getDueDate() == null || task.getStatus() == Status.COMPLETED) {
+            return NO_DEADLINE;
+        }
+        long today = today();
+        long reminder = reminderKey(task.getDueDate());
+        if ((reminder >> 1) > today) {
+            return reminder;
+        }
+        if (task.getDueDate().toEpochDay() >= today) {
+            return reminder; // due soon already; fires on the next tick
+        }
+        return overdueKey(task.getDueDate());
+    }
+
+    /** Places, moves or drops the task's entry after its due date or status changed. */
+    private void reschedule(Task task) {
+        long key = keyOf(task);
+        int slot = task.deadlineSlot;
+        if (slot >= 0 && (keys[slot] & OVERDUE_BIT) != 0 && key != NO_DEADLINE
+                && (key & OVERDUE_BIT) == 0 && (key >> 1) <= today()) {
+            // Its reminder has fired and the new due date is still within the reminder window
+            key = overdueKey(task.getDueDate());
+        }
+        if (key == NO_DEADLINE) {
+            if (slot >= 0) {
+                removeAt(slot);
+            }
+        } else if (slot < 0) {
+            insert(task, key);
+        } else {
+            long old = keys[slot];
+            keys[slot] = key;
+            if (key < old) {
+                siftUp(slot);
+            } else {
+                siftDown(slot);
+            }
+        }
+    }
+
+    private void addAll(List<Task> added) {
+        if (added.size() < size) {
+            for (Task task : added) {
+                reschedule(task);
+            }
+            return;
+        }
+        // Appending then heapifying is O(n), cheaper than n inserts for big batches
+        for (Task task : added) {
+            long key = keyOf(task);
+            if (key != NO_DEADLINE && task.deadlineSlot < 0) {
+                ensureCapacity(size + 1);
+                keys[size] = key;
+                tasks[size] = task;
+                task.deadlineSlot = size++;
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    // --- Repository events ---
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        long before = size == 0 ? Long.MAX_VALUE : keys[0];
+        addAll(repository.getTasks(firstRow, lastRow + 1));
+        if (size > 0 && keys[0] != before) {
+            arm();
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        if (field == TaskField.DUE_DATE || field == TaskField.STATUS) {
+            long before = size == 0 ? Long.MAX_VALUE : keys[0];
+            reschedule(task);
+            if (size == 0 || keys[0] != before) {
+                arm();
+            }
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        if (task.deadlineSlot >= 0) {
+            boolean wasFirst = task.deadlineSlot == 0;
+            removeAt(task.deadlineSlot);
+            if (wasFirst) {
+                arm();
+            }
+        }
+    }
+
+    // --- Indexed binary heap ---
+
+    private void insert(Task task, long key) {
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        tasks[size] = task;
+        task.deadlineSlot = size;
+        siftUp(size++);
+    }
+
+    private void removeAt(int slot) {
+        Task removed = tasks[slot];
+        removed.deadlineSlot = -1;
+        int last = --size;
+        if (slot != last) {
+            keys[slot] = keys[last];
+            tasks[slot] = tasks[last];
+            tasks[slot].deadlineSlot = slot;
+            tasks[last] = null;
+            siftDown(slot);
+            siftUp(slot);
+        } else {
+            tasks[last] = null;
+        }
+    }
+
+    private void siftUp(int slot) {
+        long key = keys[slot];
+        Task task = tasks[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            place(slot, keys[parent], tasks[parent]);
+            slot = parent;
+        }
+        place(slot, key, task);
+    }
+
+    private void siftDown(int slot) {
+        long key = keys[slot];
+        Task task = tasks[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            place(slot, keys[child], tasks[child]);
+            slot = child;
+        }
+        place(slot, key, task);
+    }
+
+    private void place(int slot, long key, Task task) {
+        keys[slot] = key;
+        tasks[slot] = task;
+        task.deadlineSlot = slot;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newLength = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newLength);
+            tasks = Arrays.copyOf(tasks, newLength);
+        }
+    }
+}
@@ -0,0 +1,787 @@
+package todolist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Prerequisite links between tasks, with the state derived from them.
+ * <p>
+ * A task is <em>blocked</em> while any of its prerequisites is not
+ * completed. Its <em>earliest finish</em> is the later of its own due date
+ * and the earliest finish of its open prerequisites, since it cannot be
+ * done before the work it waits for; completed tasks constrain nothing.
+ * The prerequisite that sets a task's earliest finish past its due date is
+ * its critical prerequisite, and following those gives the critical path:
+ * the chain of tasks that decides when the task can be done.
+ * <p>
+ * Tasks with links are nodes in primitive adjacency arrays. The nodes are
+ * kept in a topological order that is repaired locally when an edge goes
+ * against it (Pearce-Kelly); the search that repairs it also detects
+ * cycles, so adding a dependency is O(1) when it agrees with the order and
+ * otherwise visits only the tasks between its two ends. Blocked state is a
+ * count of open prerequisites per task. When a status or due date changes,
+ * earliest finishes are recomputed from that task on in topological order,
+ * and only as far as they actually change.
+ * <p>
+ * A removed task takes its links with it; they are kept by task id and
+ * restored if the task comes back, e.g. by undo. The graph itself is not
+ * saved: {@link TaskJournal#followLinks} saves a local board's links.
+ * <p>
+ * Runs on the EDT, like the repository events that drive it. A task can be
+ * part of one graph at a time.
+ */
+public class DependencyGraph implements TaskRepositoryListener {
+
+    public interface DependencyListener {
+        /** Called after tasks became blocked or unblocked. */
+        void blockedStateChanged(List<Task> tasks);
+
+        /** Called after a dependency was added, also when it came back with a restored task. */
+        default void dependencyAdded(Task prerequisite, Task dependent) {}
+
+        /** Called after a dependency was removed; not for those that go with a removed task. */
+        default void dependencyRemoved(Task prerequisite, Task dependent) {}
+    }
+
+    /** Makes {@code dependent} wait for {@code prerequisite}. */
+    public record Dependency(Task prerequisite, Task dependent) {
+    }
+
+    // Batches at least this large, and an eighth of the graph, are added in one pass
+    private static final int BULK_THRESHOLD = 1024;
+    private static final int NONE = -1;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    private static final int REMOVED_LIMIT = 10_000; // removed tasks whose links are kept
+
+    private final TaskRepository repository;
+    private final List<DependencyListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Per node; a task's node is Task.dependencyNode
+    private Task[] tasks = new Task[1024];
+    private int[][] successors = new int[1024][];
+    private int[] successorCounts = new int[1024];
+    private int[][] predecessors = new int[1024][];
+    private int[] predecessorCounts = new int[1024];
+    private int[] order = new int[1024];            // every edge goes from a lower to a higher position
+    private int[] openPredecessors = new int[1024]; // blocked while > 0
+    private int[] finish = new int[1024];           // earliest finish as an epoch day, or NO_DAY
+    private int[] critical = new int[1024];         // predecessor that sets finish, or NONE
+    private int nodeCount;
+    private int[] freeNodes = new int[16];
+    private int freeCount;
+    private int firstOrder = -1; // positions for new nodes, which can go before
+    private int nextOrder;       // or after every other node as they have no links
+    private int edgeCount;
+
+    // Scratch space for searches and propagation; marks are stamped, never cleared
+    private int[] marks = new int[1024];
+    private int stamp;
+    private int[] stack = new int[256];
+    private int[] parents = new int[1024];
+    private int[] queue = new int[256];
+    private final List<Task> blockedChanges = new ArrayList<>();
+
+    // Links of removed tasks as (prerequisite id, dependent id) pairs, by task id; the oldest are forgotten
+    private final Map<Long, long[]> removedLinks = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+            return size() > REMOVED_LIMIT;
+        }
+    };
+
+    public DependencyGraph(TaskRepository repository) {
+        this.repository = repository;
+        repository.addListener(this);
+    }
+
+    public void addListener(DependencyListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(DependencyListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Stops following the repository and drops every dependency. */
+    public void stop() {
+        repository.removeListener(this);
+        for (int node = 0; node < nodeCount; node++) {
+            if (tasks[node] != null) {
+                tasks[node].dependencyNode = NONE;
+                tasks[node] = null;
+            }
+        }
+        nodeCount = 0;
+        freeCount = 0;
+        edgeCount = 0;
+        removedLinks.clear();
+    }
+
+    /** Number of dependencies. */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    // --- Editing ---
+
+    /**
+     * Makes {@code dependent} wait for {@code prerequisite}.
+     *
+     * @return false if the dependency already existed
+     * @throws IllegalArgumentException if either task is not on the board,
+     *         or the dependency would close a cycle
+     */
+    public boolean addDependency(Task prerequisite, Task dependent) {
+        checkStored(prerequisite);
+        checkStored(dependent);
+        if (prerequisite == dependent) {
+            throw new IllegalArgumentException("A task cannot depend on itself: " + dependent.getTitle());
+        }
+        int from = nodeOf(prerequisite, true);
+        int to = nodeOf(dependent, false);
+        if (indexOf(successors[from], successorCounts[from], to) >= 0) {
+            return false;
+        }
+        if (order[from] > order[to]) {
+            reorder(from, to);
+        }
+        link(from, to);
+        if (!isCompleted(from)) {
+            adjustOpen(to, 1);
+        }
+        propagate(to);
+        fireBlockedStateChanged();
+        for (DependencyListener listener : listeners) {
+            listener.dependencyAdded(prerequisite, dependent);
+        }
+        return true;
+    }
+
+    /**
+     * Adds many dependencies, e.g. from an imported plan. Large batches are
+     * linked first, then the order and the derived state are rebuilt in one
+     * pass over the graph instead of being repaired edge by edge.
+     *
+     * @return the number of dependencies that did not exist yet
+     * @throws IllegalArgumentException as {@link #addDependency}; none of the batch is added then
+     */
+    public int addAll(Collection<Dependency> dependencies) {
+        if (dependencies.size() < Math.max(BULK_THRESHOLD, edgeCount / 8)) {
+            List<Dependency> added = new ArrayList<>();
+            try {
+                for (Dependency dependency : dependencies) {
+                    if (addDependency(dependency.prerequisite(), dependency.dependent())) {
+                        added.add(dependency);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                for (int i = added.size() - 1; i >= 0; i--) {
+                    removeDependency(added.get(i).prerequisite(), added.get(i).dependent());
+                }
+                throw e;
+            }
+            return added.size();
+        }
+        for (Dependency dependency : dependencies) {
+            checkStored(dependency.prerequisite());
+            checkStored(dependency.dependent());
+            if (dependency.prerequisite() == dependency.dependent()) {
+                throw new IllegalArgumentException("A task cannot depend on itself: " + dependency.dependent().getTitle());
+            }
+        }
+        int[] added = new int[2 * dependencies.size()];
+        int count = 0;
+        for (Dependency dependency : dependencies) {
+            int from = nodeOf(dependency.prerequisite(), true);
+            int to = nodeOf(dependency.dependent(), false);
+            if (indexOf(successors[from], successorCounts[from], to) < 0) {
+                link(from, to);
+                added[count++] = from;
+                added[count++] = to;
+            }
+        }
+        int[] sorted = topologicalOrder();
+        if (sorted == null) {
+            for (int i = count - 2; i >= 0; i -= 2) {
+                detach(added[i], added[i + 1]);
+            }
+            throw new IllegalArgumentException("Dependencies would create a cycle");
+        }
+        for (int i = 0; i < sorted.length; i++) {
+            order[sorted[i]] = i;
+        }
+        firstOrder = -1;
+        nextOrder = sorted.length;
+        for (int i = 0; i < count; i += 2) {
+            if (!isCompleted(added[i])) {
+                adjustOpen(added[i + 1], 1);
+            }
+        }
+        for (int node : sorted) {
+            recompute(node);
+        }
+        fireBlockedStateChanged();
+        for (int i = 0; i < count; i += 2) {
+            for (DependencyListener listener : listeners) {
+                listener.dependencyAdded(tasks[added[i]], tasks[added[i + 1]]);
+            }
+        }
+        return count / 2;
+    }
+
+    /**
+     * Kahn's algorithm over all nodes, or null if they contain a cycle.
+     * Ready tasks are taken in board order: plans are mostly entered in the
+     * order the work happens, so the result stays close to the board and
+     * links added later rarely go against it.
+     */
+    private int[] topologicalOrder() {
+        int[] waiting = new int[nodeCount];
+        int live = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (tasks[node] != null) {
+                live++;
+                waiting[node] = predecessorCounts[node];
+            }
+        }
+        int[] sorted = new int[live];
+        int count = 0;
+        long[] ready = new long[64]; // heap of row << 32 | node
+        int size = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (tasks[node] != null && waiting[node] == 0) {
+                ready = pushReady(ready, size++, node);
+            }
+        }
+        while (size > 0) {
+            int node = (int) ready[0];
+            size = popReady(ready, size);
+            sorted[count++] = node;
+            for (int i = 0; i < successorCounts[node]; i++) {
+                int successor = successors[node][i];
+                if (--waiting[successor] == 0) {
+                    ready = pushReady(ready, size++, successor);
+                }
+            }
+        }
+        return count == live ? sorted : null;
+    }
+
+    private long[] pushReady(long[] heap, int size, int node) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        long key = (long) tasks[node].row << 32 | node;
+        int i = size;
+        while (i > 0 && heap[(i - 1) >>> 1] > key) {
+            heap[i] = heap[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        heap[i] = key;
+        return heap;
+    }
+
+    private static int popReady(long[] heap, int size) {
+        long last = heap[--size];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return size;
+    }
+
+    /** @return false if there was no such dependency */
+    public boolean removeDependency(Task prerequisite, Task dependent) {
+        int from = prerequisite.dependencyNode;
+        int to = dependent.dependencyNode;
+        if (from == NONE || to == NONE || tasks[from] != prerequisite || tasks[to] != dependent
+                || !unlink(from, to)) {
+            return false;
+        }
+        propagate(to);
+        fireBlockedStateChanged();
+        for (DependencyListener listener : listeners) {
+            listener.dependencyRemoved(prerequisite, dependent);
+        }
+        return true;
+    }
+
+    private void checkStored(Task task) {
+        if (repository.indexOf(task) < 0) {
+            throw new IllegalArgumentException("Task is not on this board: " + task.getTitle());
+        }
+    }
+
+    // The task's node, created at the front or the back of the order if it is new
+    private int nodeOf(Task task, boolean front) {
+        if (task.dependencyNode != NONE && tasks[task.dependencyNode] == task) {
+            return task.dependencyNode;
+        }
+        if (task.dependencyNode != NONE) {
+            throw new IllegalArgumentException("Task belongs to another dependency graph: " + task.getTitle());
+        }
+        int node;
+        if (freeCount > 0) {
+            node = freeNodes[--freeCount];
+        } else {
+            node = nodeCount++;
+            if (node == tasks.length) {
+                grow(node * 2);
+            }
+        }
+        tasks[node] = task;
+        task.dependencyNode = node;
+        successorCounts[node] = 0;
+        predecessorCounts[node] = 0;
+        order[node] = front ? firstOrder-- : nextOrder++;
+        openPredecessors[node] = 0;
+        finish[node] = isCompleted(node) ? NO_DAY : day(task.getDueDate());
+        critical[node] = NONE;
+        return node;
+    }
+
+    private void grow(int capacity) {
+        tasks = Arrays.copyOf(tasks, capacity);
+        successors = Arrays.copyOf(successors, capacity);
+        successorCounts = Arrays.copyOf(successorCounts, capacity);
+        predecessors = Arrays.copyOf(predecessors, capacity);
+        predecessorCounts = Arrays.copyOf(predecessorCounts, capacity);
+        order = Arrays.copyOf(order, capacity);
+        openPredecessors = Arrays.copyOf(openPredecessors, capacity);
+        finish = Arrays.copyOf(finish, capacity);
+        critical = Arrays.copyOf(critical, capacity);
+        marks = Arrays.copyOf(marks, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+    }
+
+    private void link(int from, int to) {
+        successors[from] = append(successors[from], successorCounts[from]++, to);
+        predecessors[to] = append(predecessors[to], predecessorCounts[to]++, from);
+        edgeCount++;
+    }
+
+    private boolean detach(int from, int to) {
+        int index = indexOf(successors[from], successorCounts[from], to);
+        if (index < 0) {
+            return false;
+        }
+        successors[from][index] = successors[from][--successorCounts[from]];
+        index = indexOf(predecessors[to], predecessorCounts[to], from);
+        predecessors[to][index] = predecessors[to][--predecessorCounts[to]];
+        edgeCount--;
+        return true;
+    }
+
+    private boolean unlink(int from, int to) {
+        if (!detach(from, to)) {
+            return false;
+        }
+        if (!isCompleted(from)) {
+            adjustOpen(to, -1);
+        }
+        return true;
+    }
+
+    // Drops a removed task and its links; its dependents are updated
+    private void release(int node) {
+        while (predecessorCounts[node] > 0) {
+            unlink(predecessors[node][0], node);
+        }
+        int dirty = 0; // former dependents, collected in the stack
+        while (successorCounts[node] > 0) {
+            int successor = successors[node][0];
+            unlink(node, successor);
+            stack = append(stack, dirty++, successor);
+        }
+        tasks[node].dependencyNode = NONE;
+        tasks[node] = null;
+        successors[node] = null;
+        predecessors[node] = null;
+        freeNodes = append(freeNodes, freeCount++, node);
+        for (int i = 0; i < dirty; i++) {
+            propagate(stack[i]);
+        }
+    }
+
+    // --- Topological order ---
+
+    /**
+     * Repairs the order before adding from -> to where to comes first:
+     * the tasks reachable from {@code to} that are not after {@code from},
+     * and the tasks reaching {@code from} that are not before {@code to},
+     * swap places, keeping their relative order and the positions they held.
+     */
+    private void reorder(int from, int to) {
+        int lower = order[to];
+        int upper = order[from];
+        stamp++;
+        int[] forward = search(to, successors, successorCounts, lower, upper, from);
+        int[] backward = search(from, predecessors, predecessorCounts, lower, upper, NONE);
+        sortByOrder(forward);
+        sortByOrder(backward);
+        int[] positions = new int[forward.length + backward.length];
+        for (int i = 0; i < backward.length; i++) {
+            positions[i] = order[backward[i]];
+        }
+        for (int i = 0; i < forward.length; i++) {
+            positions[backward.length + i] = order[forward[i]];
+        }
+        Arrays.sort(positions);
+        for (int i = 0; i < backward.length; i++) {
+            order[backward[i]] = positions[i];
+        }
+        for (int i = 0; i < forward.length; i++) {
+            order[forward[i]] = positions[backward.length + i];
+        }
+    }
+
+    // Depth-first search over nodes positioned within [lower, upper]; reaching target is a cycle
+    private int[] search(int start, int[][] edges, int[] counts, int lower, int upper, int target) {
+        int found = 0;
+        int top = 0;
+        stack = append(stack, top++, start);
+        marks[start] = stamp;
+        parents[start] = NONE;
+        int[] visited = new int[16];
+        while (top > 0) {
+            int node = stack[--top];
+            visited = append(visited, found++, node);
+            for (int i = 0; i < counts[node]; i++) {
+                int next = edges[node][i];
+                if (next == target) {
+                    parents[next] = node;
+                    throw new IllegalArgumentException("Dependency would create a cycle: " + cycle(target, start));
+                }
+                if (marks[next] != stamp && order[next] >= lower && order[next] <= upper) {
+                    marks[next] = stamp;
+                    parents[next] = node;
+                    stack = append(stack, top++, next);
+                }
+            }
+        }
+        return Arrays.copyOf(visited, found);
+    }
+
+    // from -> to -> ... -> from, following the parents of the forward search
+    private String cycle(int from, int to) {
+        List<String> titles = new ArrayList<>();
+        int node = from;
+        while (node != to && titles.size() < 10) {
+            titles.add(tasks[node].getTitle());
+            node = parents[node];
+        }
+        if (node != to) {
+            titles.add("...");
+        }
+        titles.add(tasks[to].getTitle());
+        Collections.reverse(titles);
+        titles.add(0, tasks[from].getTitle());
+        return String.join(" -> ", titles);
+    }
+
+    private void sortByOrder(int[] nodes) {
+        long[] keyed = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            keyed[i] = (long) order[nodes[i]] << 32 | nodes[i];
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = (int) keyed[i];
+        }
+    }
+
+    // --- Derived state ---
+
+    private boolean isCompleted(int node) {
+        return tasks[node].getStatus() == Status.COMPLETED;
+    }
+
+    private void adjustOpen(int node, int delta) {
+        int before = openPredecessors[node];
+        openPredecessors[node] = before + delta;
+        if ((before == 0) != (before + delta == 0)) {
+            blockedChanges.add(tasks[node]);
+        }
+    }
+
+    /**
+     * Recomputes the earliest finish of {@code start} and of everything
+     * after it whose finish changes, visiting nodes in topological order so
+     * each is recomputed once, after all its predecessors.
+     */
+    private void propagate(int start) {
+        stamp++;
+        int size = 0;
+        size = offer(size, start);
+        while (size > 0) {
+            int node = queue[0];
+            size = poll(size);
+            if (recompute(node)) {
+                for (int i = 0; i < successorCounts[node]; i++) {
+                    int successor = successors[node][i];
+                    if (marks[successor] != stamp) {
+                        size = offer(size, successor);
+                    }
+                }
+            }
+        }
+    }
+
+    // Returns whether the earliest finish changed
+    private boolean recompute(int node) {
+        int day = NO_DAY;
+        int by = NONE;
+        if (!isCompleted(node)) {
+            day = day(tasks[node].getDueDate());
+            for (int i = 0; i < predecessorCounts[node]; i++) {
+                int predecessor = predecessors[node][i];
+                if (finish[predecessor] > day) {
+                    day = finish[predecessor];
+                    by = predecessor;
+                }
+            }
+        }
+        critical[node] = by;
+        if (finish[node] == day) {
+            return false;
+        }
+        finish[node] = day;
+        return true;
+    }
+
+    // Binary min-heap of nodes by topological position
+    private int offer(int size, int node) {
+        marks[node] = stamp;
+        queue = append(queue, size, node);
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (order[queue[parent]] <= order[node]) {
+                break;
+            }
+            queue[i] = queue[parent];
+            i = parent;
+        }
+        queue[i] = node;
+        return size + 1;
+    }
+
+    private int poll(int size) {
+        int last = queue[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && order[queue[child + 1]] < order[queue[child]]) {
+                child++;
+            }
+            if (order[queue[child]] >= order[last]) {
+                break;
+            }
+            queue[i] = queue[child];
+            i = child;
+        }
+        if (size > 0) {
+            queue[i] = last;
+        }
+        return size;
+    }
+
+    private void fireBlockedStateChanged() {
+        if (blockedChanges.isEmpty()) {
+            return;
+        }
+        List<Task> changed = new ArrayList<>(blockedChanges);
+        blockedChanges.clear();
+        for (DependencyListener listener : listeners) {
+            listener.blockedStateChanged(changed);
+        }
+    }
+
+    // --- Queries ---
+
+    private int node(Task task) {
+        int node = task.dependencyNode;
+        return node != NONE && tasks[node] == task ? node : NONE;
+    }
+
+    /** True while a prerequisite of the task is not completed. */
+    public boolean isBlocked(Task task) {
+        int node = node(task);
+        return node != NONE && openPredecessors[node] > 0;
+    }
+
+    public List<Task> getPrerequisites(Task task) {
+        int node = node(task);
+        return node == NONE ? Collections.emptyList() : tasksOf(predecessors[node], predecessorCounts[node]);
+    }
+
+    public List<Task> getDependents(Task task) {
+        int node = node(task);
+        return node == NONE ? Collections.emptyList() : tasksOf(successors[node], successorCounts[node]);
+    }
+
+    private List<Task> tasksOf(int[] nodes, int count) {
+        List<Task> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(tasks[nodes[i]]);
+        }
+        return result;
+    }
+
+    /** The earliest day the task can be finished, or null if it is completed or nothing dates it. */
+    public LocalDate getEarliestFinish(Task task) {
+        int node = node(task);
+        if (node == NONE) {
+            return task.getStatus() == Status.COMPLETED ? null : task.getDueDate();
+        }
+        return finish[node] == NO_DAY ? null : LocalDate.ofEpochDay(finish[node]);
+    }
+
+    /** The chain of open tasks that sets the task's earliest finish, ending with the task. */
+    public List<Task> getCriticalPath(Task task) {
+        int node = node(task);
+        if (node == NONE) {
+            return Collections.singletonList(task);
+        }
+        List<Task> path = new ArrayList<>();
+        for (int n = node; n != NONE; n = critical[n]) {
+            path.add(tasks[n]);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** The critical path of the linked task that can finish last; empty if no open task is dated. */
+    public List<Task> getCriticalPath() {
+        int last = NONE;
+        for (int node = 0; node < nodeCount; node++) {
+            if (tasks[node] != null && finish[node] != NO_DAY && (last == NONE || finish[node] > finish[last])) {
+                last = node;
+            }
+        }
+        return last == NONE ? Collections.emptyList() : getCriticalPath(tasks[last]);
+    }
+
+    // --- Repository events ---
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        int node = node(task);
+        if (node == NONE) {
+            return;
+        }
+        if (field == TaskField.STATUS) {
+            boolean wasCompleted = oldValue == Status.COMPLETED;
+            if (wasCompleted != (newValue == Status.COMPLETED)) {
+                for (int i = 0; i < successorCounts[node]; i++) {
+                    adjustOpen(successors[node][i], wasCompleted ? 1 : -1);
+                }
+                propagate(node);
+            }
+        } else if (field == TaskField.DUE_DATE) {
+            propagate(node);
+        }
+        fireBlockedStateChanged();
+    }
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        if (removedLinks.isEmpty()) {
+            return;
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            long id = repository.getTaskAt(row).getId();
+            long[] links = removedLinks.remove(id);
+            for (int i = 0; links != null && i < links.length; i += 2) {
+                long other = links[i] == id ? links[i + 1] : links[i];
+                if (repository.getTask(other) == null) {
+                    // Still removed; the link comes back with it
+                    removedLinks.merge(other, new long[] {links[i], links[i + 1]}, DependencyGraph::concat);
+                    continue;
+                }
+                try {
+                    addDependency(repository.getTask(links[i]), repository.getTask(links[i + 1]));
+                } catch (IllegalArgumentException e) {
+                    // Would close a cycle with a link added meanwhile; that one wins
+                }
+            }
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        int node = node(task);
+        if (node != NONE) {
+            keepLinks(task.getId(), node);
+            release(node);
+            fireBlockedStateChanged();
+        }
+    }
+
+    private void keepLinks(long id, int node) {
+        long[] links = new long[2 * (predecessorCounts[node] + successorCounts[node])];
+        int count = 0;
+        for (int i = 0; i < predecessorCounts[node]; i++) {
+            links[count++] = tasks[predecessors[node][i]].getId();
+            links[count++] = id;
+        }
+        for (int i = 0; i < successorCounts[node]; i++) {
+            links[count++] = id;
+            links[count++] = tasks[successors[node][i]].getId();
+        }
+        if (count > 0) {
+            removedLinks.merge(id, links, DependencyGraph::concat);
+        }
+    }
+
+    // --- Helpers ---
+
+    private static int day(LocalDate date) {
+        return date == null ? NO_DAY : Math.toIntExact(date.toEpochDay());
+    }
+
+    private static int indexOf(int[] nodes, int count, int node) {
+        for (int i = 0; i < count; i++) {
+            if (nodes[i] == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+
+    // Stores value at index, growing the array if needed
+    private static int[] append(int[] array, int index, int value) {
+        if (array == null) {
+            array = new int[4];
+        } else if (index == array.length) {
+            array = Arrays.copyOf(array, index * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+}
@@ -0,0 +1,106 @@
+package todolist;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Event queue that times every event the EDT dispatches and logs the ones
+ * that run longer than a budget.
+ * <p>
+ * A daemon thread also checks the running event while it is still running:
+ * once it is over budget the EDT's stack is logged, which shows what the
+ * handler is stuck in rather than only that it was slow. When it finishes
+ * the total time and the event are logged as well.
+ */
+public final class EdtWatchdog extends EventQueue {
+    private static final Logger LOG = Logger.getLogger(EdtWatchdog.class.getName());
+
+    public static final long DEFAULT_BUDGET_MILLIS = 100;
+
+    private static final AppMetrics.Histogram DISPATCH = AppMetrics.histogram("edt.dispatch");
+    private static final AppMetrics.Counter STALLS = AppMetrics.counter("edt.stalls");
+
+    private final long budgetNanos;
+    private final AtomicLong stallCount = new AtomicLong();
+    private volatile Thread edt;
+    private volatile long dispatchStart; // 0 when idle or not timed
+    private boolean nested; // the running event has dispatched others (EDT only)
+    private volatile boolean stackLogged;
+
+    private EdtWatchdog(long budgetMillis) {
+        this.budgetNanos = budgetMillis * 1_000_000;
+    }
+
+    /** Replaces the system event queue with a watchdog using {@code budgetMillis}. */
+    public static EdtWatchdog install(long budgetMillis) {
+        EdtWatchdog watchdog = new EdtWatchdog(budgetMillis);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+        Thread checker = new Thread(watchdog::checkLoop, "edt-watchdog");
+        checker.setDaemon(true);
+        checker.start();
+        return watchdog;
+    }
+
+    /** Number of events that went over budget so far. */
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        edt = Thread.currentThread();
+        boolean outermost = dispatchStart == 0 && !nested;
+        nested = false;
+        stackLogged = false;
+        long start = System.nanoTime();
+        dispatchStart = start;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (!nested) {
+                DISPATCH.record(elapsed);
+            }
+            if (!nested && elapsed > budgetNanos) {
+                stallCount.incrementAndGet();
+                STALLS.increment();
+                LOG.warning(String.format("EDT busy for %d ms handling %s", elapsed / 1_000_000, describe(event)));
+            }
+            // An event that ran a nested loop (e.g. a modal dialog) is not timed any further:
+            // its time is mostly the user's, and the nested events were timed on their own
+            nested = !outermost;
+            dispatchStart = 0;
+        }
+    }
+
+    // Logs the EDT stack once per over-budget event while it is still running
+    private void checkLoop() {
+        long period = Math.max(1, budgetNanos / 2_000_000);
+        while (true) {
+            try {
+                Thread.sleep(period);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long start = dispatchStart;
+            Thread thread = edt;
+            if (start != 0 && thread != null && !stackLogged && System.nanoTime() - start > budgetNanos) {
+                stackLogged = true;
+                StringBuilder trace = new StringBuilder("EDT stalled for over ")
+                        .append(budgetNanos / 1_000_000).append(" ms in:");
+                for (StackTraceElement frame : thread.getStackTrace()) {
+                    trace.append("\n\tat ").append(frame);
+                }
+                LOG.warning(trace.toString());
+            }
+        }
+    }
+
+    private static String describe(AWTEvent event) {
+        String text = event.toString();
+        return text.length() > 200 ? text.substring(0, 200) + "..." : text;
+    }
+}
@@ -1,15 +1,20 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
-package todolist;
-
-/**
- *
- * @author Mario Abraham
- */
-public class GroupLeader extends GroupMember {
-    public GroupLeader(String name) {
-        super(name);
-    }
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package todolist;
+
+/**
+ *
+ * @author Mario Abraham
+ */
+public class GroupLeader extends GroupMember {
+    GroupLeader(String name, int id) {
+        super(name, id);
+    }
+
+    /** The leader called {@code name}. */
+    public static GroupLeader of(String name) {
+        return (GroupLeader) GroupMember.of(name, true);
+    }
 }
\ No newline at end of file
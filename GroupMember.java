@@ -1,40 +1,67 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
-package todolist;
-import java.util.Objects;
-/**
- *
- * @author Mario Abraham
- */
-public class GroupMember {
-    private String name;
-
-    public GroupMember(String name) {
-        this.name = name;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    @Override
-    public String toString() {
-        return name; // This is important for JComboBox display
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        GroupMember that = (GroupMember) o;
-        return Objects.equals(name, that.name);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(name);
-    }
-    
-}
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package todolist;
+/**
+ *
+ * @author Mario Abraham
+ */
+public class GroupMember {
+    private static final NameRegistry<Key, GroupMember> REGISTRY = new NameRegistry<>();
+
+    // Members and leaders with the same name are distinct, as they always were
+    private record Key(String name, boolean leader) {
+    }
+
+    private final String name;
+    private final int id;
+
+    GroupMember(String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    /** The member called {@code name}; see {@link GroupLeader#of} for leaders. */
+    public static GroupMember of(String name) {
+        return of(name, false);
+    }
+
+    /** The member or leader called {@code name}. */
+    public static GroupMember of(String name, boolean leader) {
+        if (name == null) {
+            throw new IllegalArgumentException("Member name must not be null");
+        }
+        return REGISTRY.intern(new Key(name, leader), id -> leader ? new GroupLeader(name, id) : new GroupMember(name, id));
+    }
+
+    /** The member with {@code id}, or null if there is none. */
+    public static GroupMember byId(int id) {
+        return REGISTRY.get(id);
+    }
+
+    /** Number of members created so far; every id is below this. */
+    static int count() {
+        return REGISTRY.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Dense id, unique among members and leaders in this process. */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return name; // This is important for JComboBox display
+    }
+
+    // Instances are canonical (one per name and role), so identity equals is exact
+    @Override
+    public final int hashCode() {
+        return id;
+    }
+}
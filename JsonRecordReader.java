@@ -0,0 +1,166 @@
+package todolist;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streams task objects out of a JSON array such as
+ * {@code [{"title": "...", "dueDate": "2025-01-31", "progress": 50}, ...]}.
+ * <p>
+ * Only what the export format needs is supported: one top-level array of
+ * flat objects whose values are strings, numbers, booleans or null. Keys are
+ * matched against {@link TaskTransfer#COLUMNS}; others are skipped. Objects
+ * are parsed one at a time, so memory use does not grow with the file.
+ */
+public class JsonRecordReader implements TaskTransfer.RecordReader {
+    private final Reader in;
+    private final StringBuilder text = new StringBuilder();
+    private int peeked = -2; // -2 = nothing peeked
+    private int recordNumber;
+    private boolean finished;
+
+    public JsonRecordReader(Reader in) throws IOException {
+        this.in = in;
+        expect('[');
+        if (peekToken() == ']') {
+            read();
+            finished = true;
+        }
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        recordNumber++;
+        String[] values = new String[TaskTransfer.COLUMNS.size()];
+        Arrays.fill(values, "");
+        expect('{');
+        if (peekToken() == '}') {
+            read();
+        } else {
+            while (true) {
+                String key = readString();
+                expect(':');
+                String value = readValue();
+                int column = TaskTransfer.COLUMNS.indexOf(key);
+                if (column >= 0 && value != null) {
+                    values[column] = value;
+                }
+                int c = readToken();
+                if (c == '}') {
+                    break;
+                } else if (c != ',') {
+                    throw error("',' or '}'");
+                }
+            }
+        }
+        int separator = readToken();
+        if (separator == ']') {
+            finished = true;
+        } else if (separator != ',') {
+            throw error("',' or ']'");
+        }
+        return values;
+    }
+
+    @Override
+    public int getRecordNumber() {
+        return recordNumber;
+    }
+
+    // A value as text; null for JSON null
+    private String readValue() throws IOException {
+        int c = peekToken();
+        if (c == '"') {
+            return readString();
+        }
+        text.setLength(0);
+        while (true) {
+            c = peek();
+            if (c == -1 || c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            text.append((char) read());
+        }
+        String literal = text.toString();
+        if (literal.isEmpty()) {
+            throw error("a value");
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("end of string");
+            } else if (c == '"') {
+                return text.toString();
+            } else if (c == '\\') {
+                int escaped = read();
+                switch (escaped) {
+                    case 'n': text.append('\n'); break;
+                    case 'r': text.append('\r'); break;
+                    case 't': text.append('\t'); break;
+                    case 'b': text.append('\b'); break;
+                    case 'f': text.append('\f'); break;
+                    case 'u':
+                        char[] hex = new char[4];
+                        for (int i = 0; i < 4; i++) {
+                            hex[i] = (char) read();
+                        }
+                        try {
+                            text.append((char) Integer.parseInt(new String(hex), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("a \\u escape");
+                        }
+                        break;
+                    default: text.append((char) escaped); break; // \" \\ \/
+                }
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (readToken() != expected) {
+            throw error("'" + expected + "'");
+        }
+    }
+
+    private int readToken() throws IOException {
+        peekToken();
+        return read();
+    }
+
+    // Skips whitespace and peeks at the next character
+    private int peekToken() throws IOException {
+        while (peek() != -1 && Character.isWhitespace(peek())) {
+            read();
+        }
+        return peek();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        peeked = -2;
+        return c;
+    }
+
+    private IOException error(String expected) {
+        return new IOException("Malformed JSON in object " + recordNumber + ": expected " + expected);
+    }
+}
@@ -0,0 +1,233 @@
+package todolist;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import todolist.TaskProtocol.Mutation;
+import todolist.TaskProtocol.MutationResult;
+
+/**
+ * Simulates many clients against a {@link TaskServer} and reports request
+ * latency percentiles and throughput.
+ * <p>
+ * Each simulated client runs on a virtual thread with its own connection,
+ * keeps up to {@code depth} requests in flight, and mixes single-task reads
+ * with batched updates of the tasks it created. Without {@code --connect}
+ * an in-process server with an empty board is started, so the whole run
+ * fits on one machine.
+ * <pre>
+ *   LoadGenerator [--connect host:port] [--clients 64] [--seconds 10]
+ *                 [--depth 8] [--batch 16] [--writes 0.2]
+ * </pre>
+ */
+public class LoadGenerator {
+    private static final int TASKS_PER_CLIENT = 200;
+
+    private final String host;
+    private final int port;
+    private final int depth;
+    private final int batchSize;
+    private final double writeRatio;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder mutations = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public LoadGenerator(String host, int port, int depth, int batchSize, double writeRatio) {
+        this.host = host;
+        this.port = port;
+        this.depth = depth;
+        this.batchSize = batchSize;
+        this.writeRatio = writeRatio;
+    }
+
+    // Request latencies of one client, in nanoseconds
+    private static final class Latencies {
+        private long[] values = new long[1 << 14];
+        private int size;
+
+        synchronized void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /** Runs {@code clients} clients for {@code seconds} and prints a summary. */
+    public void run(int clients, int seconds) throws Exception {
+        try (TaskClient setup = TaskClient.connect(host, port)) {
+            setup.apply(List.of(Mutation.addCategory(LoadGenerator.class.getSimpleName()))).get();
+        }
+        List<Latencies> latencies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for (int i = 0; i < clients; i++) {
+            Latencies clientLatencies = new Latencies();
+            latencies.add(clientLatencies);
+            long seed = i;
+            threads.add(Thread.ofVirtual().name("load-client-" + i).start(() -> {
+                try {
+                    runClient(new Random(seed), deadline, clientLatencies);
+                } catch (Exception e) {
+                    errors.increment();
+                    System.err.println(Thread.currentThread().getName() + " failed: " + e);
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long[] all = latencies.stream().map(Latencies::toArray).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("clients=%d depth=%d batch=%d writes=%.2f seconds=%.1f%n",
+                clients, depth, batchSize, writeRatio, elapsed);
+        System.out.printf("requests=%d (%.0f ops/s)  mutations=%d (%.0f/s)  stale=%d  errors=%d%n",
+                requests.sum(), requests.sum() / elapsed, mutations.sum(), mutations.sum() / elapsed,
+                stale.sum(), errors.sum());
+        System.out.printf("latency us: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                percentile(all, 0.999), all.length == 0 ? 0 : all[all.length - 1] / 1e3);
+    }
+
+    private void runClient(Random random, long deadline, Latencies latencies) throws Exception {
+        try (TaskClient client = TaskClient.connect(host, port)) {
+            // Create this client's own tasks so updates rarely collide with other clients
+            List<Mutation> creates = new ArrayList<>(TASKS_PER_CLIENT);
+            for (int i = 0; i < TASKS_PER_CLIENT; i++) {
+                creates.add(Mutation.putTask(new TaskRecord(0, 0, "Load task " + i, "Generated", LocalDate.now(),
+                        Priority.MEDIUM, LoadGenerator.class.getSimpleName(), Status.NOT_STARTED, 0, null)));
+            }
+            List<MutationResult> created = client.apply(creates).get();
+            long[] ids = new long[created.size()];
+            long[] versions = new long[created.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = created.get(i).id();
+                versions[i] = created.get(i).version();
+            }
+
+            Semaphore inFlight = new Semaphore(depth);
+            int next = 0;
+            while (System.nanoTime() < deadline) {
+                inFlight.acquire();
+                long sent = System.nanoTime();
+                CompletableFuture<?> response;
+                if (random.nextDouble() < writeRatio) {
+                    response = sendUpdates(client, random, ids, versions, next);
+                    next = (next + batchSize) % ids.length;
+                } else {
+                    response = client.getTask(ids[random.nextInt(ids.length)]);
+                }
+                response.whenComplete((result, error) -> {
+                    latencies.add(System.nanoTime() - sent);
+                    requests.increment();
+                    if (error != null) {
+                        errors.increment();
+                    }
+                    inFlight.release();
+                });
+            }
+            inFlight.acquire(depth); // wait for the tail
+        }
+    }
+
+    private CompletableFuture<?> sendUpdates(TaskClient client, Random random, long[] ids, long[] versions, int first) {
+        List<Mutation> batch = new ArrayList<>(batchSize);
+        int[] slots = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            int slot = (first + i) % ids.length;
+            slots[i] = slot;
+            long version;
+            synchronized (versions) {
+                version = versions[slot];
+            }
+            batch.add(Mutation.putTask(new TaskRecord(ids[slot], version, "Load task " + slot, "Updated",
+                    LocalDate.now().plusDays(random.nextInt(30)), Priority.values()[random.nextInt(Priority.values().length)],
+                    LoadGenerator.class.getSimpleName(), Status.IN_PROGRESS, random.nextInt(101), null)));
+        }
+        return client.apply(batch).thenAccept(results -> {
+            mutations.add(results.size());
+            synchronized (versions) {
+                for (int i = 0; i < results.size(); i++) {
+                    MutationResult result = results.get(i);
+                    if (result.status() == TaskProtocol.STALE) {
+                        stale.increment();
+                    } else if (!result.isOk()) {
+                        errors.increment();
+                    }
+                    versions[slots[i]] = result.version(); // current version either way
+                }
+            }
+        });
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e3;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String connect = null;
+        int clients = 64;
+        int seconds = 10;
+        int depth = 8;
+        int batch = 16;
+        double writes = 0.2;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--connect" -> connect = value;
+                case "--clients" -> clients = Integer.parseInt(value);
+                case "--seconds" -> seconds = Integer.parseInt(value);
+                case "--depth" -> depth = Integer.parseInt(value);
+                case "--batch" -> batch = Integer.parseInt(value);
+                case "--writes" -> writes = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        TaskServer server = null;
+        WriterThread writer = null;
+        String host;
+        int port;
+        if (connect == null) {
+            writer = new WriterThread("load-server-writer");
+            server = new TaskServer(new TaskRepository(writer), 0);
+            server.start();
+            host = "localhost";
+            port = server.getPort();
+        } else {
+            int colon = connect.lastIndexOf(':');
+            host = connect.substring(0, colon);
+            port = Integer.parseInt(connect.substring(colon + 1));
+        }
+        try {
+            new LoadGenerator(host, port, depth, batch, writes).run(clients, seconds);
+        } catch (IOException e) {
+            System.err.println("Load run failed: " + e.getMessage());
+        } finally {
+            if (server != null) {
+                server.close();
+                writer.close();
+            }
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,147 @@
+package todolist;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs model work off the EDT and hands the results back to it.
+ * <p>
+ * Work runs on a bounded pool of daemon threads and each call returns a
+ * {@link CompletableFuture}; cancelling it interrupts the worker. Results
+ * that have to reach the EDT go through one shared queue that is drained
+ * by a single {@code invokeLater}, so a burst of completions costs one
+ * event instead of one per result.
+ * <p>
+ * {@link #submitLatest} is for work that the user can supersede, such as a
+ * search while typing: starting a new job for the same key cancels the
+ * previous one, and a result that was overtaken is never delivered.
+ * <p>
+ * Repository mutations stay on the EDT, where every listener expects them;
+ * this is for reads, searches and I/O.
+ */
+public class ModelExecutor {
+    private static final Logger LOG = Logger.getLogger(ModelExecutor.class.getName());
+
+    private final ExecutorService workers;
+    private final Queue<Runnable> edtQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Map<Object, CompletableFuture<?>> latest = new ConcurrentHashMap<>();
+
+    public ModelExecutor() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public ModelExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "model-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Runs {@code work} on a worker thread; the future completes there. */
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = workers.submit(() -> {
+            try {
+                result.complete(work.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /** Like {@link #submit}, but the returned future completes on the EDT. */
+    public <T> CompletableFuture<T> submitToEdt(Callable<T> work) {
+        CompletableFuture<T> job = submit(work);
+        CompletableFuture<T> onEdt = new CompletableFuture<>();
+        job.whenComplete((value, error) -> runOnEdt(() -> complete(onEdt, value, error)));
+        onEdt.whenComplete((value, error) -> {
+            if (onEdt.isCancelled()) {
+                job.cancel(true);
+            }
+        });
+        return onEdt;
+    }
+
+    /**
+     * Runs {@code work} as the current job for {@code key}, cancelling the
+     * one it replaces. The returned future completes on the EDT, or is
+     * cancelled if another job for the same key was started meanwhile.
+     */
+    public <T> CompletableFuture<T> submitLatest(Object key, Callable<T> work) {
+        CompletableFuture<T> job = submit(work);
+        CompletableFuture<?> previous = latest.put(key, job);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        CompletableFuture<T> onEdt = new CompletableFuture<>();
+        job.whenComplete((value, error) -> runOnEdt(() -> {
+            if (!latest.remove(key, job)) {
+                onEdt.cancel(false); // superseded while finishing
+                return;
+            }
+            complete(onEdt, value, error);
+        }));
+        return onEdt;
+    }
+
+    /** Cancels the current job for {@code key}, if any. */
+    public void cancelLatest(Object key) {
+        CompletableFuture<?> previous = latest.remove(key);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+    }
+
+    /** Queues {@code action} for the EDT; actions queued close together run in one event. */
+    public void runOnEdt(Runnable action) {
+        edtQueue.add(action);
+        if (drainScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false); // anything queued from here on schedules another drain
+        Runnable action;
+        while ((action = edtQueue.poll()) != null) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOG.log(Level.SEVERE, "EDT callback failed", e);
+            }
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T value, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(value);
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
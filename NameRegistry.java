@@ -0,0 +1,53 @@
+package todolist;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Canonical instances of a family of named values (categories, members),
+ * one per key, numbered with dense int ids in creation order.
+ * <p>
+ * Lookups of existing values are lock-free; creating a value is
+ * serialized so ids stay dense. Values are never dropped: the registry
+ * only ever holds as many entries as there are distinct names.
+ */
+final class NameRegistry<K, T> {
+    private final Map<K, T> byKey = new ConcurrentHashMap<>();
+    private volatile Object[] byId = new Object[16];
+    private int size;
+
+    /** The value for {@code key}, created by {@code factory} with the next id if there is none. */
+    T intern(K key, IntFunction<T> factory) {
+        T value = byKey.get(key);
+        return value != null ? value : create(key, factory);
+    }
+
+    private synchronized T create(K key, IntFunction<T> factory) {
+        T value = byKey.get(key);
+        if (value == null) {
+            value = factory.apply(size);
+            Object[] ids = byId;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = value;
+            byId = ids; // publishes the new slot
+            byKey.put(key, value);
+        }
+        return value;
+    }
+
+    /** The value with {@code id}, or null if no such id was handed out. */
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        Object[] ids = byId;
+        return id >= 0 && id < ids.length ? (T) ids[id] : null;
+    }
+
+    /** Number of ids handed out; every id is below this. */
+    synchronized int size() {
+        return size;
+    }
+}
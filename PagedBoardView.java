@@ -0,0 +1,248 @@
+package todolist;
+
+import java.awt.BorderLayout;
+import java.awt.Cursor;
+import java.awt.FlowLayout;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+
+/**
+ * Read-only window for boards too large to load for editing quickly. The
+ * saved board is shown through a paged {@link TaskTableModel} over a
+ * {@link SnapshotTaskSource}, so opening it costs mapping the snapshot and
+ * replaying the journal tail, and scrolling decodes only the pages on
+ * screen. The filters and header clicks become a {@link TaskSource.Query}
+ * that the source answers off the EDT.
+ * <p>
+ * The application opens this instead of the main window when the default
+ * board's snapshot holds at least {@code todolist.pagedThreshold} tasks
+ * ({@value #DEFAULT_THRESHOLD} by default; 0 turns it off). "Open for
+ * Editing" loads the board into the main window as usual.
+ */
+public class PagedBoardView extends JFrame {
+    private static final Logger LOG = Logger.getLogger(PagedBoardView.class.getName());
+
+    static final int DEFAULT_THRESHOLD = 500_000;
+    private static final int PAGE_SIZE = 256;
+    private static final int CACHED_PAGES = 16;
+
+    // First item of every filter, so no real name or value has to stand for "any"
+    private static final Object ANY = new Object() {
+        @Override
+        public String toString() {
+            return "All";
+        }
+    };
+
+    private final ModelExecutor executor = new ModelExecutor();
+    private final JComboBox<Object> categoryFilter = new JComboBox<>(new Object[] {ANY});
+    private final JComboBox<Object> statusFilter = new JComboBox<>(new Object[] {ANY});
+    private final JComboBox<Object> priorityFilter = new JComboBox<>(new Object[] {ANY});
+    private final JComboBox<Object> memberFilter = new JComboBox<>(new Object[] {ANY});
+    private final JLabel countLabel = new JLabel("Loading...");
+    private final JTable table = new JTable();
+    private SnapshotTaskSource source;
+    private TaskTableModel model;
+    private TaskSource.Query query = TaskSource.Query.ALL;
+
+    /** Whether the board in {@code directory} is large enough to be opened in this view. */
+    public static boolean isLarge(Path directory) {
+        int threshold = Integer.getInteger("todolist.pagedThreshold", DEFAULT_THRESHOLD);
+        try {
+            return threshold > 0 && TaskJournal.savedTaskCount(directory) >= threshold;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not read the board size in " + directory, e);
+            return false; // the main window reports the problem when it loads the board
+        }
+    }
+
+    public PagedBoardView(Path directory) {
+        setTitle(ToDoListApplicatonFrame.TITLE + " - " + directory + " (read-only)");
+        setSize(1200, 700);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+
+        for (Status status : Status.values()) {
+            statusFilter.addItem(status);
+        }
+        for (Priority priority : Priority.values()) {
+            priorityFilter.addItem(priority);
+        }
+        JButton editButton = new JButton("Open for Editing");
+        editButton.addActionListener(e -> openForEditing());
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Category:"));
+        filterPanel.add(categoryFilter);
+        filterPanel.add(new JLabel("Status:"));
+        filterPanel.add(statusFilter);
+        filterPanel.add(new JLabel("Priority:"));
+        filterPanel.add(priorityFilter);
+        filterPanel.add(new JLabel("Assigned To:"));
+        filterPanel.add(memberFilter);
+        filterPanel.add(countLabel);
+        filterPanel.add(editButton);
+
+        table.setRowHeight(25);
+        setLayout(new BorderLayout());
+        add(filterPanel, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        executor.submitToEdt(() -> new SnapshotTaskSource(TaskJournal.read(directory))).whenComplete((loaded, error) -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (error != null) {
+                LOG.log(Level.SEVERE, "Could not read the board in " + directory, error);
+                JOptionPane.showMessageDialog(this, "Could not read the board: " + error.getMessage()
+                        + "\nIt will be opened for editing instead.", "Error", JOptionPane.ERROR_MESSAGE);
+                openForEditing();
+                return;
+            }
+            showBoard(loaded);
+        });
+    }
+
+    private void showBoard(SnapshotTaskSource loaded) {
+        source = loaded;
+        model = new TaskTableModel(source, PAGE_SIZE, CACHED_PAGES);
+        table.setModel(model);
+        table.setRowSorter(new SourceSorter());
+        TaskCellRenderer rowRenderer = new TaskCellRenderer(model);
+        table.setDefaultRenderer(Object.class, rowRenderer);
+        table.getColumnModel().getColumn(7).setCellRenderer(new ProgressCellRenderer(rowRenderer));
+        source.getCategoryNames().forEach(categoryFilter::addItem);
+        source.getMemberNames().forEach(memberFilter::addItem);
+        for (JComboBox<Object> filter : List.of(categoryFilter, statusFilter, priorityFilter, memberFilter)) {
+            filter.addActionListener(e -> applyFilters());
+        }
+        showCount(source.size());
+    }
+
+    private void applyFilters() {
+        query = new TaskSource.Query((Status) valueOf(statusFilter), (Priority) valueOf(priorityFilter),
+                (String) valueOf(categoryFilter), (String) valueOf(memberFilter), query.sortColumn(), query.descending());
+        select();
+    }
+
+    private static Object valueOf(JComboBox<Object> filter) {
+        Object selected = filter.getSelectedItem();
+        return selected == ANY ? null : selected;
+    }
+
+    // Asks the source for the rows of the current query; a newer query supersedes it
+    private void select() {
+        TaskSource.Query current = query;
+        if (current.equals(TaskSource.Query.ALL)) {
+            executor.cancelLatest(this);
+            model.setRows(null);
+            showCount(source.size());
+            return;
+        }
+        countLabel.setText("Filtering...");
+        executor.submitLatest(this, () -> source.select(current)).thenAccept(rows -> {
+            model.setRows(rows);
+            showCount(rows.length);
+        });
+    }
+
+    private void showCount(int shown) {
+        countLabel.setText(String.format("%,d of %,d tasks", shown, source.size()));
+    }
+
+    private void openForEditing() {
+        executor.shutdown();
+        dispose();
+        new ToDoListApplicatonFrame().setVisible(true);
+    }
+
+    /**
+     * Turns header clicks into the query's sort column. The model already
+     * holds its rows in view order, so view and model indexes are the same.
+     */
+    private final class SourceSorter extends RowSorter<TaskTableModel> {
+        private List<SortKey> sortKeys = List.of();
+
+        @Override
+        public TaskTableModel getModel() {
+            return model;
+        }
+
+        @Override
+        public void toggleSortOrder(int column) {
+            boolean ascending = !sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                    && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING;
+            setSortKeys(List.of(new SortKey(column, ascending ? SortOrder.DESCENDING : SortOrder.ASCENDING)));
+        }
+
+        @Override
+        public List<? extends SortKey> getSortKeys() {
+            return sortKeys;
+        }
+
+        @Override
+        public void setSortKeys(List<? extends SortKey> keys) {
+            sortKeys = keys == null || keys.isEmpty() ? List.of() : List.of(keys.get(0));
+            fireSortOrderChanged();
+            query = sortKeys.isEmpty()
+                    ? query.withSort(-1, false)
+                    : query.withSort(sortKeys.get(0).getColumn(), sortKeys.get(0).getSortOrder() == SortOrder.DESCENDING);
+            select();
+        }
+
+        @Override
+        public int convertRowIndexToModel(int index) {
+            return index;
+        }
+
+        @Override
+        public int convertRowIndexToView(int index) {
+            return index;
+        }
+
+        @Override
+        public int getViewRowCount() {
+            return model.getRowCount();
+        }
+
+        @Override
+        public int getModelRowCount() {
+            return model.getRowCount();
+        }
+
+        @Override
+        public void modelStructureChanged() {
+        }
+
+        @Override
+        public void allRowsChanged() {
+        }
+
+        @Override
+        public void rowsInserted(int firstRow, int endRow) {
+        }
+
+        @Override
+        public void rowsDeleted(int firstRow, int endRow) {
+        }
+
+        @Override
+        public void rowsUpdated(int firstRow, int endRow) {
+        }
+
+        @Override
+        public void rowsUpdated(int firstRow, int endRow, int column) {
+        }
+    }
+}
@@ -1,15 +1,15 @@
-package todolist;
-
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- 
-/**
- *
- * @author Mario Abraham
- */
-public enum Priority {
-    HIGH,
-    MEDIUM,
-    LOW
-}
+package todolist;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ 
+/**
+ *
+ * @author Mario Abraham
+ */
+public enum Priority {
+    HIGH,
+    MEDIUM,
+    LOW
+}
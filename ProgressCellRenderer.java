@@ -0,0 +1,38 @@
+package todolist;
+
+import javax.swing.JProgressBar;
+import javax.swing.JTable;
+import javax.swing.table.TableCellRenderer;
+import java.awt.Component;
+
+/**
+ * Shows the "Progress (%)" column as a progress bar. One bar is reused for
+ * every cell and the percentage labels are created once up front.
+ */
+public class ProgressCellRenderer extends JProgressBar implements TableCellRenderer {
+    private static final String[] LABELS = new String[101];
+
+    static {
+        for (int i = 0; i < LABELS.length; i++) {
+            LABELS[i] = i + "%";
+        }
+    }
+
+    private final TaskCellRenderer rowRenderer;
+
+    public ProgressCellRenderer(TaskCellRenderer rowRenderer) {
+        super(0, 100);
+        this.rowRenderer = rowRenderer;
+        setStringPainted(true);
+        setBorderPainted(false);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+        int percent = value instanceof Integer ? Math.max(0, Math.min(100, (Integer) value)) : 0;
+        setValue(percent);
+        setString(LABELS[percent]);
+        setBackground(isSelected ? table.getSelectionBackground() : rowRenderer.getRowBackground(table, row));
+        return this;
+    }
+}
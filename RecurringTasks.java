@@ -0,0 +1,412 @@
+package todolist;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Timer;
+
+/**
+ * The recurring task templates of a board and the occurrences they add.
+ * <p>
+ * Occurrences are only created up to a rolling horizon ({@link
+ * #DEFAULT_HORIZON_DAYS} days ahead by default), so a daily template adds
+ * a few weeks of tasks rather than years of them; a timer moves the
+ * horizon on every midnight. Each template's next occurrence is a key in a
+ * binary min-heap of {@code dueDay << 32 | slot}, so moving the horizon
+ * only touches the templates that have something due in it, and everything
+ * it produces is added with one {@link TaskRepository#addAll} call, i.e.
+ * one table event per batch however many templates there are.
+ * <p>
+ * A new template starts with its first occurrence due today or later.
+ * Occurrences that came due while the application was closed are added on
+ * the next start, as they are work that was due. The templates and how far
+ * each has been generated are saved in {@code recurring.tsv} in the board
+ * directory, before the batch is added: a crash can then lose a batch but
+ * never add it twice. With a {@link TaskHistory} the batches are recorded
+ * as generated revisions, which cannot be undone like the user's edits.
+ * <p>
+ * Runs on the EDT, like the repository it adds to.
+ */
+public class RecurringTasks {
+    private static final Logger LOG = Logger.getLogger(RecurringTasks.class.getName());
+
+    public static final int DEFAULT_HORIZON_DAYS = 28;
+    static final String FILE_NAME = "recurring.tsv";
+    private static final String HEADER = "# recurring tasks v1";
+    private static final String NULL = "\\N";
+    // Re-arm at least this often so clock changes and sleep are noticed
+    private static final long MAX_TIMER_DELAY_MILLIS = 60 * 60 * 1000;
+
+    private static final AppMetrics.Histogram GENERATE_TIME = AppMetrics.histogram("recurring.generate");
+    private static final AppMetrics.Counter OCCURRENCES = AppMetrics.counter("recurring.occurrences");
+
+    private final TaskRepository repository;
+    private final Path file; // null = not saved
+    private final int horizonDays;
+    private final Clock clock;
+    private final Timer timer;
+    private TaskHistory history; // null = batches are not recorded
+
+    // Templates by slot with the next occurrence each will add; removed templates leave a null
+    private TaskTemplate[] templates = new TaskTemplate[16];
+    private long[] nextOccurrences = new long[16];
+    private int slots;
+    private int count;
+
+    // Heap of (due epoch day << 32 | slot) for every template with occurrences left
+    private long[] heap = new long[16];
+    private int heapSize;
+
+    /**
+     * Loads the templates saved in {@code directory} and adds the occurrences
+     * that are due up to the horizon.
+     */
+    public static RecurringTasks open(Path directory, TaskRepository repository) throws IOException {
+        return open(directory, repository, null);
+    }
+
+    /** Like {@link #open(Path, TaskRepository)}, recording every batch in {@code history}. */
+    public static RecurringTasks open(Path directory, TaskRepository repository, TaskHistory history) throws IOException {
+        return open(directory, repository, history, DEFAULT_HORIZON_DAYS, Clock.systemDefaultZone());
+    }
+
+    static RecurringTasks open(Path directory, TaskRepository repository, TaskHistory history, int horizonDays, Clock clock) throws IOException {
+        RecurringTasks recurring = new RecurringTasks(repository, directory.resolve(FILE_NAME), horizonDays, clock);
+        recurring.setHistory(history);
+        if (Files.exists(recurring.file)) {
+            List<String> lines = Files.readAllLines(recurring.file, StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                if (!lines.get(i).isEmpty() && !lines.get(i).startsWith("#")) {
+                    recurring.load(lines.get(i), i + 1);
+                }
+            }
+        }
+        recurring.generate();
+        return recurring;
+    }
+
+    /** Templates that are kept in memory only, or saved to {@code file} if it is not null. */
+    public RecurringTasks(TaskRepository repository, Path file, int horizonDays, Clock clock) {
+        this.repository = repository;
+        this.file = file;
+        this.horizonDays = horizonDays;
+        this.clock = clock;
+        this.timer = new Timer(0, e -> generate());
+        timer.setRepeats(false);
+    }
+
+    /** Records the batches added from now on in {@code history} as generated revisions. */
+    public void setHistory(TaskHistory history) {
+        this.history = history;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /** Number of templates. */
+    public int size() {
+        return count;
+    }
+
+    public List<TaskTemplate> getTemplates() {
+        List<TaskTemplate> result = new ArrayList<>(count);
+        for (int slot = 0; slot < slots; slot++) {
+            if (templates[slot] != null) {
+                result.add(templates[slot]);
+            }
+        }
+        return result;
+    }
+
+    /** Whether a template adds its tasks to {@code category}; such a category must stay on the board. */
+    public boolean isCategoryInUse(Category category) {
+        for (int slot = 0; slot < slots; slot++) {
+            if (templates[slot] != null && category.equals(templates[slot].category())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether a template assigns its tasks to {@code member}; such a member must stay on the board. */
+    public boolean isMemberInUse(GroupMember member) {
+        for (int slot = 0; slot < slots; slot++) {
+            if (templates[slot] != null && member.equals(templates[slot].assignee())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Starts repeating {@code template} and adds its occurrences up to the horizon. */
+    public void add(TaskTemplate template) {
+        insert(template, template.firstOccurrenceFrom(LocalDate.now(clock)));
+        if (generate() == 0) {
+            save(); // nothing due yet, but the template must be kept
+        }
+    }
+
+    /** Starts repeating all of {@code templates}, with one save and one batch of occurrences. */
+    public void addAll(Collection<TaskTemplate> templates) {
+        LocalDate today = LocalDate.now(clock);
+        for (TaskTemplate template : templates) {
+            insert(template, template.firstOccurrenceFrom(today));
+        }
+        if (generate() == 0) {
+            save();
+        }
+    }
+
+    /** Stops repeating {@code template}; the occurrences already added stay on the board. */
+    public boolean remove(TaskTemplate template) {
+        for (int slot = 0; slot < slots; slot++) {
+            if (templates[slot] == template) {
+                templates[slot] = null; // its heap entry is dropped when it comes up
+                count--;
+                save();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Stops moving the horizon. */
+    public void stop() {
+        timer.stop();
+    }
+
+    private void insert(TaskTemplate template, long next) {
+        if (slots == templates.length) {
+            templates = Arrays.copyOf(templates, slots * 2);
+            nextOccurrences = Arrays.copyOf(nextOccurrences, slots * 2);
+        }
+        int slot = slots++;
+        templates[slot] = template;
+        nextOccurrences[slot] = next;
+        count++;
+        if (!template.isOver(next)) {
+            push(key(template.dueDate(next), slot));
+        }
+    }
+
+    // --- Generating ---
+
+    /**
+     * Adds every occurrence due up to the horizon that has not been added
+     * yet, in one batch, and re-arms the timer.
+     *
+     * @return the number of tasks added
+     */
+    public int generate() {
+        AppMetrics.Span span = GENERATE_TIME.time();
+        try {
+            long horizon = LocalDate.now(clock).toEpochDay() + horizonDays;
+            List<Task> batch = new ArrayList<>();
+            while (heapSize > 0 && (heap[0] >> 32) <= horizon) {
+                int slot = (int) heap[0];
+                TaskTemplate template = templates[slot];
+                if (template == null) {
+                    removeRoot();
+                    continue;
+                }
+                batch.add(template.newOccurrence(LocalDate.ofEpochDay(heap[0] >> 32)));
+                long next = ++nextOccurrences[slot];
+                if (template.isOver(next)) {
+                    removeRoot();
+                } else {
+                    heap[0] = key(template.dueDate(next), slot);
+                    siftDown(0);
+                }
+            }
+            if (!batch.isEmpty()) {
+                save();
+                if (history != null) {
+                    history.record(TaskHistory.Origin.GENERATED, () -> addBatch(batch));
+                } else {
+                    addBatch(batch);
+                }
+                OCCURRENCES.add(batch.size());
+            }
+            arm();
+            return batch.size();
+        } finally {
+            span.close();
+        }
+    }
+
+    private void addBatch(List<Task> batch) {
+        for (Task task : batch) {
+            // A category or member deleted while a template used it, e.g. on another client, comes back
+            if (task.getCategory() != null) {
+                repository.addCategory(task.getCategory());
+            }
+            if (task.getAssignedTo() != null) {
+                repository.addMember(task.getAssignedTo());
+            }
+        }
+        repository.addAll(batch);
+    }
+
+        // Wakes up at the next midnight, when the horizon moves by a day
+    private void arm() {
+        ZoneId zone = clock.getZone();
+        long midnight = LocalDate.now(clock).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long delay = Math.max(0, Math.min(MAX_TIMER_DELAY_MILLIS, midnight - clock.millis()));
+        timer.setInitialDelay((int) delay);
+        timer.restart();
+    }
+
+    private static long key(LocalDate dueDate, int slot) {
+        return dueDate.toEpochDay() << 32 | slot;
+    }
+
+    private void push(long key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0 && heap[(i - 1) >> 1] > key) {
+            heap[i] = heap[(i - 1) >> 1];
+            i = (i - 1) >> 1;
+        }
+        heap[i] = key;
+    }
+
+    private void removeRoot() {
+        heap[0] = heap[--heapSize];
+        siftDown(0);
+    }
+
+    private void siftDown(int i) {
+        long key = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= key) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+
+    // --- Saving ---
+
+    // One template per line: next occurrence, then the template's fields, tab-separated
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                out.write(HEADER);
+                out.newLine();
+                for (int slot = 0; slot < slots; slot++) {
+                    TaskTemplate t = templates[slot];
+                    if (t == null) {
+                        continue;
+                    }
+                    String[] fields = {
+                        Long.toString(nextOccurrences[slot]), t.title(), t.description(), t.priority().name(),
+                        t.category() == null ? null : t.category().getName(),
+                        t.assignee() == null ? null : t.assignee().getName(),
+                        Boolean.toString(t.assignee() instanceof GroupLeader),
+                        t.start().toString(), Integer.toString(t.every()), t.unit().name(),
+                        t.until() == null ? null : t.until().toString()
+                    };
+                    for (int i = 0; i < fields.length; i++) {
+                        if (i > 0) {
+                            out.write('\t');
+                        }
+                        out.write(escape(fields[i]));
+                    }
+                    out.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not save the recurring tasks to " + file, e);
+        }
+    }
+
+    private void load(String line, int lineNumber) throws IOException {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 11) {
+            throw new IOException(file + ":" + lineNumber + ": expected 11 fields, found " + fields.length);
+        }
+        try {
+            String category = unescape(fields[4]);
+            String assignee = unescape(fields[5]);
+            String until = unescape(fields[10]);
+            TaskTemplate template = new TaskTemplate(unescape(fields[1]), unescape(fields[2]),
+                    Priority.valueOf(fields[3]),
+                    category == null ? null : Category.of(category),
+                    assignee == null ? null : GroupMember.of(assignee, Boolean.parseBoolean(fields[6])),
+                    LocalDate.parse(fields[7]), Integer.parseInt(fields[8]), TaskTemplate.Unit.valueOf(fields[9]),
+                    until == null ? null : LocalDate.parse(until));
+            insert(template, Long.parseLong(fields[0]));
+        } catch (RuntimeException e) {
+            throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return NULL;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String unescape(String text) {
+        if (text.equals(NULL)) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                out.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
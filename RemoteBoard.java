@@ -0,0 +1,635 @@
+package todolist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import todolist.ChangeFeed.Change;
+import todolist.ChangeFeed.Snapshot;
+import todolist.TaskProtocol.Mutation;
+import todolist.TaskProtocol.MutationResult;
+
+/**
+ * Keeps a local {@link TaskRepository} in step with a board hosted by a
+ * {@link TaskServer}, so the table, the workload view and the dialogs work
+ * unchanged on a shared board.
+ * <p>
+ * The repository starts from the server's snapshot and then applies the
+ * change feed on the EDT, one push per EDT task. Local edits are forwarded
+ * to the server: edits to a task made in one EDT turn go out as one
+ * update against the version the server last acknowledged. A task has at
+ * most one update in flight; edits made meanwhile wait for its answer and
+ * go out against the version it returns, and feed states of the task are
+ * held back until its local edits are settled. A conflicting edit is
+ * rejected by the server, reported to the {@link RejectionListener}s, and
+ * the other client's state is shown instead.
+ * <p>
+ * If the connection is lost, the listeners are told once and nothing more
+ * is sent: edits stay on the local board but are no longer saved.
+ * <p>
+ * A task added locally is sent as a create and replaced by the server's
+ * copy (with the server's id) once the server confirms it; edits and
+ * deletes made to it before then are applied to that copy.
+ * <p>
+ * If the subscription is dropped for falling behind, it resumes from the
+ * last applied sequence, or reloads from a snapshot if that is too old.
+ */
+public class RemoteBoard implements ChangeFeed.Subscriber, TaskRepositoryListener, Closeable {
+    private static final Logger LOG = Logger.getLogger(RemoteBoard.class.getName());
+    private static final long CONNECT_TIMEOUT_SECONDS = 30;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5; // for all answers together
+
+    /** Told on the EDT about local changes the server turned down. */
+    public interface RejectionListener {
+        void changesRejected(List<String> messages);
+
+        /** Called once when the server can no longer be reached; later changes are not saved. */
+        default void connectionLost(String message) {}
+    }
+
+    private final TaskClient client;
+    private final TaskRepository repository;
+    private final CompletableFuture<Snapshot> initialSnapshot = new CompletableFuture<>();
+
+    // EDT state
+    private final Map<Long, Long> serverVersions = new HashMap<>();
+    private final Set<Task> placeholders = new HashSet<>();
+    private final Set<Task> dirtyTasks = new LinkedHashSet<>();
+    private final Map<Long, CompletableFuture<MutationResult>> inFlight = new HashMap<>(); // by task id
+    private final Map<Long, TaskRecord> heldBack = new HashMap<>(); // feed states of tasks with local edits pending
+    private final Set<Task> editedPlaceholders = new HashSet<>();
+    private final Set<Task> deletedPlaceholders = new HashSet<>();
+    private final Map<Long, TaskRecord> queuedEdits = new LinkedHashMap<>(); // by server id, until its copy arrives
+    private final List<RejectionListener> listeners = new CopyOnWriteArrayList<>();
+    private boolean flushScheduled;
+    private boolean applying;
+    private boolean disconnected;
+    private TaskHistory history; // null = server changes are not recorded
+    private volatile long lastSequence;
+
+    private RemoteBoard(TaskClient client, TaskRepository repository) {
+        this.client = client;
+        this.repository = repository;
+    }
+
+    /**
+     * Connects to a server and loads its board into {@code repository},
+     * which must be empty. Call on the EDT.
+     */
+    public static RemoteBoard connect(String host, int port, TaskRepository repository) throws IOException {
+        TaskClient client = TaskClient.connect(host, port);
+        RemoteBoard board = new RemoteBoard(client, repository);
+        try {
+            client.subscribe(0, board);
+            Snapshot snapshot = board.initialSnapshot.get(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            board.apply(snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            client.close();
+            throw new IOException("Interrupted while loading the board", e);
+        } catch (ExecutionException | TimeoutException e) {
+            client.close();
+            throw new IOException("Could not load the board from " + host + ":" + port, e);
+        }
+        repository.addListener(board);
+        return board;
+    }
+
+    /**
+     * Records the server's changes in {@code history} as remote revisions,
+     * so they are kept apart from the local edits that can be undone.
+     */
+    public void setHistory(TaskHistory history) {
+        this.history = history;
+    }
+
+    public void addListener(RejectionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RejectionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Sequence number of the last change applied locally. */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        settleInFlight();
+        flushDirtyTasks();
+        repository.removeListener(this);
+        client.close();
+    }
+
+    // --- Feed (reader thread) ---
+
+    @Override
+    public void onChanges(List<Change> changes) {
+        SwingUtilities.invokeLater(() -> apply(changes));
+    }
+
+    @Override
+    public void onSnapshot(Snapshot snapshot) {
+        if (!initialSnapshot.complete(snapshot)) {
+            SwingUtilities.invokeLater(() -> apply(snapshot));
+        }
+    }
+
+    @Override
+    public void onReset() {
+        LOG.info("Change feed dropped; resuming after " + lastSequence);
+        client.subscribe(lastSequence, this);
+    }
+
+    // --- Applying server state (EDT) ---
+
+    private void apply(List<Change> changes) {
+        applyRemote(() -> {
+            for (Change change : changes) {
+                if (change.sequence() <= lastSequence) {
+                    continue; // already applied before a resume
+                }
+                switch (change.kind()) {
+                    case TASK_CREATED, TASK_UPDATED -> {
+                        Task added = put(change.task());
+                        if (added != null) {
+                            repository.add(added);
+                        }
+                    }
+                    case TASK_DELETED -> {
+                        Task task = repository.getTask(change.taskId());
+                        if (task != null && !placeholders.contains(task)) {
+                            repository.remove(task);
+                        }
+                        serverVersions.remove(change.taskId());
+                    }
+                    case CATEGORY_ADDED -> repository.addCategory(Category.of(change.name()));
+                    case CATEGORY_REMOVED -> removeCategory(change.name());
+                    case MEMBER_ADDED -> repository.addMember(GroupMember.of(change.name(), change.leader()));
+                    case MEMBER_REMOVED -> removeMember(change.name());
+                }
+                lastSequence = change.sequence();
+            }
+        });
+        replayQueuedEdits();
+    }
+
+    // Brings the whole repository to the snapshot's state
+    private void apply(Snapshot snapshot) {
+        applyRemote(() -> {
+            for (String name : snapshot.categories()) {
+                repository.addCategory(Category.of(name));
+            }
+            snapshot.members().forEach((name, leader) ->
+                    repository.addMember(GroupMember.of(name, leader)));
+
+            Set<Long> ids = new HashSet<>();
+            List<Task> added = new ArrayList<>();
+            for (TaskRecord record : snapshot.tasks()) {
+                ids.add(record.id());
+                Task task = put(record);
+                if (task != null) {
+                    added.add(task);
+                }
+            }
+            repository.addAll(added);
+            for (Task task : new ArrayList<>(repository.getTasks())) {
+                if (!ids.contains(task.getId()) && !placeholders.contains(task)) {
+                    repository.remove(task);
+                    serverVersions.remove(task.getId());
+                }
+            }
+
+            for (Category category : new ArrayList<>(repository.getCategories())) {
+                if (!snapshot.categories().contains(category.getName())) {
+                    removeCategory(category.getName());
+                }
+            }
+            for (GroupMember member : new ArrayList<>(repository.getMembers())) {
+                if (!snapshot.members().containsKey(member.getName())) {
+                    removeMember(member.getName());
+                }
+            }
+            lastSequence = snapshot.sequence();
+        });
+        replayQueuedEdits();
+    }
+
+    // Changes that come from the server are not forwarded back, and not recorded as local edits
+    private void applyRemote(Runnable changes) {
+        applying = true;
+        try {
+            if (history != null) {
+                history.record(TaskHistory.Origin.REMOTE, changes);
+            } else {
+                changes.run();
+            }
+        } finally {
+            applying = false;
+        }
+    }
+
+    /**
+     * Updates the local copy of a task in place, or returns a new task for
+     * the caller to add if there is none yet.
+     */
+    private Task put(TaskRecord record) {
+        Task task = repository.getTask(record.id());
+        if (task != null && placeholders.contains(task)) {
+            repository.remove(task); // a local task still waiting for its create; it gets a server copy later
+            task = null;
+        }
+        if (task != null && hasLocalEdits(task)) {
+            heldBack.merge(record.id(), record, (held, next) -> next.version() > held.version() ? next : held);
+            return null;
+        }
+        serverVersions.put(record.id(), record.version());
+        Category category = category(record.category());
+        GroupMember member = findMember(record.assignedTo());
+        if (task == null) {
+            Task created = new Task(record.title(), record.description(), record.dueDate(), record.priority(), category, member);
+            created.setStatus(record.status());
+            created.setProgressPercent(record.progressPercent());
+            created.assignId(record.id(), record.version());
+            return created;
+        }
+        repository.edit(task, record.version(), t -> copy(record, category, member, t));
+        return null;
+    }
+
+    private static void copy(TaskRecord record, Category category, GroupMember member, Task task) {
+        task.setTitle(record.title());
+        task.setDescription(record.description());
+        task.setDueDate(record.dueDate());
+        task.setPriority(record.priority());
+        task.setCategory(category);
+        task.setAssignedTo(member);
+        task.setStatus(record.status());
+        task.setProgressPercent(record.progressPercent());
+    }
+
+    private boolean hasLocalEdits(Task task) {
+        return dirtyTasks.contains(task) || inFlight.containsKey(task.getId());
+    }
+
+    // Server states held back for tasks whose local edits are now settled; older ones are already superseded
+    private void applyHeldBack() {
+        List<TaskRecord> ready = new ArrayList<>();
+        for (Iterator<TaskRecord> records = heldBack.values().iterator(); records.hasNext(); ) {
+            TaskRecord record = records.next();
+            Task task = repository.getTask(record.id());
+            if (task == null || !hasLocalEdits(task)) {
+                records.remove();
+                Long acknowledged = serverVersions.get(record.id());
+                if (task != null && (acknowledged == null || record.version() > acknowledged)) {
+                    ready.add(record);
+                }
+            }
+        }
+        if (!ready.isEmpty()) {
+            applyRemote(() -> ready.forEach(this::put));
+        }
+    }
+
+    // Edits made to placeholders go to the server's copies once they have arrived, as local edits
+    private void replayQueuedEdits() {
+        for (Iterator<Map.Entry<Long, TaskRecord>> entries = queuedEdits.entrySet().iterator(); entries.hasNext(); ) {
+            Map.Entry<Long, TaskRecord> entry = entries.next();
+            Task task = repository.getTask(entry.getKey());
+            if (task != null && !placeholders.contains(task)) {
+                entries.remove();
+                TaskRecord edited = entry.getValue();
+                Category category = category(edited.category());
+                GroupMember member = findMember(edited.assignedTo());
+                repository.edit(task, t -> copy(edited, category, member, t));
+            }
+        }
+    }
+
+    // The category called name, added first if this board does not have it yet
+    private Category category(String name) {
+        Category category = findCategory(name);
+        if (category == null && name != null) {
+            category = Category.of(name);
+            repository.addCategory(category);
+        }
+        return category;
+    }
+
+    private Category findCategory(String name) {
+        for (Category category : repository.getCategories()) {
+            if (category.getName().equals(name)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    private GroupMember findMember(String name) {
+        for (GroupMember member : repository.getMembers()) {
+            if (member.getName().equals(name)) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    private void removeCategory(String name) {
+        Category category = findCategory(name);
+        if (category != null && !repository.isCategoryInUse(category)) {
+            repository.removeCategory(category);
+        }
+    }
+
+    private void removeMember(String name) {
+        GroupMember member = findMember(name);
+        if (member != null && !repository.isMemberInUse(member)) {
+            repository.removeMember(member);
+        }
+    }
+
+    // --- Forwarding local edits (EDT) ---
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        if (applying) {
+            return;
+        }
+        List<Task> created = new ArrayList<>(lastRow - firstRow + 1);
+        List<Mutation> batch = new ArrayList<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            Task task = repository.getTaskAt(row);
+            placeholders.add(task);
+            created.add(task);
+            batch.add(Mutation.putTask(TaskRecord.of(task).withId(0)));
+            if (batch.size() == TaskProtocol.MAX_BATCH || row == lastRow) {
+                List<Task> sent = new ArrayList<>(created);
+                send(batch).whenComplete((results, error) -> SwingUtilities.invokeLater(() -> confirmCreated(sent, results)));
+                created.clear();
+                batch = new ArrayList<>();
+            }
+        }
+    }
+
+    // The server's copies arrive through the feed; drop the local stand-ins, keeping what was done to them.
+    // Without an answer (results null) the tasks stay on this board only.
+    private void confirmCreated(List<Task> sent, List<MutationResult> results) {
+        List<String> rejected = new ArrayList<>();
+        List<Mutation> deletes = new ArrayList<>();
+        if (results == null) {
+            for (Task task : sent) {
+                placeholders.remove(task);
+                editedPlaceholders.remove(task);
+                deletedPlaceholders.remove(task);
+                if (!disconnected) {
+                    rejected.add("New task '" + task.getTitle() + "' was not saved.");
+                }
+            }
+            reject(rejected);
+            return;
+        }
+        applyRemote(() -> {
+            for (int i = 0; i < sent.size(); i++) {
+                Task task = sent.get(i);
+                MutationResult result = results.get(i);
+                if (!result.isOk()) {
+                    rejected.add("New task '" + task.getTitle() + "' was not saved: " + result.message());
+                } else if (deletedPlaceholders.contains(task)) {
+                    deletes.add(Mutation.removeTask(result.id(), TaskProtocol.ANY_VERSION));
+                } else if (editedPlaceholders.contains(task)) {
+                    queuedEdits.put(result.id(), TaskRecord.of(task));
+                }
+                editedPlaceholders.remove(task);
+                deletedPlaceholders.remove(task);
+                if (placeholders.contains(task)) {
+                    repository.remove(task); // taskRemoved forgets the placeholder without telling the server
+                }
+            }
+        });
+        if (!deletes.isEmpty()) {
+            send(deletes);
+        }
+        replayQueuedEdits();
+        reject(rejected);
+    }
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        if (applying) {
+            return;
+        }
+        if (placeholders.contains(task)) {
+            editedPlaceholders.add(task); // sent to the server's copy once the create is confirmed
+            return;
+        }
+        dirtyTasks.add(task);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            SwingUtilities.invokeLater(this::flushDirtyTasks);
+        }
+    }
+
+    // Tasks with an update in flight stay dirty until it is answered
+    private void flushDirtyTasks() {
+        flushScheduled = false;
+        if (disconnected) {
+            return; // kept dirty; there is no one to send them to
+        }
+        List<Task> sent = new ArrayList<>();
+        List<Mutation> batch = new ArrayList<>();
+        for (Iterator<Task> tasks = dirtyTasks.iterator(); tasks.hasNext(); ) {
+            Task task = tasks.next();
+            if (!inFlight.containsKey(task.getId())) {
+                tasks.remove();
+                sent.add(task);
+                long version = serverVersions.getOrDefault(task.getId(), TaskProtocol.ANY_VERSION);
+                batch.add(Mutation.putTask(TaskRecord.of(task).withVersion(version)));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        CompletableFuture<List<MutationResult>> answers = send(batch);
+        for (int i = 0; i < sent.size(); i++) {
+            int index = i;
+            inFlight.put(sent.get(i).getId(), answers.thenApply(results -> results.get(index)));
+        }
+        answers.whenComplete((results, error) -> SwingUtilities.invokeLater(() -> confirmUpdated(sent, results)));
+    }
+
+    // Closing runs on the EDT, so answers cannot arrive through it: edits waiting for an
+    // earlier update are based on its answer here, or dropped if it was rejected or is late.
+    // All answers share one deadline, so a stalled server holds up closing only once.
+    private void settleInFlight() {
+        List<CompletableFuture<MutationResult>> answers = new ArrayList<>();
+        for (Task task : dirtyTasks) {
+            CompletableFuture<MutationResult> answer = inFlight.get(task.getId());
+            if (answer != null) {
+                answers.add(answer);
+            }
+        }
+        if (!answers.isEmpty() && !disconnected) {
+            try {
+                CompletableFuture.allOf(answers.toArray(new CompletableFuture<?>[0])).get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // Settled one by one below
+            }
+        }
+        for (Iterator<Task> tasks = dirtyTasks.iterator(); tasks.hasNext(); ) {
+            Task task = tasks.next();
+            CompletableFuture<MutationResult> answer = inFlight.remove(task.getId());
+            if (answer == null) {
+                continue;
+            }
+            MutationResult result = answer.isDone() && !answer.isCompletedExceptionally() ? answer.join() : null;
+            if (result != null && result.isOk()) {
+                serverVersions.put(task.getId(), result.version());
+            } else {
+                tasks.remove();
+            }
+        }
+    }
+
+    // Acknowledged versions become the base of the next update; a rejected edit gives way to the server's state.
+    // Without an answer (results null) the edits stay dirty, to be sent if the connection is still there.
+    private void confirmUpdated(List<Task> sent, List<MutationResult> results) {
+        List<String> rejected = new ArrayList<>();
+        for (int i = 0; i < sent.size(); i++) {
+            Task task = sent.get(i);
+            inFlight.remove(task.getId());
+            MutationResult result = results == null ? null : results.get(i);
+            if (result == null) {
+                if (client.isConnected()) {
+                    rejected.add("Your edit of '" + task.getTitle() + "' was not saved.");
+                } else if (repository.indexOf(task) >= 0) {
+                    dirtyTasks.add(task);
+                }
+            } else if (result.isOk()) {
+                serverVersions.put(task.getId(), result.version());
+            } else {
+                dirtyTasks.remove(task); // later edits were made on top of the rejected one
+                rejected.add(result.status() == TaskProtocol.STALE
+                        ? "'" + task.getTitle() + "' was changed by someone else; your edit was not saved."
+                        : "Your edit of '" + task.getTitle() + "' was not saved: " + result.message());
+            }
+        }
+        applyHeldBack();
+        if (!dirtyTasks.isEmpty()) {
+            scheduleFlush();
+        }
+        reject(rejected);
+    }
+
+    // Told once, on the EDT; from then on changes stay local
+    private void connectionLost(Throwable error) {
+        if (disconnected) {
+            return;
+        }
+        disconnected = true;
+        LOG.log(Level.WARNING, "Lost the connection to the server; changes are no longer saved", error);
+        String message = error.getMessage() != null ? error.getMessage() : "The server closed the connection.";
+        for (RejectionListener listener : listeners) {
+            listener.connectionLost(message);
+        }
+    }
+
+    private void reject(List<String> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        LOG.info("Server rejected " + messages.size() + " change(s): " + messages);
+        for (RejectionListener listener : listeners) {
+            listener.changesRejected(messages);
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        dirtyTasks.remove(task);
+        heldBack.remove(task.getId());
+        boolean placeholder = placeholders.remove(task);
+        if (placeholder && !applying) {
+            deletedPlaceholders.add(task); // its create is deleted again once it is confirmed
+        }
+        if (applying || placeholder) {
+            return;
+        }
+        send(List.of(Mutation.removeTask(task.getId(), TaskProtocol.ANY_VERSION)));
+    }
+
+    @Override
+    public void categoryAdded(Category category) {
+        if (!applying) {
+            send(List.of(Mutation.addCategory(category.getName())));
+        }
+    }
+
+    @Override
+    public void categoryRemoved(Category category) {
+        if (!applying) {
+            send(List.of(Mutation.removeCategory(category.getName())));
+        }
+    }
+
+    @Override
+    public void memberAdded(GroupMember member) {
+        if (!applying) {
+            send(List.of(Mutation.addMember(member.getName(), member instanceof GroupLeader)));
+        }
+    }
+
+    @Override
+    public void memberRemoved(GroupMember member) {
+        if (!applying) {
+            send(List.of(Mutation.removeMember(member.getName())));
+        }
+    }
+
+    // Task edits and creates are answered by their callers; other rejections are only logged.
+    // Once the connection is lost nothing is sent, and every batch fails at once.
+    private CompletableFuture<List<MutationResult>> send(List<Mutation> batch) {
+        if (disconnected) {
+            return CompletableFuture.failedFuture(new IOException("Not connected to the server"));
+        }
+        return client.apply(batch).whenComplete((results, error) -> {
+            if (error != null) {
+                if (client.isConnected()) {
+                    LOG.log(Level.WARNING, "Sending changes to the server failed", error);
+                } else {
+                    SwingUtilities.invokeLater(() -> connectionLost(error));
+                }
+                return;
+            }
+            for (int i = 0; i < results.size(); i++) {
+                MutationResult result = results.get(i);
+                if (!result.isOk() && result.status() != TaskProtocol.CONFLICT && batch.get(i).kind() != TaskProtocol.PUT_TASK) {
+                    LOG.warning("Server rejected a change: " + result.message());
+                }
+            }
+        });
+    }
+}
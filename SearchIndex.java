@@ -0,0 +1,176 @@
+package todolist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over task titles and descriptions.
+ * <p>
+ * Text is split into lowercase letter/digit tokens. Each token maps to the
+ * ids of the tasks containing it together with a weight (a title hit counts
+ * {@link #TITLE_WEIGHT} times a description hit). Terms are kept sorted, so
+ * every query token also matches as a prefix, which is what a search box
+ * needs while the user is still typing.
+ * <p>
+ * The index is updated from repository events on the EDT and may be
+ * queried from any thread.
+ */
+public class SearchIndex implements TaskRepositoryListener {
+    static final int TITLE_WEIGHT = 3;
+    private static final int EXACT_MATCH_BONUS = 2;
+
+    private final TaskRepository repository;
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SearchIndex(TaskRepository repository) {
+        this.repository = repository;
+        for (Task task : repository.getTasks()) {
+            index(task.getId(), task.getTitle(), task.getDescription(), 1);
+        }
+        repository.addListener(this);
+    }
+
+    /**
+     * Returns the ids of the tasks that match every token of {@code query},
+     * best match first, at most {@code limit} of them.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Map<Long, Integer> tokenScores = match(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores = intersect(scores, tokenScores);
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    // Best weight per task among all terms starting with the token
+    private Map<Long, Integer> match(String token) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> term : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            boolean exact = term.getKey().length() == token.length();
+            for (Map.Entry<Long, Integer> posting : term.getValue().entrySet()) {
+                int score = exact ? posting.getValue() * EXACT_MATCH_BONUS : posting.getValue();
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static Map<Long, Integer> intersect(Map<Long, Integer> a, Map<Long, Integer> b) {
+        if (a.size() > b.size()) {
+            Map<Long, Integer> swap = a;
+            a = b;
+            b = swap;
+        }
+        Map<Long, Integer> result = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : a.entrySet()) {
+            Integer other = b.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    // --- Repository events ---
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            Task task = repository.getTaskAt(row);
+            index(task.getId(), task.getTitle(), task.getDescription(), 1);
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        index(task.getId(), task.getTitle(), task.getDescription(), -1);
+    }
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        // The old terms can be rebuilt from the old value, so nothing per task is stored
+        if (field == TaskField.TITLE) {
+            index(task.getId(), (String) oldValue, task.getDescription(), -1);
+            index(task.getId(), task.getTitle(), task.getDescription(), 1);
+        } else if (field == TaskField.DESCRIPTION) {
+            index(task.getId(), task.getTitle(), (String) oldValue, -1);
+            index(task.getId(), task.getTitle(), task.getDescription(), 1);
+        }
+    }
+
+    // Adds (sign = 1) or removes (sign = -1) the weighted terms of one task
+    private void index(long id, String title, String description, int sign) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String token : tokenize(title)) {
+            weights.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(description)) {
+            weights.merge(token, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                if (sign > 0) {
+                    postings.computeIfAbsent(weight.getKey(), t -> new HashMap<>()).put(id, weight.getValue());
+                } else {
+                    Map<Long, Integer> tasks = postings.get(weight.getKey());
+                    if (tasks != null && tasks.remove(id) != null && tasks.isEmpty()) {
+                        postings.remove(weight.getKey());
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean part = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (part && start < 0) {
+                start = i;
+            } else if (!part && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,391 @@
+package todolist;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar, memory-mapped board snapshot.
+ * <p>
+ * Layout (all sections back to back, big-endian):
+ * <pre>
+ *   header      magic, version, taskCount, categoryCount, memberCount, heapSize, linkCount
+ *   categories  categoryCount x (heapOffset, length)
+ *   members     memberCount x (heapOffset, length), then memberCount x leader byte
+ *   ids         taskCount x long
+ *   versions    taskCount x long
+ *   titles      taskCount x (heapOffset, length)
+ *   descs       taskCount x (heapOffset, length)
+ *   due         taskCount x int epoch day (NO_DATE if none)
+ *   priority    taskCount x byte ordinal
+ *   status      taskCount x byte ordinal
+ *   progress    taskCount x byte
+ *   category    taskCount x int index into categories (-1 if none)
+ *   member      taskCount x int index into members (-1 if unassigned)
+ *   links       linkCount x (prerequisite id, dependent id)
+ *   heap        UTF-8 bytes of every string
+ * </pre>
+ * Because every column has a fixed width, a {@link Reader} can decode any
+ * single row straight from the mapping without touching the others.
+ */
+public final class SnapshotFile {
+    static final int MAGIC = 0x54444C43; // "TDLC"
+    static final int VERSION = 1;
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final int HEADER_SIZE = 7 * 4;
+
+    private SnapshotFile() {
+    }
+
+    // Section offsets, derived from the counts in the header
+    private static final class Layout {
+        final long categories, members, leaders, ids, versions, titles, descs, due, priority, status, progress, category, member, links, heap, end;
+
+        Layout(int tasks, int categoryCount, int memberCount, int heapSize, int linkCount) {
+            categories = HEADER_SIZE;
+            members = categories + 8L * categoryCount;
+            leaders = members + 8L * memberCount;
+            ids = leaders + memberCount;
+            versions = ids + 8L * tasks;
+            titles = versions + 8L * tasks;
+            descs = titles + 8L * tasks;
+            due = descs + 8L * tasks;
+            priority = due + 4L * tasks;
+            status = priority + tasks;
+            progress = status + tasks;
+            category = progress + tasks;
+            member = category + 4L * tasks;
+            links = member + 4L * tasks;
+            heap = links + 16L * linkCount;
+            end = heap + heapSize;
+        }
+    }
+
+    // --- Writing ---
+
+    /**
+     * Writes every task, category, member and dependency in {@code state} to
+     * {@code file}. Dependencies of tasks no longer on the board are left out.
+     */
+    public static void write(BoardState state, Path file) throws IOException {
+        List<String> categoryNames = new ArrayList<>(state.categories());
+        List<String> memberNames = new ArrayList<>(state.members().keySet());
+        Map<String, Integer> categoryIndex = indexOf(categoryNames);
+        Map<String, Integer> memberIndex = indexOf(memberNames);
+
+        Heap heap = new Heap();
+        Columns columns = new Columns();
+        state.forEachTask(task -> {
+            Integer category = task.category() == null ? null : categoryIndex.get(task.category());
+            if (task.category() != null && category == null) {
+                category = categoryNames.size(); // referenced but not listed; keep it
+                categoryNames.add(task.category());
+                categoryIndex.put(task.category(), category);
+            }
+            Integer member = task.assignedTo() == null ? null : memberIndex.get(task.assignedTo());
+            columns.add(task, heap.add(task.title()), heap.add(task.description()),
+                    category == null ? -1 : category, member == null ? -1 : member);
+        });
+        long[] categoryRefs = new long[categoryNames.size()];
+        for (int i = 0; i < categoryRefs.length; i++) {
+            categoryRefs[i] = heap.add(categoryNames.get(i));
+        }
+        long[] memberRefs = new long[memberNames.size()];
+        for (int i = 0; i < memberRefs.length; i++) {
+            memberRefs[i] = heap.add(memberNames.get(i));
+        }
+
+        int n = columns.size;
+        long[] live = Arrays.copyOf(columns.ids, n);
+        Arrays.sort(live);
+        long[] links = new long[64]; // prerequisite, dependent pairs
+        int linkCount = 0;
+        for (BoardState.Link link : state.links()) {
+            if (Arrays.binarySearch(live, link.prerequisite()) >= 0 && Arrays.binarySearch(live, link.dependent()) >= 0) {
+                if (2 * linkCount == links.length) {
+                    links = Arrays.copyOf(links, links.length * 2);
+                }
+                links[2 * linkCount] = link.prerequisite();
+                links[2 * linkCount + 1] = link.dependent();
+                linkCount++;
+            }
+        }
+        try (FileOutputStream stream = new FileOutputStream(file.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(categoryRefs.length);
+            out.writeInt(memberRefs.length);
+            out.writeInt(heap.size());
+            out.writeInt(linkCount);
+            for (long ref : categoryRefs) writeRef(out, ref);
+            for (long ref : memberRefs) writeRef(out, ref);
+            for (String name : memberNames) out.writeByte(state.members().get(name) ? 1 : 0);
+            for (int i = 0; i < n; i++) out.writeLong(columns.ids[i]);
+            for (int i = 0; i < n; i++) out.writeLong(columns.versions[i]);
+            for (int i = 0; i < n; i++) writeRef(out, columns.titles[i]);
+            for (int i = 0; i < n; i++) writeRef(out, columns.descs[i]);
+            for (int i = 0; i < n; i++) out.writeInt(columns.due[i]);
+            out.write(columns.priority, 0, n);
+            out.write(columns.status, 0, n);
+            out.write(columns.progress, 0, n);
+            for (int i = 0; i < n; i++) out.writeInt(columns.category[i]);
+            for (int i = 0; i < n; i++) out.writeInt(columns.member[i]);
+            for (int i = 0; i < 2 * linkCount; i++) out.writeLong(links[i]);
+            heap.writeTo(out);
+            out.flush();
+            stream.getChannel().force(true);
+        }
+    }
+
+    private static Map<String, Integer> indexOf(List<String> names) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            index.put(names.get(i), i);
+        }
+        return index;
+    }
+
+    private static void writeRef(DataOutputStream out, long ref) throws IOException {
+        out.writeInt((int) (ref >>> 32));
+        out.writeInt((int) ref);
+    }
+
+    // Appends UTF-8 strings; a reference packs (offset << 32 | length)
+    private static final class Heap {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+
+        long add(String value) {
+            if (value == null) {
+                return 0xFFFFFFFFL; // offset 0, length -1
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            long offset = bytes.size();
+            if (offset + encoded.length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Snapshot string heap exceeds 2 GB");
+            }
+            bytes.write(encoded, 0, encoded.length);
+            return (offset << 32) | encoded.length;
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+
+    // Growable primitive columns filled while iterating the board once
+    private static final class Columns {
+        int size;
+        long[] ids = new long[1024];
+        long[] versions = new long[1024];
+        long[] titles = new long[1024];
+        long[] descs = new long[1024];
+        int[] due = new int[1024];
+        byte[] priority = new byte[1024];
+        byte[] status = new byte[1024];
+        byte[] progress = new byte[1024];
+        int[] category = new int[1024];
+        int[] member = new int[1024];
+
+        void add(TaskRecord task, long title, long desc, int categoryIndex, int memberIndex) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                descs = Arrays.copyOf(descs, capacity);
+                due = Arrays.copyOf(due, capacity);
+                priority = Arrays.copyOf(priority, capacity);
+                status = Arrays.copyOf(status, capacity);
+                progress = Arrays.copyOf(progress, capacity);
+                category = Arrays.copyOf(category, capacity);
+                member = Arrays.copyOf(member, capacity);
+            }
+            ids[size] = task.id();
+            versions[size] = task.version();
+            titles[size] = title;
+            descs[size] = desc;
+            due[size] = task.dueDate() == null ? NO_DATE : (int) task.dueDate().toEpochDay();
+            priority[size] = (byte) task.priority().ordinal();
+            status[size] = (byte) task.status().ordinal();
+            progress[size] = (byte) task.progressPercent();
+            category[size] = categoryIndex;
+            member[size] = memberIndex;
+            size++;
+        }
+    }
+
+    // --- Reading ---
+
+    /**
+     * Read-only view of a snapshot file. Only the header and the small
+     * category/member tables are decoded up front; everything else is read
+     * from the mapping when a row is asked for.
+     */
+    public static final class Reader {
+        private static final Priority[] PRIORITIES = Priority.values();
+        private static final Status[] STATUSES = Status.values();
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final Layout layout;
+        private final int size;
+        private final int linkCount;
+        private final String[] categories;
+        private final String[] members;
+        private final boolean[] leaders;
+
+        public Reader(Path file) throws IOException {
+            this.file = file;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot too large to map: " + file);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a board snapshot: " + file);
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported board snapshot version " + version + ": " + file);
+            }
+            size = buffer.getInt(8);
+            linkCount = buffer.getInt(24);
+            layout = new Layout(size, buffer.getInt(12), buffer.getInt(16), buffer.getInt(20), linkCount);
+            if (layout.end != buffer.limit()) {
+                throw new IOException("Truncated board snapshot: " + file);
+            }
+            categories = new String[buffer.getInt(12)];
+            for (int i = 0; i < categories.length; i++) {
+                categories[i] = string(layout.categories + 8L * i);
+            }
+            members = new String[buffer.getInt(16)];
+            leaders = new boolean[members.length];
+            for (int i = 0; i < members.length; i++) {
+                members[i] = string(layout.members + 8L * i);
+                leaders[i] = buffer.get((int) layout.leaders + i) != 0;
+            }
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public List<String> getCategories() {
+            return Arrays.asList(categories);
+        }
+
+        public List<String> getMembers() {
+            return Arrays.asList(members);
+        }
+
+        public boolean isLeader(int memberIndex) {
+            return leaders[memberIndex];
+        }
+
+        public long id(int row) {
+            return buffer.getLong((int) layout.ids + 8 * row);
+        }
+
+        public long version(int row) {
+            return buffer.getLong((int) layout.versions + 8 * row);
+        }
+
+        public String title(int row) {
+            return string(layout.titles + 8L * row);
+        }
+
+        public String description(int row) {
+            return string(layout.descs + 8L * row);
+        }
+
+        public int dueEpochDay(int row) {
+            return buffer.getInt((int) layout.due + 4 * row);
+        }
+
+        public LocalDate dueDate(int row) {
+            int day = dueEpochDay(row);
+            return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+        }
+
+        public Priority priority(int row) {
+            return PRIORITIES[buffer.get((int) layout.priority + row)];
+        }
+
+        public Status status(int row) {
+            return STATUSES[buffer.get((int) layout.status + row)];
+        }
+
+        public int progressPercent(int row) {
+            return buffer.get((int) layout.progress + row);
+        }
+
+        /** Index into {@link #getCategories()}, or -1. */
+        public int categoryIndex(int row) {
+            return buffer.getInt((int) layout.category + 4 * row);
+        }
+
+        /** Index into {@link #getMembers()}, or -1 if unassigned. */
+        public int memberIndex(int row) {
+            return buffer.getInt((int) layout.member + 4 * row);
+        }
+
+        /** Number of dependencies; 0 in files from before they were saved. */
+        public int linkCount() {
+            return linkCount;
+        }
+
+        /** Id of the task the {@code index}th dependency waits for. */
+        public long linkPrerequisite(int index) {
+            return buffer.getLong((int) layout.links + 16 * index);
+        }
+
+        /** Id of the task that waits in the {@code index}th dependency. */
+        public long linkDependent(int index) {
+            return buffer.getLong((int) layout.links + 16 * index + 8);
+        }
+
+        public TaskRecord record(int row) {
+            int category = categoryIndex(row);
+            int member = memberIndex(row);
+            return new TaskRecord(id(row), version(row), title(row), description(row), dueDate(row), priority(row),
+                    category < 0 ? null : categories[category], status(row), progressPercent(row),
+                    member < 0 ? null : members[member]);
+        }
+
+        private String string(long refPosition) {
+            int offset = buffer.getInt((int) refPosition);
+            int length = buffer.getInt((int) refPosition + 4);
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get((int) layout.heap + offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
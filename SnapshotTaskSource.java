@@ -0,0 +1,248 @@
+package todolist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only {@link TaskSource} over a saved board: the rows of its
+ * memory-mapped {@link SnapshotFile} that are still current, followed by
+ * the tasks the journal changed or added since. Pages are decoded straight
+ * from the mapping when asked for, so opening even a very large board only
+ * costs reading the snapshot header and replaying the journal tail.
+ * <p>
+ * {@link #select} filters and sorts on the snapshot's columns, in
+ * parallel, without building a {@link Task} per row. The source never
+ * changes once built, so it may be read from any thread.
+ */
+public class SnapshotTaskSource implements TaskSource {
+    private static final int NO_KEY = Integer.MIN_VALUE;
+    private static final int NOT_FOUND = -2; // never a category or member index
+
+    private final SnapshotFile.Reader reader; // null if the board has no snapshot yet
+    private final int[] baseRows; // current snapshot rows; null if all of them are
+    private final int baseCount;
+    private final TaskRecord[] records; // changed and new tasks, after the snapshot rows
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+    private final Map<String, GroupMember> members = new ConcurrentHashMap<>();
+    private final List<String> categoryNames;
+    private final List<String> memberNames;
+
+    /** Captures {@code state}; call it on the thread that owns the state. */
+    public SnapshotTaskSource(BoardState state) {
+        reader = state.getBase();
+        int snapshotRows = reader == null ? 0 : reader.size();
+        if (!state.hasChangedTasks()) {
+            baseRows = null;
+            baseCount = snapshotRows;
+        } else {
+            baseRows = IntStream.range(0, snapshotRows).parallel().filter(row -> !state.isStale(reader.id(row))).toArray();
+            baseCount = baseRows.length;
+        }
+        records = state.changedTasks().toArray(new TaskRecord[0]);
+        categoryNames = List.copyOf(state.categories());
+        memberNames = List.copyOf(state.members().keySet());
+        state.members().forEach((name, leader) -> members.put(name, GroupMember.of(name, leader)));
+        if (reader != null) {
+            List<String> names = reader.getMembers();
+            for (int i = 0; i < names.size(); i++) {
+                members.putIfAbsent(names.get(i), GroupMember.of(names.get(i), reader.isLeader(i)));
+            }
+        }
+        for (TaskRecord task : records) { // assignees no longer on the board still show
+            if (task.assignedTo() != null) {
+                members.computeIfAbsent(task.assignedTo(), GroupMember::of);
+            }
+        }
+    }
+
+    /** The board's categories, as saved. */
+    public List<String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    /** The board's members, as saved. */
+    public List<String> getMemberNames() {
+        return memberNames;
+    }
+
+    @Override
+    public int size() {
+        return baseCount + records.length;
+    }
+
+    @Override
+    public List<Task> getTasks(int fromRow, int toRow) {
+        List<Task> page = new ArrayList<>(toRow - fromRow);
+        for (int row = fromRow; row < toRow; row++) {
+            page.add(task(row));
+        }
+        return page;
+    }
+
+    @Override
+    public List<Task> getTasks(int[] rows, int from, int to) {
+        List<Task> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(task(rows[i]));
+        }
+        return page;
+    }
+
+    private Task task(int row) {
+        TaskRecord record = row < baseCount ? reader.record(snapshotRow(row)) : records[row - baseCount];
+        return record.toTask(categories, members);
+    }
+
+    private int snapshotRow(int row) {
+        return baseRows == null ? row : baseRows[row];
+    }
+
+    // --- Selection ---
+
+    @Override
+    public int[] select(Query query) {
+        int category = reader == null ? NOT_FOUND : indexOf(reader.getCategories(), query.category());
+        int member = reader == null ? NOT_FOUND : indexOf(reader.getMembers(), query.member());
+        int[] rows = IntStream.range(0, size()).parallel()
+                .filter(row -> row < baseCount
+                        ? matches(snapshotRow(row), query, category, member)
+                        : matches(records[row - baseCount], query))
+                .toArray();
+        if (query.sortColumn() < 0) {
+            return rows;
+        }
+        // One parallel sort over key << 32 | position; the position keeps ties in row order
+        int[] keys = keys(rows, query.sortColumn());
+        long[] packed = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int key = query.descending() ? ~keys[i] : keys[i];
+            packed[i] = (long) key << 32 | i;
+        }
+        Arrays.parallelSort(packed);
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = rows[(int) packed[i]];
+        }
+        return sorted;
+    }
+
+    private static int indexOf(List<String> names, String name) {
+        int index = name == null ? NOT_FOUND : names.indexOf(name);
+        return index < 0 ? NOT_FOUND : index;
+    }
+
+    private boolean matches(int row, Query query, int category, int member) {
+        return (query.status() == null || reader.status(row) == query.status())
+                && (query.priority() == null || reader.priority(row) == query.priority())
+                && (query.category() == null || reader.categoryIndex(row) == category)
+                && (query.member() == null || reader.memberIndex(row) == member);
+    }
+
+    private static boolean matches(TaskRecord task, Query query) {
+        return (query.status() == null || task.status() == query.status())
+                && (query.priority() == null || task.priority() == query.priority())
+                && (query.category() == null || query.category().equals(task.category()))
+                && (query.member() == null || query.member().equals(task.assignedTo()));
+    }
+
+    // Sort key of each selected row, in the order of TaskSource.Query
+    private int[] keys(int[] rows, int column) {
+        switch (column) {
+            case 0:
+            case 1:
+                return textRanks(rows, column);
+            case 2:
+                return nameRanks(rows, reader == null ? List.of() : reader.getCategories(),
+                        row -> reader.categoryIndex(row), TaskRecord::category);
+            case 6:
+                return nameRanks(rows, reader == null ? List.of() : reader.getMembers(),
+                        row -> reader.memberIndex(row), TaskRecord::assignedTo);
+            default:
+                int[] keys = new int[rows.length];
+                Arrays.parallelSetAll(keys, i -> {
+                    int row = rows[i];
+                    return row < baseCount ? columnKey(snapshotRow(row), column) : recordKey(records[row - baseCount], column);
+                });
+                return keys;
+        }
+    }
+
+    private int columnKey(int row, int column) {
+        switch (column) {
+            case 3: return reader.dueEpochDay(row); // SnapshotFile.NO_DATE is NO_KEY
+            case 4: return -reader.priority(row).ordinal();
+            case 5: return reader.status(row).ordinal();
+            default: return reader.progressPercent(row);
+        }
+    }
+
+    private static int recordKey(TaskRecord task, int column) {
+        switch (column) {
+            case 3: return task.dueDate() == null ? NO_KEY : (int) task.dueDate().toEpochDay();
+            case 4: return -task.priority().ordinal();
+            case 5: return task.status().ordinal();
+            default: return task.progressPercent();
+        }
+    }
+
+    // Categories and members: the rank of the name among all names on the board
+    private int[] nameRanks(int[] rows, List<String> snapshotNames, IntUnaryOperator snapshotIndex,
+                            Function<TaskRecord, String> recordName) {
+        TreeSet<String> sorted = new TreeSet<>(Query.TEXT_ORDER);
+        sorted.addAll(snapshotNames);
+        for (TaskRecord task : records) {
+            if (recordName.apply(task) != null) {
+                sorted.add(recordName.apply(task));
+            }
+        }
+        Map<String, Integer> rankByName = new HashMap<>();
+        for (String name : sorted) {
+            rankByName.put(name, rankByName.size());
+        }
+        int[] rankByIndex = snapshotNames.stream().mapToInt(rankByName::get).toArray();
+        int[] keys = new int[rows.length];
+        Arrays.parallelSetAll(keys, i -> {
+            int row = rows[i];
+            if (row < baseCount) {
+                int index = snapshotIndex.applyAsInt(snapshotRow(row));
+                return index < 0 ? NO_KEY : rankByIndex[index];
+            }
+            String name = recordName.apply(records[row - baseCount]);
+            return name == null ? NO_KEY : rankByName.get(name);
+        });
+        return keys;
+    }
+
+    // Titles and descriptions: decoded once, then ranked
+    private int[] textRanks(int[] rows, int column) {
+        String[] texts = new String[rows.length];
+        Arrays.parallelSetAll(texts, i -> {
+            int row = rows[i];
+            String text;
+            if (row < baseCount) {
+                text = column == 0 ? reader.title(snapshotRow(row)) : reader.description(snapshotRow(row));
+            } else {
+                text = column == 0 ? records[row - baseCount].title() : records[row - baseCount].description();
+            }
+            return text == null ? "" : text;
+        });
+        // TEXT_ORDER only ties equal strings, so a distinct text's rank is its sorted position
+        String[] distinct = Arrays.stream(texts).parallel().distinct().toArray(String[]::new);
+        Arrays.parallelSort(distinct, Query.TEXT_ORDER);
+        Map<String, Integer> rankByText = new HashMap<>(distinct.length * 2);
+        for (int i = 0; i < distinct.length; i++) {
+            rankByText.put(distinct[i], i);
+        }
+        int[] keys = new int[texts.length];
+        Arrays.parallelSetAll(keys, i -> rankByText.get(texts[i]));
+        return keys;
+    }
+}
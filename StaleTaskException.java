@@ -0,0 +1,18 @@
+package todolist;
+
+/**
+ * Thrown when an edit was based on a version of a task that is no longer
+ * current, because someone else changed or removed it in the meantime.
+ */
+public class StaleTaskException extends Exception {
+    private final transient Task task;
+
+    public StaleTaskException(Task task, String message) {
+        super(message);
+        this.task = task;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+}
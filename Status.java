@@ -1,28 +1,28 @@
-package todolist;
-
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
-
-/**
- *
- * @author Mario Abraham
- */
-public enum Status {
-    NOT_STARTED("Not started"),
-    IN_PROGRESS("In Progress"),
-    COMPLETED("Completed"),
-    ON_HOLD("On hold");
-
-    private final String displayName;
-
-    Status(String displayName) {
-        this.displayName = displayName;
-    }
-
-    @Override
-    public String toString() {
-        return displayName;
-    }
-}
+package todolist;
+
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+
+/**
+ *
+ * @author Mario Abraham
+ */
+public enum Status {
+    NOT_STARTED("Not started"),
+    IN_PROGRESS("In Progress"),
+    COMPLETED("Completed"),
+    ON_HOLD("On hold");
+
+    private final String displayName;
+
+    Status(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -1,52 +1,146 @@
-package todolist;
-
-import java.time.LocalDate;
-
-public class Task {
-    private String title;
-    private String description;
-    private LocalDate dueDate;
-    private Priority priority;
-    private Category category;
-    private Status status;
-    private int progressPercent;       // NEW: From class diagram
-    private GroupMember assignedTo;    // NEW: From class diagram
-
-    // MODIFIED: Update the constructor
-    public Task(String title, String description, LocalDate dueDate, Priority priority, Category category, GroupMember assignedTo) {
-        this.title = title;
-        this.description = description;
-        this.dueDate = dueDate;
-        this.priority = priority;
-        this.category = category;
-        this.assignedTo = assignedTo;
-        this.status = Status.NOT_STARTED; // Default status
-        this.progressPercent = 0;         // Default progress
-    }
-
-    // --- Getters and Setters ---
-    public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
-
-    public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
-
-    public LocalDate getDueDate() { return dueDate; }
-    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
-
-    public Priority getPriority() { return priority; }
-    public void setPriority(Priority priority) { this.priority = priority; }
-
-    public Category getCategory() { return category; }
-    public void setCategory(Category category) { this.category = category; }
-
-    public Status getStatus() { return status; }
-    public void setStatus(Status status) { this.status = status; }
-
-    // NEW: Getters and setters for new fields
-    public int getProgressPercent() { return progressPercent; }
-    public void setProgressPercent(int progressPercent) { this.progressPercent = progressPercent; }
-
-    public GroupMember getAssignedTo() { return assignedTo; }
-    public void setAssignedTo(GroupMember assignedTo) { this.assignedTo = assignedTo; }
+package todolist;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class Task {
+    private String title;
+    private String description;
+    private LocalDate dueDate;
+    private Priority priority;
+    private Category category;
+    private Status status;
+    private int progressPercent;       // NEW: From class diagram
+    private GroupMember assignedTo;    // NEW: From class diagram
+
+    // Set by the TaskRepository that owns this task
+    private long id;
+    private long version; // bumped once per change or repository edit, for optimistic updates
+    private TaskRepository repository;
+    int row = -1;
+    int deadlineSlot = -1; // position in the DeadlineScheduler heap
+    int dependencyNode = -1; // node in the DependencyGraph
+
+    // MODIFIED: Update the constructor
+    public Task(String title, String description, LocalDate dueDate, Priority priority, Category category, GroupMember assignedTo) {
+        this.title = title;
+        this.description = description;
+        this.dueDate = dueDate;
+        this.priority = priority;
+        this.category = category;
+        this.assignedTo = assignedTo;
+        this.status = Status.NOT_STARTED; // Default status
+        this.progressPercent = 0;         // Default progress
+    }
+
+    /** Stable id assigned by the repository, or 0 if the task was never stored. */
+    public long getId() { return id; }
+
+    /** Number of changes made to this task so far. */
+    public long getVersion() { return version; }
+
+    void attach(TaskRepository repository, long id) {
+        this.repository = repository;
+        this.id = id;
+    }
+
+    // Used when restoring a task that already had an id before it is re-added
+    void assignId(long id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    void detach() {
+        this.repository = null;
+        this.row = -1;
+    }
+
+    void bumpVersion() {
+        version++;
+    }
+
+    // A stored task may only be changed on its repository's writer thread
+    private void checkWriter() {
+        if (repository != null) {
+            repository.checkWriter();
+        }
+    }
+
+    // Lets the owning repository keep its indexes and version current
+    private void changed(TaskField field, Object oldValue, Object newValue) {
+        if (Objects.equals(oldValue, newValue)) {
+            return;
+        }
+        if (repository != null) {
+            repository.taskChanged(this, field, oldValue, newValue);
+        } else {
+            version++;
+        }
+    }
+
+    // --- Getters and Setters ---
+    public String getTitle() { return title; }
+    public void setTitle(String title) {
+        checkWriter();
+        String old = this.title;
+        this.title = title;
+        changed(TaskField.TITLE, old, title);
+    }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) {
+        checkWriter();
+        String old = this.description;
+        this.description = description;
+        changed(TaskField.DESCRIPTION, old, description);
+    }
+
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) {
+        checkWriter();
+        LocalDate old = this.dueDate;
+        this.dueDate = dueDate;
+        changed(TaskField.DUE_DATE, old, dueDate);
+    }
+
+    public Priority getPriority() { return priority; }
+    public void setPriority(Priority priority) {
+        checkWriter();
+        Priority old = this.priority;
+        this.priority = priority;
+        changed(TaskField.PRIORITY, old, priority);
+    }
+
+    public Category getCategory() { return category; }
+    public void setCategory(Category category) {
+        checkWriter();
+        Category old = this.category;
+        this.category = category;
+        changed(TaskField.CATEGORY, old, category);
+    }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) {
+        checkWriter();
+        Status old = this.status;
+        this.status = status;
+        changed(TaskField.STATUS, old, status);
+    }
+
+    // NEW: Getters and setters for new fields
+    public int getProgressPercent() { return progressPercent; }
+    public void setProgressPercent(int progressPercent) {
+        checkWriter();
+        int old = this.progressPercent;
+        this.progressPercent = progressPercent;
+        changed(TaskField.PROGRESS, old, progressPercent);
+    }
+
+    public GroupMember getAssignedTo() { return assignedTo; }
+    public void setAssignedTo(GroupMember assignedTo) {
+        checkWriter();
+        GroupMember old = this.assignedTo;
+        this.assignedTo = assignedTo;
+        changed(TaskField.ASSIGNED_TO, old, assignedTo);
+    }
 }
\ No newline at end of file
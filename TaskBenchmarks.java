@@ -0,0 +1,849 @@
+package todolist;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntToLongFunction;
+import java.util.stream.Collectors;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.table.TableRowSorter;
+
+/**
+ * Micro-benchmarks for the model, the table and the services around them,
+ * run against synthetic boards of configurable size.
+ * <p>
+ * Each benchmark warms up, then runs a number of timed iterations and
+ * reports the mean and standard deviation; results are printed as one JSON
+ * object per line so runs can be stored and compared between releases.
+ * Progress goes to stderr. Network throughput is measured separately by
+ * {@link LoadGenerator}.
+ * <pre>
+ *   TaskBenchmarks [--sizes 1k,10k,100k] [--suites table,filter,...]
+ *                  [--warmup 3] [--iterations 5] [--time 500] [--out file]
+ * </pre>
+ * Sizes take k and M suffixes; boards of 10M tasks need a heap of several
+ * gigabytes. The suites are {@value #SUITES}.
+ */
+public class TaskBenchmarks {
+    static final String SUITES = "table,renderer,filter,sort,workload,inuse,edit,search,"
+            + "contention,coldstart,deadline,heap,dashboard,history,dependencies,recurring";
+
+    private static final int CATEGORIES = 8;
+    private static final int MEMBERS = 32;
+    private static final int HISTORY_EDITS = 1_000_000;
+    private static final int PREREQUISITES = 3;
+    private static final int TASKS_PER_TEMPLATE = 10;
+    private static final String[] WORDS = {
+        "design", "review", "test", "document", "deploy", "fix", "refactor", "plan", "measure", "release",
+        "swing", "table", "model", "filter", "journal", "snapshot", "server", "client", "index", "report"
+    };
+
+    /** One measured benchmark: {@code score} in {@code unit}, with its standard deviation. */
+    record Result(String benchmark, String param, int size, double score, double error, String unit, int samples) {
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"benchmark\":\"%s\",\"param\":\"%s\",\"size\":%d,\"score\":%.3f,\"error\":%.3f,\"unit\":\"%s\",\"samples\":%d}",
+                    benchmark, param, size, score, error, unit, samples);
+        }
+    }
+
+    private static volatile long sink; // keeps results alive so the JIT cannot drop the work
+
+    private final int warmup;
+    private final int iterations;
+    private final long iterationNanos;
+    private final PrintStream out;
+    private final List<Result> results = new ArrayList<>();
+
+    public TaskBenchmarks(int warmup, int iterations, long iterationMillis, PrintStream out) {
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.iterationNanos = TimeUnit.MILLISECONDS.toNanos(iterationMillis);
+        this.out = out;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    // --- Harness ---
+
+    /** Times {@code op} in batches for each iteration and records the mean ns per call. */
+    private void measure(String benchmark, String param, int size, IntToLongFunction op) {
+        int batch = 1;
+        long acc = 0;
+        double[] scores = new double[iterations];
+        for (int iteration = -warmup; iteration < iterations; iteration++) {
+            long calls = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                for (int i = 0; i < batch; i++) {
+                    acc += op.applyAsLong((int) (calls + i));
+                }
+                calls += batch;
+                elapsed = System.nanoTime() - start;
+                if (elapsed < iterationNanos / 100) {
+                    batch = Math.min(batch * 2, 1 << 20);
+                }
+            } while (elapsed < iterationNanos);
+            if (iteration >= 0) {
+                scores[iteration] = (double) elapsed / calls;
+            }
+        }
+        sink += acc;
+        record(benchmark, param, size, scores, "ns/op");
+    }
+
+    /** Runs {@code op} once per iteration, for work that is too slow or stateful to repeat in a loop. */
+    private void measureOnce(String benchmark, String param, int size, String unit, double divisor, IntToLongFunction op) {
+        double[] scores = new double[iterations];
+        for (int iteration = -warmup; iteration < iterations; iteration++) {
+            long start = System.nanoTime();
+            sink += op.applyAsLong(iteration);
+            long elapsed = System.nanoTime() - start;
+            if (iteration >= 0) {
+                scores[iteration] = elapsed / divisor;
+            }
+        }
+        record(benchmark, param, size, scores, unit);
+    }
+
+    private void record(String benchmark, String param, int size, double[] scores, String unit) {
+        double mean = Arrays.stream(scores).average().orElse(0);
+        double variance = Arrays.stream(scores).map(s -> (s - mean) * (s - mean)).sum() / Math.max(1, scores.length - 1);
+        add(new Result(benchmark, param, size, mean, Math.sqrt(variance), unit, scores.length));
+    }
+
+    private void add(Result result) {
+        results.add(result);
+        out.println(result.toJson());
+        out.flush();
+        System.err.printf(Locale.ROOT, "%-28s %-22s %10d %14.1f +- %.1f %s%n", result.benchmark(), result.param(),
+                result.size(), result.score(), result.error(), result.unit());
+    }
+
+    private static void onEdt(Runnable action) {
+        try {
+            SwingUtilities.invokeAndWait(action);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // --- Data ---
+
+    /** A board with {@code size} random tasks; the same seed gives the same board. */
+    static TaskRepository board(int size, long seed) {
+        TaskRepository repository = new TaskRepository();
+        fill(repository, size, seed);
+        return repository;
+    }
+
+    static void fill(TaskRepository repository, int size, long seed) {
+        for (int i = 0; i < CATEGORIES; i++) {
+            repository.addCategory(Category.of("Category " + i));
+        }
+        for (int i = 0; i < MEMBERS; i++) {
+            repository.addMember(i % 8 == 0 ? GroupLeader.of("Leader " + i) : GroupMember.of("Member " + i));
+        }
+        repository.addAll(tasks(size, seed, repository.getCategories(), repository.getMembers()));
+    }
+
+    static List<Task> tasks(int size, long seed, List<Category> categories, List<GroupMember> members) {
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String description = "Task " + i + ": " + WORDS[random.nextInt(WORDS.length)] + " the "
+                    + WORDS[random.nextInt(WORDS.length)];
+            Task task = new Task(title, description, random.nextInt(10) == 0 ? null : today.plusDays(random.nextInt(365) - 120),
+                    Priority.values()[random.nextInt(Priority.values().length)],
+                    categories.get(random.nextInt(categories.size())),
+                    random.nextInt(5) == 0 ? null : members.get(random.nextInt(members.size())));
+            task.setStatus(Status.values()[random.nextInt(Status.values().length)]);
+            task.setProgressPercent(random.nextInt(101));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    // --- Suites ---
+
+    void run(List<String> suites, int[] sizes) throws Exception {
+        for (int size : sizes) {
+            System.err.println("# " + size + " tasks");
+            TaskRepository[] holder = new TaskRepository[1];
+            onEdt(() -> holder[0] = board(size, 42));
+            TaskRepository repository = holder[0];
+            for (String suite : suites) {
+                switch (suite) {
+                    case "table" -> table(repository);
+                    case "renderer" -> renderer(repository);
+                    case "filter" -> filter(repository);
+                    case "sort" -> sort(repository);
+                    case "workload" -> workload(repository);
+                    case "inuse" -> inUse(repository);
+                    case "edit" -> edit(repository);
+                    case "search" -> search(repository);
+                    case "contention" -> contention(repository);
+                    case "coldstart" -> coldStart(size);
+                    case "deadline" -> deadline(repository);
+                    case "heap" -> heap(size);
+                    case "dashboard" -> dashboard(repository);
+                    case "history" -> history(repository);
+                    case "dependencies" -> dependencies(repository);
+                    case "recurring" -> recurring(repository);
+                    default -> throw new IllegalArgumentException("Unknown suite: " + suite);
+                }
+            }
+        }
+    }
+
+    private void table(TaskRepository repository) {
+        TaskTableModel model = new TaskTableModel(repository);
+        int size = repository.size();
+        for (int column = 0; column < model.getColumnCount(); column++) {
+            int col = column;
+            measure("table.getValueAt", "column=" + col, size,
+                    i -> Objects.hashCode(model.getValueAt(i % size, col)));
+        }
+        repository.removeListener(model);
+    }
+
+    private void renderer(TaskRepository repository) {
+        TaskTableModel model = new TaskTableModel(repository);
+        JTable table = new JTable(model);
+        TaskCellRenderer rowRenderer = new TaskCellRenderer(model);
+        ProgressCellRenderer progressRenderer = new ProgressCellRenderer(rowRenderer);
+        int size = repository.size();
+        int columns = model.getColumnCount();
+        measure("renderer.cell", "all columns", size, i -> {
+            int row = (i / columns) % size;
+            int column = i % columns;
+            Object value = model.getValueAt(row, column);
+            return (column == 7 ? progressRenderer : rowRenderer)
+                    .getTableCellRendererComponent(table, value, false, false, row, column).hashCode();
+        });
+        model.removeTableModelListener(rowRenderer);
+        repository.removeListener(model);
+    }
+
+    // The filters applyTableFilters builds for a typical selection
+    private static TaskFilter typicalFilter(TaskRepository repository) {
+        LocalDate today = LocalDate.now();
+        return TaskFilter.allOf(List.of(
+                TaskFilter.category(repository.getCategories().get(1)),
+                TaskFilter.status(Status.IN_PROGRESS),
+                TaskFilter.dueBetween(today.minusDays(30), today.plusDays(90)),
+                TaskFilter.progressBetween(10, 90)));
+    }
+
+    private void filter(TaskRepository repository) {
+        int size = repository.size();
+        TaskFilter filter = typicalFilter(repository);
+        List<Task> tasks = repository.getTasks();
+        measureOnce("filter.scan", "4 filters", size, "ns/task", size, iteration -> {
+            long matches = 0;
+            for (Task task : tasks) {
+                if (filter.test(task)) {
+                    matches++;
+                }
+            }
+            return matches;
+        });
+        TaskTableModel model = new TaskTableModel(repository);
+        TableRowSorter<TaskTableModel> sorter = new TableRowSorter<>(model);
+        measureOnce("filter.rowSorter", "4 filters", size, "ms", 1e6, iteration -> {
+            sorter.setRowFilter(iteration % 2 == 0 ? filter.toRowFilter() : null);
+            return sorter.getViewRowCount();
+        });
+        TaskRowSorter taskSorter = new TaskRowSorter(model);
+        measureOnce("filter.taskRowSorter", "4 filters", size, "ms", 1e6, iteration -> {
+            taskSorter.setFilter(iteration % 2 == 0 ? filter : TaskFilter.ALL);
+            return taskSorter.getViewRowCount();
+        });
+        repository.removeListener(model);
+    }
+
+    private void sort(TaskRepository repository) {
+        TaskTableModel model = new TaskTableModel(repository);
+        TableRowSorter<TaskTableModel> sorter = new TableRowSorter<>(model);
+        List<List<RowSorter.SortKey>> orders = List.of(
+                List.of(new RowSorter.SortKey(3, SortOrder.ASCENDING)),
+                List.of(new RowSorter.SortKey(4, SortOrder.DESCENDING), new RowSorter.SortKey(3, SortOrder.ASCENDING)),
+                List.of(new RowSorter.SortKey(0, SortOrder.ASCENDING)));
+        String[] names = {"due date", "priority, due date", "title"};
+        for (int o = 0; o < orders.size(); o++) {
+            List<RowSorter.SortKey> keys = orders.get(o);
+            measureOnce("sort.rowSorter", names[o], repository.size(), "ms", 1e6, iteration -> {
+                sorter.setSortKeys(null);
+                sorter.setSortKeys(keys);
+                return sorter.convertRowIndexToModel(0);
+            });
+        }
+        TaskRowSorter taskSorter = new TaskRowSorter(model);
+        for (int o = 0; o < orders.size(); o++) {
+            List<RowSorter.SortKey> keys = orders.get(o);
+            measureOnce("sort.taskRowSorter", names[o], repository.size(), "ms", 1e6, iteration -> {
+                taskSorter.setSortKeys(null);
+                taskSorter.setSortKeys(keys);
+                return taskSorter.convertRowIndexToModel(0);
+            });
+            // allRowsChanged drops the cached keys, as fireTableDataChanged would
+            measureOnce("sort.taskRowSorter", names[o] + ", keys read again", repository.size(), "ms", 1e6, iteration -> {
+                taskSorter.allRowsChanged();
+                return taskSorter.convertRowIndexToModel(0);
+            });
+        }
+        repository.removeListener(model);
+    }
+
+    private void workload(TaskRepository repository) {
+        List<Task> tasks = repository.getTasks();
+        int size = repository.size();
+        // What showWorkloadDialog used to do on every open
+        measureOnce("workload.groupingBy", "stream", size, "ms", 1e6, iteration -> tasks.stream()
+                .filter(task -> task.getAssignedTo() != null)
+                .collect(Collectors.groupingBy(Task::getAssignedTo, Collectors.counting())).size());
+        WorkloadService service = new WorkloadService(repository);
+        measure("workload.snapshot", "incremental", size, i -> service.getSnapshot().size());
+        repository.removeListener(service);
+    }
+
+    private void inUse(TaskRepository repository) {
+        int size = repository.size();
+        List<Task> tasks = repository.getTasks();
+        GroupMember idle = GroupMember.of("Benchmark idle member");
+        Category unused = Category.of("Benchmark unused category");
+        // Worst case for a scan: nothing matches, so every task is visited
+        measureOnce("inuse.member", "scan", size, "ns/task", size,
+                iteration -> tasks.stream().anyMatch(task -> idle.equals(task.getAssignedTo())) ? 1 : 0);
+        measure("inuse.member", "index", size, i -> repository.isMemberInUse(idle) ? 1 : 0);
+        measureOnce("inuse.category", "scan", size, "ns/task", size,
+                iteration -> tasks.stream().anyMatch(task -> unused.equals(task.getCategory())) ? 1 : 0);
+        measure("inuse.category", "index", size, i -> repository.isCategoryInUse(unused) ? 1 : 0);
+    }
+
+    // A single edit through the table model's event and the sorter's update, as on the EDT
+    private void edit(TaskRepository repository) {
+        onEdt(() -> {
+            int size = repository.size();
+            for (String benchmark : List.of("edit.toSorter", "edit.toTaskRowSorter")) {
+                TaskTableModel model = new TaskTableModel(repository);
+                RowSorter<TaskTableModel> sorter;
+                if (benchmark.equals("edit.toSorter")) {
+                    TableRowSorter<TaskTableModel> tableSorter = new TableRowSorter<>(model);
+                    tableSorter.setSortsOnUpdates(true); // otherwise an edited row is neither moved nor filtered
+                    sorter = tableSorter;
+                } else {
+                    sorter = new TaskRowSorter(model);
+                }
+                sorter.setSortKeys(List.of(new RowSorter.SortKey(3, SortOrder.ASCENDING)));
+                model.addTableModelListener(e -> sorter.rowsUpdated(e.getFirstRow(), e.getLastRow()));
+                measure(benchmark, "progress", size, i -> {
+                    Task task = repository.getTaskAt((int) ((i * 2654435761L) % size));
+                    task.setProgressPercent(i % 101);
+                    model.flushUpdates();
+                    return sorter.getViewRowCount();
+                });
+                measure(benchmark, "due date", size, i -> {
+                    Task task = repository.getTaskAt((int) ((i * 2654435761L) % size));
+                    task.setDueDate(LocalDate.now().plusDays(i % 365));
+                    model.flushUpdates();
+                    return sorter.getViewRowCount();
+                });
+                repository.removeListener(model);
+            }
+        });
+    }
+
+    private void search(TaskRepository repository) {
+        SearchIndex[] index = new SearchIndex[1];
+        onEdt(() -> index[0] = new SearchIndex(repository));
+        int size = repository.size();
+        String selective = "review " + (size / 2);
+        measure("search.query", "selective", size, i -> index[0].search(selective, 100).size());
+        measure("search.query", "two words", size, i -> index[0].search("deploy swing", 100).size());
+        measure("search.query", "prefix", size, i -> index[0].search("refac", 100).size());
+        onEdt(() -> repository.removeListener(index[0]));
+    }
+
+    // Optimistic updates of random tasks from 1 to 64 threads, with stale retries;
+    // after each round the board is checked against the updates that went through
+    private void contention(TaskRepository repository) throws InterruptedException {
+        List<Task> tasks = repository.getTasks();
+        int size = tasks.size();
+        long[] startVersions = new long[size];
+        onEdt(() -> {
+            for (int i = 0; i < size; i++) {
+                startVersions[i] = tasks.get(i).getVersion();
+            }
+        });
+        AtomicLongArray succeeded = new AtomicLongArray(size);
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            double[] scores = new double[iterations];
+            long[] staleCounts = new long[1];
+            for (int iteration = -warmup; iteration < iterations; iteration++) {
+                LongAdder updates = new LongAdder();
+                LongAdder stale = new LongAdder();
+                long deadline = System.nanoTime() + iterationNanos;
+                List<Thread> workers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    workers.add(Thread.ofPlatform().name("bench-writer-" + t).start(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            int i = random.nextInt(size);
+                            Task task = tasks.get(i);
+                            try {
+                                // Always a change, so every successful update is one version
+                                repository.update(task, repository.getRecord(task.getId()).version(),
+                                        edited -> edited.setProgressPercent((edited.getProgressPercent() + 1) % 101));
+                                updates.increment();
+                                succeeded.incrementAndGet(i);
+                            } catch (StaleTaskException e) {
+                                stale.increment();
+                            }
+                            sink += repository.getRecord(tasks.get(random.nextInt(size)).getId()).version();
+                        }
+                    }));
+                }
+                long start = System.nanoTime();
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                if (iteration >= 0) {
+                    scores[iteration] = updates.sum() / seconds;
+                    staleCounts[0] += stale.sum();
+                }
+            }
+            onEdt(() -> checkConsistency(repository, startVersions, succeeded));
+            record("contention.update", "threads=" + threads + " stale=" + staleCounts[0], size, scores, "ops/s");
+        }
+    }
+
+    // Fails unless each task's version moved by its successful updates and the
+    // published records and the indexes match the tasks
+    static void checkConsistency(TaskRepository repository, long[] startVersions, AtomicLongArray succeeded) {
+        List<Task> tasks = repository.getTasks();
+        if (repository.getRecords().size() != tasks.size()) {
+            throw new IllegalStateException(repository.getRecords().size() + " records published for " + tasks.size() + " tasks");
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            long expected = startVersions[i] + succeeded.get(i);
+            if (task.getVersion() != expected) {
+                throw new IllegalStateException("Task " + task.getId() + " is at version " + task.getVersion()
+                        + " after " + succeeded.get(i) + " updates from version " + startVersions[i]);
+            }
+            if (!TaskRecord.of(task).equals(repository.getRecord(task.getId()))) {
+                throw new IllegalStateException("Published record of task " + task.getId() + " does not match the task");
+            }
+            if (!repository.getTasksWithStatus(task.getStatus()).contains(task)
+                    || !repository.getTasksWithPriority(task.getPriority()).contains(task)
+                    || !repository.getTasksInCategory(task.getCategory()).contains(task)
+                    || !repository.getTasksAssignedTo(task.getAssignedTo()).contains(task)) {
+                throw new IllegalStateException("Task " + task.getId() + " is missing from an index");
+            }
+        }
+        int byStatus = 0;
+        for (Status status : Status.values()) {
+            byStatus += repository.getTasksWithStatus(status).size();
+        }
+        int byPriority = 0;
+        for (Priority priority : Priority.values()) {
+            byPriority += repository.getTasksWithPriority(priority).size();
+        }
+        if (byStatus != tasks.size() || byPriority != tasks.size()) {
+            throw new IllegalStateException("Indexes hold " + byStatus + " tasks by status and " + byPriority
+                    + " by priority for " + tasks.size() + " tasks");
+        }
+    }
+
+    // Loading a saved board (latest snapshot plus journal tail) into an empty repository
+    private void coldStart(int size) throws IOException {
+        Path directory = Files.createTempDirectory("todolist-bench");
+        try {
+            onEdt(() -> {
+                try {
+                    TaskRepository repository = new TaskRepository();
+                    TaskJournal journal = TaskJournal.open(directory, repository);
+                    fill(repository, size, 7);
+                    journal.close();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            // Mapping the newest snapshot is all a board needs before rows can be read
+            measureOnce("coldstart.open", "map snapshot", size, "ms", 1e6, iteration -> {
+                try (var files = Files.newDirectoryStream(directory, "board-*.snapshot")) {
+                    long rows = 0;
+                    for (Path file : files) {
+                        rows += new SnapshotFile.Reader(file).size();
+                    }
+                    return rows;
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            // The whole open: map, replay the journal tail and decode every task into the repository
+            measureOnce("coldstart.open", "snapshot+journal", size, "ms", 1e6, iteration -> {
+                long[] loaded = new long[1];
+                onEdt(() -> {
+                    try {
+                        TaskRepository repository = new TaskRepository();
+                        TaskJournal journal = TaskJournal.open(directory, repository);
+                        loaded[0] = repository.size();
+                        journal.close();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                return loaded[0];
+            });
+        } finally {
+            try (var files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private void deadline(TaskRepository repository) {
+        int size = repository.size();
+        onEdt(() -> {
+            measureOnce("deadline.schedule", "all tasks", size, "ns/task", size, iteration -> {
+                DeadlineScheduler scheduler = new DeadlineScheduler(repository);
+                int pending = scheduler.size();
+                scheduler.stop();
+                return pending;
+            });
+            DeadlineScheduler scheduler = new DeadlineScheduler(repository);
+            LocalDate today = LocalDate.now();
+            measure("deadline.reschedule", "setDueDate", size, i -> {
+                Task task = repository.getTaskAt((int) ((i * 2654435761L) % size));
+                task.setDueDate(today.plusDays(i % 400 - 100));
+                return scheduler.size();
+            });
+            scheduler.stop();
+        });
+    }
+
+    // Heap retained per task, as Task objects in a repository and as columns
+    private void heap(int size) {
+        List<Category> categories = new ArrayList<>();
+        List<GroupMember> members = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(Category.of("Category " + i));
+        }
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(GroupMember.of("Member " + i));
+        }
+        double[] objects = new double[iterations];
+        double[] columns = new double[iterations];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            long before = usedHeap();
+            List<Task> tasks = tasks(size, iteration, categories, members);
+            long withTasks = usedHeap();
+            ColumnarTaskStore store = new ColumnarTaskStore(size);
+            store.addAll(tasks);
+            sink += tasks.size();
+            tasks = null; // only the store stays reachable
+            long withStore = usedHeap();
+            objects[iteration] = (double) (withTasks - before) / size;
+            columns[iteration] = (double) (withStore - before) / size;
+            sink += store.size();
+        }
+        record("heap.perTask", "Task objects", size, objects, "bytes");
+        record("heap.perTask", "columnar", size, columns, "bytes");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private void dashboard(TaskRepository repository) {
+        int size = repository.size();
+        measureOnce("dashboard.full", "fork/join", size, "ms", 1e6,
+                iteration -> DashboardAnalytics.compute(repository.getRecords(), repository.getMembers()).getTaskCount());
+        DashboardAnalytics[] created = new DashboardAnalytics[1];
+        CompletableFuture<?>[] first = new CompletableFuture<?>[1];
+        onEdt(() -> {
+            created[0] = new DashboardAnalytics(repository);
+            first[0] = created[0].recompute();
+        });
+        first[0].join(); // completes on the EDT, so wait for it off the EDT
+        onEdt(() -> {
+            DashboardAnalytics analytics = created[0];
+            measure("dashboard.incremental", "status edit", size, i -> {
+                Task task = repository.getTaskAt((int) ((i * 2654435761L) % size));
+                task.setStatus(Status.values()[i % Status.values().length]);
+                return i;
+            });
+            measure("dashboard.snapshot", "incremental", size, i -> analytics.getDashboard().getTaskCount());
+            analytics.stop();
+            repository.removeListener(analytics);
+        });
+    }
+
+    // Recording an edit, undo/redo, per-task lookups and the heap one edit retains
+    private void history(TaskRepository repository) {
+        int size = repository.size();
+        onEdt(() -> {
+            TaskHistory history = new TaskHistory(repository);
+            // canUndo() closes the revision, as the end of an EDT turn would
+            measure("history.record", "one edit per revision", size, i -> {
+                Task task = repository.getTaskAt((int) ((i * 2654435761L) % size));
+                task.setProgressPercent((task.getProgressPercent() + 1) % 101);
+                return history.canUndo() ? history.getChangeCount() : 0;
+            });
+            measure("history.query", "revisions of a task", size,
+                    i -> history.getRevisionsOf(repository.getTaskAt((int) ((i * 2654435761L) % size)).getId()).size());
+            measure("history.undoRedo", "one field", size, i -> {
+                try {
+                    history.undo();
+                    history.redo();
+                } catch (StaleTaskException e) {
+                    throw new IllegalStateException(e);
+                }
+                return history.getRevisionCount();
+            });
+            history.stop();
+
+            double[] bytes = new double[iterations];
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                long before = usedHeap();
+                TaskHistory archive = new TaskHistory(repository);
+                for (int i = 0; i < HISTORY_EDITS; i++) {
+                    Task task = repository.getTaskAt((int) ((i * 2654435761L) % size));
+                    if (i % 2 == 0) {
+                        task.setProgressPercent((task.getProgressPercent() + 1) % 101);
+                    } else {
+                        task.setStatus(Status.values()[(task.getStatus().ordinal() + 1) % Status.values().length]);
+                    }
+                    if (i % 4 == 3) {
+                        archive.canUndo();
+                    }
+                }
+                long after = usedHeap();
+                archive.stop();
+                bytes[iteration] = (double) (after - before) / HISTORY_EDITS;
+                sink += archive.getChangeCount();
+            }
+            record("history.heap", "1M edits, 4 per revision", size, bytes, "bytes/edit");
+        });
+    }
+
+    // Building a graph, adding one link, and the propagation a status or due date edit starts
+    private void dependencies(TaskRepository repository) {
+        int size = repository.size();
+        List<DependencyGraph.Dependency> links = links(repository, 7);
+        onEdt(() -> {
+            measureOnce("dependencies.build", PREREQUISITES + " prerequisites per task", size, "ns/link", links.size(), iteration -> {
+                DependencyGraph graph = new DependencyGraph(repository);
+                int added = graph.addAll(links);
+                graph.stop();
+                return added;
+            });
+            DependencyGraph graph = new DependencyGraph(repository);
+            graph.addAll(links);
+            // Links only ever point to later rows, so none of them closes a cycle
+            measure("dependencies.add", "nearby link", size, i -> {
+                int row = (int) ((i * 2654435761L) % (size - 64));
+                graph.addDependency(repository.getTaskAt(row), repository.getTaskAt(row + 1 + i % 63));
+                return graph.getEdgeCount();
+            });
+            measure("dependencies.propagate", "status edit", size, i -> {
+                Task task = repository.getTaskAt((int) ((i * 2654435761L) % size));
+                task.setStatus(task.getStatus() == Status.COMPLETED ? Status.IN_PROGRESS : Status.COMPLETED);
+                return graph.isBlocked(task) ? 1 : 0;
+            });
+            LocalDate today = LocalDate.now();
+            measure("dependencies.propagate", "due date edit", size, i -> {
+                Task task = repository.getTaskAt((int) ((i * 2654435761L) % size));
+                task.setDueDate(today.plusDays(i % 400 - 100));
+                return graph.getEdgeCount();
+            });
+            measureOnce("dependencies.criticalPath", "whole board", size, "ms", 1e6, iteration -> graph.getCriticalPath().size());
+            graph.stop();
+        });
+    }
+
+    // Up to PREREQUISITES links per task, each from one of the 64 rows before it
+    private static List<DependencyGraph.Dependency> links(TaskRepository repository, long seed) {
+        Random random = new Random(seed);
+        int size = repository.size();
+        List<DependencyGraph.Dependency> links = new ArrayList<>(size * PREREQUISITES);
+        for (int row = 1; row < size; row++) {
+            Task dependent = repository.getTaskAt(row);
+            int count = random.nextInt(PREREQUISITES + 1);
+            for (int i = 0; i < count; i++) {
+                links.add(new DependencyGraph.Dependency(repository.getTaskAt(Math.max(0, row - 1 - random.nextInt(64))), dependent));
+            }
+        }
+        return links;
+    }
+
+    // Opening a board's saved templates, which adds the whole horizon, and moving the horizon by a day
+    private void recurring(TaskRepository board) throws IOException {
+        int size = board.size();
+        List<TaskTemplate> templates = templates(Math.max(1, size / TASKS_PER_TEMPLATE), board);
+        Path directory = Files.createTempDirectory("todolist-bench");
+        Path saved = directory.resolve("templates.tsv");
+        try {
+            onEdt(() -> {
+                RecurringTasks recurring = new RecurringTasks(new TaskRepository(), directory.resolve(RecurringTasks.FILE_NAME),
+                        RecurringTasks.DEFAULT_HORIZON_DAYS, Clock.systemDefaultZone());
+                recurring.addAll(templates);
+                recurring.stop();
+            });
+            Files.copy(directory.resolve(RecurringTasks.FILE_NAME), saved);
+            String param = templates.size() + " templates";
+            measureOnce("recurring.open", param, size, "ms", 1e6, iteration -> {
+                long[] added = new long[1];
+                onEdt(() -> {
+                    try {
+                        // Opening saves how far each template got, so start from the same file every time
+                        Files.copy(saved, directory.resolve(RecurringTasks.FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+                        TaskRepository repository = new TaskRepository();
+                        RecurringTasks recurring = RecurringTasks.open(directory, repository);
+                        recurring.stop();
+                        added[0] = repository.size();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                return added[0];
+            });
+            onEdt(() -> {
+                DayClock clock = new DayClock();
+                TaskRepository repository = new TaskRepository();
+                RecurringTasks recurring = new RecurringTasks(repository, null, RecurringTasks.DEFAULT_HORIZON_DAYS, clock);
+                recurring.addAll(templates);
+                measureOnce("recurring.roll", param + ", one day", size, "ms", 1e6, iteration -> {
+                    clock.day++;
+                    return recurring.generate();
+                });
+                recurring.stop();
+            });
+        } finally {
+            try (var files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    // A third each of daily, weekly and monthly templates with the board's categories and members
+    private static List<TaskTemplate> templates(int count, TaskRepository board) {
+        Random random = new Random(11);
+        LocalDate today = LocalDate.now();
+        List<TaskTemplate> templates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TaskTemplate.Unit unit = TaskTemplate.Unit.values()[i % 3];
+            templates.add(new TaskTemplate(WORDS[random.nextInt(WORDS.length)] + " " + i, "Recurring task " + i,
+                    Priority.values()[random.nextInt(Priority.values().length)],
+                    board.getCategories().get(random.nextInt(CATEGORIES)),
+                    random.nextInt(5) == 0 ? null : board.getMembers().get(random.nextInt(MEMBERS)),
+                    today.minusDays(random.nextInt(60)), 1 + random.nextInt(unit == TaskTemplate.Unit.DAYS ? 3 : 2), unit, null));
+        }
+        return templates;
+    }
+
+    // A clock that stands still at the start of a day, for moving the horizon one day at a time
+    private static final class DayClock extends Clock {
+        long day = LocalDate.now().toEpochDay();
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochSecond(day * 86_400);
+        }
+    }
+
+    // --- Command line ---
+
+    static int parseSize(String text) {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        int multiplier = 1;
+        if (value.endsWith("k")) {
+            multiplier = 1_000;
+        } else if (value.endsWith("m")) {
+            multiplier = 1_000_000;
+        }
+        if (multiplier > 1) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return Math.multiplyExact(Integer.parseInt(value), multiplier);
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int[] sizes = {1_000, 10_000, 100_000};
+        List<String> suites = Arrays.asList(SUITES.split(","));
+        int warmup = 3;
+        int iterations = 5;
+        int time = 500;
+        Path outFile = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes" -> sizes = Arrays.stream(args[++i].split(",")).mapToInt(TaskBenchmarks::parseSize).toArray();
+                case "--suites" -> suites = Arrays.asList(args[++i].split(","));
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "--time" -> time = Integer.parseInt(args[++i]);
+                case "--out" -> outFile = Path.of(args[++i]);
+                default -> {
+                    System.err.println("Usage: TaskBenchmarks [--sizes 1k,10k,100k] [--suites " + SUITES + "]"
+                            + " [--warmup 3] [--iterations 5] [--time 500] [--out file]");
+                    System.exit(2);
+                }
+            }
+        }
+        try (PrintStream out = outFile == null ? new PrintStream(System.out, true)
+                : new PrintStream(Files.newOutputStream(outFile), true)) {
+            new TaskBenchmarks(warmup, iterations, time, out).run(suites, sizes);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,172 @@
+package todolist;
+
+import javax.swing.JTable;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Color;
+import java.awt.Component;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Colors task rows by status and priority and highlights overdue and
+ * blocked tasks. High-priority rows get a deeper shade of their color (or
+ * {@link #HIGH_PRIORITY_COLOR} if they have none), low-priority rows a
+ * paler one.
+ * <p>
+ * The style of each model row (its state and priority) is worked out once
+ * and cached in a byte per row; table-model events clear the affected
+ * entries. Colors come from a shared palette and due dates from a small
+ * text cache, so painting a cell does not allocate.
+ */
+public class TaskCellRenderer extends DefaultTableCellRenderer implements TableModelListener {
+    public static final Color COMPLETED_COLOR = new Color(220, 255, 220);   // Light green
+    public static final Color IN_PROGRESS_COLOR = new Color(255, 255, 220); // Light yellow
+    public static final Color OVERDUE_COLOR = new Color(255, 220, 220);     // Light red
+    public static final Color BLOCKED_COLOR = new Color(232, 232, 232);     // Light grey
+    public static final Color HIGH_PRIORITY_COLOR = new Color(255, 236, 214); // Light orange
+
+    // A row's style is 1 + state * 3 + priority ordinal; 0 means not worked out yet
+    private static final byte UNKNOWN = 0;
+    private static final int PLAIN = 0;
+    private static final int COMPLETED = 1;
+    private static final int IN_PROGRESS = 2;
+    private static final int OVERDUE = 3;
+    private static final int BLOCKED = 4;
+    private static final int PRIORITIES = Priority.values().length;
+
+    // Indexed by style - 1; null means the table's own background
+    private static final Color[] PALETTE = {
+            HIGH_PRIORITY_COLOR, null, null,
+            shade(COMPLETED_COLOR, Priority.HIGH), COMPLETED_COLOR, shade(COMPLETED_COLOR, Priority.LOW),
+            shade(IN_PROGRESS_COLOR, Priority.HIGH), IN_PROGRESS_COLOR, shade(IN_PROGRESS_COLOR, Priority.LOW),
+            shade(OVERDUE_COLOR, Priority.HIGH), OVERDUE_COLOR, shade(OVERDUE_COLOR, Priority.LOW),
+            shade(BLOCKED_COLOR, Priority.HIGH), BLOCKED_COLOR, shade(BLOCKED_COLOR, Priority.LOW),
+    };
+
+    private static final int DATE_CACHE_SIZE = 1024; // power of two
+
+    private final TaskTableModel model;
+    private DependencyGraph dependencies; // null = no blocked highlighting
+    private byte[] styles;
+    private long today;
+    private long nextDayMillis;
+
+    // Direct-mapped cache of formatted due dates, keyed by epoch day
+    private final long[] dateKeys = new long[DATE_CACHE_SIZE];
+    private final String[] dateTexts = new String[DATE_CACHE_SIZE];
+
+    public TaskCellRenderer(TaskTableModel model) {
+        this.model = model;
+        this.styles = new byte[Math.max(16, model.getRowCount())];
+        Arrays.fill(dateKeys, Long.MIN_VALUE);
+        model.addTableModelListener(this);
+    }
+
+    /** Highlights tasks the graph reports as blocked; rows are repainted through table-model events. */
+    public void setDependencyGraph(DependencyGraph dependencies) {
+        this.dependencies = dependencies;
+        Arrays.fill(styles, UNKNOWN);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+        Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+        if (!isSelected) {
+            c.setBackground(getRowBackground(table, row));
+        }
+        return c;
+    }
+
+    @Override
+    protected void setValue(Object value) {
+        if (value instanceof LocalDate) {
+            setText(formatDate((LocalDate) value));
+        } else {
+            super.setValue(value);
+        }
+    }
+
+    /** Background for a view row; shared with the other renderers of the table. */
+    public Color getRowBackground(JTable table, int viewRow) {
+        Color color = PALETTE[styleOf(table.convertRowIndexToModel(viewRow)) - 1];
+        return color == null ? table.getBackground() : color;
+    }
+
+    // High priority halves the distance to a darker tone, low halves it to white
+    private static Color shade(Color color, Priority priority) {
+        if (priority == Priority.LOW) {
+            return new Color((color.getRed() + 255) / 2, (color.getGreen() + 255) / 2, (color.getBlue() + 255) / 2);
+        }
+        return new Color(color.getRed() * 9 / 10, color.getGreen() * 9 / 10, color.getBlue() * 9 / 10);
+    }
+
+    private byte styleOf(int modelRow) {
+        if (System.currentTimeMillis() >= nextDayMillis) {
+            startNewDay(); // Tasks may have become overdue at midnight
+        }
+        if (modelRow >= styles.length) {
+            styles = Arrays.copyOf(styles, Math.max(modelRow + 1, styles.length * 2));
+        }
+        byte style = styles[modelRow];
+        if (style == UNKNOWN) {
+            style = computeStyle(model.getTaskAt(modelRow));
+            styles[modelRow] = style;
+        }
+        return style;
+    }
+
+    private byte computeStyle(Task task) {
+        return (byte) (1 + stateOf(task) * PRIORITIES + task.getPriority().ordinal());
+    }
+
+    private int stateOf(Task task) {
+        Status status = task.getStatus();
+        if (status == Status.COMPLETED) {
+            return COMPLETED;
+        }
+        if (task.getDueDate() != null && task.getDueDate().toEpochDay() < today) {
+            return OVERDUE;
+        }
+        if (dependencies != null && dependencies.isBlocked(task)) {
+            return BLOCKED;
+        }
+        return status == Status.IN_PROGRESS ? IN_PROGRESS : PLAIN;
+    }
+
+    private void startNewDay() {
+        LocalDate date = LocalDate.now();
+        today = date.toEpochDay();
+        nextDayMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Arrays.fill(styles, UNKNOWN);
+    }
+
+    private String formatDate(LocalDate date) {
+        long day = date.toEpochDay();
+        int slot = (int) day & (DATE_CACHE_SIZE - 1);
+        if (dateKeys[slot] != day) {
+            dateKeys[slot] = day;
+            dateTexts[slot] = date.toString();
+        }
+        return dateTexts[slot];
+    }
+
+    // --- Cache invalidation ---
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+            Arrays.fill(styles, UNKNOWN);
+            return;
+        }
+        // Inserted rows start out unknown; deleted/updated rows must be recomputed
+        int end = Math.min(last + 1, styles.length);
+        if (first < end) {
+            Arrays.fill(styles, first, end, UNKNOWN);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package todolist;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+
+/**
+ * Pass/fail checks of invariants that are easy to break and hard to see in
+ * the window. Each check builds a small board, drives it the way the frame
+ * or a client does, and fails if the board ends up inconsistent; one line
+ * per check is printed and the exit status is non-zero if any failed.
+ * <pre>
+ *   TaskChecks [--checks sorter,...]
+ * </pre>
+ * The checks are {@value #CHECKS}.
+ */
+public class TaskChecks {
+    static final String CHECKS = "sorter,paged,contention";
+
+    private static final int CATEGORY_COLUMN = 2;
+    private static final int MEMBER_COLUMN = 6;
+
+    // Thrown by listeners on the EDT or a writer thread, which the checks never see
+    private static final List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+
+    /** Thrown by a check whose invariant does not hold. */
+    static final class CheckFailure extends RuntimeException {
+        CheckFailure(String message) {
+            super(message);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new CheckFailure(message);
+        }
+    }
+
+    private static void onEdt(Runnable action) {
+        try {
+            SwingUtilities.invokeAndWait(action);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // --- Checks ---
+
+    // Edits that move a task to a category or member created after the last
+    // sort must keep the view in order, not index past the name ranks
+    private static void sorter() {
+        TaskRepository[] repository = new TaskRepository[1];
+        TaskRowSorter[] sorter = new TaskRowSorter[1];
+        JTable[] table = new JTable[1];
+        onEdt(() -> {
+            repository[0] = TaskBenchmarks.board(500, 11);
+            sorter[0] = new TaskRowSorter(new TaskTableModel(repository[0]));
+            table[0] = new JTable(sorter[0].getModel());
+            table[0].setRowSorter(sorter[0]);
+        });
+        String suffix = Long.toString(System.nanoTime(), 36);
+        for (int column : new int[] {CATEGORY_COLUMN, MEMBER_COLUMN}) {
+            onEdt(() -> sorter[0].setSortKeys(List.of(new RowSorter.SortKey(column, SortOrder.ASCENDING))));
+            for (int i = 0; i < 20; i++) {
+                String name = (i % 2 == 0 ? "A new " : "Z new ") + i + " " + suffix;
+                Task task = repository[0].getTaskAt(i * 7);
+                onEdt(() -> {
+                    if (column == CATEGORY_COLUMN) {
+                        repository[0].addCategory(Category.of(name));
+                        task.setCategory(Category.of(name));
+                    } else {
+                        repository[0].addMember(GroupMember.of(name));
+                        task.setAssignedTo(GroupMember.of(name));
+                    }
+                });
+                onEdt(() -> checkSorted(sorter[0], column)); // after the table model passed the edit on
+            }
+        }
+        onEdt(() -> table[0].setRowSorter(null));
+    }
+
+    private static void checkSorted(TaskRowSorter sorter, int column) {
+        TaskTableModel model = sorter.getModel();
+        check(sorter.getViewRowCount() == model.getRowCount(), "the view lost rows");
+        String previous = null;
+        for (int view = 0; view < sorter.getViewRowCount(); view++) {
+            Task task = model.getTaskAt(sorter.convertRowIndexToModel(view));
+            String name = column == CATEGORY_COLUMN
+                    ? (task.getCategory() == null ? null : task.getCategory().getName())
+                    : (task.getAssignedTo() == null ? null : task.getAssignedTo().getName());
+            check(previous == null || name != null && String.CASE_INSENSITIVE_ORDER.compare(previous, name) <= 0,
+                    "view row " + view + " ('" + name + "') sorts before '" + previous + "' in column " + column);
+            previous = name;
+        }
+    }
+
+    // A saved board with edits in its journal tail must filter and sort the
+    // same on the snapshot's columns as task by task, and page it correctly
+    private static void paged() {
+        try {
+            Path directory = Files.createTempDirectory("todolist-checks");
+            Random random = new Random(17);
+            String[] categories = {"Work", "home", "Alpha", "zeta"};
+            String[] members = {"Bob", "alice", "Carl"};
+            BoardState saved = new BoardState();
+            for (int id = 1; id <= 5_000; id++) {
+                saved.putTask(randomRecord(random, id, categories, members));
+            }
+            SnapshotFile.write(saved, directory.resolve("board-1.snapshot"));
+            BoardState state = TaskJournal.read(directory);
+            check(state.getBase() != null && state.getBase().size() == 5_000, "the snapshot was not read back");
+            for (int i = 0; i < 300; i++) {
+                state.putTask(randomRecord(random, 1 + random.nextInt(5_200), categories, members)); // changed or added
+                state.removeTask(1 + random.nextInt(5_000));
+            }
+            SnapshotTaskSource source = new SnapshotTaskSource(state);
+            TaskSource taskByTask = new TaskSource() {
+                @Override
+                public int size() {
+                    return source.size();
+                }
+
+                @Override
+                public List<Task> getTasks(int fromRow, int toRow) {
+                    return source.getTasks(fromRow, toRow);
+                }
+            };
+            for (int column = -1; column < 8; column++) {
+                for (TaskSource.Query query : List.of(
+                        TaskSource.Query.ALL.withSort(column, false),
+                        new TaskSource.Query(Status.COMPLETED, null, "Work", null, column, true),
+                        new TaskSource.Query(null, Priority.HIGH, null, "alice", column, false),
+                        new TaskSource.Query(null, null, "Missing", null, column, false))) {
+                    check(Arrays.equals(source.select(query), taskByTask.select(query)), "columnar select differs for " + query);
+                }
+            }
+            int[] rows = source.select(new TaskSource.Query(null, null, "Alpha", null, 3, false));
+            onEdt(() -> {
+                TaskTableModel model = new TaskTableModel(source, 64, 4);
+                model.setRows(rows);
+                check(model.getRowCount() == rows.length, "the paged model lost rows");
+                for (int row = 0; row < rows.length; row += 7) {
+                    check(model.getTaskAt(row).getId() == source.getTasks(rows[row], rows[row] + 1).get(0).getId(),
+                            "model row " + row + " is not source row " + rows[row]);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static TaskRecord randomRecord(Random random, long id, String[] categories, String[] members) {
+        return new TaskRecord(id, 1, "Task " + random.nextInt(2_000), random.nextInt(4) == 0 ? null : "d" + random.nextInt(50),
+                random.nextInt(5) == 0 ? null : LocalDate.of(2026, 1, 1).plusDays(random.nextInt(400)),
+                Priority.values()[random.nextInt(Priority.values().length)],
+                random.nextInt(6) == 0 ? null : categories[random.nextInt(categories.length)],
+                Status.values()[random.nextInt(Status.values().length)], random.nextInt(101),
+                random.nextInt(4) == 0 ? null : members[random.nextInt(members.length)]);
+    }
+
+    // Optimistic updates, paired edits and exports from many threads at once:
+    // versions only grow, no update is lost, every export is one consistent
+    // moment in row order, and the indexes still match the rows
+    private static void contention() {
+        TaskRepository[] board = new TaskRepository[1];
+        onEdt(() -> board[0] = TaskBenchmarks.board(2_000, 23));
+        TaskRepository repository = board[0];
+        List<Task> tasks = repository.getTasks();
+        int size = tasks.size();
+        long[] startVersions = new long[size];
+        int[] progressTotal = new int[1];
+        onEdt(() -> {
+            for (int i = 0; i < size; i++) {
+                startVersions[i] = tasks.get(i).getVersion();
+                progressTotal[0] += tasks.get(i).getProgressPercent();
+            }
+        });
+        List<Category> categories = repository.getCategories();
+        AtomicLongArray succeeded = new AtomicLongArray(size); // successful changes per task
+        AtomicLong descriptions = new AtomicLong();
+        List<String> failures = new CopyOnWriteArrayList<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 6; t++) {
+            // Each update changes the description, so each one that goes through is one version
+            writers.add(Thread.ofPlatform().name("check-updater-" + t).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int n = 0; n < 1_500; n++) {
+                    int i = random.nextInt(size);
+                    Task task = tasks.get(i);
+                    Status status = Status.values()[random.nextInt(Status.values().length)];
+                    Priority priority = Priority.values()[random.nextInt(Priority.values().length)];
+                    Category category = categories.get(random.nextInt(categories.size()));
+                    try {
+                        repository.update(task, repository.getRecord(task.getId()).version(), edited -> {
+                            edited.setDescription("update " + descriptions.incrementAndGet());
+                            edited.setStatus(status);
+                            edited.setPriority(priority);
+                            edited.setCategory(category);
+                        });
+                        succeeded.incrementAndGet(i);
+                    } catch (StaleTaskException e) {
+                        // Lost the race; nothing was changed
+                    }
+                }
+            }));
+        }
+        for (int t = 0; t < 2; t++) {
+            // Moves a point of progress from one task to another in one turn; the total never changes
+            writers.add(Thread.ofPlatform().name("check-mover-" + t).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int n = 0; n < 1_500; n++) {
+                    int from = random.nextInt(size);
+                    int to = random.nextInt(size);
+                    repository.invokeAndWait(() -> {
+                        Task source = tasks.get(from);
+                        Task target = tasks.get(to);
+                        if (from != to && source.getProgressPercent() > 0 && target.getProgressPercent() < 100) {
+                            repository.edit(source, task -> task.setProgressPercent(task.getProgressPercent() - 1));
+                            repository.edit(target, task -> task.setProgressPercent(task.getProgressPercent() + 1));
+                            succeeded.incrementAndGet(from);
+                            succeeded.incrementAndGet(to);
+                        }
+                    });
+                }
+            }));
+        }
+        for (int t = 0; t < 2; t++) {
+            readers.add(Thread.ofPlatform().name("check-reader-" + t).start(() -> {
+                long[] seen = new long[size];
+                while (writing.get()) {
+                    for (int i = 0; i < size; i++) {
+                        long version = repository.getRecord(tasks.get(i).getId()).version();
+                        if (version < seen[i]) {
+                            failures.add("task " + tasks.get(i).getId() + " went back from version " + seen[i] + " to " + version);
+                        }
+                        seen[i] = version;
+                    }
+                }
+            }));
+        }
+        readers.add(Thread.ofPlatform().name("check-exporter").start(() -> {
+            while (writing.get()) {
+                List<TaskRecord> records = TaskTransfer.snapshot(repository);
+                int total = 0;
+                for (int row = 0; row < records.size(); row++) {
+                    total += records.get(row).progressPercent();
+                    if (records.get(row).id() != tasks.get(row).getId()) {
+                        failures.add("export row " + row + " holds task " + records.get(row).id());
+                    }
+                }
+                if (records.size() != size || total != progressTotal[0]) {
+                    failures.add("export of " + records.size() + " rows has progress total " + total
+                            + " instead of " + progressTotal[0]);
+                }
+            }
+        }));
+        try {
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            writing.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        check(failures.isEmpty(), failures.isEmpty() ? "" : failures.size() + " failures, first: " + failures.get(0));
+        onEdt(() -> {
+            try {
+                TaskBenchmarks.checkConsistency(repository, startVersions, succeeded);
+            } catch (IllegalStateException e) {
+                throw new CheckFailure(e.getMessage());
+            }
+            int total = 0;
+            for (Task task : tasks) {
+                total += task.getProgressPercent();
+            }
+            check(total == progressTotal[0], "progress total is " + total + " instead of " + progressTotal[0]);
+        });
+    }
+
+    // --- Running ---
+
+    private static boolean run(String name, Runnable check) {
+        long start = System.nanoTime();
+        uncaught.clear();
+        try {
+            check.run();
+            onEdt(() -> { }); // lets deferred listeners run
+            if (!uncaught.isEmpty()) {
+                throw new CheckFailure("uncaught " + uncaught.get(0));
+            }
+            System.out.printf(Locale.ROOT, "PASS %-12s %6.0f ms%n", name, (System.nanoTime() - start) / 1e6);
+            return true;
+        } catch (RuntimeException | AssertionError e) {
+            System.out.printf(Locale.ROOT, "FAIL %-12s %s%n", name, e);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
+            uncaught.add(e);
+            e.printStackTrace();
+        });
+        List<String> checks = Arrays.asList(CHECKS.split(","));
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--checks") && i + 1 < args.length) {
+                checks = Arrays.asList(args[++i].split(","));
+            } else {
+                System.err.println("Usage: TaskChecks [--checks " + CHECKS + "]");
+                System.exit(2);
+            }
+        }
+        boolean passed = true;
+        for (String check : checks) {
+            passed &= switch (check) {
+                case "sorter" -> run(check, TaskChecks::sorter);
+                case "paged" -> run(check, TaskChecks::paged);
+                case "contention" -> run(check, TaskChecks::contention);
+                default -> throw new IllegalArgumentException("Unknown check: " + check);
+            };
+        }
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -0,0 +1,275 @@
+package todolist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import todolist.TaskProtocol.Mutation;
+import todolist.TaskProtocol.MutationResult;
+
+/**
+ * Connection to a {@link TaskServer}.
+ * <p>
+ * Every call sends its request right away and returns a future, so callers
+ * can keep several requests in flight on one connection. A virtual reader
+ * thread completes the futures as the responses arrive. Safe to use from
+ * any number of threads.
+ * <p>
+ * Futures complete, and feed pushes are delivered, on that reader thread,
+ * so callbacks must not block.
+ */
+public class TaskClient implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Reads the payload of a response with status OK
+    private interface Decoder<T> {
+        T decode(DataInputStream in) throws IOException;
+    }
+
+    // Writes the payload of a request
+    private interface Encoder {
+        void encode(DataOutputStream out) throws IOException;
+    }
+
+    private record Pending<T>(Decoder<T> decoder, CompletableFuture<T> future) {
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final Lock writeLock = new ReentrantLock(); // not a monitor: writers may be virtual threads
+    private final Map<Integer, Pending<?>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private final Thread reader;
+    private volatile ChangeFeed.Subscriber subscriber;
+    private volatile IOException failure;
+
+    private TaskClient(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+        out.writeInt(TaskProtocol.MAGIC);
+        out.writeInt(TaskProtocol.VERSION);
+        out.flush();
+        if (in.readInt() != TaskProtocol.MAGIC || in.readInt() != TaskProtocol.VERSION) {
+            throw new IOException("Not a compatible task server");
+        }
+        this.reader = Thread.ofVirtual().name("task-client-reader").unstarted(this::readLoop);
+    }
+
+    public static TaskClient connect(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        try {
+            socket.setTcpNoDelay(true);
+            TaskClient client = new TaskClient(socket);
+            client.reader.start();
+            return client;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Void> ping() {
+        return send(TaskProtocol.PING, null, in -> null);
+    }
+
+    /** Completes with the task, or null if the server has no task with that id. */
+    public CompletableFuture<TaskRecord> getTask(long id) {
+        return send(TaskProtocol.GET_TASK, out -> out.writeLong(id), TaskRecord::read);
+    }
+
+    public CompletableFuture<List<TaskRecord>> listTasks() {
+        return send(TaskProtocol.LIST_TASKS, null, in -> {
+            int count = in.readInt();
+            List<TaskRecord> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(TaskRecord.read(in));
+            }
+            return tasks;
+        });
+    }
+
+    public CompletableFuture<List<String>> listCategories() {
+        return send(TaskProtocol.LIST_CATEGORIES, null, in -> {
+            int count = in.readInt();
+            List<String> names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                names.add(TaskRecord.readString(in));
+            }
+            return names;
+        });
+    }
+
+    /** Completes with member name -> is leader, in board order. */
+    public CompletableFuture<Map<String, Boolean>> listMembers() {
+        return send(TaskProtocol.LIST_MEMBERS, null, in -> {
+            int count = in.readInt();
+            Map<String, Boolean> members = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                members.put(TaskRecord.readString(in), in.readBoolean());
+            }
+            return members;
+        });
+    }
+
+    /**
+     * Sends the mutations as one batch, applied in one turn of the server's
+     * writer thread. Completes with one result per mutation, in order.
+     */
+    public CompletableFuture<List<MutationResult>> apply(List<Mutation> mutations) {
+        if (mutations.size() > TaskProtocol.MAX_BATCH) {
+            throw new IllegalArgumentException("At most " + TaskProtocol.MAX_BATCH + " mutations per batch");
+        }
+        return send(TaskProtocol.BATCH, out -> {
+            out.writeInt(mutations.size());
+            for (Mutation mutation : mutations) {
+                mutation.write(out);
+            }
+        }, in -> {
+            int count = in.readInt();
+            List<MutationResult> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(MutationResult.read(in));
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Subscribes this connection to the server's change feed, replacing any
+     * earlier subscription. Pushes go to {@code subscriber} on the reader
+     * thread. Completes with true if the server resumed after
+     * {@code afterSequence} rather than sending a snapshot.
+     */
+    public CompletableFuture<Boolean> subscribe(long afterSequence, ChangeFeed.Subscriber subscriber) {
+        this.subscriber = subscriber;
+        return send(TaskProtocol.SUBSCRIBE, out -> out.writeLong(afterSequence), DataInputStream::readBoolean);
+    }
+
+    /** False once the connection failed or was closed; requests then fail at once. */
+    public boolean isConnected() {
+        return failure == null && !socket.isClosed();
+    }
+
+    /** Number of requests sent but not answered yet. */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private <T> CompletableFuture<T> send(byte op, Encoder payload, Decoder<T> decoder) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        IOException failed = failure;
+        if (failed != null) {
+            future.completeExceptionally(failed);
+            return future;
+        }
+        int requestId = nextRequestId.incrementAndGet();
+        if (requestId == TaskProtocol.PUSH_ID) {
+            requestId = nextRequestId.incrementAndGet(); // wrapped around
+        }
+        pending.put(requestId, new Pending<>(decoder, future));
+        if (failure != null && pending.remove(requestId) != null) {
+            future.completeExceptionally(failure); // reader stopped while we registered
+            return future;
+        }
+        try {
+            writeLock.lock();
+            try {
+                out.writeInt(requestId);
+                out.writeByte(op);
+                if (payload != null) {
+                    payload.encode(out);
+                }
+                out.flush();
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void readLoop() {
+        try {
+            while (true) {
+                int requestId = in.readInt();
+                byte status = in.readByte();
+                if (requestId == TaskProtocol.PUSH_ID) {
+                    push(status);
+                    continue;
+                }
+                Pending<?> request = pending.remove(requestId);
+                if (request == null) {
+                    throw new IOException("Response to unknown request " + requestId);
+                }
+                complete(request, status);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            if (failure == null) {
+                failure = new IOException("Connection closed");
+            }
+            for (Pending<?> request : pending.values()) {
+                request.future().completeExceptionally(failure);
+            }
+            pending.clear();
+        }
+    }
+
+    private void push(byte kind) throws IOException {
+        ChangeFeed.Subscriber target = subscriber;
+        switch (kind) {
+            case TaskProtocol.PUSH_CHANGES -> {
+                int count = in.readInt();
+                List<ChangeFeed.Change> changes = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    changes.add(ChangeFeed.Change.read(in));
+                }
+                if (target != null) {
+                    target.onChanges(changes);
+                }
+            }
+            case TaskProtocol.PUSH_SNAPSHOT -> {
+                ChangeFeed.Snapshot snapshot = ChangeFeed.Snapshot.read(in);
+                if (target != null) {
+                    target.onSnapshot(snapshot);
+                }
+            }
+            case TaskProtocol.PUSH_RESET -> {
+                if (target != null) {
+                    target.onReset();
+                }
+            }
+            default -> throw new IOException("Unknown push " + kind);
+        }
+    }
+
+    private <T> void complete(Pending<T> request, byte status) throws IOException {
+        switch (status) {
+            case TaskProtocol.OK -> request.future().complete(request.decoder().decode(in));
+            case TaskProtocol.NOT_FOUND -> request.future().complete(null);
+            default -> request.future().completeExceptionally(new IOException("Server error " + status));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package todolist;
+
+/**
+ * The editable fields of a {@link Task}. Used to tell listeners exactly
+ * which value changed so they can update only what depends on it.
+ */
+public enum TaskField {
+    TITLE,
+    DESCRIPTION,
+    DUE_DATE,
+    PRIORITY,
+    CATEGORY,
+    STATUS,
+    PROGRESS,
+    ASSIGNED_TO
+}
@@ -0,0 +1,95 @@
+package todolist;
+
+import javax.swing.RowFilter;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A typed predicate over {@link Task}s. Filters compare the task fields
+ * directly (no {@code toString()} or regex), can be combined with
+ * {@link #and}/{@link #or}, and are installed on the table through
+ * {@link TaskRowSorter#setFilter}, or {@link #toRowFilter()} for other sorters.
+ */
+@FunctionalInterface
+public interface TaskFilter {
+
+    TaskFilter ALL = task -> true;
+
+    boolean test(Task task);
+
+    default TaskFilter and(TaskFilter other) {
+        if (this == ALL) return other;
+        if (other == ALL) return this;
+        return task -> test(task) && other.test(task);
+    }
+
+    default TaskFilter or(TaskFilter other) {
+        if (this == ALL || other == ALL) return ALL;
+        return task -> test(task) || other.test(task);
+    }
+
+    static TaskFilter allOf(List<TaskFilter> filters) {
+        TaskFilter result = ALL;
+        for (TaskFilter filter : filters) {
+            result = result.and(filter);
+        }
+        return result;
+    }
+
+    static TaskFilter anyOf(List<TaskFilter> filters) {
+        if (filters.isEmpty()) return ALL;
+        TaskFilter result = filters.get(0);
+        for (int i = 1; i < filters.size(); i++) {
+            result = result.or(filters.get(i));
+        }
+        return result;
+    }
+
+    // --- Field filters ---
+
+    static TaskFilter category(Category category) {
+        return task -> category.equals(task.getCategory());
+    }
+
+    static TaskFilter status(Status status) {
+        return task -> task.getStatus() == status;
+    }
+
+    static TaskFilter priority(Priority priority) {
+        return task -> task.getPriority() == priority;
+    }
+
+    /** Matches tasks assigned to {@code member}, or unassigned tasks if it is null. */
+    static TaskFilter assignedTo(GroupMember member) {
+        return member == null
+                ? task -> task.getAssignedTo() == null
+                : task -> member.equals(task.getAssignedTo());
+    }
+
+    /** Inclusive due-date range; a null bound leaves that side open. */
+    static TaskFilter dueBetween(LocalDate from, LocalDate to) {
+        if (from == null && to == null) return ALL;
+        return task -> {
+            LocalDate due = task.getDueDate();
+            return due != null
+                    && (from == null || !due.isBefore(from))
+                    && (to == null || !due.isAfter(to));
+        };
+    }
+
+    /** Inclusive progress range in percent. */
+    static TaskFilter progressBetween(int min, int max) {
+        if (min <= 0 && max >= 100) return ALL;
+        return task -> task.getProgressPercent() >= min && task.getProgressPercent() <= max;
+    }
+
+    /** Adapts this filter for a {@code TableRowSorter} over a {@link TaskTableModel}. */
+    default RowFilter<TaskTableModel, Integer> toRowFilter() {
+        return new RowFilter<TaskTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends TaskTableModel, ? extends Integer> entry) {
+                return test(entry.getModel().getTaskAt(entry.getIdentifier()));
+            }
+        };
+    }
+}
@@ -0,0 +1,675 @@
+package todolist;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.swing.SwingUtilities;
+
+/**
+ * Undo/redo and an audit trail for a {@link TaskRepository}.
+ * <p>
+ * Every change the repository reports is kept as a field diff: task id,
+ * field, and the old and new value encoded as ints (ordinals, category and
+ * member ids, epoch days; texts as indexes into a per-chunk pool of the
+ * strings the tasks already hold). Diffs are appended to fixed-size
+ * primitive chunks, so an edit costs about 20 bytes however long the
+ * history grows. The changes of one EDT turn, such as a dialog save or an
+ * import, form one {@link Revision}. The latest revisions are kept in a
+ * ring buffer for undo; undoing and redoing are recorded too, so the
+ * archive is a complete audit trail. Revisions are indexed by task and by
+ * member (the actor and the assignees of the changed tasks), so neither
+ * query scans the archive.
+ * <p>
+ * Only local edits can be undone. Changes that come from elsewhere, like
+ * a shared board's server or recurring templates, are recorded through
+ * {@link #record(Origin, Runnable)}: they stay in the audit trail but never
+ * go on the undo ring.
+ * <p>
+ * Events, queries, undo and redo run on the EDT.
+ */
+public class TaskHistory implements TaskRepositoryListener {
+    public static final int DEFAULT_UNDO_LIMIT = 100;
+
+    /** What caused a revision: a local edit, undo or redo, the server of a shared board, or a recurring template. */
+    public enum Origin { EDIT, UNDO, REDO, REMOTE, GENERATED }
+
+    public enum Kind { ADDED, EDITED, REMOVED }
+
+    /**
+     * One recorded change. An added task is a single change without a field;
+     * a removed task is a change without a field followed by one change per
+     * field holding its last value as {@code oldValue}.
+     */
+    public record Change(long taskId, Kind kind, TaskField field, Object oldValue, Object newValue) {
+    }
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final TaskField[] FIELDS = TaskField.values();
+
+    // Change ops: a field ordinal for an edit, SNAPSHOT | ordinal for a removed task's value
+    private static final byte SNAPSHOT = 0x20;
+    private static final byte ADDED = 0x40;
+    private static final byte REMOVED = (byte) 0x80;
+    private static final int NULL = Integer.MIN_VALUE;
+
+    private static final class Chunk {
+        final long[] taskIds = new long[1 << CHUNK_BITS];
+        final byte[] ops = new byte[1 << CHUNK_BITS];
+        final int[] oldValues = new int[1 << CHUNK_BITS];
+        final int[] newValues = new int[1 << CHUNK_BITS];
+        final List<String> texts = new ArrayList<>();
+    }
+
+    // Bounded LIFO of revision numbers; pushing onto a full ring drops the oldest
+    private static final class RevisionRing {
+        private final int[] revisions;
+        private int end;
+        private int size;
+
+        RevisionRing(int capacity) {
+            revisions = new int[capacity];
+        }
+
+        void push(int revision) {
+            revisions[end] = revision;
+            end = (end + 1) % revisions.length;
+            size = Math.min(size + 1, revisions.length);
+        }
+
+        int pop() {
+            end = (end - 1 + revisions.length) % revisions.length;
+            size--;
+            return revisions[end];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    private final TaskRepository repository;
+    private final int undoLimit;
+    private final RevisionRing undo;
+    private final RevisionRing redo;
+
+    // The archive: changes in chunks, revisions as parallel arrays
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int changeCount;
+    private long[] revisionTimes = new long[64];
+    private int[] revisionActors = new int[64];
+    private byte[] revisionOrigins = new byte[64];
+    private int[] revisionStarts = new int[64];
+    private int revisionCount;
+
+    // The indexes: a posting per (task or member, revision), chained to the
+    // key's previous posting; heads by task id (open addressing) and member id
+    private int[] postingRevisions = new int[1024];
+    private int[] postingPrevious = new int[1024];
+    private int postingCount;
+    private long[] taskIds = new long[1024]; // 0 = free slot
+    private int[] taskHeads = new int[1024];
+    private int taskCount;
+    private int[] memberHeads = new int[0];
+
+    private GroupMember actor;
+    private int open = -1; // revision being recorded in this EDT turn
+    private boolean closeScheduled;
+    private Origin recording = Origin.EDIT;
+
+    public TaskHistory(TaskRepository repository) {
+        this(repository, DEFAULT_UNDO_LIMIT);
+    }
+
+    public TaskHistory(TaskRepository repository, int undoLimit) {
+        if (undoLimit < 1) {
+            throw new IllegalArgumentException("Undo limit must be positive: " + undoLimit);
+        }
+        this.repository = repository;
+        this.undoLimit = undoLimit;
+        this.undo = new RevisionRing(undoLimit);
+        this.redo = new RevisionRing(undoLimit);
+        repository.addListener(this);
+    }
+
+    /** Stops recording; the history recorded so far stays queryable. */
+    public void stop() {
+        close();
+        repository.removeListener(this);
+    }
+
+    public int getUndoLimit() {
+        return undoLimit;
+    }
+
+    /** The member credited with the following changes, or null if unknown. */
+    public GroupMember getActor() {
+        return actor;
+    }
+
+    public void setActor(GroupMember actor) {
+        this.actor = actor;
+    }
+
+    /**
+     * Records the changes {@code changes} makes as one revision of
+     * {@code origin}, {@link Origin#REMOTE} or {@link Origin#GENERATED},
+     * that cannot be undone. Called while such changes are being recorded,
+     * it just runs them into the same revision.
+     */
+    public void record(Origin origin, Runnable changes) {
+        if (origin != Origin.REMOTE && origin != Origin.GENERATED) {
+            throw new IllegalArgumentException("Not a remote or generated origin: " + origin);
+        }
+        if (recording != Origin.EDIT) {
+            changes.run();
+            return;
+        }
+        close(); // local edits made earlier in this turn stay undoable on their own
+        recording = origin;
+        try {
+            changes.run();
+        } finally {
+            recording = Origin.EDIT;
+            open = -1;
+        }
+    }
+
+    // --- Undo and redo ---
+
+    public boolean canUndo() {
+        close();
+        return !undo.isEmpty();
+    }
+
+    public boolean canRedo() {
+        close();
+        return !redo.isEmpty();
+    }
+
+    /**
+     * Reverts the latest revision that was not undone yet.
+     *
+     * @return false if there was nothing to undo
+     * @throws StaleTaskException if a task in the revision was changed since;
+     *         nothing is reverted and the revision can no longer be undone
+     */
+    public boolean undo() throws StaleTaskException {
+        if (!canUndo()) {
+            return false;
+        }
+        int applied = revert(undo.pop(), Origin.UNDO);
+        if (applied >= 0) {
+            redo.push(applied);
+        }
+        return true;
+    }
+
+    /**
+     * Reapplies the latest undone revision.
+     *
+     * @return false if there was nothing to redo
+     * @throws StaleTaskException if a task in the revision was changed since
+     */
+    public boolean redo() throws StaleTaskException {
+        if (!canRedo()) {
+            return false;
+        }
+        int applied = revert(redo.pop(), Origin.REDO);
+        if (applied >= 0) {
+            undo.push(applied);
+        }
+        return true;
+    }
+
+    // Applies the inverse of a revision, recorded as a new revision, whose number is returned
+    private int revert(int revision, Origin origin) throws StaleTaskException {
+        int start = revisionStarts[revision];
+        int end = end(revision);
+        int applied;
+        repository.checkWriter(); // check and revert must not interleave with other changes
+        check(start, end);
+        recording = origin;
+        try {
+            // Removed tasks come back in one batch; edits made before
+            // their removal apply to the restored copy
+            Map<Long, Task> restored = new LinkedHashMap<>();
+            for (int c = end - 1; c >= start; c--) {
+                Chunk chunk = chunks.get(c >>> CHUNK_BITS);
+                int i = c & CHUNK_MASK;
+                byte op = chunk.ops[i];
+                long id = chunk.taskIds[i];
+                Task task = restored.containsKey(id) ? restored.get(id) : repository.getTask(id);
+                if (op == ADDED) {
+                    if (restored.remove(id) == null) {
+                        repository.remove(task);
+                    }
+                } else if (op == REMOVED) {
+                    restored.put(id, restore(id, c + 1));
+                } else if ((op & SNAPSHOT) == 0) {
+                    set(task, FIELDS[op], decode(chunk, FIELDS[op], chunk.oldValues[i]));
+                }
+            }
+            repository.addAll(restored.values());
+        } finally {
+            recording = Origin.EDIT;
+            applied = open;
+            open = -1;
+        }
+        return applied;
+    }
+
+    // Fails unless every task in the range is still as the revision left it
+    private void check(int start, int end) throws StaleTaskException {
+        Set<Long> seen = new HashSet<>(); // id << 4 | field ordinal, or | 0xF for the task itself
+        for (int c = end - 1; c >= start; c--) {
+            Chunk chunk = chunks.get(c >>> CHUNK_BITS);
+            int i = c & CHUNK_MASK;
+            byte op = chunk.ops[i];
+            long id = chunk.taskIds[i];
+            Task task = repository.getTask(id);
+            if (op == ADDED || op == REMOVED) {
+                if (seen.add(id << 4 | 0xF) && (task != null) != (op == ADDED)) {
+                    throw new StaleTaskException(task, op == ADDED
+                            ? "Task was removed since: " + id
+                            : "Task was added again since: " + task.getTitle());
+                }
+            } else if ((op & SNAPSHOT) == 0 && !seen.contains(id << 4 | 0xF) && seen.add(id << 4 | op)) {
+                // Only the latest edit of a field must still be current
+                TaskField field = FIELDS[op];
+                if (task == null) {
+                    throw new StaleTaskException(null, "Task was removed since: " + id);
+                }
+                if (!Objects.equals(get(task, field), decode(chunk, field, chunk.newValues[i]))) {
+                    throw new StaleTaskException(task, "Task was changed since: " + task.getTitle());
+                }
+            }
+        }
+    }
+
+    // Rebuilds a removed task from the snapshot changes that follow its REMOVED change
+    private Task restore(long id, int firstSnapshot) {
+        Object[] values = new Object[FIELDS.length];
+        for (int c = firstSnapshot; c < firstSnapshot + FIELDS.length; c++) {
+            Chunk chunk = chunks.get(c >>> CHUNK_BITS);
+            int i = c & CHUNK_MASK;
+            TaskField field = FIELDS[chunk.ops[i] & ~SNAPSHOT];
+            values[field.ordinal()] = decode(chunk, field, chunk.oldValues[i]);
+        }
+        Task task = new Task((String) values[TaskField.TITLE.ordinal()], (String) values[TaskField.DESCRIPTION.ordinal()],
+                (LocalDate) values[TaskField.DUE_DATE.ordinal()], (Priority) values[TaskField.PRIORITY.ordinal()],
+                (Category) values[TaskField.CATEGORY.ordinal()], (GroupMember) values[TaskField.ASSIGNED_TO.ordinal()]);
+        task.setStatus((Status) values[TaskField.STATUS.ordinal()]);
+        task.setProgressPercent((Integer) values[TaskField.PROGRESS.ordinal()]);
+        task.assignId(id, 0);
+        return task;
+    }
+
+    // --- Repository events ---
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        int revision = begin();
+        for (int row = firstRow; row <= lastRow; row++) {
+            Task task = repository.getTaskAt(row);
+            append(task.getId(), ADDED, NULL, NULL);
+            index(revision, task, null);
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        int revision = begin();
+        Chunk chunk = chunkFor(changeCount);
+        append(task.getId(), (byte) field.ordinal(), encode(chunk, field, oldValue), encode(chunk, field, newValue));
+        index(revision, task, field == TaskField.ASSIGNED_TO ? (GroupMember) oldValue : null);
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        int revision = begin();
+        append(task.getId(), REMOVED, NULL, NULL);
+        for (TaskField field : FIELDS) {
+            Chunk chunk = chunkFor(changeCount);
+            append(task.getId(), (byte) (SNAPSHOT | field.ordinal()), encode(chunk, field, get(task, field)), NULL);
+        }
+        index(revision, task, null);
+    }
+
+    // The revision this EDT turn's changes go to; user edits close it after the turn
+    private int begin() {
+        if (open < 0) {
+            open = newRevision();
+            if (recording == Origin.EDIT && !closeScheduled) {
+                closeScheduled = true;
+                SwingUtilities.invokeLater(() -> {
+                    closeScheduled = false;
+                    close();
+                });
+            }
+        }
+        return open;
+    }
+
+    private void close() {
+        if (open >= 0 && recording == Origin.EDIT) {
+            undo.push(open);
+            redo.clear();
+            open = -1;
+        }
+    }
+
+    private int newRevision() {
+        if (revisionCount == revisionStarts.length) {
+            int capacity = revisionCount * 2;
+            revisionTimes = Arrays.copyOf(revisionTimes, capacity);
+            revisionActors = Arrays.copyOf(revisionActors, capacity);
+            revisionOrigins = Arrays.copyOf(revisionOrigins, capacity);
+            revisionStarts = Arrays.copyOf(revisionStarts, capacity);
+        }
+        int revision = revisionCount++;
+        revisionTimes[revision] = System.currentTimeMillis();
+        revisionActors[revision] = actor == null ? -1 : actor.getId();
+        revisionOrigins[revision] = (byte) recording.ordinal();
+        revisionStarts[revision] = changeCount;
+        if (actor != null) {
+            indexMember(revision, actor);
+        }
+        return revision;
+    }
+
+    private Chunk chunkFor(int change) {
+        int index = change >>> CHUNK_BITS;
+        if (index == chunks.size()) {
+            chunks.add(new Chunk());
+        }
+        return chunks.get(index);
+    }
+
+    private void append(long taskId, byte op, int oldValue, int newValue) {
+        Chunk chunk = chunkFor(changeCount);
+        int i = changeCount & CHUNK_MASK;
+        chunk.taskIds[i] = taskId;
+        chunk.ops[i] = op;
+        chunk.oldValues[i] = oldValue;
+        chunk.newValues[i] = newValue;
+        changeCount++;
+    }
+
+    private void index(int revision, Task task, GroupMember formerAssignee) {
+        int slot = taskSlot(task.getId());
+        if (taskIds[slot] == 0) {
+            taskIds[slot] = task.getId();
+            taskHeads[slot] = -1;
+            if (++taskCount * 3 > taskIds.length * 2) {
+                growTasks();
+            }
+            slot = taskSlot(task.getId());
+        }
+        taskHeads[slot] = post(taskHeads[slot], revision);
+        if (task.getAssignedTo() != null) {
+            indexMember(revision, task.getAssignedTo());
+        }
+        if (formerAssignee != null) {
+            indexMember(revision, formerAssignee);
+        }
+    }
+
+    private void indexMember(int revision, GroupMember member) {
+        int id = member.getId();
+        if (id >= memberHeads.length) {
+            int length = memberHeads.length;
+            memberHeads = Arrays.copyOf(memberHeads, Math.max(id + 1, length * 2));
+            Arrays.fill(memberHeads, length, memberHeads.length, -1);
+        }
+        memberHeads[id] = post(memberHeads[id], revision);
+    }
+
+    // Adds a posting after head unless head already is this revision; returns the new head
+    private int post(int head, int revision) {
+        if (head >= 0 && postingRevisions[head] == revision) {
+            return head;
+        }
+        if (postingCount == postingRevisions.length) {
+            postingRevisions = Arrays.copyOf(postingRevisions, postingCount * 2);
+            postingPrevious = Arrays.copyOf(postingPrevious, postingCount * 2);
+        }
+        postingRevisions[postingCount] = revision;
+        postingPrevious[postingCount] = head;
+        return postingCount++;
+    }
+
+    // The slot holding the task id, or the free slot where it belongs (linear probing)
+    private int taskSlot(long taskId) {
+        int mask = taskIds.length - 1;
+        int slot = Long.hashCode(taskId * 0x9E3779B97F4A7C15L) & mask;
+        while (taskIds[slot] != 0 && taskIds[slot] != taskId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void growTasks() {
+        long[] ids = taskIds;
+        int[] heads = taskHeads;
+        taskIds = new long[ids.length * 2];
+        taskHeads = new int[ids.length * 2];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != 0) {
+                int slot = taskSlot(ids[i]);
+                taskIds[slot] = ids[i];
+                taskHeads[slot] = heads[i];
+            }
+        }
+    }
+
+    // --- Value encoding ---
+
+    private static int encode(Chunk chunk, TaskField field, Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        switch (field) {
+            case TITLE:
+            case DESCRIPTION:
+                chunk.texts.add((String) value);
+                return chunk.texts.size() - 1;
+            case DUE_DATE:
+                return Math.toIntExact(((LocalDate) value).toEpochDay());
+            case PRIORITY:
+            case STATUS:
+                return ((Enum<?>) value).ordinal();
+            case CATEGORY:
+                return ((Category) value).getId();
+            case ASSIGNED_TO:
+                return ((GroupMember) value).getId();
+            default:
+                return (Integer) value;
+        }
+    }
+
+    private static Object decode(Chunk chunk, TaskField field, int value) {
+        if (value == NULL) {
+            return null;
+        }
+        switch (field) {
+            case TITLE:
+            case DESCRIPTION:
+                return chunk.texts.get(value);
+            case DUE_DATE:
+                return LocalDate.ofEpochDay(value);
+            case PRIORITY:
+                return Priority.values()[value];
+            case STATUS:
+                return Status.values()[value];
+            case CATEGORY:
+                return Category.byId(value);
+            case ASSIGNED_TO:
+                return GroupMember.byId(value);
+            default:
+                return value;
+        }
+    }
+
+    private static Object get(Task task, TaskField field) {
+        switch (field) {
+            case TITLE: return task.getTitle();
+            case DESCRIPTION: return task.getDescription();
+            case DUE_DATE: return task.getDueDate();
+            case PRIORITY: return task.getPriority();
+            case CATEGORY: return task.getCategory();
+            case STATUS: return task.getStatus();
+            case PROGRESS: return task.getProgressPercent();
+            default: return task.getAssignedTo();
+        }
+    }
+
+    private static void set(Task task, TaskField field, Object value) {
+        switch (field) {
+            case TITLE: task.setTitle((String) value); break;
+            case DESCRIPTION: task.setDescription((String) value); break;
+            case DUE_DATE: task.setDueDate((LocalDate) value); break;
+            case PRIORITY: task.setPriority((Priority) value); break;
+            case CATEGORY: task.setCategory((Category) value); break;
+            case STATUS: task.setStatus((Status) value); break;
+            case PROGRESS: task.setProgressPercent((Integer) value); break;
+            default: task.setAssignedTo((GroupMember) value); break;
+        }
+    }
+
+    // --- Queries ---
+
+    public int getRevisionCount() {
+        return revisionCount;
+    }
+
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    public Revision getRevision(int number) {
+        Objects.checkIndex(number, revisionCount);
+        return new Revision(number);
+    }
+
+    /** Revisions that changed the task, oldest first. */
+    public List<Revision> getRevisionsOf(long taskId) {
+        int slot = taskSlot(taskId);
+        return revisions(taskIds[slot] == 0 ? -1 : taskHeads[slot]);
+    }
+
+    /** Revisions made by the member or changing a task assigned to them (before or after), oldest first. */
+    public List<Revision> getRevisionsOf(GroupMember member) {
+        int id = member.getId();
+        return revisions(id < memberHeads.length ? memberHeads[id] : -1);
+    }
+
+    // Walks a posting chain, newest first
+    private List<Revision> revisions(int head) {
+        List<Revision> revisions = new ArrayList<>();
+        for (int posting = head; posting >= 0; posting = postingPrevious[posting]) {
+            revisions.add(new Revision(postingRevisions[posting]));
+        }
+        Collections.reverse(revisions);
+        return revisions;
+    }
+
+    private int end(int revision) {
+        return revision + 1 < revisionCount ? revisionStarts[revision + 1] : changeCount;
+    }
+
+    private Change change(int c) {
+        Chunk chunk = chunks.get(c >>> CHUNK_BITS);
+        int i = c & CHUNK_MASK;
+        byte op = chunk.ops[i];
+        long id = chunk.taskIds[i];
+        if (op == ADDED) {
+            return new Change(id, Kind.ADDED, null, null, null);
+        } else if (op == REMOVED) {
+            return new Change(id, Kind.REMOVED, null, null, null);
+        } else if ((op & SNAPSHOT) != 0) {
+            TaskField field = FIELDS[op & ~SNAPSHOT];
+            return new Change(id, Kind.REMOVED, field, decode(chunk, field, chunk.oldValues[i]), null);
+        }
+        TaskField field = FIELDS[op];
+        return new Change(id, Kind.EDITED, field,
+                decode(chunk, field, chunk.oldValues[i]), decode(chunk, field, chunk.newValues[i]));
+    }
+
+    /** A view of one recorded revision; its changes are decoded when read. */
+    public final class Revision {
+        private final int number;
+
+        private Revision(int number) {
+            this.number = number;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public Instant getTime() {
+            return Instant.ofEpochMilli(revisionTimes[number]);
+        }
+
+        /** The member who made the revision, or null if unknown. */
+        public GroupMember getActor() {
+            int id = revisionActors[number];
+            return id < 0 ? null : GroupMember.byId(id);
+        }
+
+        public Origin getOrigin() {
+            return Origin.values()[revisionOrigins[number]];
+        }
+
+        public List<Change> getChanges() {
+            int start = revisionStarts[number];
+            int size = end(number) - start;
+            return new AbstractList<Change>() {
+                @Override
+                public Change get(int index) {
+                    return change(start + Objects.checkIndex(index, size));
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        /** The changes this revision made to one task. */
+        public List<Change> getChangesTo(long taskId) {
+            List<Change> changes = new ArrayList<>();
+            for (int c = revisionStarts[number], end = end(number); c < end; c++) {
+                if (chunks.get(c >>> CHUNK_BITS).taskIds[c & CHUNK_MASK] == taskId) {
+                    changes.add(change(c));
+                }
+            }
+            return changes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Revision && ((Revision) o).number == number;
+        }
+
+        @Override
+        public int hashCode() {
+            return number;
+        }
+    }
+}
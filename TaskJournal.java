@@ -0,0 +1,547 @@
+package todolist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Persists a {@link TaskRepository} to an append-only journal.
+ * <p>
+ * The journal listens to the repository on the EDT (or the board's
+ * {@link WriterThread}) and only enqueues small immutable entries; a
+ * background writer thread encodes them, appends them to
+ * {@code board.journal} and fsyncs once per batch (group commit), so the
+ * board never waits for the disk. The writer also keeps a {@link BoardState}
+ * mirror, and after {@link #COMPACT_THRESHOLD} entries it writes that mirror
+ * to a new {@code board-<generation>.snapshot} ({@link SnapshotFile}) and
+ * truncates the journal. Startup therefore maps the newest snapshot and
+ * replays only the tail.
+ * <p>
+ * Each compaction writes a new generation instead of overwriting the old
+ * file, because a mapped file cannot be replaced on every platform; stale
+ * generations are deleted when possible and otherwise on the next start.
+ * <p>
+ * Dependencies between tasks are saved the same way once the board's
+ * {@link DependencyGraph} is handed to {@link #followLinks}.
+ */
+public class TaskJournal implements TaskRepositoryListener {
+    private static final Logger LOG = Logger.getLogger(TaskJournal.class.getName());
+
+    static final int COMPACT_THRESHOLD = 100_000;
+
+    private static final byte PUT_TASK = 1;
+    private static final byte REMOVE_TASK = 2;
+    private static final byte ADD_CATEGORY = 3;
+    private static final byte REMOVE_CATEGORY = 4;
+    private static final byte ADD_MEMBER = 5;
+    private static final byte REMOVE_MEMBER = 6;
+    private static final byte ADD_LINK = 7;
+    private static final byte REMOVE_LINK = 8;
+    private static final byte CLOSE = 0; // writer-thread sentinel, never written
+
+    private static final AppMetrics.Histogram BATCH_WRITE = AppMetrics.histogram("journal.batchWrite");
+    private static final AppMetrics.Histogram COMPACTION = AppMetrics.histogram("journal.compact");
+    private static final AppMetrics.Counter ENTRIES = AppMetrics.counter("journal.entries");
+    private static final Set<TaskJournal> OPEN = ConcurrentHashMap.newKeySet(); // one per resident board
+
+    /** One mutation on its way to disk. */
+    private record Entry(byte op, TaskRecord task, long id, String name, boolean leader, long dependent) {
+        Entry(byte op, TaskRecord task, long id, String name, boolean leader) {
+            this(op, task, id, name, leader, 0);
+        }
+
+        static Entry of(byte op, String name, boolean leader) {
+            return new Entry(op, null, 0, name, leader);
+        }
+
+        // A link entry's id is the prerequisite's
+        static Entry link(byte op, long prerequisite, long dependent) {
+            return new Entry(op, null, prerequisite, null, false, dependent);
+        }
+    }
+
+    private final Path directory;
+    private final Path journalFile;
+    private final TaskRepository repository;
+    private final BoardState mirror;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    // The saved dependencies, until followLinks restores them
+    private List<BoardState.Link> savedLinks;
+    private DependencyGraph graph;
+    private final DependencyGraph.DependencyListener linkListener = new DependencyGraph.DependencyListener() {
+        @Override
+        public void blockedStateChanged(List<Task> tasks) {
+        }
+
+        @Override
+        public void dependencyAdded(Task prerequisite, Task dependent) {
+            enqueue(Entry.link(ADD_LINK, prerequisite.getId(), dependent.getId()));
+        }
+
+        @Override
+        public void dependencyRemoved(Task prerequisite, Task dependent) {
+            enqueue(Entry.link(REMOVE_LINK, prerequisite.getId(), dependent.getId()));
+        }
+    };
+
+    // Tasks edited during the board's current turn; written once per turn
+    private final Set<Task> dirtyTasks = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    private final List<FailureListener> failureListeners = new CopyOnWriteArrayList<>();
+    private volatile IOException failure; // set once the writer thread has stopped on an error
+    private final boolean loadedEmpty;
+    private int entriesSinceSnapshot;
+    private long generation;
+
+    private TaskJournal(Path directory, TaskRepository repository, BoardState state, int replayed, long generation) {
+        this.directory = directory;
+        this.journalFile = directory.resolve("board.journal");
+        this.generation = generation;
+        this.repository = repository;
+        this.mirror = state;
+        this.loadedEmpty = state.isEmpty();
+        this.savedLinks = state.links();
+        this.entriesSinceSnapshot = replayed;
+        this.writer = new Thread(this::writeLoop, "task-journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Loads the board stored in {@code directory} into {@code repository}
+     * (which must be empty) and starts journaling its changes.
+     *
+     * @return the journal; {@link #wasEmpty()} tells whether anything was loaded
+     */
+    public static TaskJournal open(Path directory, TaskRepository repository) throws IOException {
+        Files.createDirectories(directory);
+        long generation = latestGeneration(directory);
+        deleteSnapshotsExcept(directory, generation);
+        BoardState state = generation > 0
+                ? new BoardState(new SnapshotFile.Reader(snapshotPath(directory, generation)))
+                : new BoardState();
+        int replayed = replay(directory.resolve("board.journal"), state, true);
+
+        TaskJournal journal = new TaskJournal(directory, repository, state, replayed, generation);
+        state.populate(repository);
+        repository.addListener(journal);
+        journal.writer.start();
+        OPEN.add(journal);
+        AppMetrics.gauge("journal.queueDepth", () -> OPEN.stream().mapToLong(TaskJournal::getQueueDepth).sum());
+        return journal;
+    }
+
+    /**
+     * Reads the board stored in {@code directory} without loading it into a
+     * repository: the newest snapshot is mapped and the journal tail
+     * replayed on top. Nothing on disk is changed, so this is safe while the
+     * board is open elsewhere. Returns an empty state if there is no board.
+     */
+    public static BoardState read(Path directory) throws IOException {
+        long generation = Files.isDirectory(directory) ? latestGeneration(directory) : 0;
+        BoardState state = generation > 0
+                ? new BoardState(new SnapshotFile.Reader(snapshotPath(directory, generation)))
+                : new BoardState();
+        replay(directory.resolve("board.journal"), state, false);
+        return state;
+    }
+
+    /** How many tasks the newest snapshot in {@code directory} holds, leaving out the journal tail; 0 if none. */
+    public static int savedTaskCount(Path directory) throws IOException {
+        long generation = Files.isDirectory(directory) ? latestGeneration(directory) : 0;
+        return generation > 0 ? new SnapshotFile.Reader(snapshotPath(directory, generation)).size() : 0;
+    }
+
+    /** True if there was no saved board, e.g. on first start. */
+    public boolean wasEmpty() {
+        return loadedEmpty;
+    }
+
+    /**
+     * Restores the board's saved dependencies into {@code graph}, which must
+     * follow this journal's repository, and saves the graph's changes from
+     * then on. Call once, on the board's thread. Saved links whose tasks are
+     * gone are dropped.
+     */
+    public void followLinks(DependencyGraph graph) {
+        repository.checkWriter();
+        List<DependencyGraph.Dependency> saved = new ArrayList<>(savedLinks.size());
+        for (BoardState.Link link : savedLinks) {
+            Task prerequisite = repository.getTask(link.prerequisite());
+            Task dependent = repository.getTask(link.dependent());
+            if (prerequisite != null && dependent != null && prerequisite != dependent) {
+                saved.add(new DependencyGraph.Dependency(prerequisite, dependent));
+            }
+        }
+        savedLinks = List.of();
+        try {
+            graph.addAll(saved);
+        } catch (IllegalArgumentException e) {
+            LOG.log(Level.WARNING, "Saved dependencies were not restored", e);
+        }
+        this.graph = graph;
+        graph.addListener(linkListener);
+    }
+
+    /** Told, on the board's thread, that changes can no longer be saved. */
+    public interface FailureListener {
+        void journalFailed(IOException error);
+    }
+
+    public void addFailureListener(FailureListener listener) {
+        failureListeners.add(listener);
+    }
+
+    public void removeFailureListener(FailureListener listener) {
+        failureListeners.remove(listener);
+    }
+
+    /** The error that stopped the journal, or null while changes are being saved. */
+    public IOException getFailure() {
+        return failure;
+    }
+
+        /** Number of entries waiting for the writer thread. */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /** Writes everything still pending and stops the writer thread. Call on the board's thread. */
+    public void close() {
+        repository.checkWriter();
+        flushDirtyTasks();
+        repository.removeListener(this);
+        if (graph != null) {
+            graph.removeListener(linkListener);
+        }
+        queue.add(Entry.of(CLOSE, null, false));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        OPEN.remove(this);
+    }
+
+    // --- Repository events (board thread) ---
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            markDirty(repository.getTaskAt(row));
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        markDirty(task);
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        dirtyTasks.remove(task);
+        enqueue(new Entry(REMOVE_TASK, null, task.getId(), null, false));
+    }
+
+    @Override
+    public void categoryAdded(Category category) {
+        enqueue(Entry.of(ADD_CATEGORY, category.getName(), false));
+    }
+
+    @Override
+    public void categoryRemoved(Category category) {
+        enqueue(Entry.of(REMOVE_CATEGORY, category.getName(), false));
+    }
+
+    @Override
+    public void memberAdded(GroupMember member) {
+        enqueue(Entry.of(ADD_MEMBER, member.getName(), member instanceof GroupLeader));
+    }
+
+    @Override
+    public void memberRemoved(GroupMember member) {
+        enqueue(Entry.of(REMOVE_MEMBER, member.getName(), false));
+    }
+
+    private void markDirty(Task task) {
+        dirtyTasks.add(task);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            repository.invokeLater(this::flushDirtyTasks);
+        }
+    }
+
+    private void flushDirtyTasks() {
+        flushScheduled = false;
+        if (failure != null) {
+            dirtyTasks.clear(); // nobody is writing; don't pile changes up in memory
+            return;
+        }
+        for (Task task : dirtyTasks) {
+            queue.add(new Entry(PUT_TASK, TaskRecord.of(task), task.getId(), null, false));
+        }
+        dirtyTasks.clear();
+    }
+
+    // Keeps category/member/link entries ordered after the task writes before them
+    private void enqueue(Entry entry) {
+        flushDirtyTasks();
+        if (failure == null) {
+            queue.add(entry);
+        }
+    }
+
+    // --- Writer thread ---
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        try (FileOutputStream file = new FileOutputStream(journalFile.toFile(), true);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            DataOutputStream body = new DataOutputStream(buffer);
+            CRC32 crc = new CRC32();
+            boolean closing = false;
+            while (!closing) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                AppMetrics.Span write = BATCH_WRITE.time();
+                for (Entry entry : batch) {
+                    if (entry.op() == CLOSE) {
+                        closing = true;
+                        continue;
+                    }
+                    buffer.reset();
+                    encode(entry, body);
+                    crc.reset();
+                    crc.update(buffer.toByteArray());
+                    out.writeInt(buffer.size());
+                    out.writeInt((int) crc.getValue());
+                    buffer.writeTo(out);
+                    apply(entry, mirror);
+                    entriesSinceSnapshot++;
+                    ENTRIES.increment();
+                }
+                batch.clear();
+                // Group commit: one fsync for everything drained above
+                out.flush();
+                file.getChannel().force(false);
+                write.close();
+
+                if (entriesSinceSnapshot >= COMPACT_THRESHOLD) {
+                    AppMetrics.Span compaction = COMPACTION.time();
+                    try {
+                        compact(file.getChannel());
+                    } finally {
+                        compaction.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Journal writer stopped; further changes will not be saved", e);
+            failure = e;
+            repository.invokeLater(() -> {
+                queue.clear();
+                for (FailureListener listener : failureListeners) {
+                    listener.journalFailed(e);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the mirror to the next snapshot generation and truncates the
+     * journal. If the process dies between the two steps, the old journal is
+     * replayed on top of the new snapshot, which is harmless because every
+     * entry is idempotent (full task state, add/remove by name or id).
+     */
+    private void compact(FileChannel journal) throws IOException {
+        long next = generation + 1;
+        Path snapshot = writeSnapshot(directory, next, mirror);
+        journal.truncate(0);
+        journal.force(true);
+        generation = next;
+        entriesSinceSnapshot = 0;
+
+        mirror.rebase(new SnapshotFile.Reader(snapshot));
+        deleteSnapshotsExcept(directory, generation);
+        LOG.fine(() -> "Compacted journal into " + snapshot.getFileName());
+    }
+
+    private static Path writeSnapshot(Path directory, long generation, BoardState state) throws IOException {
+        Path temp = directory.resolve("board-" + generation + ".snapshot.tmp");
+        SnapshotFile.write(state, temp);
+        Path snapshot = snapshotPath(directory, generation);
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE);
+        return snapshot;
+    }
+
+    private static Path snapshotPath(Path directory, long generation) {
+        return directory.resolve("board-" + generation + ".snapshot");
+    }
+
+    private static long latestGeneration(Path directory) throws IOException {
+        long latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "board-*.snapshot")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    latest = Math.max(latest, Long.parseLong(name.substring(6, name.length() - 9)));
+                } catch (NumberFormatException ignored) {
+                    // Not one of ours
+                }
+            }
+        }
+        return latest;
+    }
+
+    // Best effort: a snapshot that is still mapped may refuse to be deleted
+    private static void deleteSnapshotsExcept(Path directory, long keep) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "board-*.snapshot*")) {
+            for (Path file : files) {
+                if (!file.equals(snapshotPath(directory, keep))) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        LOG.fine(() -> "Could not delete old snapshot " + file + ": " + e);
+                    }
+                }
+            }
+        }
+    }
+
+    // --- Encoding and replay ---
+
+    private static void encode(Entry entry, DataOutputStream out) throws IOException {
+        out.writeByte(entry.op());
+        switch (entry.op()) {
+            case PUT_TASK:
+                entry.task().write(out);
+                break;
+            case REMOVE_TASK:
+                out.writeLong(entry.id());
+                break;
+            case ADD_LINK:
+            case REMOVE_LINK:
+                out.writeLong(entry.id());
+                out.writeLong(entry.dependent());
+                break;
+            case ADD_MEMBER:
+                TaskRecord.writeString(out, entry.name());
+                out.writeBoolean(entry.leader());
+                break;
+            default:
+                TaskRecord.writeString(out, entry.name());
+                break;
+        }
+        out.flush();
+    }
+
+    private static Entry decode(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte op = in.readByte();
+        switch (op) {
+            case PUT_TASK:
+                TaskRecord task = TaskRecord.read(in);
+                return new Entry(op, task, task.id(), null, false);
+            case REMOVE_TASK:
+                return new Entry(op, null, in.readLong(), null, false);
+            case ADD_LINK:
+            case REMOVE_LINK:
+                return Entry.link(op, in.readLong(), in.readLong());
+            case ADD_MEMBER:
+                return Entry.of(op, TaskRecord.readString(in), in.readBoolean());
+            case REMOVE_CATEGORY:
+            case ADD_CATEGORY:
+            case REMOVE_MEMBER:
+                return Entry.of(op, TaskRecord.readString(in), false);
+            default:
+                throw new IOException("Unknown journal entry type " + op);
+        }
+    }
+
+    private static void apply(Entry entry, BoardState state) {
+        switch (entry.op()) {
+            case PUT_TASK: state.putTask(entry.task()); break;
+            case REMOVE_TASK: state.removeTask(entry.id()); break;
+            case ADD_CATEGORY: state.addCategory(entry.name()); break;
+            case REMOVE_CATEGORY: state.removeCategory(entry.name()); break;
+            case ADD_MEMBER: state.addMember(entry.name(), entry.leader()); break;
+            case REMOVE_MEMBER: state.removeMember(entry.name()); break;
+            case ADD_LINK: state.addLink(entry.id(), entry.dependent()); break;
+            case REMOVE_LINK: state.removeLink(entry.id(), entry.dependent()); break;
+            default: break;
+        }
+    }
+
+    /**
+     * Applies every intact journal entry to {@code state}. A torn or corrupt
+     * tail (from a crash mid-write) ends the replay; with {@code repair} it
+     * is cut off so new entries are appended after the last good one.
+     */
+    private static int replay(Path journal, BoardState state, boolean repair) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        long fileSize = Files.size(journal);
+        int count = 0;
+        long validLength = 0;
+        CRC32 crc = new CRC32();
+        try (InputStream file = Files.newInputStream(journal);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, 1 << 16))) {
+            while (true) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > fileSize) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                apply(decode(body), state);
+                validLength += 8 + length;
+                count++;
+            }
+        } catch (EOFException endOfJournal) {
+            // Normal end, or a record cut short by a crash
+        }
+        if (validLength < fileSize && repair) {
+            LOG.warning("Discarding corrupt journal tail after " + count + " entries");
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,163 @@
+package todolist;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Wire format shared by {@link TaskServer} and {@link TaskClient}.
+ * <p>
+ * After a handshake ({@link #MAGIC}, {@link #VERSION} in both directions)
+ * the client sends request frames and the server answers each one with a
+ * response frame carrying the same request id, in request order:
+ * <pre>
+ *   request   int requestId, byte op, payload
+ *   response  int requestId, byte status, payload
+ * </pre>
+ * A client may send any number of requests before reading the responses
+ * (pipelining). All writes go through one {@link #BATCH} frame holding a
+ * list of {@link Mutation}s, which the server applies in one turn of its
+ * writer thread. Strings and task records use the {@link TaskRecord}
+ * binary encoding.
+ * <p>
+ * After {@link #SUBSCRIBE} the server also pushes the connection's
+ * {@link ChangeFeed} stream as frames with request id {@link #PUSH_ID}; the
+ * status byte of a push frame says what it carries.
+ */
+public final class TaskProtocol {
+    static final int MAGIC = 0x54444C50; // "TDLP"
+    static final int VERSION = 1;
+
+    /** Most mutations accepted in one batch frame. */
+    static final int MAX_BATCH = 10_000;
+
+    /** Expected version that skips the optimistic check (last writer wins). */
+    public static final long ANY_VERSION = -1;
+
+    // Request ops
+    static final byte PING = 1;
+    static final byte GET_TASK = 2;        // long id -> record
+    static final byte LIST_TASKS = 3;      // -> int count, records
+    static final byte LIST_CATEGORIES = 4; // -> int count, names
+    static final byte LIST_MEMBERS = 5;    // -> int count, (name, leader)
+    static final byte BATCH = 6;           // int count, mutations -> int count, results
+    static final byte SUBSCRIBE = 7;       // long afterSequence -> boolean resumed, then pushes
+
+    // Push frames: request id PUSH_ID, then one of these instead of a status
+    static final int PUSH_ID = 0;
+    static final byte PUSH_CHANGES = 10;   // int count, changes
+    static final byte PUSH_SNAPSHOT = 11;  // snapshot
+    static final byte PUSH_RESET = 12;     // subscription dropped; subscribe again
+
+    // Response and per-mutation statuses
+    public static final byte OK = 0;
+    public static final byte NOT_FOUND = 1;
+    public static final byte STALE = 2;
+    public static final byte CONFLICT = 3;
+    public static final byte ERROR = 4;
+
+    // Mutation kinds
+    static final byte PUT_TASK = 1;
+    static final byte REMOVE_TASK = 2;
+    static final byte ADD_CATEGORY = 3;
+    static final byte REMOVE_CATEGORY = 4;
+    static final byte ADD_MEMBER = 5;
+    static final byte REMOVE_MEMBER = 6;
+
+    private TaskProtocol() {
+    }
+
+    /**
+     * One write inside a batch frame. Use the factory methods; the unused
+     * components of a kind are left at their defaults.
+     */
+    public record Mutation(byte kind, TaskRecord task, long id, long expectedVersion, String name, boolean leader) {
+
+        /**
+         * Creates the task if its id is 0, otherwise replaces the fields of
+         * the stored task provided it is still at {@code task.version()}.
+         */
+        public static Mutation putTask(TaskRecord task) {
+            return new Mutation(PUT_TASK, task, task.id(), task.version(), null, false);
+        }
+
+        public static Mutation removeTask(long id, long expectedVersion) {
+            return new Mutation(REMOVE_TASK, null, id, expectedVersion, null, false);
+        }
+
+        public static Mutation addCategory(String name) {
+            return new Mutation(ADD_CATEGORY, null, 0, 0, name, false);
+        }
+
+        public static Mutation removeCategory(String name) {
+            return new Mutation(REMOVE_CATEGORY, null, 0, 0, name, false);
+        }
+
+        public static Mutation addMember(String name, boolean leader) {
+            return new Mutation(ADD_MEMBER, null, 0, 0, name, leader);
+        }
+
+        public static Mutation removeMember(String name) {
+            return new Mutation(REMOVE_MEMBER, null, 0, 0, name, false);
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeByte(kind);
+            switch (kind) {
+                case PUT_TASK -> task.write(out);
+                case REMOVE_TASK -> {
+                    out.writeLong(id);
+                    out.writeLong(expectedVersion);
+                }
+                case ADD_MEMBER -> {
+                    TaskRecord.writeString(out, name);
+                    out.writeBoolean(leader);
+                }
+                default -> TaskRecord.writeString(out, name);
+            }
+        }
+
+        static Mutation read(DataInput in) throws IOException {
+            byte kind = in.readByte();
+            switch (kind) {
+                case PUT_TASK:
+                    return putTask(TaskRecord.read(in));
+                case REMOVE_TASK:
+                    return removeTask(in.readLong(), in.readLong());
+                case ADD_CATEGORY:
+                    return addCategory(TaskRecord.readString(in));
+                case REMOVE_CATEGORY:
+                    return removeCategory(TaskRecord.readString(in));
+                case ADD_MEMBER:
+                    return addMember(TaskRecord.readString(in), in.readBoolean());
+                case REMOVE_MEMBER:
+                    return removeMember(TaskRecord.readString(in));
+                default:
+                    throw new IOException("Unknown mutation kind " + kind);
+            }
+        }
+    }
+
+    /**
+     * Outcome of one mutation. For task mutations {@code id} and
+     * {@code version} are the task's id and its version afterwards (or its
+     * current version when the mutation was {@link #STALE}).
+     */
+    public record MutationResult(byte status, long id, long version, String message) {
+
+        public boolean isOk() {
+            return status == OK;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeByte(status);
+            out.writeLong(id);
+            out.writeLong(version);
+            TaskRecord.writeString(out, message);
+        }
+
+        static MutationResult read(DataInput in) throws IOException {
+            return new MutationResult(in.readByte(), in.readLong(), in.readLong(), TaskRecord.readString(in));
+        }
+    }
+}
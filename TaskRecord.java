@@ -0,0 +1,101 @@
+package todolist;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Immutable copy of a task's state. Categories and members are referenced by
+ * name so a record can be stored, sent to another thread or written to disk
+ * without dragging the live object graph along.
+ */
+public record TaskRecord(long id, long version, String title, String description, LocalDate dueDate, Priority priority,
+                         String category, Status status, int progressPercent, String assignedTo) {
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    public static TaskRecord of(Task task) {
+        return new TaskRecord(task.getId(), task.getVersion(), task.getTitle(), task.getDescription(), task.getDueDate(),
+                task.getPriority(), task.getCategory() == null ? null : task.getCategory().getName(),
+                task.getStatus(), task.getProgressPercent(),
+                task.getAssignedTo() == null ? null : task.getAssignedTo().getName());
+    }
+
+    /** Copy of this record under a different id, e.g. 0 to have a server assign one. */
+    public TaskRecord withId(long newId) {
+        return new TaskRecord(newId, version, title, description, dueDate, priority, category, status, progressPercent, assignedTo);
+    }
+
+    /** Copy of this record claiming a different base version. */
+    public TaskRecord withVersion(long newVersion) {
+        return new TaskRecord(id, newVersion, title, description, dueDate, priority, category, status, progressPercent, assignedTo);
+    }
+
+    /**
+     * Builds a detached task from this record, resolving category and member
+     * names through the given lookup maps.
+     */
+    public Task toTask(Map<String, Category> categories, Map<String, GroupMember> members) {
+        Category taskCategory = category == null ? null : categories.computeIfAbsent(category, Category::of);
+        GroupMember member = assignedTo == null ? null : members.get(assignedTo);
+        Task task = new Task(title, description, dueDate, priority, taskCategory, member);
+        task.setStatus(status);
+        task.setProgressPercent(progressPercent);
+        task.assignId(id, version);
+        return task;
+    }
+
+    // --- Binary encoding ---
+
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(id);
+        out.writeLong(version);
+        writeString(out, title);
+        writeString(out, description);
+        out.writeLong(dueDate == null ? NO_DATE : dueDate.toEpochDay());
+        out.writeByte(priority.ordinal());
+        writeString(out, category);
+        out.writeByte(status.ordinal());
+        out.writeByte(progressPercent);
+        writeString(out, assignedTo);
+    }
+
+    public static TaskRecord read(DataInput in) throws IOException {
+        long id = in.readLong();
+        long version = in.readLong();
+        String title = readString(in);
+        String description = readString(in);
+        long epochDay = in.readLong();
+        Priority priority = Priority.values()[in.readByte()];
+        String category = readString(in);
+        Status status = Status.values()[in.readByte()];
+        int progress = in.readByte();
+        String assignedTo = readString(in);
+        return new TaskRecord(id, version, title, description, epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay),
+                priority, category, status, progress, assignedTo);
+    }
+
+    // Length-prefixed UTF-8; -1 encodes null. Unlike writeUTF there is no 64K limit.
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,490 @@
+package todolist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * In-memory store for the tasks, categories and members of a board.
+ * <p>
+ * Every task gets a stable id when it is added. Besides the row list used
+ * by the table, the repository keeps secondary indexes by member, category,
+ * status and priority. Tasks report their setter calls back here, so the
+ * indexes never go stale and lookups like "is this member in use?" are O(1).
+ * <p>
+ * The board is changed on one writer thread, the EDT unless a
+ * {@link WriterThread} is given, and listeners are notified there; a mutation from any other thread fails with an
+ * {@link IllegalStateException} before it changes anything. Other threads
+ * read the immutable {@link TaskRecord}s published through
+ * {@link #getRecord(long)} and {@link #getRecords()}, which never block.
+ * An {@link #edit(Task, Consumer)} publishes one record and bumps the
+ * version once however many fields it sets, so readers never see half of
+ * it. Edits based on an earlier read go through
+ * {@link #update(Task, long, Consumer)}, from any thread, so a concurrent
+ * change is detected instead of silently overwritten.
+ */
+public class TaskRepository implements TaskSource {
+    private final List<Task> rows = new ArrayList<>();
+    private final Map<Long, Task> tasksById = new HashMap<>();
+    private final Map<GroupMember, Set<Task>> tasksByMember = new HashMap<>(); // null key = unassigned
+    private final Map<Category, Set<Task>> tasksByCategory = new HashMap<>();
+    private final Map<Status, Set<Task>> tasksByStatus = new EnumMap<>(Status.class);
+    private final Map<Priority, Set<Task>> tasksByPriority = new EnumMap<>(Priority.class);
+    private final Map<Long, TaskRecord> published = new ConcurrentHashMap<>();
+
+    private final List<Category> categories = new CopyOnWriteArrayList<>();
+    private final List<GroupMember> members = new CopyOnWriteArrayList<>();
+
+    private final List<TaskRepositoryListener> listeners = new CopyOnWriteArrayList<>();
+    private final WriterThread writer; // null = the EDT
+
+    private long nextId = 1;
+
+    // The task inside edit(), whose version and record wait until the edit ends
+    private Task editing;
+    private boolean editChanged;
+
+    /** A board that is changed on the EDT. */
+    public TaskRepository() {
+        this(null);
+    }
+
+    /** A board that is changed on {@code writer}, or on the EDT if it is null. */
+    public TaskRepository(WriterThread writer) {
+        this.writer = writer;
+    }
+
+    public void addListener(TaskRepositoryListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TaskRepositoryListener listener) {
+        listeners.remove(listener);
+    }
+
+    // --- Writer thread ---
+
+    /** True on the thread that may change this board. */
+    public boolean isWriterThread() {
+        return writer == null ? SwingUtilities.isEventDispatchThread() : writer.isCurrent();
+    }
+
+    /** Runs {@code action} on the writer thread, after the changes already queued there. */
+    public void invokeLater(Runnable action) {
+        if (writer == null) {
+            SwingUtilities.invokeLater(action);
+        } else {
+            writer.execute(action);
+        }
+    }
+
+    /** Runs {@code action} on the writer thread once {@code delayMillis} have passed. */
+    public void schedule(Runnable action, int delayMillis) {
+        if (writer == null) {
+            Timer timer = new Timer(delayMillis, e -> action.run());
+            timer.setRepeats(false);
+            timer.start();
+        } else {
+            writer.schedule(action, delayMillis);
+        }
+    }
+
+    /**
+     * Runs {@code action} on the writer thread and waits until it is done;
+     * what it throws is rethrown here. The wait is not interruptible, so on
+     * return the action has either fully run or failed.
+     */
+    public void invokeAndWait(Runnable action) {
+        if (isWriterThread()) {
+            action.run();
+            return;
+        }
+        FutureTask<Void> future = new FutureTask<>(action, null);
+        invokeLater(future);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    future.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void checkWriter() {
+        if (!isWriterThread()) {
+            throw new IllegalStateException("The board can only be changed on its writer thread, not on " + Thread.currentThread().getName());
+        }
+    }
+
+    // --- Tasks ---
+
+    /**
+     * Adds a task at the end of the row list. A task that already carries an
+     * id (for example one loaded from disk) keeps it.
+     */
+    public void add(Task task) {
+        checkWriter();
+        store(task);
+        int row = rows.size() - 1;
+        for (TaskRepositoryListener listener : listeners) {
+            listener.tasksAdded(row, row);
+        }
+    }
+
+    /**
+     * Adds many tasks at once. Listeners get a single {@code tasksAdded}
+     * notification covering the whole batch.
+     */
+    public void addAll(Collection<Task> tasks) {
+        checkWriter();
+        if (tasks.isEmpty()) {
+            return;
+        }
+        int firstRow = rows.size();
+        for (Task task : tasks) {
+            store(task);
+        }
+        int lastRow = rows.size() - 1;
+        for (TaskRepositoryListener listener : listeners) {
+            listener.tasksAdded(firstRow, lastRow);
+        }
+    }
+
+    private void store(Task task) {
+        if (task.row >= 0) {
+            throw new IllegalArgumentException("Task is already stored: " + task.getTitle());
+        }
+        long id = task.getId() > 0 ? task.getId() : nextId;
+        if (tasksById.containsKey(id)) {
+            throw new IllegalArgumentException("Duplicate task id: " + id);
+        }
+        nextId = Math.max(nextId, id + 1);
+        task.attach(this, id);
+        task.row = rows.size();
+        rows.add(task);
+        tasksById.put(id, task);
+        index(task);
+        published.put(id, TaskRecord.of(task));
+    }
+
+    /**
+     * Removes a task in O(1) by moving the last row into its slot.
+     *
+     * @return the row the task occupied, or -1 if it was not stored here
+     */
+    public int remove(Task task) {
+        checkWriter();
+        int row = indexOf(task);
+        if (row < 0) {
+            return -1;
+        }
+        int lastRow = rows.size() - 1;
+        Task last = rows.remove(lastRow);
+        if (last != task) {
+            rows.set(row, last);
+            last.row = row;
+        }
+        tasksById.remove(task.getId());
+        published.remove(task.getId());
+        unindex(task);
+        task.detach();
+        for (TaskRepositoryListener listener : listeners) {
+            listener.taskRemoved(task, row, lastRow);
+        }
+        return row;
+    }
+
+    /**
+     * Applies {@code edit} to the task if nobody changed it since
+     * {@code expectedVersion} was read. Called off the writer thread, it
+     * waits for the writer to run the check and the edit, so two editors
+     * can never both win.
+     *
+     * @throws StaleTaskException if the task was changed or removed meanwhile
+     */
+    public void update(Task task, long expectedVersion, Consumer<Task> edit) throws StaleTaskException {
+        if (!isWriterThread()) {
+            StaleTaskException[] stale = new StaleTaskException[1];
+            invokeAndWait(() -> {
+                try {
+                    update(task, expectedVersion, edit);
+                } catch (StaleTaskException e) {
+                    stale[0] = e;
+                }
+            });
+            if (stale[0] != null) {
+                throw stale[0];
+            }
+            return;
+        }
+        if (indexOf(task) < 0) {
+            throw new StaleTaskException(task, "Task was removed: " + task.getTitle());
+        }
+        if (task.getVersion() != expectedVersion) {
+            throw new StaleTaskException(task, "Task was changed by someone else: " + task.getTitle());
+        }
+        edit(task, edit);
+    }
+
+    /**
+     * Applies {@code edit} to the task as one change: listeners still hear
+     * about every field, but the version is bumped and a record published
+     * once, when the edit is done.
+     */
+    public void edit(Task task, Consumer<Task> edit) {
+        edit(task, -1, edit);
+    }
+
+    /**
+     * Like {@link #edit(Task, Consumer)}, but leaves the task at
+     * {@code version} instead of bumping it, for copies of tasks whose
+     * versions are kept elsewhere; -1 bumps it as usual.
+     */
+    void edit(Task task, long version, Consumer<Task> edit) {
+        checkWriter();
+        if (editing != null || indexOf(task) < 0) {
+            edit.accept(task); // nested, or not stored here: nothing to hold back
+            return;
+        }
+        editing = task;
+        editChanged = false;
+        try {
+            edit.accept(task);
+        } finally {
+            editing = null;
+            long next = version >= 0 ? version : editChanged ? task.getVersion() + 1 : task.getVersion();
+            if (indexOf(task) >= 0 && (editChanged || next != task.getVersion())) {
+                task.assignId(task.getId(), next);
+                published.put(task.getId(), TaskRecord.of(task));
+            }
+        }
+    }
+
+    public Task getTask(long id) {
+        return tasksById.get(id);
+    }
+
+    /** Latest published state of a task, or null. Safe from any thread. */
+    public TaskRecord getRecord(long id) {
+        return published.get(id);
+    }
+
+    /** Latest published state of every task, in no particular order. Safe from any thread. */
+    public Collection<TaskRecord> getRecords() {
+        return Collections.unmodifiableCollection(published.values());
+    }
+
+    public Task getTaskAt(int row) {
+        return rows.get(row);
+    }
+
+    /** Returns the current row of the task, or -1 if it is not stored here. */
+    public int indexOf(Task task) {
+        int row = task.row;
+        return (row >= 0 && row < rows.size() && rows.get(row) == task) ? row : -1;
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public List<Task> getTasks(int fromRow, int toRow) {
+        return Collections.unmodifiableList(rows.subList(fromRow, toRow));
+    }
+
+    /** Read-only view of all tasks in row order. */
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    public Set<Task> getTasksAssignedTo(GroupMember member) {
+        return view(tasksByMember.get(member));
+    }
+
+    public Set<Task> getTasksInCategory(Category category) {
+        return view(tasksByCategory.get(category));
+    }
+
+    public Set<Task> getTasksWithStatus(Status status) {
+        return view(tasksByStatus.get(status));
+    }
+
+    public Set<Task> getTasksWithPriority(Priority priority) {
+        return view(tasksByPriority.get(priority));
+    }
+
+    public boolean isMemberInUse(GroupMember member) {
+        return member != null && tasksByMember.containsKey(member);
+    }
+
+    public boolean isCategoryInUse(Category category) {
+        return tasksByCategory.containsKey(category);
+    }
+
+    public int countUnassigned() {
+        Set<Task> unassigned = tasksByMember.get(null);
+        return unassigned == null ? 0 : unassigned.size();
+    }
+
+    // Called by Task, on the writer thread, whenever one of its setters changes a value
+    void taskChanged(Task task, TaskField field, Object oldValue, Object newValue) {
+        if (task == editing) {
+            editChanged = true;
+        } else {
+            task.bumpVersion();
+            published.put(task.getId(), TaskRecord.of(task));
+        }
+        switch (field) {
+            case ASSIGNED_TO:
+                move(tasksByMember, task, (GroupMember) oldValue, (GroupMember) newValue);
+                break;
+            case CATEGORY:
+                move(tasksByCategory, task, (Category) oldValue, (Category) newValue);
+                break;
+            case STATUS:
+                move(tasksByStatus, task, (Status) oldValue, (Status) newValue);
+                break;
+            case PRIORITY:
+                move(tasksByPriority, task, (Priority) oldValue, (Priority) newValue);
+                break;
+            default:
+                break;
+        }
+        for (TaskRepositoryListener listener : listeners) {
+            listener.taskUpdated(task, task.row, field, oldValue, newValue);
+        }
+    }
+
+    // --- Categories ---
+
+    public List<Category> getCategories() {
+        return Collections.unmodifiableList(categories);
+    }
+
+    /** @return false if a category with the same name already exists */
+    public boolean addCategory(Category category) {
+        checkWriter();
+        if (categories.contains(category)) {
+            return false;
+        }
+        categories.add(category);
+        for (TaskRepositoryListener listener : listeners) {
+            listener.categoryAdded(category);
+        }
+        return true;
+    }
+
+    public boolean removeCategory(Category category) {
+        checkWriter();
+        if (!categories.remove(category)) {
+            return false;
+        }
+        for (TaskRepositoryListener listener : listeners) {
+            listener.categoryRemoved(category);
+        }
+        return true;
+    }
+
+    // --- Members ---
+
+    public List<GroupMember> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /** @return false if a member with the same name already exists */
+    public boolean addMember(GroupMember member) {
+        checkWriter();
+        if (members.contains(member)) {
+            return false;
+        }
+        members.add(member);
+        for (TaskRepositoryListener listener : listeners) {
+            listener.memberAdded(member);
+        }
+        return true;
+    }
+
+    public boolean removeMember(GroupMember member) {
+        checkWriter();
+        if (!members.remove(member)) {
+            return false;
+        }
+        for (TaskRepositoryListener listener : listeners) {
+            listener.memberRemoved(member);
+        }
+        return true;
+    }
+
+    // --- Index maintenance ---
+
+    private void index(Task task) {
+        put(tasksByMember, task.getAssignedTo(), task);
+        put(tasksByCategory, task.getCategory(), task);
+        put(tasksByStatus, task.getStatus(), task);
+        put(tasksByPriority, task.getPriority(), task);
+    }
+
+    private void unindex(Task task) {
+        take(tasksByMember, task.getAssignedTo(), task);
+        take(tasksByCategory, task.getCategory(), task);
+        take(tasksByStatus, task.getStatus(), task);
+        take(tasksByPriority, task.getPriority(), task);
+    }
+
+    private static <K> void move(Map<K, Set<Task>> index, Task task, K oldKey, K newKey) {
+        take(index, oldKey, task);
+        put(index, newKey, task);
+    }
+
+    private static <K> void put(Map<K, Set<Task>> index, K key, Task task) {
+        if (key == null && index instanceof EnumMap) {
+            return; // EnumMap does not accept null keys
+        }
+        index.computeIfAbsent(key, k -> new HashSet<>()).add(task);
+    }
+
+    private static <K> void take(Map<K, Set<Task>> index, K key, Task task) {
+        if (key == null && index instanceof EnumMap) {
+            return;
+        }
+        Set<Task> tasks = index.get(key);
+        if (tasks != null && tasks.remove(task) && tasks.isEmpty()) {
+            index.remove(key); // keeps containsKey() an exact "in use" check
+        }
+    }
+
+    private static Set<Task> view(Set<Task> tasks) {
+        return tasks == null ? Collections.emptySet() : Collections.unmodifiableSet(tasks);
+    }
+}
@@ -0,0 +1,29 @@
+package todolist;
+
+/**
+ * Receives fine-grained change notifications from a {@link TaskRepository}.
+ * All methods have empty defaults so listeners only implement what they need.
+ * Notifications are delivered after the repository state has changed.
+ */
+public interface TaskRepositoryListener {
+
+    /** Rows {@code firstRow..lastRow} (inclusive) were appended. */
+    default void tasksAdded(int firstRow, int lastRow) {}
+
+    /** A single field of the task in {@code row} changed value. */
+    default void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {}
+
+    /**
+     * The task in {@code row} was removed. If {@code row != lastRow}, the task
+     * that used to be in {@code lastRow} now occupies {@code row}.
+     */
+    default void taskRemoved(Task task, int row, int lastRow) {}
+
+    default void categoryAdded(Category category) {}
+
+    default void categoryRemoved(Category category) {}
+
+    default void memberAdded(GroupMember member) {}
+
+    default void memberRemoved(GroupMember member) {}
+}
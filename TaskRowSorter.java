@@ -0,0 +1,576 @@
+package todolist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+
+/**
+ * Sorts and filters the rows of a {@link TaskTableModel} on primitive keys.
+ * <p>
+ * Each sorted column is read from the tasks once into an int per row: the
+ * due date as an epoch day, priority and status as ordinals (priority
+ * ascending goes from LOW to HIGH), categories and members as their
+ * interned ids mapped to the rank of their names, progress as is, and
+ * titles and descriptions as their rank among all titles or descriptions.
+ * A sort is one {@link Arrays#parallelSort(long[])} per sort key, least
+ * significant key first, over {@code key << 32 | position}; carrying the
+ * position of the previous pass makes every pass stable, so multi-column
+ * sorts such as priority, then due date come out right, with ties left in
+ * model order, or in the order of the ranking given with the filter (the
+ * search relevance) if there is one. Missing dates, categories and members
+ * sort first. Text is compared ignoring case, then by case.
+ * <p>
+ * When a few rows change, the keys of those rows are updated and each row
+ * is moved to its new place by binary search instead of sorting again.
+ * Only changes to many rows at once, a new filter or new sort keys sort
+ * everything, and even then the cached keys of unchanged columns are
+ * reused.
+ */
+public class TaskRowSorter extends RowSorter<TaskTableModel> {
+    private static final int COLUMNS = 8;
+    private static final int TITLE = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int CATEGORY = 2;
+    private static final int MEMBER = 6;
+    private static final int MAX_SORT_KEYS = 3;
+    private static final int NO_KEY = Integer.MIN_VALUE;
+    // Changes to more rows than this are sorted from scratch instead of row by row
+    private static final int INCREMENTAL_LIMIT = 64;
+    private static final Comparator<String> TEXT_ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+    private static final AppMetrics.Histogram SORT_TIME = AppMetrics.histogram("table.sort");
+
+    private final TaskTableModel model;
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private TaskFilter filter = TaskFilter.ALL;
+    private ToIntFunction<Task> ranking; // null = ties in model order
+    private int modelRowCount;
+
+    // Both null while the view is the model, i.e. unsorted and unfiltered
+    private int[] viewToModel;
+    private int[] modelToView; // -1 for rows the filter hides
+    private int viewRowCount;
+
+    // Keys by model row for the columns that were sorted; text columns hold ranks
+    private final int[][] keys = new int[COLUMNS][];
+    private final boolean[] keysValid = new boolean[COLUMNS];
+    private int[] categoryRanks = new int[0]; // by category id
+    private int[] memberRanks = new int[0]; // by member id
+
+    public TaskRowSorter(TaskTableModel model) {
+        this.model = model;
+        modelRowCount = model.getRowCount();
+    }
+
+    @Override
+    public TaskTableModel getModel() {
+        return model;
+    }
+
+    /** The filter the view applies; {@link TaskFilter#ALL} shows every row. */
+    public TaskFilter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(TaskFilter filter) {
+        setFilter(filter, ranking);
+    }
+
+    /**
+     * Sets the filter together with a rank for the rows it shows, lowest
+     * first, that orders the rows the sort keys leave tied; with no sort
+     * keys the view is in rank order. A null ranking leaves ties in model
+     * order.
+     */
+    public void setFilter(TaskFilter filter, ToIntFunction<Task> ranking) {
+        TaskFilter next = filter == null ? TaskFilter.ALL : filter;
+        if (next == this.filter && ranking == this.ranking) {
+            return; // e.g. ALL again: nothing to sort
+        }
+        this.filter = next;
+        this.ranking = ranking;
+        int[] previous = previousViewToModel();
+        sort();
+        fireRowSorterChanged(previous);
+    }
+
+    // --- Sort keys ---
+
+    /** Clicking a column makes it the first key, or reverses it if it already is. */
+    @Override
+    public void toggleSortOrder(int column) {
+        checkColumn(column);
+        List<SortKey> next = new ArrayList<>(sortKeys);
+        SortOrder order = SortOrder.ASCENDING;
+        for (int i = 0; i < next.size(); i++) {
+            if (next.get(i).getColumn() == column) {
+                if (i == 0 && next.get(i).getSortOrder() == SortOrder.ASCENDING) {
+                    order = SortOrder.DESCENDING;
+                }
+                next.remove(i);
+                break;
+            }
+        }
+        next.add(0, new SortKey(column, order));
+        setSortKeys(next.size() > MAX_SORT_KEYS ? next.subList(0, MAX_SORT_KEYS) : next);
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> next = keys == null ? Collections.emptyList() : List.copyOf(keys);
+        for (SortKey key : next) {
+            checkColumn(key.getColumn());
+        }
+        if (next.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = next;
+        fireSortOrderChanged();
+        int[] previous = previousViewToModel();
+        sort();
+        fireRowSorterChanged(previous);
+    }
+
+    private static void checkColumn(int column) {
+        if (column < 0 || column >= COLUMNS) {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+    }
+
+    // --- Index conversion ---
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (viewToModel == null) {
+            if (index < 0 || index >= modelRowCount) {
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+            }
+            return index;
+        }
+        if (index < 0 || index >= viewRowCount) {
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        }
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= modelRowCount) {
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        }
+        return modelToView == null ? index : modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? modelRowCount : viewRowCount;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return modelRowCount;
+    }
+
+    // --- Model changes ---
+
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        modelRowCount = model.getRowCount();
+        Arrays.fill(keysValid, false);
+        int[] previous = previousViewToModel();
+        sort();
+        fireRowSorterChanged(previous);
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        int count = endRow - firstRow + 1;
+        int oldCount = modelRowCount;
+        modelRowCount = model.getRowCount();
+        for (int column = 0; column < COLUMNS; column++) {
+            if (!keysValid[column]) {
+                continue;
+            }
+            if (firstRow == oldCount && column != TITLE && column != DESCRIPTION) {
+                appendKeys(column, firstRow, endRow);
+            } else {
+                keysValid[column] = false; // new text has no rank, and inner inserts move every row
+            }
+        }
+        if (viewToModel == null) {
+            return; // still the identity
+        }
+        if (count > INCREMENTAL_LIMIT) {
+            sort();
+            fireRowSorterChanged(null);
+            return;
+        }
+        if (firstRow < oldCount) {
+            for (int i = 0; i < viewRowCount; i++) {
+                if (viewToModel[i] >= firstRow) {
+                    viewToModel[i] += count;
+                }
+            }
+        }
+        if (firstRow < oldCount || modelToView.length < modelRowCount) {
+            modelToView = new int[Math.max(modelRowCount, modelToView.length + (modelToView.length >> 1))];
+            Arrays.fill(modelToView, -1);
+            rebuildModelToView(0);
+        }
+        for (int row = firstRow; row <= endRow; row++) {
+            modelToView[row] = -1;
+            if (filter.test(model.getTaskAt(row))) {
+                rankNames();
+                rebuildModelToView(insertView(row));
+            }
+        }
+        fireRowSorterChanged(null);
+    }
+
+    private void appendKeys(int column, int firstRow, int endRow) {
+        if (keys[column].length < modelRowCount) {
+            keys[column] = Arrays.copyOf(keys[column], Math.max(modelRowCount, keys[column].length + (keys[column].length >> 1)));
+        }
+        for (int row = firstRow; row <= endRow; row++) {
+            keys[column][row] = key(model.getTaskAt(row), column);
+        }
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        int count = endRow - firstRow + 1;
+        int oldCount = modelRowCount;
+        modelRowCount = model.getRowCount();
+        if (endRow < oldCount - 1) {
+            for (int column = 0; column < COLUMNS; column++) {
+                if (keysValid[column]) {
+                    System.arraycopy(keys[column], endRow + 1, keys[column], firstRow, oldCount - endRow - 1);
+                }
+            }
+        }
+        if (viewToModel == null) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < viewRowCount; i++) {
+            int row = viewToModel[i];
+            if (row < firstRow) {
+                viewToModel[kept++] = row;
+            } else if (row > endRow) {
+                viewToModel[kept++] = row - count;
+            }
+        }
+        viewRowCount = kept;
+        Arrays.fill(modelToView, 0, modelRowCount, -1);
+        rebuildModelToView(0);
+        fireRowSorterChanged(null);
+    }
+
+    // Always moves and re-filters the edited rows, like a TableRowSorter with sortsOnUpdates set
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        if (endRow - firstRow + 1 > INCREMENTAL_LIMIT) {
+            Arrays.fill(keysValid, false);
+            int[] previous = previousViewToModel();
+            sort();
+            fireRowSorterChanged(previous);
+            return;
+        }
+        boolean moved = false;
+        for (int row = firstRow; row <= endRow; row++) {
+            Task task = model.getTaskAt(row);
+            for (int column = 0; column < COLUMNS; column++) {
+                if (keysValid[column]) {
+                    if (column == TITLE || column == DESCRIPTION) {
+                        keysValid[column] = false; // the new text has no rank yet
+                    } else {
+                        keys[column][row] = key(task, column);
+                    }
+                }
+            }
+            moved |= reposition(row, task);
+        }
+        if (moved) {
+            fireRowSorterChanged(null);
+        }
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        rowsUpdated(firstRow, endRow);
+    }
+
+    // --- Sorting ---
+
+    private void sort() {
+        AppMetrics.Span span = SORT_TIME.time();
+        try {
+            List<SortKey> active = new ArrayList<>();
+            for (SortKey key : sortKeys) {
+                if (key.getSortOrder() != SortOrder.UNSORTED) {
+                    active.add(key);
+                }
+            }
+            if (active.isEmpty() && filter == TaskFilter.ALL && ranking == null) {
+                viewToModel = null;
+                modelToView = null;
+                viewRowCount = 0;
+                return;
+            }
+            rankNames();
+            int[] rows = filteredRows();
+            if (ranking != null) {
+                rows = rankedRows(rows); // the least significant pass
+            }
+            for (int k = active.size() - 1; k >= 0; k--) {
+                int column = active.get(k).getColumn();
+                boolean descending = active.get(k).getSortOrder() == SortOrder.DESCENDING;
+                int[] columnKeys = keys(column);
+                int[] order = rows;
+                long[] packed = new long[order.length];
+                Arrays.parallelSetAll(packed, i -> {
+                    int value = sortValue(column, columnKeys[order[i]]);
+                    return (long) (descending ? ~value : value) << 32 | i;
+                });
+                Arrays.parallelSort(packed);
+                int[] sorted = new int[order.length];
+                Arrays.parallelSetAll(sorted, i -> order[(int) packed[i]]);
+                rows = sorted;
+            }
+            viewToModel = rows;
+            viewRowCount = rows.length;
+            modelToView = new int[modelRowCount];
+            Arrays.fill(modelToView, -1);
+            rebuildModelToView(0);
+        } finally {
+            span.close();
+        }
+    }
+
+    // Model rows that pass the filter, in model order
+    private int[] filteredRows() {
+        IntStream rows = IntStream.range(0, modelRowCount);
+        if (filter == TaskFilter.ALL) {
+            return rows.toArray();
+        }
+        return rows.parallel().filter(row -> filter.test(model.getTaskAt(row))).toArray();
+    }
+
+    private int[] rankedRows(int[] rows) {
+        long[] packed = new long[rows.length];
+        Arrays.parallelSetAll(packed, i -> (long) ranking.applyAsInt(model.getTaskAt(rows[i])) << 32 | i);
+        Arrays.parallelSort(packed);
+        int[] ranked = new int[rows.length];
+        Arrays.parallelSetAll(ranked, i -> rows[(int) packed[i]]);
+        return ranked;
+    }
+
+    // The column's keys by model row, read from the tasks if they are not cached
+    private int[] keys(int column) {
+        if (!keysValid[column]) {
+            if (column == TITLE || column == DESCRIPTION) {
+                keys[column] = rankText(column);
+            } else {
+                int[] columnKeys = keys[column] != null && keys[column].length >= modelRowCount
+                        ? keys[column] : new int[modelRowCount];
+                IntStream.range(0, modelRowCount).parallel()
+                        .forEach(row -> columnKeys[row] = key(model.getTaskAt(row), column));
+                keys[column] = columnKeys;
+            }
+            keysValid[column] = true;
+        }
+        return keys[column];
+    }
+
+    // Equal texts get equal ranks, so ties still fall back to the next key
+    private int[] rankText(int column) {
+        String[] texts = new String[modelRowCount];
+        for (int row = 0; row < modelRowCount; row++) {
+            texts[row] = text(model.getTaskAt(row), column);
+        }
+        return denseRanks(modelRowCount, row -> texts[row]);
+    }
+
+    private static int[] denseRanks(int count, IntFunction<String> text) {
+        Integer[] order = new Integer[count];
+        Arrays.setAll(order, i -> i);
+        Arrays.parallelSort(order, (a, b) -> TEXT_ORDER.compare(text.apply(a), text.apply(b)));
+        int[] ranks = new int[count];
+        int rank = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && TEXT_ORDER.compare(text.apply(order[i - 1]), text.apply(order[i])) != 0) {
+                rank++;
+            }
+            ranks[order[i]] = rank;
+        }
+        return ranks;
+    }
+
+    // Categories and members are few; their ranks are redone when new ones appear
+    private void rankNames() {
+        int categories = Category.count();
+        if (categoryRanks.length != categories) {
+            categoryRanks = denseRanks(categories, id -> Category.byId(id).getName());
+        }
+        int members = GroupMember.count();
+        if (memberRanks.length != members) {
+            memberRanks = denseRanks(members, id -> GroupMember.byId(id).getName());
+        }
+    }
+
+    private static int key(Task task, int column) {
+        switch (column) {
+            case CATEGORY:
+                return task.getCategory() == null ? NO_KEY : task.getCategory().getId();
+            case 3:
+                LocalDate due = task.getDueDate();
+                return due == null ? NO_KEY : (int) due.toEpochDay();
+            case 4:
+                return Priority.values().length - 1 - task.getPriority().ordinal();
+            case 5:
+                return task.getStatus().ordinal();
+            case MEMBER:
+                return task.getAssignedTo() == null ? NO_KEY : task.getAssignedTo().getId();
+            case 7:
+                return task.getProgressPercent();
+            default:
+                throw new IllegalArgumentException("Not a key column: " + column);
+        }
+    }
+
+    private int sortValue(int column, int key) {
+        if (key == NO_KEY) {
+            return NO_KEY;
+        }
+        if (column == CATEGORY) {
+            return categoryRanks[key];
+        }
+        return column == MEMBER ? memberRanks[key] : key;
+    }
+
+    private static String text(Task task, int column) {
+        String text = column == TITLE ? task.getTitle() : task.getDescription();
+        return text == null ? "" : text;
+    }
+
+    // --- Incremental upkeep ---
+
+    // Moves one changed row to where it now belongs; true if the view changed
+    private boolean reposition(int row, Task task) {
+        if (viewToModel == null) {
+            return false;
+        }
+        int view = modelToView[row];
+        boolean shown = filter.test(task);
+        rankNames(); // the task may have a category or member created since the last sort
+        if (view < 0 ? !shown : shown && inPlace(view)) {
+            return false; // still hidden, or still between its neighbours
+        }
+        if (view >= 0) {
+            System.arraycopy(viewToModel, view + 1, viewToModel, view, viewRowCount - view - 1);
+            viewRowCount--;
+            modelToView[row] = -1;
+        }
+        if (!shown) {
+            rebuildModelToView(view);
+            return true;
+        }
+        int target = insertView(row);
+        if (view >= 0) {
+            rebuildModelToView(Math.min(view, target), Math.max(view, target) + 1); // only that range moved
+        } else {
+            rebuildModelToView(target);
+        }
+        return true;
+    }
+
+    private boolean inPlace(int view) {
+        int row = viewToModel[view];
+        return (view == 0 || compare(viewToModel[view - 1], row) < 0)
+                && (view == viewRowCount - 1 || compare(row, viewToModel[view + 1]) < 0);
+    }
+
+    // Binary insertion of a row that is not in the view; returns its view index, callers fix modelToView
+    private int insertView(int row) {
+        int low = 0;
+        int high = viewRowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(viewToModel[middle], row) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (viewRowCount == viewToModel.length) {
+            viewToModel = Arrays.copyOf(viewToModel, Math.max(16, viewRowCount + (viewRowCount >> 1)));
+        }
+        System.arraycopy(viewToModel, low, viewToModel, low + 1, viewRowCount - low);
+        viewToModel[low] = row;
+        viewRowCount++;
+        return low;
+    }
+
+    // The order of the full sort: the sort keys, then the ranking, then model order
+    private int compare(int rowA, int rowB) {
+        Task a = model.getTaskAt(rowA);
+        Task b = model.getTaskAt(rowB);
+        for (SortKey key : sortKeys) {
+            if (key.getSortOrder() == SortOrder.UNSORTED) {
+                continue;
+            }
+            int column = key.getColumn();
+            int result = column == TITLE || column == DESCRIPTION
+                    ? Integer.signum(TEXT_ORDER.compare(text(a, column), text(b, column)))
+                    : Integer.compare(sortValue(column, key(a, column)), sortValue(column, key(b, column)));
+            if (result != 0) {
+                return key.getSortOrder() == SortOrder.DESCENDING ? -result : result;
+            }
+        }
+        if (ranking != null) {
+            int result = Integer.compare(ranking.applyAsInt(a), ranking.applyAsInt(b));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(rowA, rowB);
+    }
+
+    private void rebuildModelToView(int fromView) {
+        rebuildModelToView(fromView, viewRowCount);
+    }
+
+    private void rebuildModelToView(int fromView, int toView) {
+        for (int view = fromView; view < toView; view++) {
+            modelToView[viewToModel[view]] = view;
+        }
+    }
+
+    // The current order, for listeners that map a selection across a re-sort
+    private int[] previousViewToModel() {
+        if (viewToModel == null) {
+            int[] identity = new int[modelRowCount];
+            Arrays.setAll(identity, i -> i);
+            return identity;
+        }
+        return Arrays.copyOf(viewToModel, viewRowCount);
+    }
+}
@@ -0,0 +1,490 @@
+package todolist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import todolist.TaskProtocol.Mutation;
+import todolist.TaskProtocol.MutationResult;
+
+/**
+ * Headless server that hosts one board and serves it to {@link TaskClient}s
+ * over localhost sockets using {@link TaskProtocol}.
+ * <p>
+ * Every connection is handled by its own virtual thread. Reads are answered
+ * straight from the repository's published records without waiting for
+ * anything; each batch of mutations is applied in one turn of the
+ * repository's writer thread, which is where the repository, the journal
+ * and every other listener expect changes to happen. A standalone server
+ * ({@link #main}) gives its board a {@link WriterThread} of its own, so
+ * it never touches the AWT event queue. Responses are buffered and only
+ * flushed once the client has no further pipelined requests waiting.
+ * <p>
+ * A connection that subscribes gets the board's {@link ChangeFeed} pushed
+ * by a second virtual thread. Pushes queue up to {@link #MAX_PUSH_BACKLOG}
+ * frames; a client that falls further behind is told to resubscribe, so a
+ * slow reader never holds up the writer thread or the other clients.
+ */
+public class TaskServer implements Closeable {
+    private static final Logger LOG = Logger.getLogger(TaskServer.class.getName());
+
+    public static final int DEFAULT_PORT = 7531;
+    private static final int BUFFER_SIZE = 1 << 16;
+    static final int MAX_PUSH_BACKLOG = 1024;
+
+    private final TaskRepository repository;
+    private final ChangeFeed feed;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private Thread acceptor;
+
+    /** Binds to the loopback interface; port 0 picks a free port. */
+    public TaskServer(TaskRepository repository, int port) throws IOException {
+        this.repository = repository;
+        this.feed = new ChangeFeed(repository);
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+    }
+
+    public ChangeFeed getFeed() {
+        return feed;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public synchronized void start() {
+        if (acceptor == null) {
+            acceptor = Thread.ofVirtual().name("task-server-acceptor").start(this::acceptLoop);
+        }
+    }
+
+    @Override
+    public void close() {
+        repository.removeListener(feed);
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Closing server socket", e);
+        }
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread.ofVirtual()
+                        .name("task-server-connection-" + connectionCount.incrementAndGet())
+                        .start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOG.log(Level.WARNING, "Accepting a connection failed", e);
+                }
+            }
+        }
+    }
+
+    // --- One connection ---
+
+    private void serve(Socket socket) {
+        FeedPusher[] pusher = new FeedPusher[1];
+        // Shared with the pusher; a Lock rather than a monitor so blocked writers never pin a carrier thread
+        Lock writeLock = new ReentrantLock();
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE))) {
+            if (in.readInt() != TaskProtocol.MAGIC || in.readInt() != TaskProtocol.VERSION) {
+                LOG.warning("Rejected a connection with a bad handshake from " + socket.getRemoteSocketAddress());
+                return;
+            }
+            out.writeInt(TaskProtocol.MAGIC);
+            out.writeInt(TaskProtocol.VERSION);
+            out.flush();
+            while (true) {
+                int requestId;
+                try {
+                    requestId = in.readInt();
+                } catch (EOFException e) {
+                    return; // client hung up between requests
+                }
+                byte op = in.readByte();
+                // Batches wait for the writer thread, so they are applied before taking the output lock
+                List<MutationResult> results = op == TaskProtocol.BATCH ? apply(readBatch(in)) : null;
+                writeLock.lock();
+                try {
+                    if (op == TaskProtocol.SUBSCRIBE) {
+                        subscribe(requestId, in.readLong(), out, writeLock, pusher);
+                    } else if (results != null) {
+                        respond(out, requestId, TaskProtocol.OK);
+                        out.writeInt(results.size());
+                        for (MutationResult result : results) {
+                            result.write(out);
+                        }
+                    } else {
+                        handle(requestId, op, in, out);
+                    }
+                    // Answer a whole pipeline of requests with one write
+                    if (in.available() == 0) {
+                        out.flush();
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        } catch (SocketException e) {
+            LOG.log(Level.FINE, "Connection closed", e);
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Dropping connection " + socket.getRemoteSocketAddress(), e);
+        } finally {
+            connections.remove(socket);
+            if (pusher[0] != null) {
+                pusher[0].stop();
+            }
+        }
+    }
+
+    // A connection has at most one subscription; subscribing again replaces it
+    private void subscribe(int requestId, long afterSequence, DataOutputStream out, Lock writeLock, FeedPusher[] pusher) throws IOException {
+        if (pusher[0] != null) {
+            pusher[0].stop();
+        }
+        pusher[0] = new FeedPusher(out, writeLock);
+        boolean resumed = feed.subscribe(afterSequence, pusher[0]);
+        respond(out, requestId, TaskProtocol.OK);
+        out.writeBoolean(resumed);
+    }
+
+    // Streams one connection's subscription from a bounded queue
+    private final class FeedPusher implements ChangeFeed.Subscriber {
+        private final Object reset = new Object();
+        private final DataOutputStream out;
+        private final Lock writeLock;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(MAX_PUSH_BACKLOG + 1);
+        private final Thread thread;
+
+        FeedPusher(DataOutputStream out, Lock writeLock) {
+            this.out = out;
+            this.writeLock = writeLock;
+            this.thread = Thread.ofVirtual().name("task-server-pusher").start(this::pushLoop);
+        }
+
+        @Override
+        public void onChanges(List<ChangeFeed.Change> changes) {
+            offer(changes);
+        }
+
+        @Override
+        public void onSnapshot(ChangeFeed.Snapshot snapshot) {
+            offer(snapshot);
+        }
+
+        // Called with the feed locked, so this must never block
+        private void offer(Object frame) {
+            if (queue.size() >= MAX_PUSH_BACKLOG || !queue.offer(frame)) {
+                feed.unsubscribe(this);
+                queue.clear();
+                queue.offer(reset);
+            }
+        }
+
+        void stop() {
+            feed.unsubscribe(this);
+            thread.interrupt();
+        }
+
+        private void pushLoop() {
+            try {
+                while (true) {
+                    Object frame = queue.take();
+                    writeLock.lock();
+                    try {
+                        out.writeInt(TaskProtocol.PUSH_ID);
+                        if (frame == reset) {
+                            out.writeByte(TaskProtocol.PUSH_RESET);
+                            out.flush();
+                            return;
+                        } else if (frame instanceof ChangeFeed.Snapshot snapshot) {
+                            out.writeByte(TaskProtocol.PUSH_SNAPSHOT);
+                            snapshot.write(out);
+                        } else {
+                            @SuppressWarnings("unchecked")
+                            List<ChangeFeed.Change> changes = (List<ChangeFeed.Change>) frame;
+                            out.writeByte(TaskProtocol.PUSH_CHANGES);
+                            out.writeInt(changes.size());
+                            for (ChangeFeed.Change change : changes) {
+                                change.write(out);
+                            }
+                        }
+                        if (queue.isEmpty()) {
+                            out.flush();
+                        }
+                    } finally {
+                        writeLock.unlock();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // connection closed or subscription replaced
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Push failed", e);
+                feed.unsubscribe(this);
+            }
+        }
+    }
+
+    private void handle(int requestId, byte op, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (op) {
+            case TaskProtocol.PING -> respond(out, requestId, TaskProtocol.OK);
+            case TaskProtocol.GET_TASK -> {
+                TaskRecord task = repository.getRecord(in.readLong());
+                if (task == null) {
+                    respond(out, requestId, TaskProtocol.NOT_FOUND);
+                } else {
+                    respond(out, requestId, TaskProtocol.OK);
+                    task.write(out);
+                }
+            }
+            case TaskProtocol.LIST_TASKS -> {
+                List<TaskRecord> tasks = new ArrayList<>(repository.getRecords());
+                respond(out, requestId, TaskProtocol.OK);
+                out.writeInt(tasks.size());
+                for (TaskRecord task : tasks) {
+                    task.write(out);
+                }
+            }
+            case TaskProtocol.LIST_CATEGORIES -> {
+                List<Category> categories = new ArrayList<>(repository.getCategories());
+                respond(out, requestId, TaskProtocol.OK);
+                out.writeInt(categories.size());
+                for (Category category : categories) {
+                    TaskRecord.writeString(out, category.getName());
+                }
+            }
+            case TaskProtocol.LIST_MEMBERS -> {
+                List<GroupMember> members = new ArrayList<>(repository.getMembers());
+                respond(out, requestId, TaskProtocol.OK);
+                out.writeInt(members.size());
+                for (GroupMember member : members) {
+                    TaskRecord.writeString(out, member.getName());
+                    out.writeBoolean(member instanceof GroupLeader);
+                }
+            }
+            default -> throw new IOException("Unknown request op " + op);
+        }
+    }
+
+    private static List<Mutation> readBatch(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > TaskProtocol.MAX_BATCH) {
+            throw new IOException("Batch of " + count + " mutations exceeds " + TaskProtocol.MAX_BATCH);
+        }
+        List<Mutation> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(Mutation.read(in));
+        }
+        return batch;
+    }
+
+    private static void respond(DataOutputStream out, int requestId, byte status) throws IOException {
+        out.writeInt(requestId);
+        out.writeByte(status);
+    }
+
+    // --- Mutations (writer thread) ---
+
+    /** Applies a batch in one turn of the writer thread; each mutation succeeds or fails on its own. */
+    List<MutationResult> apply(List<Mutation> batch) {
+        List<MutationResult> results = new ArrayList<>(batch.size());
+        repository.invokeAndWait(() -> {
+            Map<String, Category> categories = new HashMap<>();
+            for (Category category : repository.getCategories()) {
+                categories.put(category.getName(), category);
+            }
+            Map<String, GroupMember> members = new HashMap<>();
+            for (GroupMember member : repository.getMembers()) {
+                members.put(member.getName(), member);
+            }
+            for (Mutation mutation : batch) {
+                results.add(apply(mutation, categories, members));
+            }
+        });
+        return results;
+    }
+
+    private MutationResult apply(Mutation mutation, Map<String, Category> categories, Map<String, GroupMember> members) {
+        switch (mutation.kind()) {
+            case TaskProtocol.PUT_TASK:
+                return putTask(mutation.task(), categories, members);
+            case TaskProtocol.REMOVE_TASK: {
+                Task task = repository.getTask(mutation.id());
+                if (task == null) {
+                    return result(TaskProtocol.NOT_FOUND, mutation.id(), 0, "No task " + mutation.id());
+                }
+                if (mutation.expectedVersion() != TaskProtocol.ANY_VERSION && mutation.expectedVersion() != task.getVersion()) {
+                    return result(TaskProtocol.STALE, task.getId(), task.getVersion(), "Task was changed by someone else");
+                }
+                repository.remove(task);
+                return result(TaskProtocol.OK, task.getId(), task.getVersion(), null);
+            }
+            case TaskProtocol.ADD_CATEGORY: {
+                Category category = Category.of(mutation.name());
+                if (!repository.addCategory(category)) {
+                    return result(TaskProtocol.CONFLICT, 0, 0, "Category exists: " + mutation.name());
+                }
+                categories.put(category.getName(), category);
+                return result(TaskProtocol.OK, 0, 0, null);
+            }
+            case TaskProtocol.REMOVE_CATEGORY: {
+                Category category = categories.get(mutation.name());
+                if (category == null) {
+                    return result(TaskProtocol.NOT_FOUND, 0, 0, "No category " + mutation.name());
+                }
+                if (repository.isCategoryInUse(category)) {
+                    return result(TaskProtocol.CONFLICT, 0, 0, "Category is in use: " + mutation.name());
+                }
+                repository.removeCategory(category);
+                categories.remove(category.getName());
+                return result(TaskProtocol.OK, 0, 0, null);
+            }
+            case TaskProtocol.ADD_MEMBER: {
+                // Clients name assignees only, so a leader and a member may not share a name
+                GroupMember member = GroupMember.of(mutation.name(), mutation.leader());
+                if (members.containsKey(member.getName()) || !repository.addMember(member)) {
+                    return result(TaskProtocol.CONFLICT, 0, 0, "Member exists: " + mutation.name());
+                }
+                members.put(member.getName(), member);
+                return result(TaskProtocol.OK, 0, 0, null);
+            }
+            case TaskProtocol.REMOVE_MEMBER: {
+                GroupMember member = members.get(mutation.name());
+                if (member == null) {
+                    return result(TaskProtocol.NOT_FOUND, 0, 0, "No member " + mutation.name());
+                }
+                if (repository.isMemberInUse(member)) {
+                    return result(TaskProtocol.CONFLICT, 0, 0, "Member has tasks: " + mutation.name());
+                }
+                repository.removeMember(member);
+                members.remove(member.getName());
+                return result(TaskProtocol.OK, 0, 0, null);
+            }
+            default:
+                return result(TaskProtocol.ERROR, 0, 0, "Unknown mutation kind " + mutation.kind());
+        }
+    }
+
+    private MutationResult putTask(TaskRecord record, Map<String, Category> categories, Map<String, GroupMember> members) {
+        if (record.title() == null || record.title().trim().isEmpty()) {
+            return result(TaskProtocol.ERROR, record.id(), 0, "Title cannot be empty");
+        }
+        if (record.progressPercent() < 0 || record.progressPercent() > 100) {
+            return result(TaskProtocol.ERROR, record.id(), 0, "Progress must be between 0 and 100");
+        }
+        Category category = categories.get(record.category());
+        if (category == null) {
+            return result(TaskProtocol.ERROR, record.id(), 0, "Unknown category: " + record.category());
+        }
+        GroupMember member = record.assignedTo() == null ? null : members.get(record.assignedTo());
+        if (record.assignedTo() != null && member == null) {
+            return result(TaskProtocol.ERROR, record.id(), 0, "Unknown member: " + record.assignedTo());
+        }
+
+        if (record.id() == 0) {
+            Task task = new Task(record.title(), record.description(), record.dueDate(), record.priority(), category, member);
+            task.setStatus(record.status());
+            task.setProgressPercent(record.progressPercent());
+            repository.add(task);
+            return result(TaskProtocol.OK, task.getId(), task.getVersion(), null);
+        }
+        Task task = repository.getTask(record.id());
+        if (task == null) {
+            return result(TaskProtocol.NOT_FOUND, record.id(), 0, "No task " + record.id());
+        }
+        long expected = record.version() == TaskProtocol.ANY_VERSION ? task.getVersion() : record.version();
+        try {
+            repository.update(task, expected, t -> {
+                t.setTitle(record.title());
+                t.setDescription(record.description());
+                t.setDueDate(record.dueDate());
+                t.setPriority(record.priority());
+                t.setCategory(category);
+                t.setAssignedTo(member);
+                t.setStatus(record.status());
+                t.setProgressPercent(record.progressPercent());
+            });
+        } catch (StaleTaskException e) {
+            return result(TaskProtocol.STALE, task.getId(), task.getVersion(), e.getMessage());
+        }
+        return result(TaskProtocol.OK, task.getId(), task.getVersion(), null);
+    }
+
+    private static MutationResult result(byte status, long id, long version, String message) {
+        return new MutationResult(status, id, version, message);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Closing connection", e);
+        }
+    }
+
+    /**
+     * Runs a headless server for the board stored in the data directory
+     * ({@code -Dtodolist.dir}, default {@code ~/.todolist}).
+     * Usage: {@code TaskServer [port]}
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path directory = ToDoListApplicatonFrame.dataDirectory();
+        WriterThread writer = new WriterThread("task-server-writer");
+        TaskRepository repository = new TaskRepository(writer);
+        TaskJournal[] journal = new TaskJournal[1];
+        repository.invokeAndWait(() -> {
+            try {
+                journal[0] = TaskJournal.open(directory, repository);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not open board in " + directory, e);
+            }
+        });
+        TaskServer server = new TaskServer(repository, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            repository.invokeAndWait(journal[0]::close);
+            writer.close();
+        }, "task-server-shutdown"));
+        server.start();
+        LOG.info("Serving " + repository.size() + " tasks from " + directory + " on port " + server.getPort());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,117 @@
+package todolist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Something that can hand out tasks by row, a page at a time. The
+ * {@link TaskRepository} is one; a {@link SnapshotTaskSource} is another,
+ * and it is what a paged {@link TaskTableModel} shows.
+ * <p>
+ * Filtering and sorting a paged view is the source's job: {@link #select}
+ * returns the rows a {@link Query} shows, in its order, so the table only
+ * ever reads the pages it paints.
+ */
+public interface TaskSource {
+
+    int size();
+
+    /** Returns the tasks in rows {@code fromRow} (inclusive) to {@code toRow} (exclusive). */
+    List<Task> getTasks(int fromRow, int toRow);
+
+    /** Returns the tasks in rows {@code rows[from]} to {@code rows[to - 1]}, in that order. */
+    default List<Task> getTasks(int[] rows, int from, int to) {
+        List<Task> tasks = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            tasks.add(getTasks(rows[i], rows[i] + 1).get(0));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the rows that match {@code query}, sorted by its column, ties
+     * in row order. This default reads every task through
+     * {@link #getTasks(int, int)}, so it runs wherever that may be called;
+     * sources that hold columns override it.
+     */
+    default int[] select(Query query) {
+        int size = size();
+        List<Task> matched = new ArrayList<>();
+        int[] rows = new int[16];
+        for (int from = 0; from < size; from += Query.SCAN_PAGE) {
+            int to = Math.min(from + Query.SCAN_PAGE, size);
+            List<Task> page = getTasks(from, to);
+            for (int i = 0; i < page.size(); i++) {
+                if (query.matches(page.get(i))) {
+                    if (matched.size() == rows.length) {
+                        rows = Arrays.copyOf(rows, rows.length * 2);
+                    }
+                    rows[matched.size()] = from + i;
+                    matched.add(page.get(i));
+                }
+            }
+        }
+        Integer[] order = new Integer[matched.size()];
+        Arrays.setAll(order, i -> i);
+        if (query.sortColumn() >= 0) {
+            Comparator<Task> comparator = query.comparator();
+            Arrays.sort(order, (a, b) -> comparator.compare(matched.get(a), matched.get(b))); // stable
+        }
+        int[] selected = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            selected[i] = rows[order[i]];
+        }
+        return selected;
+    }
+
+    /**
+     * What a paged view shows: the tasks with the given status, priority,
+     * category name and assignee name (null for any), sorted by one
+     * {@link TaskTableModel} column (-1 for row order). Sorting follows
+     * {@link TaskRowSorter}: priority goes from LOW to HIGH, missing dates,
+     * categories and assignees come first, and text ignores case, then not.
+     */
+    record Query(Status status, Priority priority, String category, String member, int sortColumn, boolean descending) {
+        public static final Query ALL = new Query(null, null, null, null, -1, false);
+
+        static final int SCAN_PAGE = 4096;
+        static final Comparator<String> TEXT_ORDER =
+                String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+        public Query withSort(int column, boolean descending) {
+            return new Query(status, priority, category, member, column, descending);
+        }
+
+        public boolean matches(Task task) {
+            return (status == null || task.getStatus() == status)
+                    && (priority == null || task.getPriority() == priority)
+                    && (category == null || task.getCategory() != null && task.getCategory().getName().equals(category))
+                    && (member == null || task.getAssignedTo() != null && task.getAssignedTo().getName().equals(member));
+        }
+
+        /** Orders tasks by the sort column; only meaningful if there is one. */
+        public Comparator<Task> comparator() {
+            Comparator<Task> order;
+            switch (sortColumn) {
+                case 0: order = text(Task::getTitle); break;
+                case 1: order = text(Task::getDescription); break;
+                case 2: order = text(task -> task.getCategory() == null ? null : task.getCategory().getName()); break;
+                case 3: order = Comparator.comparing(Task::getDueDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder())); break;
+                case 4: order = Comparator.comparingInt(task -> -task.getPriority().ordinal()); break;
+                case 5: order = Comparator.comparingInt(task -> task.getStatus().ordinal()); break;
+                case 6: order = text(task -> task.getAssignedTo() == null ? null : task.getAssignedTo().getName()); break;
+                case 7: order = Comparator.comparingInt(Task::getProgressPercent); break;
+                default: throw new IllegalArgumentException("Not a sort column: " + sortColumn);
+            }
+            return descending ? order.reversed() : order;
+        }
+
+        private static Comparator<Task> text(Function<Task, String> field) {
+            return Comparator.comparing(field, Comparator.nullsFirst(TEXT_ORDER));
+        }
+    }
+}
@@ -1,49 +1,235 @@
-package todolist;
-
-import javax.swing.table.AbstractTableModel;
-import java.util.List;
-
-public class TaskTableModel extends AbstractTableModel {
-    private final List<Task> taskList;
-    // MODIFIED: Add new column names
-    private final String[] columnNames = {"Title", "Description", "Category", "Due Date", "Priority", "Status", "Assigned To", "Progress (%)"};
-
-    public TaskTableModel(List<Task> taskList) {
-        this.taskList = taskList;
-    }
-
-    @Override
-    public int getColumnCount() {
-        return columnNames.length;
-    }
-
-    @Override
-    public int getRowCount() {
-        return taskList.size();
-    }
-    
-    @Override
-    public String getColumnName(int column) {
-        return columnNames[column];
-    }
-
-    @Override
-    public Object getValueAt(int rowIndex, int columnIndex) {
-        Task task = taskList.get(rowIndex);
-        switch (columnIndex) {
-            case 0: return task.getTitle();
-            case 1: return task.getDescription();
-            case 2: return task.getCategory().getName();
-            case 3: return task.getDueDate();
-            case 4: return task.getPriority();
-            case 5: return task.getStatus();
-            // NEW: Cases for the new columns
-            case 6:
-                return (task.getAssignedTo() != null) ? task.getAssignedTo().getName() : "Unassigned";
-            case 7:
-                return task.getProgressPercent();
-            default:
-                return null;
-        }
-    }
-}
\ No newline at end of file
+package todolist;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TaskTableModel extends AbstractTableModel implements TaskRepositoryListener {
+    private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "task-page-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AppMetrics.Counter INSERT_EVENTS = AppMetrics.counter("table.events.insert");
+    private static final AppMetrics.Counter UPDATE_EVENTS = AppMetrics.counter("table.events.update");
+    private static final AppMetrics.Counter DELETE_EVENTS = AppMetrics.counter("table.events.delete");
+    private static final AppMetrics.Counter REFRESH_EVENTS = AppMetrics.counter("table.events.refresh");
+
+    private final TaskRepository repository; // null in paged mode
+    // MODIFIED: Add new column names
+    private final String[] columnNames = {"Title", "Description", "Category", "Due Date", "Priority", "Status", "Assigned To", "Progress (%)"};
+
+    // Rows edited since the last flush; several setter calls on the same
+    // task (or on neighbouring tasks) end up as one rowsUpdated event.
+    private final BitSet pendingUpdates = new BitSet();
+    private boolean flushScheduled;
+
+    // Paged mode: rows come from the source a page at a time and only the
+    // most recently used pages stay in memory
+    private final TaskSource source;
+    private final int pageSize;
+    private final Map<Integer, List<Task>> pages;
+    private final Set<Integer> prefetching = new HashSet<>();
+    private int[] rows; // source row of each model row; null for all rows in source order
+    private int lastPage = -1;
+    private int generation; // bumped by setRows, so stale prefetches are dropped
+
+    public TaskTableModel(TaskRepository repository) {
+        this.repository = repository;
+        this.source = repository;
+        this.pageSize = 0;
+        this.pages = null;
+        repository.addListener(this);
+    }
+
+    /**
+     * Creates a read-only paged model. {@code JTable} only asks for the rows
+     * it paints, so only the pages around the viewport are ever loaded; the
+     * page after (or before, when scrolling up) the current one is fetched
+     * in the background. {@code cachedPages} should cover at least a few
+     * screens of rows.
+     * <p>
+     * A {@code TableRowSorter} would touch every row; a paged model is
+     * filtered and sorted by the source instead, through {@link #setRows}.
+     */
+    public TaskTableModel(TaskSource source, int pageSize, int cachedPages) {
+        this.repository = null;
+        this.source = source;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(cachedPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Task>> eldest) {
+                return size() > cachedPages;
+            }
+        };
+    }
+
+    public boolean isPaged() {
+        return repository == null;
+    }
+
+    public TaskSource getSource() {
+        return source;
+    }
+
+    /**
+     * Shows only the given source rows, in that order, e.g. the result of
+     * {@link TaskSource#select}; null shows every row in source order.
+     * Paged mode only.
+     */
+    public void setRows(int[] rows) {
+        if (!isPaged()) {
+            throw new IllegalStateException("Only a paged model shows selected rows");
+        }
+        this.rows = rows;
+        pages.clear();
+        prefetching.clear();
+        lastPage = -1;
+        generation++;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows != null ? rows.length : source.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    public Task getTaskAt(int rowIndex) {
+        if (repository != null) {
+            return repository.getTaskAt(rowIndex);
+        }
+        int page = rowIndex / pageSize;
+        List<Task> tasks = pages.get(page);
+        if (tasks == null) {
+            tasks = loadPage(page, rows);
+            pages.put(page, tasks);
+        }
+        prefetchAfter(page);
+        return tasks.get(rowIndex - page * pageSize);
+    }
+
+    private List<Task> loadPage(int page, int[] rows) {
+        int from = page * pageSize;
+        return rows == null
+                ? source.getTasks(from, Math.min(from + pageSize, source.size()))
+                : source.getTasks(rows, from, Math.min(from + pageSize, rows.length));
+    }
+
+    // Loads the next page in the direction the user is scrolling
+    private void prefetchAfter(int page) {
+        if (page == lastPage) {
+            return;
+        }
+        int next = page > lastPage ? page + 1 : page - 1;
+        lastPage = page;
+        if (next < 0 || next * pageSize >= getRowCount() || pages.containsKey(next) || !prefetching.add(next)) {
+            return;
+        }
+        int[] selected = rows;
+        int expected = generation;
+        PREFETCHER.execute(() -> {
+            List<Task> tasks = loadPage(next, selected);
+            SwingUtilities.invokeLater(() -> {
+                if (generation == expected) {
+                    prefetching.remove(next);
+                    pages.put(next, tasks);
+                }
+            });
+        });
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Task task = getTaskAt(rowIndex);
+        switch (columnIndex) {
+            case 0: return task.getTitle();
+            case 1: return task.getDescription();
+            case 2: return task.getCategory() == null ? null : task.getCategory().getName();
+            case 3: return task.getDueDate();
+            case 4: return task.getPriority();
+            case 5: return task.getStatus();
+            // NEW: Cases for the new columns
+            case 6:
+                return (task.getAssignedTo() != null) ? task.getAssignedTo().getName() : "Unassigned";
+            case 7:
+                return task.getProgressPercent();
+            default:
+                return null;
+        }
+    }
+
+    // --- Repository events ---
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        flushUpdates();
+        fireTableRowsInserted(firstRow, lastRow);
+    }
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        pendingUpdates.set(row);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            SwingUtilities.invokeLater(this::flushUpdates);
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        flushUpdates();
+        // The repository moved the last task into the freed row
+        fireTableRowsDeleted(lastRow, lastRow);
+        if (row != lastRow) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    @Override
+    public void fireTableChanged(TableModelEvent e) {
+        if (e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getLastRow() == Integer.MAX_VALUE) {
+            REFRESH_EVENTS.increment();
+        } else if (e.getType() == TableModelEvent.INSERT) {
+            INSERT_EVENTS.increment();
+        } else if (e.getType() == TableModelEvent.DELETE) {
+            DELETE_EVENTS.increment();
+        } else {
+            UPDATE_EVENTS.increment();
+        }
+        super.fireTableChanged(e);
+    }
+
+    /**
+     * Fires one rowsUpdated event per contiguous run of edited rows. Called
+     * before any insert/delete so row indexes in pending events stay valid.
+     */
+    public void flushUpdates() {
+        flushScheduled = false;
+        int first = pendingUpdates.nextSetBit(0);
+        while (first >= 0) {
+            int end = pendingUpdates.nextClearBit(first);
+            fireTableRowsUpdated(first, end - 1);
+            first = pendingUpdates.nextSetBit(end);
+        }
+        pendingUpdates.clear();
+    }
+}
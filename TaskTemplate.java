@@ -0,0 +1,94 @@
+package todolist;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A task that recurs: the fields each occurrence starts with, and the rule
+ * for its due dates. Occurrence {@code n} (from 0) is due {@code n * every}
+ * days, weeks or months after {@code start}, and none is due after
+ * {@code until} if that is set. Months are counted from the start each
+ * time, so a template started on the 31st stays on the last day of shorter
+ * months without drifting.
+ */
+public record TaskTemplate(String title, String description, Priority priority, Category category,
+        GroupMember assignee, LocalDate start, int every, Unit unit, LocalDate until) {
+
+    public enum Unit {
+        DAYS("day"), WEEKS("week"), MONTHS("month");
+
+        private final String singular;
+
+        Unit(String singular) {
+            this.singular = singular;
+        }
+
+        @Override
+        public String toString() {
+            return singular + "s";
+        }
+    }
+
+    public TaskTemplate {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("A recurring task needs a title");
+        }
+        if (start == null || unit == null || priority == null) {
+            throw new IllegalArgumentException("A recurring task needs a start date, a unit and a priority");
+        }
+        if (every < 1) {
+            throw new IllegalArgumentException("A recurring task repeats at least every 1 " + unit.singular + ": " + every);
+        }
+        if (until != null && until.isBefore(start)) {
+            throw new IllegalArgumentException("A recurring task cannot end (" + until + ") before it starts (" + start + ")");
+        }
+    }
+
+    /** A template with the fields of {@code task}, starting on its due date, which it must have. */
+    public static TaskTemplate of(Task task, int every, Unit unit, LocalDate until) {
+        if (task.getDueDate() == null) {
+            throw new IllegalArgumentException("A recurring task needs a due date to start from");
+        }
+        return new TaskTemplate(task.getTitle(), task.getDescription(), task.getPriority(), task.getCategory(),
+                task.getAssignedTo(), task.getDueDate(), every, unit, until);
+    }
+
+    /** Due date of occurrence {@code n}. */
+    public LocalDate dueDate(long n) {
+        return switch (unit) {
+            case DAYS -> start.plusDays(n * every);
+            case WEEKS -> start.plusWeeks(n * every);
+            case MONTHS -> start.plusMonths(n * every);
+        };
+    }
+
+    /** Whether occurrence {@code n} is past the end of the template. */
+    public boolean isOver(long n) {
+        return until != null && dueDate(n).isAfter(until);
+    }
+
+    /** The first occurrence due on or after {@code day}. */
+    public long firstOccurrenceFrom(LocalDate day) {
+        if (!day.isAfter(start)) {
+            return 0;
+        }
+        ChronoUnit step = unit == Unit.MONTHS ? ChronoUnit.MONTHS : ChronoUnit.DAYS;
+        long length = unit == Unit.WEEKS ? 7L * every : every;
+        long n = Math.max(0, step.between(start, day) / length);
+        while (dueDate(n).isBefore(day)) {
+            n++;
+        }
+        return n;
+    }
+
+    /** A new, unsaved task for the occurrence due on {@code dueDate}. */
+    public Task newOccurrence(LocalDate dueDate) {
+        return new Task(title, description, dueDate, priority, category, assignee);
+    }
+
+    /** The rule in words, e.g. "every 2 weeks from 2024-05-06". */
+    public String describeRule() {
+        String rule = every == 1 ? "every " + unit.singular : "every " + every + " " + unit;
+        return rule + " from " + start + (until == null ? "" : " until " + until);
+    }
+}
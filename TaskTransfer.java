@@ -0,0 +1,432 @@
+package todolist;
+
+import javax.swing.SwingUtilities;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk import and export of tasks as CSV or JSON.
+ * <p>
+ * Import streams the file record by record. Records are cut into batches of
+ * {@link #BATCH_SIZE}, validated and date-parsed on a worker pool, and each
+ * batch is committed on the EDT with a single {@link TaskRepository#addAll}
+ * call, i.e. one table-model event per batch. Only a few batches are in
+ * flight at a time, so memory stays constant however large the file is.
+ * <p>
+ * Export of a repository reads its published records and never waits for
+ * the EDT; other task sources are read a page at a time on the EDT.
+ * <p>
+ * Both run on the calling (background) thread and only mutate the
+ * repository on the EDT.
+ */
+public class TaskTransfer {
+    /** Column / key names, in the order the record readers return values. */
+    public static final List<String> COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            "title", "description", "category", "dueDate", "priority", "status", "assignedTo", "progress"));
+
+    static final int BATCH_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    public enum Format {
+        CSV, JSON;
+
+        /** Picks the format from the file extension (JSON for ".json", CSV otherwise). */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    /** Source of records whose values are in {@link #COLUMNS} order. */
+    public interface RecordReader {
+        /** @return the next record, or null at the end of the input */
+        String[] next() throws IOException;
+
+        /** 1-based number of the record last returned, for error messages. */
+        int getRecordNumber();
+    }
+
+    /** Outcome of an import or export. */
+    public static final class Result {
+        private final int rows;
+        private final int rejected;
+        private final List<String> errors;
+        private final long elapsedNanos;
+
+        Result(int rows, int rejected, List<String> errors, long elapsedNanos) {
+            this.rows = rows;
+            this.rejected = rejected;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getRows() { return rows; }
+        public int getRejected() { return rejected; }
+        public List<String> getErrors() { return errors; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        public long getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (long) (rows * 1_000_000_000.0 / elapsedNanos);
+        }
+    }
+
+    // A validated record; category and member are still names
+    private static final class ParsedRow {
+        final String title, description, category, assignedTo;
+        final LocalDate dueDate;
+        final Priority priority;
+        final Status status;
+        final int progress;
+
+        ParsedRow(String[] values) {
+            title = values[0].trim();
+            description = values[1].trim();
+            category = values[2].trim();
+            dueDate = values[3].isBlank() ? null : LocalDate.parse(values[3].trim()); // export writes no date as ''
+            priority = values[4].isBlank() ? Priority.MEDIUM : parsePriority(values[4].trim());
+            status = values[5].isBlank() ? Status.NOT_STARTED : parseStatus(values[5].trim());
+            assignedTo = values[6].trim();
+            progress = values[7].isBlank() ? 0 : parseProgress(values[7].trim());
+            if (title.isEmpty()) {
+                throw new IllegalArgumentException("Title cannot be empty");
+            }
+            if (category.isEmpty()) {
+                throw new IllegalArgumentException("Category cannot be empty");
+            }
+            if (progress < 0 || progress > 100) {
+                throw new IllegalArgumentException("Progress must be between 0 and 100");
+            }
+        }
+    }
+
+    // Result of validating one batch on a worker
+    private static final class Batch {
+        final List<ParsedRow> rows = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        int rejected;
+    }
+
+    // --- Import ---
+
+    public static Result importFile(Path file, TaskRepository repository) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RecordReader records = Format.of(file) == Format.JSON ? new JsonRecordReader(in) : new CsvRecordReader(in);
+            return importRecords(records, repository);
+        }
+    }
+
+    public static Result importRecords(RecordReader records, TaskRepository repository) throws IOException {
+        long start = System.nanoTime();
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "task-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<Batch>> inFlight = new ArrayDeque<>();
+        int[] imported = {0};
+        int rejected = 0;
+        List<String> errors = new ArrayList<>();
+        try {
+            while (true) {
+                List<String[]> chunk = new ArrayList<>(BATCH_SIZE);
+                int firstRecord = records.getRecordNumber() + 1;
+                String[] values;
+                while (chunk.size() < BATCH_SIZE && (values = records.next()) != null) {
+                    chunk.add(values);
+                }
+                if (!chunk.isEmpty()) {
+                    inFlight.add(pool.submit(() -> validate(chunk, firstRecord)));
+                }
+                // Commit in file order, keeping at most two batches per worker in memory
+                boolean endOfInput = chunk.size() < BATCH_SIZE;
+                while (!inFlight.isEmpty() && (endOfInput || inFlight.size() >= workers * 2)) {
+                    Batch batch = inFlight.removeFirst().get();
+                    rejected += batch.rejected;
+                    for (String error : batch.errors) {
+                        if (errors.size() < MAX_REPORTED_ERRORS) {
+                            errors.add(error);
+                        }
+                    }
+                    onEdt(() -> imported[0] += commit(batch.rows, repository));
+                }
+                if (endOfInput) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Result(imported[0], rejected, errors, System.nanoTime() - start);
+    }
+
+    private static Batch validate(List<String[]> chunk, int firstRecord) {
+        Batch batch = new Batch();
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                batch.rows.add(new ParsedRow(chunk.get(i)));
+            } catch (DateTimeParseException e) {
+                reject(batch, firstRecord + i, "Invalid due date '" + e.getParsedString() + "', use YYYY-MM-DD");
+            } catch (IllegalArgumentException e) {
+                reject(batch, firstRecord + i, e.getMessage());
+            }
+        }
+        return batch;
+    }
+
+    private static void reject(Batch batch, int record, String message) {
+        batch.rejected++;
+        batch.errors.add("Record " + record + ": " + message);
+    }
+
+    // EDT: resolves names (adding unknown categories and members) and adds the batch
+    private static int commit(List<ParsedRow> rows, TaskRepository repository) {
+        Map<String, Category> categories = new HashMap<>();
+        repository.getCategories().forEach(c -> categories.put(c.getName(), c));
+        Map<String, GroupMember> members = new HashMap<>();
+        repository.getMembers().forEach(m -> members.put(m.getName(), m));
+
+        List<Task> tasks = new ArrayList<>(rows.size());
+        for (ParsedRow row : rows) {
+            Category category = categories.computeIfAbsent(row.category, name -> {
+                Category created = Category.of(name);
+                repository.addCategory(created);
+                return created;
+            });
+            GroupMember member = row.assignedTo.isEmpty() ? null : members.computeIfAbsent(row.assignedTo, name -> {
+                GroupMember created = GroupMember.of(name);
+                repository.addMember(created);
+                return created;
+            });
+            Task task = new Task(row.title, row.description, row.dueDate, row.priority, category, member);
+            task.setStatus(row.status);
+            task.setProgressPercent(row.progress);
+            tasks.add(task);
+        }
+        repository.addAll(tasks);
+        return tasks.size();
+    }
+
+    private static Priority parsePriority(String text) {
+        for (Priority priority : Priority.values()) {
+            if (priority.name().equalsIgnoreCase(text)) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Unknown priority '" + text + "'");
+    }
+
+    private static int parseProgress(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Progress '" + text + "' is not a number");
+        }
+    }
+
+    private static Status parseStatus(String text) {
+        for (Status status : Status.values()) {
+            if (status.name().equalsIgnoreCase(text) || status.toString().equalsIgnoreCase(text)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status '" + text + "'");
+    }
+
+    // --- Export ---
+
+    /**
+     * Exports a repository's tasks in row order, as they stood at one moment.
+     * The published records are gathered in one turn of the writer thread,
+     * a lookup per task, and written out on the calling thread, so a large
+     * export holds up the UI only for the copy.
+     */
+    public static Result exportFile(TaskRepository repository, Path file) throws IOException {
+        long start = System.nanoTime();
+        Format format = Format.of(file);
+        List<TaskRecord> records = snapshot(repository);
+        int rows;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeHeader(out, format);
+            rows = writeRecords(out, format, records, 0);
+            writeFooter(out, format);
+        }
+        return new Result(rows, 0, Collections.emptyList(), System.nanoTime() - start);
+    }
+
+    // The published record of every task, in row order, copied in one writer-thread turn
+    static List<TaskRecord> snapshot(TaskRepository repository) {
+        TaskRecord[][] records = new TaskRecord[1][];
+        repository.invokeAndWait(() -> {
+            List<Task> tasks = repository.getTasks();
+            TaskRecord[] copy = new TaskRecord[tasks.size()];
+            for (int row = 0; row < copy.length; row++) {
+                Task task = tasks.get(row);
+                TaskRecord record = repository.getRecord(task.getId());
+                copy[row] = record != null ? record : TaskRecord.of(task);
+            }
+            records[0] = copy;
+        });
+        return Arrays.asList(records[0]);
+    }
+
+    public static Result exportFile(TaskSource source, Path file) throws IOException {
+        long start = System.nanoTime();
+        Format format = Format.of(file);
+        int rows = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeHeader(out, format);
+            int[] size = new int[1];
+            onEdt(() -> size[0] = source.size());
+            for (int from = 0; from < size[0]; from += BATCH_SIZE) {
+                int pageStart = from;
+                List<TaskRecord> page = new ArrayList<>(BATCH_SIZE);
+                // Copy one page on the EDT, then write it out here
+                onEdt(() -> {
+                    int to = Math.min(pageStart + BATCH_SIZE, source.size());
+                    for (Task task : source.getTasks(Math.min(pageStart, to), to)) {
+                        page.add(TaskRecord.of(task));
+                    }
+                });
+                rows = writeRecords(out, format, page, rows);
+            }
+            writeFooter(out, format);
+        }
+        return new Result(rows, 0, Collections.emptyList(), System.nanoTime() - start);
+    }
+
+    private static void writeHeader(BufferedWriter out, Format format) throws IOException {
+        if (format == Format.CSV) {
+            out.write(String.join(",", COLUMNS));
+            out.write("\r\n");
+        } else {
+            out.write("[");
+        }
+    }
+
+    private static void writeFooter(BufferedWriter out, Format format) throws IOException {
+        if (format == Format.JSON) {
+            out.write("\n]\n");
+        }
+    }
+
+    // Writes the records and returns the total number of rows written so far
+    private static int writeRecords(BufferedWriter out, Format format, Collection<TaskRecord> records, int rows) throws IOException {
+        for (TaskRecord task : records) {
+            if (format == Format.CSV) {
+                writeCsv(out, task);
+            } else {
+                out.write(rows == 0 ? "\n" : ",\n");
+                writeJson(out, task);
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    private static String[] values(TaskRecord task) {
+        return new String[] {
+                task.title(), task.description(), task.category(),
+                task.dueDate() == null ? "" : task.dueDate().toString(),
+                task.priority().name(), task.status().name(),
+                task.assignedTo() == null ? "" : task.assignedTo(),
+                Integer.toString(task.progressPercent())
+        };
+    }
+
+    private static void writeCsv(Writer out, TaskRecord task) throws IOException {
+        String[] values = values(task);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values[i] == null ? "" : values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    private static void writeJson(Writer out, TaskRecord task) throws IOException {
+        String[] values = values(task);
+        out.write("  {");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(", ");
+            }
+            out.write('"');
+            out.write(COLUMNS.get(i));
+            out.write("\": ");
+            if (i == 7) {
+                out.write(values[i]); // progress is a number
+                continue;
+            }
+            out.write('"');
+            String value = values[i] == null ? "" : values[i];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                    case '"': out.write("\\\""); break;
+                    case '\\': out.write("\\\\"); break;
+                    case '\n': out.write("\\n"); break;
+                    case '\r': out.write("\\r"); break;
+                    case '\t': out.write("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                }
+            }
+            out.write('"');
+        }
+        out.write('}');
+    }
+
+    static void onEdt(Runnable action) throws IOException {
+        if (SwingUtilities.isEventDispatchThread()) {
+            action.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(action);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (InvocationTargetException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+}
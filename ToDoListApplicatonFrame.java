@@ -1,476 +1,1438 @@
-package todolist;
-
-import javax.swing.*;
-import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.TableRowSorter;
-import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
-import java.util.List;
-import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
-public class ToDoListApplicatonFrame extends JFrame {
-
-    private final List<Task> taskList = new ArrayList<>();
-    private final List<Category> categoryList = new ArrayList<>();
-    private final List<GroupMember> memberList = new ArrayList<>();
-
-    private TaskTableModel tableModel;
-    private JTable taskTable;
-    private TableRowSorter<TaskTableModel> sorter;
-    private JComboBox<Category> categoryFilter;
-    private JComboBox<Object> statusFilter; // Changed to JComboBox<Object>
-
-    public ToDoListApplicatonFrame() {
-        setTitle("Project To-Do List");
-        setSize(1200, 700);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setLocationRelativeTo(null);
-
-        initializeData();
-        initUI();
-    }
-
-    private void initializeData() {
-        categoryList.addAll(Arrays.asList(new Category("GUI"), new Category("System Modeling"), new Category("Documentation"), new Category("Testing")));
-        memberList.add(new GroupLeader("Dr. Smith (Leader)"));
-        memberList.add(new GroupMember("Alice"));
-        memberList.add(new GroupMember("Bob"));
-
-        taskList.add(new Task("Design Main Frame", "Design layout using Swing.", LocalDate.now().plusDays(5), Priority.HIGH, categoryList.get(0), memberList.get(1)));
-        taskList.add(new Task("Create Class Diagram", "Draw UML class diagram.", LocalDate.now().plusDays(2), Priority.HIGH, categoryList.get(1), memberList.get(2)));
-        taskList.add(new Task("Write User Manual", "Document user features.", LocalDate.now().plusDays(10), Priority.MEDIUM, categoryList.get(2), memberList.get(1)));
-        taskList.add(new Task("Implement Button Listeners", "Add listeners to UI buttons.", LocalDate.now().plusDays(7), Priority.MEDIUM, categoryList.get(0), null));
-
-        taskList.get(0).setProgressPercent(50);
-        taskList.get(0).setStatus(Status.IN_PROGRESS);
-        taskList.get(2).setProgressPercent(100);
-        taskList.get(2).setStatus(Status.COMPLETED);
-    }
-
-    private void initUI() {
-        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
-        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        
-
-        JPanel controlPanel = new JPanel(new GridBagLayout());
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(5, 5, 5, 5);
-
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        buttonPanel.setBorder(BorderFactory.createTitledBorder("Management"));
-        JButton addButton = new JButton("Add Task");
-        addButton.addActionListener(e -> showTaskDialog(null));
-        JButton updateButton = new JButton("Update Task");
-        updateButton.addActionListener(e -> updateSelectedTask());
-        JButton deleteButton = new JButton("Delete Task");
-        deleteButton.addActionListener(e -> deleteSelectedTask());
-        JButton manageCategoriesButton = new JButton("Manage Categories");
-        manageCategoriesButton.addActionListener(e -> showManageCategoriesDialog());
-        JButton viewWorkloadButton = new JButton("View Workload");
-        JButton manageMembersButton = new JButton("Manage Members");
-        manageMembersButton.addActionListener(e -> showManageMembersDialog());
-        buttonPanel.add(manageMembersButton);
-        viewWorkloadButton.addActionListener(e -> showWorkloadDialog());
-        buttonPanel.add(addButton);
-        buttonPanel.add(updateButton);
-        buttonPanel.add(deleteButton);
-        buttonPanel.add(manageCategoriesButton);
-        buttonPanel.add(viewWorkloadButton);
-        gbc.gridx = 0; gbc.gridy = 0;
-        controlPanel.add(buttonPanel, gbc);
-
-        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        filterPanel.setBorder(BorderFactory.createTitledBorder("Filters"));
-        categoryFilter = new JComboBox<>();
-        
-        
-        // --- FIX 1: Update how the status filter is created ---
-        statusFilter = new JComboBox<>();
-        statusFilter.addItem("All");
-        for (Status status : Status.values()) {
-            statusFilter.addItem(status);
-        }
-        
-        updateCategoryComboBoxes();
-        filterPanel.add(new JLabel("Category:"));
-        filterPanel.add(categoryFilter);
-        filterPanel.add(new JLabel("Status:"));
-        filterPanel.add(statusFilter);
-        gbc.gridx = 1; gbc.gridy = 0; gbc.weightx = 1.0; gbc.anchor = GridBagConstraints.WEST;
-        controlPanel.add(filterPanel, gbc);
-
-        mainPanel.add(controlPanel, BorderLayout.NORTH);
-
-        tableModel = new TaskTableModel(taskList);
-        taskTable = new JTable(tableModel);
-        sorter = new TableRowSorter<>(tableModel);
-        taskTable.setRowSorter(sorter);
-        taskTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        taskTable.setRowHeight(25);
-        taskTable.getTableHeader().setFont(new Font("SansSerif", Font.BOLD, 14));
-        // Custom renderer to color rows
-        taskTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-                if (!isSelected) {
-                    int modelRow = table.convertRowIndexToModel(row);
-                    Task task = taskList.get(modelRow);
-
-                    // THIS IS THE LINE THAT MAKES COMPLETED TASKS GREEN
-                    if (task.getStatus() == Status.COMPLETED) {
-                        c.setBackground(new Color(220, 255, 220)); // Light green
-                    } 
-                    // This part handles other colors, like for high priority
-                    else if (task.getStatus() == Status.IN_PROGRESS) {
-                         c.setBackground(new Color(255, 255, 220)); // Light yellow
-                    }
-                    else {
-                        c.setBackground(table.getBackground()); // Default color
-                    }
-                }
-                return c;
-            }
-        });
-        mainPanel.add(new JScrollPane(taskTable), BorderLayout.CENTER);
-
-        Action applyFilters = new AbstractAction() {
-            @Override
-            public void actionPerformed(ActionEvent e) { applyTableFilters(); }
-        };
-        categoryFilter.addActionListener(applyFilters);
-        statusFilter.addActionListener(applyFilters);
-
-        add(mainPanel);
-    }
-
-    private void applyTableFilters() {
-        List<RowFilter<Object, Object>> filters = new ArrayList<>();
-        
-        // Category Filter (Column 2)
-        Object selectedCategory = categoryFilter.getSelectedItem();
-        if (selectedCategory instanceof Category && !"All".equalsIgnoreCase(((Category) selectedCategory).getName())) {
-            filters.add(RowFilter.regexFilter("^" + Pattern.quote(((Category) selectedCategory).getName()) + "$", 2));
-        }
-
-        // --- FIX 2: Update the status filter logic ---
-        Object selectedStatusItem = statusFilter.getSelectedItem();
-        if (selectedStatusItem instanceof Status) {
-            String statusDisplayName = selectedStatusItem.toString();
-            filters.add(RowFilter.regexFilter("^" + Pattern.quote(statusDisplayName) + "$", 5));
-        }
-        
-        sorter.setRowFilter(filters.isEmpty() ? null : RowFilter.andFilter(filters));
-    }
-
-    private void updateSelectedTask() {
-        int selectedRow = taskTable.getSelectedRow();
-        if (selectedRow >= 0) {
-            int modelIndex = taskTable.convertRowIndexToModel(selectedRow);
-            showTaskDialog(taskList.get(modelIndex));
-        } else {
-            JOptionPane.showMessageDialog(this, "Please select a task to update.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
-        }
-    }
-    
-    // Add this entire new method to your ToDoListApplicatonFrame class
-
-private void showManageMembersDialog() {
-    JDialog manageDialog = new JDialog(this, "Manage Group Members", true);
-    manageDialog.setSize(350, 400);
-    manageDialog.setLayout(new BorderLayout(10, 10));
-    manageDialog.setLocationRelativeTo(this);
-
-    // Create a list model to easily add/remove items from the display
-    DefaultListModel<GroupMember> listModel = new DefaultListModel<>();
-    memberList.forEach(listModel::addElement);
-
-    JList<GroupMember> memberJList = new JList<>(listModel);
-    memberJList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-    manageDialog.add(new JScrollPane(memberJList), BorderLayout.CENTER);
-
-    // --- Create Buttons ---
-    JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-    JButton addButton = new JButton("Add Member...");
-    JButton deleteButton = new JButton("Delete Selected");
-    JButton closeButton = new JButton("Close");
-
-    // --- "Add Member" Button Logic ---
-    addButton.addActionListener(e -> {
-        String name = JOptionPane.showInputDialog(manageDialog, "Enter new member's name:", "Add Member", JOptionPane.PLAIN_MESSAGE);
-        if (name != null && !name.trim().isEmpty()) {
-            GroupMember newMember = new GroupMember(name.trim());
-            if (!memberList.contains(newMember)) {
-                memberList.add(newMember); // Add to the main data list
-                listModel.addElement(newMember); // Add to the visual list in the dialog
-            } else {
-                JOptionPane.showMessageDialog(manageDialog, "This member already exists.", "Duplicate Member", JOptionPane.WARNING_MESSAGE);
-            }
-        }
-    });
-
-    // --- "Delete Selected" Button Logic ---
-    deleteButton.addActionListener(e -> {
-        GroupMember selectedMember = memberJList.getSelectedValue();
-        if (selectedMember == null) {
-            JOptionPane.showMessageDialog(manageDialog, "Please select a member to delete.", "Nothing Selected", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        // IMPORTANT: Safety check to see if the member is assigned to any tasks
-        boolean isMemberAssigned = taskList.stream()
-                .anyMatch(task -> selectedMember.equals(task.getAssignedTo()));
-
-        if (isMemberAssigned) {
-            JOptionPane.showMessageDialog(manageDialog, "Cannot delete '" + selectedMember.getName() + "'.\nThey are assigned to one or more tasks.", "Deletion Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        // Prevent deleting the leader
-        if (selectedMember instanceof GroupLeader) {
-             JOptionPane.showMessageDialog(manageDialog, "Cannot delete the group leader.", "Deletion Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Confirmation dialog
-        int choice = JOptionPane.showConfirmDialog(manageDialog, "Are you sure you want to delete '" + selectedMember.getName() + "'?", "Confirm Deletion", JOptionPane.YES_NO_OPTION);
-        if (choice == JOptionPane.YES_OPTION) {
-            memberList.remove(selectedMember); // Remove from the main data list
-            listModel.removeElement(selectedMember); // Remove from the visual list
-        }
-    });
-
-    // --- "Close" Button Logic ---
-    closeButton.addActionListener(e -> manageDialog.dispose());
-
-    buttonPanel.add(addButton);
-    buttonPanel.add(deleteButton);
-    buttonPanel.add(closeButton);
-    manageDialog.add(buttonPanel, BorderLayout.SOUTH);
-    manageDialog.setVisible(true);
-}
-
-    private void deleteSelectedTask() {
-        int selectedRow = taskTable.getSelectedRow();
-        if (selectedRow >= 0) {
-            int modelIndex = taskTable.convertRowIndexToModel(selectedRow);
-            int choice = JOptionPane.showConfirmDialog(this, "Delete this task?", "Confirm Deletion", JOptionPane.YES_NO_OPTION);
-            if (choice == JOptionPane.YES_OPTION) {
-                taskList.remove(modelIndex);
-                tableModel.fireTableDataChanged();
-            }
-        } else {
-            JOptionPane.showMessageDialog(this, "Please select a task to delete.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
-        }
-    }
-
-    private void showTaskDialog(Task taskToUpdate) {
-        JDialog dialog = new JDialog(this, taskToUpdate == null ? "Add Task" : "Update Task", true);
-        dialog.setSize(500, 600);
-        dialog.setLayout(new BorderLayout(10, 10));
-
-        JPanel formPanel = new JPanel(new GridBagLayout());
-        formPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-        
-        JTextField titleField = new JTextField(20);
-        JTextArea descArea = new JTextArea(5, 20);
-        JTextField dueDateField = new JTextField(10);
-        JComboBox<Priority> priorityBox = new JComboBox<>(Priority.values());
-        JComboBox<Category> categoryBox = new JComboBox<>(categoryList.toArray(new Category[0]));
-        JComboBox<Status> statusBox = new JComboBox<>(Status.values());
-        JComboBox<GroupMember> memberBox = new JComboBox<>(memberList.toArray(new GroupMember[0]));
-        JSpinner progressSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 100, 1));
-
-        int y = 0;
-        formPanel.add(new JLabel("Title:"), gbc(0, y)); formPanel.add(titleField, gbc(1, y++));
-        formPanel.add(new JLabel("Description:"), gbc(0, y)); formPanel.add(new JScrollPane(descArea), gbc(1, y++, true));
-        formPanel.add(new JLabel("Due Date (YYYY-MM-DD):"), gbc(0, y)); formPanel.add(dueDateField, gbc(1, y++));
-        formPanel.add(new JLabel("Priority:"), gbc(0, y)); formPanel.add(priorityBox, gbc(1, y++));
-        formPanel.add(new JLabel("Category:"), gbc(0, y)); formPanel.add(categoryBox, gbc(1, y++));
-        formPanel.add(new JLabel("Assigned To:"), gbc(0, y)); formPanel.add(memberBox, gbc(1, y++));
-        formPanel.add(new JLabel("Progress (%):"), gbc(0, y)); formPanel.add(progressSpinner, gbc(1, y++));
-
-        if (taskToUpdate != null) {
-            formPanel.add(new JLabel("Status:"), gbc(0, y)); formPanel.add(statusBox, gbc(1, y));
-        }
-
-        if (taskToUpdate != null) {
-            titleField.setText(taskToUpdate.getTitle());
-            descArea.setText(taskToUpdate.getDescription());
-            dueDateField.setText(taskToUpdate.getDueDate().toString());
-            priorityBox.setSelectedItem(taskToUpdate.getPriority());
-            categoryBox.setSelectedItem(taskToUpdate.getCategory());
-            statusBox.setSelectedItem(taskToUpdate.getStatus());
-            memberBox.setSelectedItem(taskToUpdate.getAssignedTo());
-            progressSpinner.setValue(taskToUpdate.getProgressPercent());
-        } else {
-            dueDateField.setText(LocalDate.now().toString());
-            memberBox.setSelectedItem(null);
-        }
-        
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        JButton saveButton = new JButton("Save");
-        saveButton.addActionListener(e -> {
-            try {
-                String title = titleField.getText().trim();
-                if (title.isEmpty()) {
-                    JOptionPane.showMessageDialog(dialog, "Title cannot be empty.", "Validation Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                
-                Task task = (taskToUpdate == null) ? new Task("", "", LocalDate.now(), Priority.LOW, categoryList.get(0), null) : taskToUpdate;
-                task.setTitle(title);
-                task.setDescription(descArea.getText().trim());
-                task.setDueDate(LocalDate.parse(dueDateField.getText().trim()));
-                task.setPriority((Priority) priorityBox.getSelectedItem());
-                task.setCategory((Category) categoryBox.getSelectedItem());
-                task.setAssignedTo((GroupMember) memberBox.getSelectedItem());
-                task.setProgressPercent((Integer) progressSpinner.getValue());
-                
-                if (taskToUpdate == null) {
-                    taskList.add(task);
-                } else {
-                    task.setStatus((Status) statusBox.getSelectedItem());
-                }
-                
-                tableModel.fireTableDataChanged();
-                dialog.dispose();
-            } catch (DateTimeParseException ex) {
-                JOptionPane.showMessageDialog(dialog, "Invalid date format. Use YYYY-MM-DD.", "Validation Error", JOptionPane.ERROR_MESSAGE);
-            }
-        });
-        buttonPanel.add(saveButton);
-        JButton cancelButton = new JButton("Cancel");
-        cancelButton.addActionListener(e -> dialog.dispose());
-        buttonPanel.add(cancelButton);
-
-        dialog.add(formPanel, BorderLayout.CENTER);
-        dialog.add(buttonPanel, BorderLayout.SOUTH);
-        dialog.setLocationRelativeTo(this);
-        dialog.setVisible(true);
-    }
-    
-    private GridBagConstraints gbc(int x, int y, boolean fillBoth) {
-        GridBagConstraints g = gbc(x, y);
-        if (fillBoth) {
-            g.fill = GridBagConstraints.BOTH;
-            g.weightx = 1.0;
-            g.weighty = 1.0;
-        }
-        return g;
-    }
-    private GridBagConstraints gbc(int x, int y) {
-        GridBagConstraints g = new GridBagConstraints();
-        g.gridx = x;
-        g.gridy = y;
-        g.insets = new Insets(5, 5, 5, 5);
-        g.anchor = GridBagConstraints.WEST;
-        g.fill = GridBagConstraints.HORIZONTAL;
-        if(x == 1) g.weightx = 1.0;
-        return g;
-    }
-
-    private void showWorkloadDialog() {
-        JDialog workloadDialog = new JDialog(this, "Member Workload", true);
-        workloadDialog.setSize(400, 300);
-        workloadDialog.setLocationRelativeTo(this);
-        
-        StringBuilder workloadText = new StringBuilder("Member Workload Summary:\n\n");
-        
-        Map<GroupMember, List<Task>> tasksByMember = taskList.stream()
-                .filter(task -> task.getAssignedTo() != null)
-                .collect(Collectors.groupingBy(Task::getAssignedTo));
-
-        for (GroupMember member : memberList) {
-            List<Task> assignedTasks = tasksByMember.getOrDefault(member, Collections.emptyList());
-            workloadText.append("▶ ").append(member.getName()).append(": ")
-                        .append(assignedTasks.size()).append(" task(s)\n");
-        }
-        
-        long unassignedCount = taskList.stream().filter(task -> task.getAssignedTo() == null).count();
-        workloadText.append("\n▶ Unassigned: ").append(unassignedCount).append(" task(s)");
-        
-        JTextArea textArea = new JTextArea(workloadText.toString());
-        textArea.setEditable(false);
-        textArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
-        textArea.setMargin(new Insets(10, 10, 10, 10));
-        
-        workloadDialog.add(new JScrollPane(textArea));
-        workloadDialog.setVisible(true);
-    }
-
-    private void showManageCategoriesDialog() {
-        JDialog manageDialog = new JDialog(this, "Manage Categories", true);
-        manageDialog.setSize(350, 400);
-        manageDialog.setLayout(new BorderLayout(10, 10));
-        manageDialog.setLocationRelativeTo(this);
-
-        DefaultListModel<Category> listModel = new DefaultListModel<>();
-        categoryList.forEach(listModel::addElement);
-        JList<Category> categoryJList = new JList<>(listModel);
-        manageDialog.add(new JScrollPane(categoryJList), BorderLayout.CENTER);
-
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-        JButton addButton = new JButton("Add...");
-        JButton deleteButton = new JButton("Delete");
-        JButton closeButton = new JButton("Close");
-
-        addButton.addActionListener(e -> {
-            String name = JOptionPane.showInputDialog(manageDialog, "Category Name:");
-            if (name != null && !name.trim().isEmpty()) {
-                Category newCategory = new Category(name.trim());
-                if (!categoryList.contains(newCategory)) {
-                    categoryList.add(newCategory);
-                    listModel.addElement(newCategory);
-                    updateCategoryComboBoxes();
-                } else {
-                    JOptionPane.showMessageDialog(manageDialog, "Category exists.", "Duplicate", JOptionPane.WARNING_MESSAGE);
-                }
-            }
-        });
-
-        deleteButton.addActionListener(e -> {
-            Category selected = categoryJList.getSelectedValue();
-            if (selected != null) {
-                boolean isUsed = taskList.stream().anyMatch(task -> selected.equals(task.getCategory()));
-                if (isUsed) {
-                    JOptionPane.showMessageDialog(manageDialog, "Cannot delete a category that is in use.", "Error", JOptionPane.ERROR_MESSAGE);
-                } else {
-                    categoryList.remove(selected);
-                    listModel.removeElement(selected);
-                    updateCategoryComboBoxes();
-                }
-            } else {
-                 JOptionPane.showMessageDialog(manageDialog, "Please select a category to delete.", "Nothing Selected", JOptionPane.WARNING_MESSAGE);
-            }
-        });
-        
-        closeButton.addActionListener(e -> manageDialog.dispose());
-        
-        buttonPanel.add(addButton);
-        buttonPanel.add(deleteButton);
-        buttonPanel.add(closeButton);
-        manageDialog.add(buttonPanel, BorderLayout.SOUTH);
-        manageDialog.setVisible(true);
-    }
-    
-    private void updateCategoryComboBoxes() {
-        Category selected = (Category) categoryFilter.getSelectedItem();
-        categoryFilter.removeAllItems();
-        categoryFilter.addItem(new Category("All"));
-        categoryList.forEach(categoryFilter::addItem);
-        if (selected != null) {
-            categoryFilter.setSelectedItem(selected);
-        }
-    }
-
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new ToDoListApplicatonFrame().setVisible(true));
-    }
+package todolist;
+
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+public class ToDoListApplicatonFrame extends JFrame {
+
+    private static final String UNASSIGNED = "Unassigned";
+    // First item of the category and assignee filters, so no real name has to stand for "any"
+    private static final Object ANY_FILTER = new Object() {
+        @Override
+        public String toString() {
+            return "All";
+        }
+    };
+
+    private static final AppMetrics.Histogram FILTER_TIME = AppMetrics.histogram("ui.filter");
+    private static final AppMetrics.Histogram SEARCH_TIME = AppMetrics.histogram("ui.search");
+    private static final AppMetrics.Histogram SAVE_TIME = AppMetrics.histogram("ui.saveTask");
+    private static final AppMetrics.Histogram DELETE_TIME = AppMetrics.histogram("ui.deleteTask");
+    private static final AppMetrics.Histogram TRANSFER_TIME = AppMetrics.histogram("ui.transfer");
+    private static final AppMetrics.Histogram SWITCH_TIME = AppMetrics.histogram("ui.switchBoard");
+    static final String TITLE = "Project To-Do List";
+
+    // The board on screen; the fields below always belong to it
+    private volatile BoardSession session;
+    private TaskRepository repository;
+    private BoardManager boards; // null for a remote board or when the boards could not be loaded
+    private final Map<BoardManager.Board, BoardSession> sessions = new HashMap<>();
+    private RemoteBoard remoteBoard;
+    private WorkloadService workloadService;
+    private DashboardAnalytics dashboard;
+    private SearchIndex searchIndex;
+    private DeadlineScheduler deadlineScheduler;
+    private TaskHistory history;
+    private DependencyGraph dependencies;
+    private final ModelExecutor executor = new ModelExecutor();
+
+    private TaskTableModel tableModel;
+    private JTable taskTable;
+    private TaskRowSorter sorter;
+    private JComboBox<Object> categoryFilter;
+    private JComboBox<Object> statusFilter; // Changed to JComboBox<Object>
+    private JComboBox<Object> priorityFilter;
+    private JComboBox<Object> assigneeFilter;
+    private JTextField dueFromFilter;
+    private JTextField dueToFilter;
+    private JSpinner minProgressFilter;
+    private JSpinner maxProgressFilter;
+    private JTextField searchField;
+    private Timer searchTimer;
+    private Map<Long, Integer> searchRanks; // rank by task id, best first; null = no search active
+    private boolean searchTyped; // the search text changed since the last results were shown
+    private JLabel deadlineLabel;
+    private JComboBox<String> boardSelector;
+    private JButton newBoardButton;
+    private boolean updatingFilters; // set while the filter boxes are refilled, so the table is filtered once
+
+    /** What the window keeps for one resident board, so that switching back to it is instant. */
+    private final class BoardSession {
+        final TaskRepository repository;
+        final WorkloadService workloadService;
+        final DashboardAnalytics dashboard;
+        final SearchIndex searchIndex;
+        final DeadlineScheduler deadlineScheduler;
+        final TaskHistory history;
+        final DependencyGraph dependencies;
+        final RecurringTasks recurring;
+        final TaskTableModel tableModel;
+        final TaskRowSorter sorter;
+        final TaskCellRenderer rowRenderer;
+        final ProgressCellRenderer progressRenderer;
+        final AtomicLongArray byStatus = new AtomicLongArray(Status.values().length);
+        boolean stale; // the sorter missed changes while another board was shown
+
+        // Recurring templates and prerequisites are saved with the board; null (a shared board) keeps them in memory
+        BoardSession(TaskRepository repository, BoardManager.Board board) {
+            this.repository = repository;
+            workloadService = new WorkloadService(repository);
+            dashboard = new DashboardAnalytics(repository);
+            searchIndex = new SearchIndex(repository);
+            deadlineScheduler = new DeadlineScheduler(repository);
+            history = new TaskHistory(repository);
+            dependencies = new DependencyGraph(repository);
+            tableModel = new TaskTableModel(repository);
+            sorter = new TaskRowSorter(tableModel);
+            // Custom renderer to color rows by status and flag overdue tasks
+            rowRenderer = new TaskCellRenderer(tableModel);
+            rowRenderer.setDependencyGraph(dependencies);
+            progressRenderer = new ProgressCellRenderer(rowRenderer);
+            // Changes are credited to the board member named by -Dtodolist.user, if any
+            String user = System.getProperty("todolist.user");
+            repository.getMembers().stream().filter(member -> member.getName().equals(user)).findFirst().ifPresent(history::setActor);
+
+            deadlineScheduler.addListener(deadlines -> {
+                if (session == this) {
+                    showDeadlines(deadlines);
+                }
+            });
+            dependencies.addListener(tasks -> {
+                if (session == this) {
+                    showBlockedTasks(tasks);
+                }
+            });
+            if (board != null) {
+                board.getJournal().followLinks(dependencies);
+                board.getJournal().addFailureListener(error -> showJournalFailure(board, error));
+            }
+            tableModel.addTableModelListener(e -> stale |= session != this);
+            repository.getTasks().forEach(task -> byStatus.incrementAndGet(task.getStatus().ordinal()));
+            repository.addListener(new TaskRepositoryListener() {
+                @Override
+                public void tasksAdded(int firstRow, int lastRow) {
+                    repository.getTasks().subList(firstRow, lastRow + 1)
+                            .forEach(task -> byStatus.incrementAndGet(task.getStatus().ordinal()));
+                    if (session == BoardSession.this) {
+                        refreshSearch(); // new tasks may match
+                    }
+                }
+
+                @Override
+                public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+                    if (field == TaskField.STATUS) {
+                        byStatus.decrementAndGet(((Status) oldValue).ordinal());
+                        byStatus.incrementAndGet(((Status) newValue).ordinal());
+                    } else if ((field == TaskField.TITLE || field == TaskField.DESCRIPTION) && session == BoardSession.this) {
+                        refreshSearch();
+                    }
+                }
+
+                @Override
+                public void taskRemoved(Task task, int row, int lastRow) {
+                    byStatus.decrementAndGet(task.getStatus().ordinal());
+                }
+
+                // Keep the filters in step with category/member changes, local or remote
+                @Override
+                public void categoryAdded(Category category) { updateFilterBoxes(); }
+
+                @Override
+                public void categoryRemoved(Category category) { updateFilterBoxes(); }
+
+                @Override
+                public void memberAdded(GroupMember member) { updateFilterBoxes(); }
+
+                @Override
+                public void memberRemoved(GroupMember member) { updateFilterBoxes(); }
+
+                private void updateFilterBoxes() {
+                    if (session == BoardSession.this) {
+                        updateCategoryComboBoxes();
+                        updateMemberComboBoxes();
+                    }
+                }
+            });
+            recurring = openRecurringTasks(repository, board != null ? board.getDirectory() : null, history);
+        }
+
+        // The repository and the other listeners go with the board; only timers need stopping
+        void stop() {
+            deadlineScheduler.stop();
+            dashboard.stop();
+            history.stop();
+            dependencies.stop();
+            recurring.stop();
+        }
+    }
+
+    private RecurringTasks openRecurringTasks(TaskRepository repository, Path directory, TaskHistory history) {
+        if (directory != null) {
+            try {
+                return RecurringTasks.open(directory, repository, history);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "Could not load the recurring tasks:\n" + e.getMessage() + "\n\nNew ones will not be saved this session.", "Load Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+        RecurringTasks recurring = new RecurringTasks(repository, null, RecurringTasks.DEFAULT_HORIZON_DAYS, Clock.systemDefaultZone());
+        recurring.setHistory(history);
+        return recurring;
+    }
+
+    public ToDoListApplicatonFrame() {
+        setTitle(TITLE);
+        setSize(1200, 700);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+
+        loadData();
+        BoardSession first = new BoardSession(repository, boards != null ? boards.getCurrent() : null);
+        if (remoteBoard != null) {
+            remoteBoard.setHistory(first.history);
+        }
+        if (boards != null) {
+            sessions.put(boards.getCurrent(), first);
+            setTitle(boardTitle(boards.getCurrent()));
+        }
+        showSession(first);
+        initUI();
+        registerMetrics();
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                executor.shutdown();
+                if (boards != null) {
+                    boards.close(); // Flush pending changes before exit
+                }
+                if (remoteBoard != null) {
+                    try {
+                        remoteBoard.close();
+                    } catch (IOException ex) {
+                        // exiting anyway
+                    }
+                }
+            }
+        });
+    }
+
+    // Loads the shared board (-Dtodolist.server=host:port) or the saved default board;
+    // falls back to the demo data on first start
+    private void loadData() {
+        String server = System.getProperty("todolist.server");
+        if (server != null) {
+            try {
+                int colon = server.lastIndexOf(':');
+                String host = colon < 0 ? server : server.substring(0, colon);
+                int port = colon < 0 ? TaskServer.DEFAULT_PORT : Integer.parseInt(server.substring(colon + 1));
+                repository = new TaskRepository();
+                remoteBoard = RemoteBoard.connect(host, port, repository);
+                remoteBoard.addListener(new RemoteBoard.RejectionListener() {
+                    @Override
+                    public void changesRejected(List<String> messages) {
+                        JOptionPane.showMessageDialog(ToDoListApplicatonFrame.this, String.join("\n", messages)
+                                + "\n\nThe board shows the saved version.", "Edit Conflict", JOptionPane.WARNING_MESSAGE);
+                    }
+
+                    @Override
+                    public void connectionLost(String message) {
+                        setTitle(getTitle() + " (disconnected)");
+                        JOptionPane.showMessageDialog(ToDoListApplicatonFrame.this, "Lost the connection to the server:\n" + message
+                                + "\n\nChanges made from now on are not saved. Restart to reconnect.", "Connection Lost", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+                setTitle(getTitle() + " - " + host + ":" + port);
+                return;
+            } catch (IOException | NumberFormatException e) {
+                JOptionPane.showMessageDialog(this, "Could not connect to " + server + ":\n" + e.getMessage() + "\n\nOpening the local board instead.", "Connection Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+        boards = BoardManager.fromSystemProperties(dataDirectory());
+        boards.addListener(new BoardManager.BoardListener() {
+            @Override
+            public void boardEvicted(BoardManager.Board board) {
+                BoardSession evicted = sessions.remove(board);
+                if (evicted != null) {
+                    evicted.stop();
+                }
+            }
+        });
+        try {
+            BoardManager.Board board = boards.open(BoardManager.DEFAULT_BOARD);
+            repository = board.getRepository();
+            if (!board.wasEmpty()) {
+                return;
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not load saved tasks:\n" + e.getMessage() + "\n\nChanges will not be saved this session.", "Load Error", JOptionPane.ERROR_MESSAGE);
+            boards = null;
+            repository = new TaskRepository();
+        }
+        initializeData();
+    }
+
+    // Points the window at a board; each board keeps its own sorter, so nothing is re-sorted
+    private void showSession(BoardSession next) {
+        session = next;
+        repository = next.repository;
+        workloadService = next.workloadService;
+        dashboard = next.dashboard;
+        searchIndex = next.searchIndex;
+        deadlineScheduler = next.deadlineScheduler;
+        history = next.history;
+        dependencies = next.dependencies;
+        tableModel = next.tableModel;
+        sorter = next.sorter;
+        if (taskTable == null) {
+            return; // initUI builds the table around it
+        }
+        taskTable.setRowSorter(null); // so the outgoing sorter is not rebuilt against the new model
+        taskTable.setModel(tableModel);
+        taskTable.setRowSorter(sorter);
+        if (next.stale) {
+            sorter.allRowsChanged();
+            next.stale = false;
+        }
+        installRenderers();
+        updatingFilters = true;
+        try {
+            updateCategoryComboBoxes();
+            updateMemberComboBoxes();
+        } finally {
+            updatingFilters = false;
+        }
+        deadlineLabel.setText(" ");
+        searchRanks = null;
+        runSearch(); // applies the search text and the filters to this board
+    }
+
+    private void installRenderers() {
+        taskTable.setDefaultRenderer(Object.class, session.rowRenderer);
+        taskTable.getColumnModel().getColumn(7).setCellRenderer(session.progressRenderer);
+    }
+
+    private static String boardTitle(BoardManager.Board board) {
+        return TITLE + " - " + board.getName() + (board.getJournal().getFailure() != null ? " (not saving)" : "");
+    }
+
+    // The board's journal stopped: its changes no longer reach the disk, so offer to export them
+    private void showJournalFailure(BoardManager.Board board, IOException error) {
+        String message = "Changes to board '" + board.getName() + "' can no longer be saved:\n" + error.getMessage()
+                + "\n\nEdits made from now on are lost when the board is closed or the application exits.";
+        if (boards.getCurrent() != board) {
+            JOptionPane.showMessageDialog(this, message, "Save Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        setTitle(boardTitle(board));
+        Object[] options = {"Export Now...", "Keep Working"};
+        int choice = JOptionPane.showOptionDialog(this, message + "\nExport the board to keep them.", "Save Error",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.ERROR_MESSAGE, null, options, options[0]);
+        if (choice == 0) {
+            exportTasks();
+        }
+    }
+
+    private void switchBoard(String name) {
+        AppMetrics.Span span = SWITCH_TIME.time();
+        try {
+            BoardManager.Board board = boards.open(name);
+            BoardSession next = sessions.get(board);
+            if (next == null) {
+                next = new BoardSession(board.getRepository(), board);
+                sessions.put(board, next);
+            }
+            showSession(next);
+            setTitle(boardTitle(board));
+        } catch (IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Could not open board '" + name + "':\n" + e.getMessage(), "Load Error", JOptionPane.ERROR_MESSAGE);
+        } finally {
+            span.close();
+            updateBoardSelector();
+        }
+    }
+
+    private void createBoard() {
+        String name = JOptionPane.showInputDialog(this, "Enter the new board's name:", "New Board", JOptionPane.PLAIN_MESSAGE);
+        if (name == null || name.trim().isEmpty()) {
+            return;
+        }
+        name = name.trim();
+        if (!boards.isValidName(name)) {
+            JOptionPane.showMessageDialog(this, "Board names can only contain letters, digits, spaces, '-' and '_'.", "Invalid Name", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        switchBoard(name); // opening a board that does not exist creates it
+    }
+
+    // Replaces the model instead of the items, so refilling fires no selection events
+    private void updateBoardSelector() {
+        DefaultComboBoxModel<String> names = new DefaultComboBoxModel<>();
+        if (boards == null) {
+            names.addElement(remoteBoard != null ? "Shared board" : BoardManager.DEFAULT_BOARD);
+        } else {
+            try {
+                names.addAll(boards.getBoardNames());
+            } catch (IOException e) {
+                names.addElement(boards.getCurrent().getName());
+            }
+            names.setSelectedItem(boards.getCurrent().getName());
+        }
+        boardSelector.setModel(names);
+        boardSelector.setEnabled(boards != null);
+        newBoardButton.setEnabled(boards != null);
+    }
+
+    static Path dataDirectory() {
+        String dir = System.getProperty("todolist.dir");
+        return dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".todolist");
+    }
+
+    private void initializeData() {
+        Arrays.asList(Category.of("GUI"), Category.of("System Modeling"), Category.of("Documentation"), Category.of("Testing")).forEach(repository::addCategory);
+        repository.addMember(GroupLeader.of("Dr. Smith (Leader)"));
+        repository.addMember(GroupMember.of("Alice"));
+        repository.addMember(GroupMember.of("Bob"));
+
+        List<Category> categoryList = repository.getCategories();
+        List<GroupMember> memberList = repository.getMembers();
+        repository.add(new Task("Design Main Frame", "Design layout using Swing.", LocalDate.now().plusDays(5), Priority.HIGH, categoryList.get(0), memberList.get(1)));
+        repository.add(new Task("Create Class Diagram", "Draw UML class diagram.", LocalDate.now().plusDays(2), Priority.HIGH, categoryList.get(1), memberList.get(2)));
+        repository.add(new Task("Write User Manual", "Document user features.", LocalDate.now().plusDays(10), Priority.MEDIUM, categoryList.get(2), memberList.get(1)));
+        repository.add(new Task("Implement Button Listeners", "Add listeners to UI buttons.", LocalDate.now().plusDays(7), Priority.MEDIUM, categoryList.get(0), null));
+
+        repository.getTaskAt(0).setProgressPercent(50);
+        repository.getTaskAt(0).setStatus(Status.IN_PROGRESS);
+        repository.getTaskAt(2).setProgressPercent(100);
+        repository.getTaskAt(2).setStatus(Status.COMPLETED);
+    }
+
+    private void initUI() {
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+
+        JPanel controlPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttonPanel.setBorder(BorderFactory.createTitledBorder("Management"));
+        JButton addButton = new JButton("Add Task");
+        addButton.addActionListener(e -> showTaskDialog(null));
+        JButton updateButton = new JButton("Update Task");
+        updateButton.addActionListener(e -> updateSelectedTask());
+        JButton deleteButton = new JButton("Delete Task");
+        deleteButton.addActionListener(e -> deleteSelectedTask());
+        JButton manageCategoriesButton = new JButton("Manage Categories");
+        manageCategoriesButton.addActionListener(e -> showManageCategoriesDialog());
+        JButton viewWorkloadButton = new JButton("View Workload");
+        JButton dashboardButton = new JButton("Dashboard");
+        dashboardButton.addActionListener(e -> showDashboardDialog());
+        JButton importButton = new JButton("Import...");
+        importButton.addActionListener(e -> importTasks());
+        JButton exportButton = new JButton("Export...");
+        exportButton.addActionListener(e -> exportTasks());
+        JButton undoButton = new JButton("Undo");
+        undoButton.addActionListener(e -> undoOrRedo(false));
+        JButton redoButton = new JButton("Redo");
+        redoButton.addActionListener(e -> undoOrRedo(true));
+        JButton dependenciesButton = new JButton("Prerequisites");
+        dependenciesButton.addActionListener(e -> showDependenciesDialog());
+        JButton historyButton = new JButton("History");
+        historyButton.addActionListener(e -> showHistoryDialog());
+        JButton recurringButton = new JButton("Recurring...");
+        recurringButton.addActionListener(e -> showRecurringDialog());
+        InputMap keys = getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        keys.put(KeyStroke.getKeyStroke("control Z"), "undo");
+        keys.put(KeyStroke.getKeyStroke("control Y"), "redo");
+        getRootPane().getActionMap().put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) { undoOrRedo(false); }
+        });
+        getRootPane().getActionMap().put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) { undoOrRedo(true); }
+        });
+        JButton manageMembersButton = new JButton("Manage Members");
+        manageMembersButton.addActionListener(e -> showManageMembersDialog());
+        buttonPanel.add(manageMembersButton);
+        viewWorkloadButton.addActionListener(e -> showWorkloadDialog());
+        buttonPanel.add(addButton);
+        buttonPanel.add(updateButton);
+        buttonPanel.add(deleteButton);
+        buttonPanel.add(undoButton);
+        buttonPanel.add(redoButton);
+        buttonPanel.add(historyButton);
+        buttonPanel.add(dependenciesButton);
+        buttonPanel.add(recurringButton);
+        buttonPanel.add(manageCategoriesButton);
+        buttonPanel.add(viewWorkloadButton);
+        buttonPanel.add(dashboardButton);
+        buttonPanel.add(importButton);
+        buttonPanel.add(exportButton);
+        gbc.gridx = 0; gbc.gridy = 0;
+        controlPanel.add(buttonPanel, gbc);
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.setBorder(BorderFactory.createTitledBorder("Filters"));
+        categoryFilter = new JComboBox<>();
+        
+        
+        // --- FIX 1: Update how the status filter is created ---
+        statusFilter = new JComboBox<>();
+        statusFilter.addItem("All");
+        for (Status status : Status.values()) {
+            statusFilter.addItem(status);
+        }
+        
+        priorityFilter = new JComboBox<>();
+        priorityFilter.addItem("All");
+        for (Priority priority : Priority.values()) {
+            priorityFilter.addItem(priority);
+        }
+
+        assigneeFilter = new JComboBox<>();
+        dueFromFilter = new JTextField(8);
+        dueToFilter = new JTextField(8);
+        minProgressFilter = new JSpinner(new SpinnerNumberModel(0, 0, 100, 10));
+        maxProgressFilter = new JSpinner(new SpinnerNumberModel(100, 0, 100, 10));
+        
+        searchField = new JTextField(12);
+        
+        updateCategoryComboBoxes();
+        updateMemberComboBoxes();
+        filterPanel.add(new JLabel("Search:"));
+        filterPanel.add(searchField);
+        filterPanel.add(new JLabel("Category:"));
+        filterPanel.add(categoryFilter);
+        filterPanel.add(new JLabel("Status:"));
+        filterPanel.add(statusFilter);
+        filterPanel.add(new JLabel("Priority:"));
+        filterPanel.add(priorityFilter);
+        filterPanel.add(new JLabel("Assigned To:"));
+        filterPanel.add(assigneeFilter);
+        filterPanel.add(new JLabel("Due from:"));
+        filterPanel.add(dueFromFilter);
+        filterPanel.add(new JLabel("to:"));
+        filterPanel.add(dueToFilter);
+        filterPanel.add(new JLabel("Progress:"));
+        filterPanel.add(minProgressFilter);
+        filterPanel.add(new JLabel("-"));
+        filterPanel.add(maxProgressFilter);
+        gbc.gridx = 1; gbc.gridy = 0; gbc.weightx = 1.0; gbc.anchor = GridBagConstraints.WEST;
+        controlPanel.add(filterPanel, gbc);
+
+        JPanel boardPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        boardPanel.setBorder(BorderFactory.createTitledBorder("Board"));
+        boardSelector = new JComboBox<>();
+        boardSelector.addActionListener(e -> {
+            Object name = boardSelector.getSelectedItem();
+            if (boards != null && name != null && !name.equals(boards.getCurrent().getName())) {
+                switchBoard((String) name);
+            }
+        });
+        newBoardButton = new JButton("New Board...");
+        newBoardButton.addActionListener(e -> createBoard());
+        updateBoardSelector();
+        boardPanel.add(boardSelector);
+        boardPanel.add(newBoardButton);
+        gbc.gridx = 0; gbc.gridy = 1; gbc.gridwidth = 2;
+        controlPanel.add(boardPanel, gbc);
+
+        mainPanel.add(controlPanel, BorderLayout.NORTH);
+
+        taskTable = new JTable(tableModel);
+        taskTable.setRowSorter(sorter);
+        taskTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        taskTable.setRowHeight(25);
+        taskTable.getTableHeader().setFont(new Font("SansSerif", Font.BOLD, 14));
+        installRenderers();
+        mainPanel.add(new JScrollPane(taskTable), BorderLayout.CENTER);
+
+        Action applyFilters = new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) { applyTableFilters(); }
+        };
+        categoryFilter.addActionListener(applyFilters);
+        statusFilter.addActionListener(applyFilters);
+        priorityFilter.addActionListener(applyFilters);
+        assigneeFilter.addActionListener(applyFilters);
+        dueFromFilter.addActionListener(applyFilters);
+        dueToFilter.addActionListener(applyFilters);
+        minProgressFilter.addChangeListener(e -> applyTableFilters());
+        maxProgressFilter.addChangeListener(e -> applyTableFilters());
+
+        // Search once the user pauses typing
+        searchTimer = new Timer(150, e -> runSearch());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { searchTyped(); }
+            @Override public void removeUpdate(DocumentEvent e) { searchTyped(); }
+            @Override public void changedUpdate(DocumentEvent e) { searchTyped(); }
+        });
+
+        deadlineLabel = new JLabel(" ");
+        mainPanel.add(deadlineLabel, BorderLayout.SOUTH);
+
+        add(mainPanel);
+    }
+
+    private void applyTableFilters() {
+        if (updatingFilters) {
+            return;
+        }
+        AppMetrics.Span span = FILTER_TIME.time();
+        try {
+            List<TaskFilter> filters = new ArrayList<>();
+        
+            Map<Long, Integer> ranks = searchRanks;
+            if (ranks != null) {
+                filters.add(task -> ranks.containsKey(task.getId()));
+            }
+
+            Object selectedCategory = categoryFilter.getSelectedItem();
+            if (selectedCategory instanceof Category) {
+                filters.add(TaskFilter.category((Category) selectedCategory));
+            }
+
+            Object selectedStatusItem = statusFilter.getSelectedItem();
+            if (selectedStatusItem instanceof Status) {
+                filters.add(TaskFilter.status((Status) selectedStatusItem));
+            }
+
+            Object selectedPriority = priorityFilter.getSelectedItem();
+            if (selectedPriority instanceof Priority) {
+                filters.add(TaskFilter.priority((Priority) selectedPriority));
+            }
+
+            Object selectedAssignee = assigneeFilter.getSelectedItem();
+            if (selectedAssignee instanceof GroupMember) {
+                filters.add(TaskFilter.assignedTo((GroupMember) selectedAssignee));
+            } else if (UNASSIGNED.equals(selectedAssignee)) {
+                filters.add(TaskFilter.assignedTo(null));
+            }
+
+            filters.add(TaskFilter.dueBetween(parseFilterDate(dueFromFilter), parseFilterDate(dueToFilter)));
+            filters.add(TaskFilter.progressBetween((Integer) minProgressFilter.getValue(), (Integer) maxProgressFilter.getValue()));
+        
+            TaskFilter filter = TaskFilter.allOf(filters);
+            sorter.setFilter(filter, ranks == null ? null : task -> ranks.getOrDefault(task.getId(), Integer.MAX_VALUE));
+        } finally {
+            span.close();
+        }
+    }
+
+    // Shows the latest reminders; the table repaints so overdue rows get flagged
+    private void showDeadlines(List<DeadlineScheduler.Deadline> deadlines) {
+        int dueSoon = 0;
+        int overdue = 0;
+        for (DeadlineScheduler.Deadline deadline : deadlines) {
+            if (deadline.kind() == DeadlineScheduler.Kind.OVERDUE) {
+                overdue++;
+            } else {
+                dueSoon++;
+            }
+        }
+        String text;
+        if (deadlines.size() == 1) {
+            DeadlineScheduler.Deadline deadline = deadlines.get(0);
+            text = "'" + deadline.task().getTitle() + "' "
+                    + (overdue == 1 ? "is overdue" : "is due " + deadline.dueDate());
+        } else {
+            text = dueSoon + " task(s) due soon, " + overdue + " overdue";
+        }
+        deadlineLabel.setText(text);
+        taskTable.repaint();
+    }
+
+    // Repaints the rows whose blocked state changed
+    private void showBlockedTasks(List<Task> tasks) {
+        for (Task task : tasks) {
+            int row = repository.indexOf(task);
+            if (row >= 0) {
+                tableModel.fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    // The query runs once the user pauses typing
+    private void searchTyped() {
+        searchTyped = true;
+        searchTimer.restart();
+    }
+
+    // Re-runs an active search after tasks were added or their text changed, at most once per timer delay
+    private void refreshSearch() {
+        if (searchRanks != null && !searchTimer.isRunning()) {
+            searchTimer.start();
+        }
+    }
+
+    // Queries the search index off the EDT; results of outdated queries are dropped
+    private void runSearch() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            executor.cancelLatest("search");
+            searchRanks = null;
+            searchTyped = false;
+            applyTableFilters();
+            return;
+        }
+        // A newer query cancels this one, so only the latest results are applied
+        AppMetrics.Span span = SEARCH_TIME.time();
+        SearchIndex index = searchIndex;
+        executor.<Map<Long, Integer>>submitLatest("search", () -> {
+                    List<Long> ranked = index.search(query, Integer.MAX_VALUE);
+                    Map<Long, Integer> ranks = new HashMap<>(ranked.size() * 2);
+                    for (int i = 0; i < ranked.size(); i++) {
+                        ranks.put(ranked.get(i), i);
+                    }
+                    return ranks;
+                })
+                .thenAccept(ranks -> {
+                    if (index != searchIndex) {
+                        span.close();
+                        return; // the board was switched; its own search is on the way
+                    }
+                    if (searchTyped) {
+                        // A new query shows the best matches first; clicking a column sorts them
+                        searchTyped = false;
+                        sorter.setSortKeys(null);
+                    }
+                    searchRanks = ranks;
+                    applyTableFilters();
+                    span.close();
+                })
+                .exceptionally(ex -> {
+                    if (!(ex instanceof CancellationException) && !(ex.getCause() instanceof CancellationException)) {
+                        JOptionPane.showMessageDialog(this, "Search failed: " + ex.getMessage(), "Search Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                    return null;
+                });
+    }
+
+    // Blank means "no bound"; an unparseable date is ignored and shown in red
+    private LocalDate parseFilterDate(JTextField field) {
+        String text = field.getText().trim();
+        field.setForeground(UIManager.getColor("TextField.foreground"));
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException ex) {
+            field.setForeground(Color.RED);
+            return null;
+        }
+    }
+
+    private void updateSelectedTask() {
+        int selectedRow = taskTable.getSelectedRow();
+        if (selectedRow >= 0) {
+            int modelIndex = taskTable.convertRowIndexToModel(selectedRow);
+            showTaskDialog(tableModel.getTaskAt(modelIndex));
+        } else {
+            JOptionPane.showMessageDialog(this, "Please select a task to update.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+    
+    // Add this entire new method to your ToDoListApplicatonFrame class
+
+private void showManageMembersDialog() {
+    JDialog manageDialog = new JDialog(this, "Manage Group Members", true);
+    manageDialog.setSize(350, 400);
+    manageDialog.setLayout(new BorderLayout(10, 10));
+    manageDialog.setLocationRelativeTo(this);
+
+    // Create a list model to easily add/remove items from the display
+    DefaultListModel<GroupMember> listModel = new DefaultListModel<>();
+    repository.getMembers().forEach(listModel::addElement);
+    TaskRepositoryListener listUpdater = new TaskRepositoryListener() {
+        @Override
+        public void memberAdded(GroupMember member) { listModel.addElement(member); }
+
+        @Override
+        public void memberRemoved(GroupMember member) { listModel.removeElement(member); }
+    };
+    repository.addListener(listUpdater);
+
+    JList<GroupMember> memberJList = new JList<>(listModel);
+    memberJList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+    manageDialog.add(new JScrollPane(memberJList), BorderLayout.CENTER);
+
+    // --- Create Buttons ---
+    JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+    JButton addButton = new JButton("Add Member...");
+    JButton deleteButton = new JButton("Delete Selected");
+    JButton closeButton = new JButton("Close");
+
+    // --- "Add Member" Button Logic ---
+    addButton.addActionListener(e -> {
+        String name = JOptionPane.showInputDialog(manageDialog, "Enter new member's name:", "Add Member", JOptionPane.PLAIN_MESSAGE);
+        if (name != null && !name.trim().isEmpty()) {
+            GroupMember newMember = GroupMember.of(name.trim());
+            if (!repository.addMember(newMember)) { // The list and filters follow the repository events
+                JOptionPane.showMessageDialog(manageDialog, "This member already exists.", "Duplicate Member", JOptionPane.WARNING_MESSAGE);
+            }
+        }
+    });
+
+    // --- "Delete Selected" Button Logic ---
+    deleteButton.addActionListener(e -> {
+        GroupMember selectedMember = memberJList.getSelectedValue();
+        if (selectedMember == null) {
+            JOptionPane.showMessageDialog(manageDialog, "Please select a member to delete.", "Nothing Selected", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        // IMPORTANT: Safety check to see if the member is assigned to any tasks
+        boolean isMemberAssigned = repository.isMemberInUse(selectedMember);
+
+        if (isMemberAssigned) {
+            JOptionPane.showMessageDialog(manageDialog, "Cannot delete '" + selectedMember.getName() + "'.\nThey are assigned to one or more tasks.", "Deletion Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (session.recurring.isMemberInUse(selectedMember)) {
+            JOptionPane.showMessageDialog(manageDialog, "Cannot delete '" + selectedMember.getName() + "'.\nRecurring tasks are assigned to them; remove those first.", "Deletion Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        // Prevent deleting the leader
+        if (selectedMember instanceof GroupLeader) {
+             JOptionPane.showMessageDialog(manageDialog, "Cannot delete the group leader.", "Deletion Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // Confirmation dialog
+        int choice = JOptionPane.showConfirmDialog(manageDialog, "Are you sure you want to delete '" + selectedMember.getName() + "'?", "Confirm Deletion", JOptionPane.YES_NO_OPTION);
+        if (choice == JOptionPane.YES_OPTION) {
+            repository.removeMember(selectedMember); // The list and filters follow the repository events
+        }
+    });
+
+    // --- "Close" Button Logic ---
+    closeButton.addActionListener(e -> manageDialog.dispose());
+
+    buttonPanel.add(addButton);
+    buttonPanel.add(deleteButton);
+    buttonPanel.add(closeButton);
+    manageDialog.add(buttonPanel, BorderLayout.SOUTH);
+    manageDialog.setVisible(true);
+    repository.removeListener(listUpdater);
+}
+
+    private void deleteSelectedTask() {
+        int selectedRow = taskTable.getSelectedRow();
+        if (selectedRow >= 0) {
+            int modelIndex = taskTable.convertRowIndexToModel(selectedRow);
+            int choice = JOptionPane.showConfirmDialog(this, "Delete this task?", "Confirm Deletion", JOptionPane.YES_NO_OPTION);
+            if (choice == JOptionPane.YES_OPTION) {
+                AppMetrics.Span span = DELETE_TIME.time();
+                try {
+                    repository.remove(tableModel.getTaskAt(modelIndex));
+                } finally {
+                    span.close();
+                }
+                // The table keeps the model row, which now holds the task swapped into it; select the next one shown
+                int rows = taskTable.getRowCount();
+                if (rows == 0) {
+                    taskTable.clearSelection();
+                } else {
+                    int next = Math.min(selectedRow, rows - 1);
+                    taskTable.setRowSelectionInterval(next, next);
+                    taskTable.scrollRectToVisible(taskTable.getCellRect(next, 0, true));
+                }
+            }
+        } else {
+            JOptionPane.showMessageDialog(this, "Please select a task to delete.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // Reverts (or reapplies) the latest change; one that was overtaken by later edits is dropped
+    private void undoOrRedo(boolean redo) {
+        try {
+            boolean done = redo ? history.redo() : history.undo();
+            if (!done) {
+                Toolkit.getDefaultToolkit().beep();
+            }
+        } catch (StaleTaskException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage() + "\nThis change can no longer be " + (redo ? "redone." : "undone."), "Edit Conflict", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    private void showTaskDialog(Task taskToUpdate) {
+        JDialog dialog = new JDialog(this, taskToUpdate == null ? "Add Task" : "Update Task", true);
+        dialog.setSize(500, 600);
+        dialog.setLayout(new BorderLayout(10, 10));
+
+        // The version the form was filled from; saving fails if the task moved on since
+        long openedVersion = taskToUpdate == null ? 0 : taskToUpdate.getVersion();
+
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        
+        JTextField titleField = new JTextField(20);
+        JTextArea descArea = new JTextArea(5, 20);
+        JTextField dueDateField = new JTextField(10);
+        JComboBox<Priority> priorityBox = new JComboBox<>(Priority.values());
+        JComboBox<Category> categoryBox = new JComboBox<>(repository.getCategories().toArray(new Category[0]));
+        JComboBox<Status> statusBox = new JComboBox<>(Status.values());
+        JComboBox<GroupMember> memberBox = new JComboBox<>(repository.getMembers().toArray(new GroupMember[0]));
+        JSpinner progressSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 100, 1));
+        // New tasks can repeat from their due date instead
+        JComboBox<Object> repeatBox = new JComboBox<>(new Object[] {"Never", TaskTemplate.Unit.DAYS, TaskTemplate.Unit.WEEKS, TaskTemplate.Unit.MONTHS});
+        JSpinner everySpinner = new JSpinner(new SpinnerNumberModel(1, 1, 365, 1));
+        JTextField untilField = new JTextField(10);
+
+        int y = 0;
+        formPanel.add(new JLabel("Title:"), gbc(0, y)); formPanel.add(titleField, gbc(1, y++));
+        formPanel.add(new JLabel("Description:"), gbc(0, y)); formPanel.add(new JScrollPane(descArea), gbc(1, y++, true));
+        formPanel.add(new JLabel("Due Date (YYYY-MM-DD, optional):"), gbc(0, y)); formPanel.add(dueDateField, gbc(1, y++));
+        formPanel.add(new JLabel("Priority:"), gbc(0, y)); formPanel.add(priorityBox, gbc(1, y++));
+        formPanel.add(new JLabel("Category:"), gbc(0, y)); formPanel.add(categoryBox, gbc(1, y++));
+        formPanel.add(new JLabel("Assigned To:"), gbc(0, y)); formPanel.add(memberBox, gbc(1, y++));
+        formPanel.add(new JLabel("Progress (%):"), gbc(0, y)); formPanel.add(progressSpinner, gbc(1, y++));
+
+        if (taskToUpdate != null) {
+            formPanel.add(new JLabel("Status:"), gbc(0, y)); formPanel.add(statusBox, gbc(1, y));
+        } else {
+            JPanel repeatPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+            repeatPanel.add(new JLabel("every"));
+            repeatPanel.add(everySpinner);
+            repeatPanel.add(repeatBox);
+            formPanel.add(new JLabel("Repeat:"), gbc(0, y)); formPanel.add(repeatPanel, gbc(1, y++));
+            formPanel.add(new JLabel("Repeat Until (optional):"), gbc(0, y)); formPanel.add(untilField, gbc(1, y));
+        }
+
+        if (taskToUpdate != null) {
+            titleField.setText(taskToUpdate.getTitle());
+            descArea.setText(taskToUpdate.getDescription());
+            dueDateField.setText(taskToUpdate.getDueDate() == null ? "" : taskToUpdate.getDueDate().toString());
+            priorityBox.setSelectedItem(taskToUpdate.getPriority());
+            categoryBox.setSelectedItem(taskToUpdate.getCategory());
+            statusBox.setSelectedItem(taskToUpdate.getStatus());
+            memberBox.setSelectedItem(taskToUpdate.getAssignedTo());
+            progressSpinner.setValue(taskToUpdate.getProgressPercent());
+        } else {
+            dueDateField.setText(LocalDate.now().toString());
+            memberBox.setSelectedItem(null);
+        }
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton saveButton = new JButton("Save");
+        saveButton.addActionListener(e -> {
+            try {
+                String title = titleField.getText().trim();
+                if (title.isEmpty()) {
+                    JOptionPane.showMessageDialog(dialog, "Title cannot be empty.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                
+                String dueText = dueDateField.getText().trim();
+                LocalDate dueDate = dueText.isEmpty() ? null : LocalDate.parse(dueText); // blank: no due date
+                Consumer<Task> edit = task -> {
+                    task.setTitle(title);
+                    task.setDescription(descArea.getText().trim());
+                    task.setDueDate(dueDate);
+                    task.setPriority((Priority) priorityBox.getSelectedItem());
+                    task.setCategory((Category) categoryBox.getSelectedItem());
+                    task.setAssignedTo((GroupMember) memberBox.getSelectedItem());
+                    task.setProgressPercent((Integer) progressSpinner.getValue());
+                };
+
+                AppMetrics.Span span = SAVE_TIME.time();
+                try {
+                    if (taskToUpdate == null) {
+                        Task task = new Task("", "", LocalDate.now(), Priority.LOW, repository.getCategories().get(0), null);
+                        edit.accept(task);
+                        if (repeatBox.getSelectedItem() instanceof TaskTemplate.Unit unit) {
+                            String until = untilField.getText().trim();
+                            session.recurring.add(TaskTemplate.of(task, (Integer) everySpinner.getValue(), unit,
+                                    until.isEmpty() ? null : LocalDate.parse(until)));
+                        } else {
+                            repository.add(task);
+                        }
+                    } else {
+                        repository.update(taskToUpdate, openedVersion, edit.andThen(
+                                task -> task.setStatus((Status) statusBox.getSelectedItem())));
+                    }
+                } finally {
+                    span.close();
+                }
+                dialog.dispose();
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(dialog, "Invalid date format. Use YYYY-MM-DD.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            } catch (StaleTaskException ex) {
+                JOptionPane.showMessageDialog(dialog, ex.getMessage() + "\nReopen the task to see the latest version.", "Edit Conflict", JOptionPane.WARNING_MESSAGE);
+                dialog.dispose();
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(dialog, ex.getMessage(), "Validation Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        buttonPanel.add(saveButton);
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> dialog.dispose());
+        buttonPanel.add(cancelButton);
+
+        dialog.add(formPanel, BorderLayout.CENTER);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+    
+    private JFileChooser createTaskFileChooser() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("CSV files (*.csv)", "csv"));
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("JSON files (*.json)", "json"));
+        return chooser;
+    }
+
+    private void importTasks() {
+        JFileChooser chooser = createTaskFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        runTransfer("Import", () -> TaskTransfer.importFile(file, repository));
+    }
+
+    private void exportTasks() {
+        JFileChooser chooser = createTaskFileChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        if (!file.getFileName().toString().contains(".")) {
+            // Use the extension of the selected filter, CSV by default
+            boolean json = chooser.getFileFilter().getDescription().startsWith("JSON");
+            file = file.resolveSibling(file.getFileName() + (json ? ".json" : ".csv"));
+        }
+        Path target = file;
+        runTransfer("Export", () -> TaskTransfer.exportFile(repository, target));
+    }
+
+    // Runs an import/export in the background and reports the throughput
+    private void runTransfer(String name, Callable<TaskTransfer.Result> transfer) {
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        AppMetrics.Span span = TRANSFER_TIME.time();
+        executor.submitToEdt(transfer).whenComplete((result, error) -> {
+            span.close();
+            setCursor(Cursor.getDefaultCursor());
+            if (error == null) {
+                StringBuilder message = new StringBuilder()
+                        .append(name).append("ed ").append(result.getRows()).append(" task(s) in ")
+                        .append(result.getElapsedMillis()).append(" ms (")
+                        .append(result.getRowsPerSecond()).append(" rows/s).");
+                if (result.getRejected() > 0) {
+                    message.append("\n\n").append(result.getRejected()).append(" record(s) were rejected:\n");
+                    result.getErrors().forEach(line -> message.append(line).append('\n'));
+                }
+                JTextArea text = new JTextArea(message.toString(), Math.min(20, 3 + result.getErrors().size()), 60);
+                text.setEditable(false);
+                JOptionPane.showMessageDialog(ToDoListApplicatonFrame.this, new JScrollPane(text), name + " Finished", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(ToDoListApplicatonFrame.this, name + " failed:\n" + error.getMessage(), name + " Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+    }
+
+    // Publishes board gauges; the counts are kept on the EDT and read from any thread
+    private void registerMetrics() {
+        AppMetrics.gauge("tasks.total", () -> session.repository.size());
+        for (Status status : Status.values()) {
+            AppMetrics.gauge("tasks." + status.name().toLowerCase(Locale.ROOT), () -> session.byStatus.get(status.ordinal()));
+        }
+    }
+
+    private GridBagConstraints gbc(int x, int y, boolean fillBoth) {
+        GridBagConstraints g = gbc(x, y);
+        if (fillBoth) {
+            g.fill = GridBagConstraints.BOTH;
+            g.weightx = 1.0;
+            g.weighty = 1.0;
+        }
+        return g;
+    }
+    private GridBagConstraints gbc(int x, int y) {
+        GridBagConstraints g = new GridBagConstraints();
+        g.gridx = x;
+        g.gridy = y;
+        g.insets = new Insets(5, 5, 5, 5);
+        g.anchor = GridBagConstraints.WEST;
+        g.fill = GridBagConstraints.HORIZONTAL;
+        if(x == 1) g.weightx = 1.0;
+        return g;
+    }
+
+    private void showWorkloadDialog() {
+        JDialog workloadDialog = new JDialog(this, "Member Workload", true);
+        workloadDialog.setSize(550, 300);
+        workloadDialog.setLocationRelativeTo(this);
+        
+        StringBuilder workloadText = new StringBuilder("Member Workload Summary:\n\n");
+        
+        Map<GroupMember, WorkloadService.Workload> workloads = workloadService.getSnapshot();
+        for (WorkloadService.Workload workload : workloads.values()) {
+            if (workload.getMember() == null) {
+                continue;
+            }
+            workloadText.append("▶ ").append(workload.getMember().getName()).append(": ")
+                        .append(workload.getTaskCount()).append(" task(s)");
+            if (workload.getTaskCount() > 0) {
+                workloadText.append(", ").append(workload.getCount(Status.COMPLETED)).append(" completed, ")
+                            .append(workload.getOverdueCount()).append(" overdue, avg. ")
+                            .append(workload.getAverageProgress()).append("%");
+            }
+            workloadText.append("\n");
+        }
+        
+        WorkloadService.Workload unassigned = workloads.get(null);
+        workloadText.append("\n▶ Unassigned: ").append(unassigned.getTaskCount()).append(" task(s)");
+        
+        JTextArea textArea = new JTextArea(workloadText.toString());
+        textArea.setEditable(false);
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        textArea.setMargin(new Insets(10, 10, 10, 10));
+        
+        workloadDialog.add(new JScrollPane(textArea));
+        workloadDialog.setVisible(true);
+    }
+
+    private void showDashboardDialog() {
+        if (!dashboard.isReady()) {
+            // Still aggregating the board; open once the totals are in
+            DashboardAnalytics computing = dashboard;
+            dashboard.recompute().thenRun(() -> {
+                if (dashboard == computing) {
+                    showDashboardDialog();
+                }
+            });
+            return;
+        }
+        JDialog dashboardDialog = new JDialog(this, "Project Dashboard", true);
+        dashboardDialog.setSize(550, 450);
+        dashboardDialog.setLocationRelativeTo(this);
+
+        DashboardAnalytics.Dashboard figures = dashboard.getDashboard();
+        StringBuilder text = new StringBuilder("Project Dashboard (").append(figures.getTaskCount()).append(" tasks)\n\n");
+
+        text.append("Status:\n");
+        figures.getStatusDistribution().forEach((status, count) ->
+                text.append("  ").append(status).append(": ").append(count).append("\n"));
+
+        text.append("\nCompletion by category:\n");
+        figures.getCompletionRates().forEach((category, rate) ->
+                text.append("  ").append(category == null ? "(none)" : category.getName()).append(": ")
+                    .append(Math.round(rate * 100)).append("%\n"));
+
+        text.append("\nAverage progress by member:\n");
+        figures.getAverageProgress().forEach((member, progress) ->
+                text.append("  ").append(member == null ? UNASSIGNED : member.getName()).append(": ")
+                    .append(Math.round(progress)).append("%\n"));
+
+        text.append("\nOverdue by priority:\n");
+        figures.getOverdueCounts().forEach((priority, count) ->
+                text.append("  ").append(priority).append(": ").append(count).append("\n"));
+
+        text.append("\nOpen tasks remaining by due date:\n");
+        figures.getBurndown().forEach((date, remaining) ->
+                text.append("  ").append(date).append(": ").append(remaining).append("\n"));
+
+        JTextArea textArea = new JTextArea(text.toString());
+        textArea.setEditable(false);
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        textArea.setMargin(new Insets(10, 10, 10, 10));
+        textArea.setCaretPosition(0);
+
+        dashboardDialog.add(new JScrollPane(textArea));
+        dashboardDialog.setVisible(true);
+    }
+
+    private void showHistoryDialog() {
+        int selectedRow = taskTable.getSelectedRow();
+        if (selectedRow < 0) {
+            JOptionPane.showMessageDialog(this, "Please select a task to show its history.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        Task task = tableModel.getTaskAt(taskTable.convertRowIndexToModel(selectedRow));
+        JDialog historyDialog = new JDialog(this, "Task History", true);
+        historyDialog.setSize(650, 450);
+        historyDialog.setLocationRelativeTo(this);
+
+        StringBuilder text = new StringBuilder("History of \"").append(task.getTitle()).append("\"\n");
+        for (TaskHistory.Revision revision : history.getRevisionsOf(task.getId())) {
+            text.append("\n").append(revision.getTime().atZone(ZoneId.systemDefault()).toLocalDateTime().withNano(0));
+            if (revision.getActor() != null) {
+                text.append("  ").append(revision.getActor().getName());
+            }
+            if (revision.getOrigin() != TaskHistory.Origin.EDIT) {
+                text.append("  (").append(revision.getOrigin().name().toLowerCase(Locale.ROOT)).append(")");
+            }
+            text.append("\n");
+            for (TaskHistory.Change change : revision.getChangesTo(task.getId())) {
+                if (change.field() == null) {
+                    text.append("  ").append(change.kind() == TaskHistory.Kind.ADDED ? "Created" : "Deleted").append("\n");
+                } else if (change.kind() == TaskHistory.Kind.EDITED) {
+                    text.append("  ").append(change.field()).append(": ").append(change.oldValue())
+                        .append(" -> ").append(change.newValue()).append("\n");
+                }
+            }
+        }
+
+        JTextArea textArea = new JTextArea(text.toString());
+        textArea.setEditable(false);
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        textArea.setMargin(new Insets(10, 10, 10, 10));
+        textArea.setCaretPosition(0);
+
+        historyDialog.add(new JScrollPane(textArea));
+        historyDialog.setVisible(true);
+    }
+
+    // Edits the prerequisites of the selected task; candidates are the tasks the filters show
+    private void showDependenciesDialog() {
+        int selectedRow = taskTable.getSelectedRow();
+        if (selectedRow < 0) {
+            JOptionPane.showMessageDialog(this, "Please select a task to edit its prerequisites.", "No Task Selected", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        Task task = tableModel.getTaskAt(taskTable.convertRowIndexToModel(selectedRow));
+        List<Task> candidates = new ArrayList<>();
+        for (int row = 0; row < taskTable.getRowCount(); row++) {
+            Task candidate = tableModel.getTaskAt(taskTable.convertRowIndexToModel(row));
+            if (candidate != task) {
+                candidates.add(candidate);
+            }
+        }
+
+        JDialog dialog = new JDialog(this, "Prerequisites of " + task.getTitle(), true);
+        dialog.setSize(500, 400);
+        dialog.setLayout(new BorderLayout(10, 10));
+        dialog.setLocationRelativeTo(this);
+
+        DefaultListCellRenderer titles = new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list, value == null ? "" : ((Task) value).getTitle(), index, isSelected, cellHasFocus);
+            }
+        };
+        JTextArea summary = new JTextArea(boards == null ? 4 : 3, 40);
+        summary.setEditable(false);
+        summary.setOpaque(false);
+        summary.setMargin(new Insets(10, 10, 0, 10));
+        DefaultListModel<Task> listModel = new DefaultListModel<>();
+        Runnable refresh = () -> {
+            listModel.clear();
+            dependencies.getPrerequisites(task).forEach(listModel::addElement);
+            LocalDate finish = dependencies.getEarliestFinish(task);
+            StringJoiner path = new StringJoiner(" -> ");
+            dependencies.getCriticalPath(task).forEach(step -> path.add(step.getTitle()));
+            summary.setText((dependencies.isBlocked(task) ? "Blocked" : "Not blocked")
+                    + "\nEarliest finish: " + (finish == null ? "-" : finish)
+                    + "\nCritical path: " + path
+                    + (boards == null ? "\nPrerequisites on this board are not saved; they last until the window is closed." : ""));
+        };
+        refresh.run();
+        JList<Task> prerequisiteList = new JList<>(listModel);
+        prerequisiteList.setCellRenderer(titles);
+        dialog.add(summary, BorderLayout.NORTH);
+        dialog.add(new JScrollPane(prerequisiteList), BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton addButton = new JButton("Add...");
+        JButton removeButton = new JButton("Remove");
+        JButton closeButton = new JButton("Close");
+
+        addButton.addActionListener(e -> {
+            JComboBox<Task> choices = new JComboBox<>(candidates.toArray(new Task[0]));
+            choices.setRenderer(titles);
+            choices.setPrototypeDisplayValue(task); // sizing by prototype avoids measuring every task
+            int choice = JOptionPane.showConfirmDialog(dialog, choices, "Add Prerequisite", JOptionPane.OK_CANCEL_OPTION);
+            if (choice == JOptionPane.OK_OPTION && choices.getSelectedItem() != null) {
+                try {
+                    dependencies.addDependency((Task) choices.getSelectedItem(), task);
+                    refresh.run();
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(dialog, ex.getMessage(), "Cannot Add Prerequisite", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+
+        removeButton.addActionListener(e -> {
+            Task selected = prerequisiteList.getSelectedValue();
+            if (selected != null) {
+                dependencies.removeDependency(selected, task);
+                refresh.run();
+            } else {
+                JOptionPane.showMessageDialog(dialog, "Please select a prerequisite to remove.", "Nothing Selected", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+
+        closeButton.addActionListener(e -> dialog.dispose());
+
+        buttonPanel.add(addButton);
+        buttonPanel.add(removeButton);
+        buttonPanel.add(closeButton);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+        dialog.setVisible(true);
+    }
+
+    private void showRecurringDialog() {
+        RecurringTasks recurring = session.recurring;
+        JDialog dialog = new JDialog(this, "Recurring Tasks", true);
+        dialog.setSize(500, 400);
+        dialog.setLayout(new BorderLayout(10, 10));
+        dialog.setLocationRelativeTo(this);
+
+        JLabel summary = new JLabel("Occurrences are added " + recurring.getHorizonDays() + " days ahead. Add a recurring task with \"Add Task\".");
+        summary.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        DefaultListModel<TaskTemplate> listModel = new DefaultListModel<>();
+        recurring.getTemplates().forEach(listModel::addElement);
+        JList<TaskTemplate> templateList = new JList<>(listModel);
+        templateList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                TaskTemplate template = (TaskTemplate) value;
+                return super.getListCellRendererComponent(list, template.title() + " - " + template.describeRule(), index, isSelected, cellHasFocus);
+            }
+        });
+        dialog.add(summary, BorderLayout.NORTH);
+        dialog.add(new JScrollPane(templateList), BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton removeButton = new JButton("Stop Repeating");
+        JButton closeButton = new JButton("Close");
+
+        removeButton.addActionListener(e -> {
+            TaskTemplate selected = templateList.getSelectedValue();
+            if (selected != null) {
+                // The occurrences already on the board are kept
+                recurring.remove(selected);
+                listModel.removeElement(selected);
+            } else {
+                JOptionPane.showMessageDialog(dialog, "Please select a recurring task.", "Nothing Selected", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+
+        closeButton.addActionListener(e -> dialog.dispose());
+
+        buttonPanel.add(removeButton);
+        buttonPanel.add(closeButton);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+        dialog.setVisible(true);
+    }
+
+    private void showManageCategoriesDialog() {
+        JDialog manageDialog = new JDialog(this, "Manage Categories", true);
+        manageDialog.setSize(350, 400);
+        manageDialog.setLayout(new BorderLayout(10, 10));
+        manageDialog.setLocationRelativeTo(this);
+
+        DefaultListModel<Category> listModel = new DefaultListModel<>();
+        repository.getCategories().forEach(listModel::addElement);
+        TaskRepositoryListener listUpdater = new TaskRepositoryListener() {
+            @Override
+            public void categoryAdded(Category category) { listModel.addElement(category); }
+
+            @Override
+            public void categoryRemoved(Category category) { listModel.removeElement(category); }
+        };
+        repository.addListener(listUpdater);
+        JList<Category> categoryJList = new JList<>(listModel);
+        manageDialog.add(new JScrollPane(categoryJList), BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton addButton = new JButton("Add...");
+        JButton deleteButton = new JButton("Delete");
+        JButton closeButton = new JButton("Close");
+
+        addButton.addActionListener(e -> {
+            String name = JOptionPane.showInputDialog(manageDialog, "Category Name:");
+            if (name != null && !name.trim().isEmpty()) {
+                Category newCategory = Category.of(name.trim());
+                if (!repository.addCategory(newCategory)) {
+                    JOptionPane.showMessageDialog(manageDialog, "Category exists.", "Duplicate", JOptionPane.WARNING_MESSAGE);
+                }
+            }
+        });
+
+        deleteButton.addActionListener(e -> {
+            Category selected = categoryJList.getSelectedValue();
+            if (selected != null) {
+                boolean isUsed = repository.isCategoryInUse(selected);
+                if (isUsed) {
+                    JOptionPane.showMessageDialog(manageDialog, "Cannot delete a category that is in use.", "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (session.recurring.isCategoryInUse(selected)) {
+                    JOptionPane.showMessageDialog(manageDialog, "Cannot delete a category that recurring tasks use; remove those first.", "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    repository.removeCategory(selected);
+                }
+            } else {
+                 JOptionPane.showMessageDialog(manageDialog, "Please select a category to delete.", "Nothing Selected", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+        
+        closeButton.addActionListener(e -> manageDialog.dispose());
+        
+        buttonPanel.add(addButton);
+        buttonPanel.add(deleteButton);
+        buttonPanel.add(closeButton);
+        manageDialog.add(buttonPanel, BorderLayout.SOUTH);
+        manageDialog.setVisible(true);
+        repository.removeListener(listUpdater);
+    }
+    
+    private void updateCategoryComboBoxes() {
+        Object selected = categoryFilter.getSelectedItem();
+        categoryFilter.removeAllItems();
+        categoryFilter.addItem(ANY_FILTER);
+        repository.getCategories().forEach(categoryFilter::addItem);
+        if (selected != null) {
+            categoryFilter.setSelectedItem(selected);
+        }
+    }
+
+    private void updateMemberComboBoxes() {
+        Object selected = assigneeFilter.getSelectedItem();
+        assigneeFilter.removeAllItems();
+        assigneeFilter.addItem(ANY_FILTER);
+        assigneeFilter.addItem(UNASSIGNED);
+        repository.getMembers().forEach(assigneeFilter::addItem);
+        if (selected != null) {
+            assigneeFilter.setSelectedItem(selected);
+        }
+    }
+
+    public static void main(String[] args) {
+        EdtWatchdog.install(Long.getLong("todolist.edtBudgetMillis", EdtWatchdog.DEFAULT_BUDGET_MILLIS));
+        AppMetrics.registerMBean();
+        SwingUtilities.invokeLater(() -> {
+            if (System.getProperty("todolist.server") == null && PagedBoardView.isLarge(dataDirectory())) {
+                new PagedBoardView(dataDirectory()).setVisible(true);
+            } else {
+                new ToDoListApplicatonFrame().setVisible(true);
+            }
+        });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package todolist;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps per-member workload counters up to date from repository events, so
+ * reading the workload costs O(members) instead of a pass over every task.
+ * Unassigned tasks are counted under the {@code null} member.
+ */
+public class WorkloadService implements TaskRepositoryListener {
+
+    /** Immutable workload figures for one member at the time of the snapshot. */
+    public static final class Workload {
+        private final GroupMember member;
+        private final int taskCount;
+        private final int[] statusCounts;
+        private final int[] priorityCounts;
+        private final long progressSum;
+        private final int overdueCount;
+
+        private Workload(GroupMember member, Counters counters, int overdueCount) {
+            this.member = member;
+            this.taskCount = counters.tasks;
+            this.statusCounts = counters.statuses.clone();
+            this.priorityCounts = counters.priorities.clone();
+            this.progressSum = counters.progressSum;
+            this.overdueCount = overdueCount;
+        }
+
+        /** The member, or null for the unassigned tasks. */
+        public GroupMember getMember() { return member; }
+        public int getTaskCount() { return taskCount; }
+        public int getCount(Status status) { return statusCounts[status.ordinal()]; }
+        public int getCount(Priority priority) { return priorityCounts[priority.ordinal()]; }
+        public int getOverdueCount() { return overdueCount; }
+
+        public int getAverageProgress() {
+            return taskCount == 0 ? 0 : (int) (progressSum / taskCount);
+        }
+    }
+
+    // Mutable running totals for one member
+    private static final class Counters {
+        int tasks;
+        final int[] statuses = new int[Status.values().length];
+        final int[] priorities = new int[Priority.values().length];
+        long progressSum;
+        // Due dates (epoch day -> count) of the tasks that are not completed yet
+        final TreeMap<Long, Integer> openDueDays = new TreeMap<>();
+
+        void addDue(LocalDate dueDate, int delta) {
+            if (dueDate != null) {
+                openDueDays.merge(dueDate.toEpochDay(), delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+
+        int overdue(long today) {
+            int count = 0;
+            for (int n : openDueDays.headMap(today).values()) {
+                count += n;
+            }
+            return count;
+        }
+    }
+
+    private static final Counters EMPTY = new Counters();
+
+    private final TaskRepository repository;
+    private final Map<GroupMember, Counters> countersByMember = new HashMap<>();
+
+    public WorkloadService(TaskRepository repository) {
+        this.repository = repository;
+        for (Task task : repository.getTasks()) {
+            apply(task.getAssignedTo(), task, 1);
+        }
+        repository.addListener(this);
+    }
+
+    /**
+     * Returns the workload of every member of the board (in board order)
+     * followed by the unassigned tasks under a {@code null} key.
+     */
+    public Map<GroupMember, Workload> getSnapshot() {
+        long today = LocalDate.now().toEpochDay();
+        Map<GroupMember, Workload> snapshot = new LinkedHashMap<>();
+        for (GroupMember member : repository.getMembers()) {
+            snapshot.put(member, workloadOf(member, today));
+        }
+        snapshot.put(null, workloadOf(null, today));
+        return snapshot;
+    }
+
+    private Workload workloadOf(GroupMember member, long today) {
+        Counters counters = countersByMember.getOrDefault(member, EMPTY);
+        return new Workload(member, counters, counters.overdue(today));
+    }
+
+    // --- Repository events ---
+
+    @Override
+    public void tasksAdded(int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            Task task = repository.getTaskAt(row);
+            apply(task.getAssignedTo(), task, 1);
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task, int row, int lastRow) {
+        apply(task.getAssignedTo(), task, -1);
+    }
+
+    @Override
+    public void taskUpdated(Task task, int row, TaskField field, Object oldValue, Object newValue) {
+        Counters counters = counters(task.getAssignedTo());
+        boolean open = task.getStatus() != Status.COMPLETED;
+        switch (field) {
+            case ASSIGNED_TO:
+                apply((GroupMember) oldValue, task, -1);
+                apply((GroupMember) newValue, task, 1);
+                break;
+            case STATUS:
+                counters.statuses[((Status) oldValue).ordinal()]--;
+                counters.statuses[((Status) newValue).ordinal()]++;
+                boolean wasOpen = oldValue != Status.COMPLETED;
+                if (wasOpen != open) {
+                    counters.addDue(task.getDueDate(), open ? 1 : -1);
+                }
+                break;
+            case PRIORITY:
+                counters.priorities[((Priority) oldValue).ordinal()]--;
+                counters.priorities[((Priority) newValue).ordinal()]++;
+                break;
+            case PROGRESS:
+                counters.progressSum += (Integer) newValue - (Integer) oldValue;
+                break;
+            case DUE_DATE:
+                if (open) {
+                    counters.addDue((LocalDate) oldValue, -1);
+                    counters.addDue((LocalDate) newValue, 1);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Counters counters(GroupMember member) {
+        return countersByMember.computeIfAbsent(member, m -> new Counters());
+    }
+
+    // Adds (sign = 1) or removes (sign = -1) a task's contribution to a member
+    private void apply(GroupMember member, Task task, int sign) {
+        Counters counters = counters(member);
+        counters.tasks += sign;
+        counters.statuses[task.getStatus().ordinal()] += sign;
+        counters.priorities[task.getPriority().ordinal()] += sign;
+        counters.progressSum += sign * task.getProgressPercent();
+        if (task.getStatus() != Status.COMPLETED) {
+            counters.addDue(task.getDueDate(), sign);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package todolist;
+
+import java.io.Closeable;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The thread a board without a UI is changed on, in place of the EDT.
+ * <p>
+ * A {@link TaskRepository} created with one only accepts changes from
+ * actions run here, and its listeners are notified here. Actions run one
+ * at a time in the order they were submitted; one that throws is logged
+ * and does not stop the ones after it.
+ */
+public class WriterThread implements Closeable {
+    private static final Logger LOG = Logger.getLogger(WriterThread.class.getName());
+
+    private final ScheduledThreadPoolExecutor executor;
+    private volatile Thread thread;
+
+    public WriterThread(String name) {
+        this.executor = new ScheduledThreadPoolExecutor(1, action -> {
+            Thread created = new Thread(action, name);
+            created.setDaemon(true);
+            thread = created;
+            return created;
+        });
+    }
+
+    /** True if called from this writer thread. */
+    public boolean isCurrent() {
+        return Thread.currentThread() == thread;
+    }
+
+    /** Runs {@code action} on this thread after the actions already submitted. */
+    public void execute(Runnable action) {
+        executor.execute(() -> run(action));
+    }
+
+    /** Runs {@code action} on this thread once {@code delayMillis} have passed. */
+    public void schedule(Runnable action, long delayMillis) {
+        executor.schedule(() -> run(action), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void run(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LOG.log(Level.SEVERE, "Writer action failed", e);
+        }
+    }
+
+    /** Runs the actions already submitted, then stops; new ones are rejected. */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}